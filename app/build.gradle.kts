@@ -239,6 +239,8 @@ dependencies /* MIME */ {
 
 dependencies /* Test */ {
     testImplementation("junit:junit:4.13.2")
+    // The org.json classes of android.jar are stubs, which local unit tests exporting JSON need implemented.
+    testImplementation("org.json:json:20240303")
     androidTestImplementation("androidx.test:runner:1.6.2")
     androidTestImplementation("org.junit.jupiter:junit-jupiter:5.10.3")
 }
@@ -564,6 +566,18 @@ android {
         getByName("debug") {
             java.srcDirs("src/debug/java")
         }
+        getByName("test") {
+            // @Hint by agent on Oct 19, 2026.
+            //  ! Benchmarks are only compiled and run on demand, e.g. "gradlew testAppDebugUnitTest -Pbenchmarks",
+            //  ! and append their results to "build/reports/benchmarks/results.txt" instead of asserting on timings.
+            //  ! zh-CN:
+            //  ! 基准测试仅在按需时编译及运行, 例如 "gradlew testAppDebugUnitTest -Pbenchmarks",
+            //  ! 其结果将追加至 "build/reports/benchmarks/results.txt", 而非对耗时进行断言.
+            if (project.hasProperty("benchmarks")) {
+                java.srcDirs("src/benchmark/java")
+                resources.srcDirs("src/benchmark/resources")
+            }
+        }
         getByName(flavorNameApp) {
             assets.srcDirs("src/main/assets-$flavorNameApp")
         }
@@ -960,6 +974,14 @@ android {
         abortOnError = false
     }
 
+    testOptions {
+        // @Hint by agent on Oct 19, 2026.
+        //  ! Local unit tests run against the stub android.jar, whose methods throw by default,
+        //  ! so that classes merely logging with android.util.Log could not be tested on the JVM.
+        //  ! zh-CN: 本地单元测试基于桩 android.jar 运行, 其方法默认抛出异常, 导致仅使用 android.util.Log 记录日志的类也无法在 JVM 上测试.
+        unitTests.isReturnDefaultValues = true
+    }
+
     signingConfigs {
         if (sign.isValid) {
             create(buildTypeRelease) {
@@ -0,0 +1,103 @@
+package org.autojs.autojs.engine
+
+import org.autojs.autojs.AutoJs
+import org.autojs.autojs.core.pref.Pref
+import org.autojs.autojs.execution.ExecutionConfig
+import org.autojs.autojs.execution.ScriptExecution
+import org.autojs.autojs.execution.ScriptExecutionListener
+import org.autojs.autojs.script.StringScriptSource
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+/**
+ * Two short scripts run one after another on standby engines of the [ScriptEnginePool] of the app,
+ * where the second one must not see any global, timer or event listener left by the first one.
+ *
+ * zh-CN: 两个简短脚本依次运行于应用 [ScriptEnginePool] 的备用引擎上, 第二个脚本不应看到第一个脚本遗留的任何全局变量, 定时器或事件监听器.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+class ScriptEnginePoolIsolationTest {
+
+    private class Completion : ScriptExecutionListener {
+
+        val latch = CountDownLatch(1)
+
+        @Volatile
+        var result: Any? = null
+
+        override fun onStart(execution: ScriptExecution) = Unit
+
+        override fun onSuccess(execution: ScriptExecution, result: Any?) {
+            this.result = result
+            latch.countDown()
+        }
+
+        override fun onException(execution: ScriptExecution, e: Throwable) = latch.countDown()
+
+    }
+
+    private val service get() = AutoJs.instance.scriptEngineService
+    private val pool get() = service.enginePool
+
+    private var mWasPoolEnabled = false
+
+    @Before
+    fun setUp() {
+        mWasPoolEnabled = Pref.isScriptEnginePoolEnabled
+        Pref.isScriptEnginePoolEnabled = true
+        pool.prewarm()
+    }
+
+    @After
+    fun tearDown() {
+        Pref.isScriptEnginePoolEnabled = mWasPoolEnabled
+        if (!mWasPoolEnabled) pool.clear()
+    }
+
+    private fun runOnStandbyEngine(name: String, script: String): Pair<ScriptExecution, Any?> {
+        val deadline = System.currentTimeMillis() + 10_000
+        while (pool.stats().standby < 1) {
+            check(System.currentTimeMillis() < deadline) { "Standby engine is not ready" }
+            Thread.sleep(5)
+        }
+        val completion = Completion()
+        val execution = service.execute(StringScriptSource(name, script), completion, ExecutionConfig())
+        assertTrue("$name did not finish", completion.latch.await(10, TimeUnit.SECONDS))
+        return execution to completion.result
+    }
+
+    @Test
+    fun secondScriptSeesNothingLeftByTheFirst() {
+        val hits = pool.stats().hits
+        val (first, _) = runOnStandbyEngine(
+            "leaking.js", """
+                var leakedVariable = 1;
+                this.leakedProperty = 2;
+                events.on('leak', function () {});
+                setInterval(function () {}, 1000);
+                exit();
+            """.trimIndent()
+        )
+        val (second, result) = runOnStandbyEngine(
+            "inspecting.js", """
+                [
+                    typeof leakedVariable,
+                    typeof leakedProperty,
+                    events.listenerCount('leak'),
+                    runtime.timers.hasPendingCallbacks(),
+                ].join();
+            """.trimIndent()
+        )
+        assertEquals("undefined,undefined,0,false", result.toString())
+        assertNotSame(first.engine, second.engine)
+        assertEquals(hits + 2, pool.stats().hits)
+    }
+
+}
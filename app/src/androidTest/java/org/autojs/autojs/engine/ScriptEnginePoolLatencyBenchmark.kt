@@ -0,0 +1,104 @@
+package org.autojs.autojs.engine
+
+import android.util.Log
+import androidx.test.platform.app.InstrumentationRegistry
+import org.autojs.autojs.AutoJs
+import org.autojs.autojs.core.pref.Pref
+import org.autojs.autojs.execution.ExecutionConfig
+import org.autojs.autojs.execution.ScriptExecution
+import org.autojs.autojs.execution.ScriptExecutionListener
+import org.autojs.autojs.script.StringScriptSource
+import org.junit.After
+import org.junit.Assert.assertTrue
+import org.junit.Assume.assumeTrue
+import org.junit.Before
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+/**
+ * End-to-end latency of short scripts on a device, from [ScriptEngineService.execute] until the script finishes,
+ * with and without the [ScriptEnginePool]. Each pooled run waits for a standby engine first,
+ * as scripts started now and then would find one.
+ *
+ * Only runs on demand, e.g. "gradlew connectedAppDebugAndroidTest -Pandroid.testInstrumentationRunnerArguments.benchmarks=true",
+ * and logs its results with the tag "Benchmark" instead of asserting on timings.
+ *
+ * zh-CN:
+ *
+ * 在设备上测量简短脚本的端到端延迟, 即从 [ScriptEngineService.execute] 至脚本结束的耗时, 分别启用及不启用 [ScriptEnginePool].
+ * 每次使用线程池的运行都将先等待备用引擎就绪, 与间歇启动的脚本所遇情况一致.
+ *
+ * 仅按需运行, 例如 "gradlew connectedAppDebugAndroidTest -Pandroid.testInstrumentationRunnerArguments.benchmarks=true",
+ * 其结果以 "Benchmark" 标签输出至日志, 而非对耗时进行断言.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+class ScriptEnginePoolLatencyBenchmark {
+
+    private val service get() = AutoJs.instance.scriptEngineService
+    private val pool get() = service.enginePool
+
+    private var mWasPoolEnabled = false
+
+    @Before
+    fun setUp() {
+        assumeTrue(InstrumentationRegistry.getArguments().getString("benchmarks") != null)
+        mWasPoolEnabled = Pref.isScriptEnginePoolEnabled
+    }
+
+    @After
+    fun tearDown() {
+        Pref.isScriptEnginePoolEnabled = mWasPoolEnabled
+        if (!mWasPoolEnabled) pool.clear()
+    }
+
+    private fun awaitStandby() {
+        val deadline = System.currentTimeMillis() + 10_000
+        while (pool.stats().standby < 1) {
+            check(System.currentTimeMillis() < deadline) { "Standby engine is not ready" }
+            Thread.sleep(5)
+        }
+    }
+
+    private fun runOnce(): Long {
+        val latch = CountDownLatch(1)
+        val listener = object : ScriptExecutionListener {
+            override fun onStart(execution: ScriptExecution) = Unit
+            override fun onSuccess(execution: ScriptExecution, result: Any?) = latch.countDown()
+            override fun onException(execution: ScriptExecution, e: Throwable) = latch.countDown()
+        }
+        val start = System.nanoTime()
+        service.execute(StringScriptSource("latency.js", "1 + 1"), listener, ExecutionConfig())
+        assertTrue(latch.await(10, TimeUnit.SECONDS))
+        return System.nanoTime() - start
+    }
+
+    private fun measure(isPoolEnabled: Boolean, rounds: Int): Long {
+        Pref.isScriptEnginePoolEnabled = isPoolEnabled
+        if (isPoolEnabled) pool.prewarm() else pool.clear()
+        var total = 0L
+        repeat(rounds + 1) { round ->
+            if (isPoolEnabled) awaitStandby()
+            val nanos = runOnce()
+            // The first run is a warm-up.
+            if (round > 0) total += nanos
+        }
+        return total / rounds
+    }
+
+    @Test
+    fun shortScriptLatency() {
+        val rounds = 20
+        val withoutPool = measure(isPoolEnabled = false, rounds)
+        val withPool = measure(isPoolEnabled = true, rounds)
+        Log.i(TAG, "ScriptEnginePool: average of $rounds short scripts, without pool ${"%.3f".format(withoutPool / 1e6)} ms, with pool ${"%.3f".format(withPool / 1e6)} ms")
+    }
+
+    companion object {
+
+        private const val TAG = "Benchmark"
+
+    }
+
+}
@@ -0,0 +1,59 @@
+package org.autojs.autojs.benchmark
+
+import java.io.File
+
+/**
+ * Helpers of the on-demand benchmarks, which are compiled into local unit tests with "-Pbenchmarks" only.
+ * Results are appended to "build/reports/benchmarks/results.txt" of the module rather than asserted on,
+ * as timings depend on the machine running them.
+ *
+ * zh-CN:
+ *
+ * 按需运行的基准测试辅助工具, 仅在指定 "-Pbenchmarks" 时编译至本地单元测试.
+ * 测试结果将追加至模块的 "build/reports/benchmarks/results.txt" 而非进行断言, 因为耗时取决于运行测试的设备.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+object Benchmark {
+
+    private val reportFile by lazy {
+        File("build/reports/benchmarks/results.txt").apply { parentFile?.mkdirs() }
+    }
+
+    /**
+     * Nanoseconds taken by [rounds] runs of [block] after [warmUpRounds] untimed runs.
+     *
+     * zh-CN: 在 [warmUpRounds] 次不计时运行之后, [block] 运行 [rounds] 次的耗时 (纳秒).
+     */
+    inline fun measure(rounds: Int, warmUpRounds: Int = rounds / 10, block: (round: Int) -> Unit): Long {
+        repeat(warmUpRounds) { block(it) }
+        val start = System.nanoTime()
+        repeat(rounds) { block(it) }
+        return System.nanoTime() - start
+    }
+
+    /**
+     * Nanoseconds taken by a single, cold run of [block].
+     *
+     * zh-CN: [block] 单次冷启动运行的耗时 (纳秒).
+     */
+    inline fun once(block: () -> Unit): Long {
+        val start = System.nanoTime()
+        block()
+        return System.nanoTime() - start
+    }
+
+    /**
+     * Append a line of labeled timings (in nanoseconds) of the benchmark [name] to the report.
+     *
+     * zh-CN: 将基准测试 [name] 的一行带标签耗时 (纳秒) 追加至报告.
+     */
+    @JvmStatic
+    @Synchronized
+    fun report(name: String, vararg timings: Pair<String, Long>) {
+        reportFile.appendText(timings.joinToString(", ", "$name: ", "\n") { (label, nanos) ->
+            "$label ${"%.3f".format(nanos / 1e6)} ms"
+        })
+    }
+
+}
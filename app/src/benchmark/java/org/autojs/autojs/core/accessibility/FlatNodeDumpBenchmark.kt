@@ -0,0 +1,35 @@
+package org.autojs.autojs.core.accessibility
+
+import org.autojs.autojs.benchmark.Benchmark
+import org.autojs.autojs.core.automator.test.TestUiObject
+import org.autojs.autojs.core.automator.test.TestUiObject.Fixture
+import org.junit.Test
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class FlatNodeDumpBenchmark {
+
+    private fun tree(fanOut: Int, depth: Int, prefix: String = "n"): Fixture = Fixture(
+        className = "android.widget.FrameLayout",
+        text = prefix,
+        children = when (depth) {
+            0 -> ArrayList()
+            else -> (0 until fanOut).mapTo(ArrayList()) { tree(fanOut, depth - 1, "$prefix.$it") }
+        },
+    )
+
+    @Test
+    fun captureTenThousandNodes() {
+        val root = TestUiObject(tree(10, 4))
+        val rounds = 20
+        lateinit var dump: FlatNodeDump
+        val capture = Benchmark.measure(rounds) { dump = FlatNodeDump.capture(root) }
+        var total = 0
+        val walk = Benchmark.measure(rounds) {
+            for (node in 0 until dump.size) total += dump.children(node).count()
+        }
+        Benchmark.report("FlatNodeDump: $rounds rounds over ${dump.size} nodes", "capture" to capture, "children walk" to walk)
+    }
+
+}
@@ -0,0 +1,28 @@
+package org.autojs.autojs.core.accessibility
+
+import org.autojs.autojs.benchmark.Benchmark
+import org.autojs.autojs.core.automator.UiObject
+import org.autojs.autojs.core.automator.test.TestUiObject
+import org.autojs.autojs.core.automator.test.TestUiObject.Fixture
+import org.junit.Test
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class WindowSearchBenchmark {
+
+    @Test
+    fun slowWindows() {
+        val windows = (0 until 4).map { window -> (0 until 5).map { "w$window-n$it" } }
+        val searcher: (List<String>, Int) -> List<UiObject> = { texts, limit ->
+            Thread.sleep(50L)
+            texts.take(limit).map { TestUiObject(Fixture(text = it)) }
+        }
+        val search = WindowSearch(parallelism = 4)
+        val rounds = 5
+        val sequential = Benchmark.measure(rounds, 0) { search.search(windows, Int.MAX_VALUE, { null }, false, searcher) }
+        val parallel = Benchmark.measure(rounds, 0) { search.search(windows, Int.MAX_VALUE, { null }, true, searcher) }
+        Benchmark.report("WindowSearch: $rounds searches of 4 windows taking 50 ms each", "sequential" to sequential, "parallel" to parallel)
+    }
+
+}
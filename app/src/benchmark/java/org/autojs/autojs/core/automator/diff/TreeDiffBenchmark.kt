@@ -0,0 +1,25 @@
+package org.autojs.autojs.core.automator.diff
+
+import org.autojs.autojs.benchmark.Benchmark
+import org.autojs.autojs.core.automator.diff.TreeSnapshot.Node
+import org.junit.Test
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class TreeDiffBenchmark {
+
+    private fun node(key: String, text: String) = Node(key, key, null, "android.widget.TextView", text, null, 0, 0, 10, 10, 1, key)
+
+    @Test
+    fun diffOfLargeSnapshots() {
+        val rounds = 20
+        val results = listOf(2_000, 20_000).map { size ->
+            val previous = TreeSnapshot((0 until size).map { node("n$it", "t$it") })
+            val current = TreeSnapshot((0 until size).map { node("n$it", if (it % 100 == 0) "changed" else "t$it") })
+            "$size nodes" to Benchmark.measure(rounds) { TreeDiff.between(previous, current) }
+        }
+        Benchmark.report("TreeDiff: $rounds diffs", *results.toTypedArray())
+    }
+
+}
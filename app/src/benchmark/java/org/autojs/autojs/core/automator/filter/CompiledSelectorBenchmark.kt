@@ -0,0 +1,31 @@
+package org.autojs.autojs.core.automator.filter
+
+import org.autojs.autojs.benchmark.Benchmark
+import org.autojs.autojs.core.automator.test.TestUiObject
+import org.junit.Before
+import org.junit.Test
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class CompiledSelectorBenchmark {
+
+    @Before
+    fun setUp() = CompiledSelector.clearCache()
+
+    @Test
+    fun queryBuiltPerIteration() {
+        val rounds = 100_000
+        // Half of the nodes fail the cheap clickable check, which is declared after the costly ones.
+        val nodes = (0 until 64).map { TestUiObject(TestUiObject.Fixture(text = "item $it", clickable = it % 2 == 0)) }
+        fun newSelector() = Selector().apply {
+            add(TextFilter.matches("item [0-9]+"))
+            add(TextFilter.startsWith("item"))
+            add(BooleanFilter[BooleanFilter.CLICKABLE, true])
+        }
+        val plain = Benchmark.measure(rounds) { newSelector().filter(nodes[it and 63]) }
+        val compiled = Benchmark.measure(rounds) { CompiledSelector.of(newSelector()).filter(nodes[it and 63]) }
+        Benchmark.report("CompiledSelector: $rounds queries built and matched", "plain" to plain, "compiled" to compiled)
+    }
+
+}
@@ -0,0 +1,45 @@
+package org.autojs.autojs.core.automator.path
+
+import org.autojs.autojs.benchmark.Benchmark
+import org.autojs.autojs.core.accessibility.UiSelector
+import org.autojs.autojs.core.automator.test.TestUiObject
+import org.autojs.autojs.core.automator.test.TestUiObject.Fixture
+import org.junit.Test
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class UiPathBenchmark {
+
+    private val wide = TestUiObject(Fixture(className = "android.widget.FrameLayout", children = MutableList(400) { i ->
+        Fixture(className = "android.widget.LinearLayout", children = MutableList(4) { j ->
+            Fixture(className = "android.widget.TextView", text = if (j == 0) "Row $i" else "Value $j")
+        })
+    }))
+
+    @Test
+    fun nestedPredicates() {
+        val path = UiPath.compile("//LinearLayout[TextView[starts-with(@text, 'Row 39')]]/TextView[last()]")
+        val rows = UiSelector(null).className("android.widget.LinearLayout")
+        val label = UiSelector(null).className("android.widget.TextView").textStartsWith("Row 39")
+        val rounds = 200
+        // The same query written as nested find() calls, as scripts do without paths.
+        val byFind = Benchmark.measure(rounds) {
+            wide.find(rows).toList().filterNotNull()
+                .filter { row -> row.find(label).isNotEmpty() }
+                .map { row -> row.child(row.childCount - 1) }
+        }
+        val byPath = Benchmark.measure(rounds) { path.find(wide) }
+        Benchmark.report("UiPath: $rounds nested predicate queries over ${400 * 5 + 1} nodes", "find" to byFind, "path" to byPath)
+    }
+
+    @Test
+    fun firstMatch() {
+        val path = UiPath.compile("//LinearLayout/TextView[@text='Row 1']")
+        val rounds = 200
+        val all = Benchmark.measure(rounds) { path.find(wide, 1) }
+        val one = Benchmark.measure(rounds) { path.findOne(wide) }
+        Benchmark.report("UiPath: $rounds first matches near the top of ${400 * 5 + 1} nodes", "find(max = 1)" to all, "findOne" to one)
+    }
+
+}
@@ -0,0 +1,28 @@
+package org.autojs.autojs.core.trace
+
+import org.autojs.autojs.benchmark.Benchmark
+import org.junit.After
+import org.junit.Test
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class TracerBenchmark {
+
+    @After
+    fun tearDown() {
+        Tracer.isEnabled = false
+        Tracer.clear()
+    }
+
+    @Test
+    fun overhead() {
+        val rounds = 10_000_000
+        var sink = 0L
+        val disabled = Benchmark.measure(rounds) { sink += Tracer.trace("span", Tracer.CATEGORY_ENGINE) { it.toLong() } }
+        Tracer.isEnabled = true
+        val enabled = Benchmark.measure(rounds) { sink += Tracer.trace("span", Tracer.CATEGORY_ENGINE) { it.toLong() } }
+        Benchmark.report("Tracer: $rounds spans (sum $sink)", "disabled" to disabled, "enabled" to enabled)
+    }
+
+}
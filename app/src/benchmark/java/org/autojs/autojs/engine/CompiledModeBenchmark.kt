@@ -0,0 +1,65 @@
+package org.autojs.autojs.engine
+
+import org.autojs.autojs.benchmark.Benchmark
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.mozilla.javascript.Context
+import org.mozilla.javascript.ScriptableObject
+
+/**
+ * Richards, DeltaBlue and Crypto workloads (see the scripts next to this class) in interpreted and compiled modes.
+ * Compiled mode is measured with instruction counting as [RhinoJavaScriptEngine] compiles scripts,
+ * and without it to show what counting costs.
+ *
+ * zh-CN:
+ *
+ * 以解释模式及编译模式运行 Richards, DeltaBlue 及 Crypto 负载 (参阅与此类同目录的脚本).
+ * 编译模式按 [RhinoJavaScriptEngine] 编译脚本的方式启用指令计数进行测量, 并另行测量不计数的情况以体现计数的开销.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+class CompiledModeBenchmark {
+
+    private lateinit var cx: Context
+    private lateinit var scope: ScriptableObject
+
+    @Before
+    fun setUp() {
+        cx = Context.enter().apply {
+            languageVersion = Context.VERSION_ES6
+            // As set by AndroidContextFactory, so that instruction counting is observed as often as in scripts.
+            instructionObserverThreshold = 10000
+        }
+        scope = cx.initStandardObjects()
+    }
+
+    @After
+    fun tearDown() = Context.exit()
+
+    private fun run(workload: String, rounds: Int) {
+        val source = javaClass.getResource("$workload.js")!!.readText()
+        fun measure(isInterpretedMode: Boolean, isGeneratingObserverCount: Boolean): Long {
+            cx.isInterpretedMode = isInterpretedMode
+            cx.isGenerateObserverCount = isGeneratingObserverCount
+            val script = cx.compileString(source, "$workload.js", 1, null)
+            return Benchmark.measure(rounds, 1) { script.exec(cx, scope) }
+        }
+        Benchmark.report(
+            "CompiledMode: $workload, $rounds runs",
+            "interpreted" to measure(isInterpretedMode = true, isGeneratingObserverCount = false),
+            "compiled" to measure(isInterpretedMode = false, isGeneratingObserverCount = true),
+            "compiled without instruction counting" to measure(isInterpretedMode = false, isGeneratingObserverCount = false),
+        )
+    }
+
+    @Test
+    fun richards() = run("richards", 20)
+
+    @Test
+    fun deltaBlue() = run("deltablue", 20)
+
+    @Test
+    fun crypto() = run("crypto", 3)
+
+}
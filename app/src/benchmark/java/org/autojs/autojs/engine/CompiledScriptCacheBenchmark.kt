@@ -0,0 +1,49 @@
+package org.autojs.autojs.engine
+
+import org.autojs.autojs.benchmark.Benchmark
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.mozilla.javascript.Context
+import org.mozilla.javascript.ScriptableObject
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class CompiledScriptCacheBenchmark {
+
+    private lateinit var cx: Context
+    private lateinit var scope: ScriptableObject
+
+    private val source = """
+        function fib(n) { return n < 2 ? n : fib(n - 1) + fib(n - 2); }
+        var s = 0;
+        for (var i = 0; i < 200000; i++) s = (s + i * 31) % 1000003;
+        fib(22) + s;
+    """.trimIndent()
+
+    @Before
+    fun setUp() {
+        CompiledScriptCache.clear()
+        cx = Context.enter()
+        scope = cx.initStandardObjects()
+    }
+
+    @After
+    fun tearDown() {
+        Context.exit()
+        CompiledScriptCache.clear()
+    }
+
+    @Test
+    fun interpretedAndCompiledModes() {
+        val rounds = 20
+        fun measure(isInterpretedMode: Boolean): Long {
+            cx.isInterpretedMode = isInterpretedMode
+            val script = CompiledScriptCache.getOrCompile(cx, source, "bench.js")
+            return Benchmark.measure(rounds) { script.exec(cx, scope) }
+        }
+        Benchmark.report("CompiledScriptCache: $rounds runs", "interpreted" to measure(true), "compiled" to measure(false))
+    }
+
+}
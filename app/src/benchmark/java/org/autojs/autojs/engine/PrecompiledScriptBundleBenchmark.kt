@@ -0,0 +1,83 @@
+package org.autojs.autojs.engine
+
+import org.autojs.autojs.benchmark.Benchmark
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.mozilla.javascript.Context
+import java.io.ByteArrayOutputStream
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class PrecompiledScriptBundleBenchmark {
+
+    private lateinit var cx: Context
+
+    @Before
+    fun setUp() {
+        cx = Context.enter().apply {
+            languageVersion = Context.VERSION_ES6
+            isInterpretedMode = true
+        }
+    }
+
+    @After
+    fun tearDown() = Context.exit()
+
+    /**
+     * Source of a module of a multi-file project, about 25 KB of functions, object literals and closures.
+     */
+    private fun moduleSource(index: Int) = (1..45).joinToString("\n", postfix = "\nmodule.exports = { run: run${index}_45 };\n") { unit ->
+        val name = "run${index}_$unit"
+        """
+        |function $name(items, options) {
+        |    var config = { id: '$name', limit: options && options.limit || $unit, tags: ['a', 'b', 'c'] };
+        |    var result = items.filter(function (item) { return item.value > config.limit; }).map(function (item) {
+        |        return { key: config.id + ':' + item.key, total: item.value * 2 + $unit };
+        |    });
+        |    for (var i = 0; i < result.length; i++) {
+        |        if (result[i].total % 3 === 0) { result[i].tag = config.tags[i % 3]; } else { result[i].tag = null; }
+        |    }
+        |    return result.length > 0 ? result : [{ key: config.id, total: 0, tag: 'empty' }];
+        |}
+        """.trimMargin()
+    }
+
+    @Test
+    fun coldLoadOfLargeProject() {
+        val sources = (1..20).associate { "modules/module$it.js" to moduleSource(it) }
+        val size = sources.values.sumOf { it.length }
+
+        // @Hint by agent on Oct 19, 2026.
+        //  ! Both timings are single runs in the order a packaged app would see them: parsing is measured
+        //  ! before the bundle is written, as writing it compiles every file and would warm up the parser.
+        //  ! zh-CN: 两项耗时均为单次运行, 顺序与打包应用中的一致: 解析在写入包之前测量, 因为写入时会编译全部文件, 从而预热解析器.
+        val parsed = Benchmark.once {
+            sources.forEach { (name, source) -> cx.compileString(source, name, 1, null) }
+        }
+        val bytes = ByteArrayOutputStream().also { os ->
+            PrecompiledScriptBundle.Writer().apply { sources.forEach { (name, source) -> add(name, source) } }.writeTo(os)
+        }.toByteArray()
+        val loaded = Benchmark.once {
+            val bundle = PrecompiledScriptBundle.read(bytes)!!
+            sources.values.forEach { bundle.find(cx, it)!! }
+        }
+        Benchmark.report(
+            "PrecompiledScriptBundle: cold load of ${sources.size} files, ${size / 1024} KB of source, ${bytes.size / 1024} KB bundle",
+            "first parse" to parsed,
+            "first bundle load" to loaded,
+        )
+    }
+
+    @Test
+    fun load() {
+        val source = (1..300).joinToString("\n") { "function f$it(a, b) { if (a > b) { return a - b; } return [a, b, '$it'].join(); }" }
+        val bytes = ByteArrayOutputStream().also { PrecompiledScriptBundle.Writer().apply { add("big.js", source) }.writeTo(it) }.toByteArray()
+        val rounds = 200
+        val compiled = Benchmark.measure(rounds) { cx.compileString(source, "big.js", 1, null) }
+        val loaded = Benchmark.measure(rounds) { PrecompiledScriptBundle.read(bytes)!!.find(cx, source)!! }
+        Benchmark.report("PrecompiledScriptBundle: $rounds loads", "compiled from source" to compiled, "from bundle" to loaded)
+    }
+
+}
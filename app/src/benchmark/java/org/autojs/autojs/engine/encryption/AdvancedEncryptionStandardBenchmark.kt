@@ -0,0 +1,31 @@
+package org.autojs.autojs.engine.encryption
+
+import org.autojs.autojs.benchmark.Benchmark
+import org.junit.Test
+import javax.crypto.Cipher
+import javax.crypto.spec.IvParameterSpec
+import javax.crypto.spec.SecretKeySpec
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class AdvancedEncryptionStandardBenchmark {
+
+    @Test
+    fun decryption() {
+        val key = "0123456789abcdef"
+        val initVector = "fedcba9876543210"
+        val aes = AdvancedEncryptionStandard(key.toByteArray(), initVector)
+        val cipherText = aes.encrypt("toast('hello');".toByteArray())
+        val rounds = 20_000
+        val perCall = Benchmark.measure(rounds) {
+            Cipher.getInstance("AES/CBC/PKCS5Padding").run {
+                init(Cipher.DECRYPT_MODE, SecretKeySpec(key.toByteArray(), "AES"), IvParameterSpec(initVector.toByteArray()))
+                doFinal(cipherText)
+            }
+        }
+        val pooled = Benchmark.measure(rounds) { aes.decrypt(cipherText) }
+        Benchmark.report("AdvancedEncryptionStandard: $rounds small decryptions", "new ciphers" to perCall, "pooled" to pooled)
+    }
+
+}
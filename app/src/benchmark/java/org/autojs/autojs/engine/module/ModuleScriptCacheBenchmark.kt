@@ -0,0 +1,48 @@
+package org.autojs.autojs.engine.module
+
+import org.autojs.autojs.benchmark.Benchmark
+import org.junit.After
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.mozilla.javascript.Context
+import org.mozilla.javascript.commonjs.module.provider.UrlModuleSourceProvider
+import java.io.File
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class ModuleScriptCacheBenchmark {
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private lateinit var cx: Context
+
+    @Before
+    fun setUp() {
+        ModuleScriptCache.clear()
+        cx = Context.enter()
+    }
+
+    @After
+    fun tearDown() {
+        Context.exit()
+        ModuleScriptCache.isEnabled = true
+        ModuleScriptCache.clear()
+    }
+
+    @Test
+    fun cachedLookup() {
+        val dir = folder.newFolder("a")
+        File(dir, "m.js").writeText((1..200).joinToString("\n") { "exports.f$it = function (x) { return x + $it; };" })
+        val provider = ModuleScriptCache.provider(UrlModuleSourceProvider(listOf(dir.toURI()), null))
+        val rounds = 200
+        val cached = Benchmark.measure(rounds) { provider.getModuleScript(cx, "m", null, null, null) }
+        ModuleScriptCache.isEnabled = false
+        val uncached = Benchmark.measure(rounds) { provider.getModuleScript(cx, "m", null, null, null) }
+        Benchmark.report("ModuleScriptCache: $rounds lookups of a 200-function module", "cached" to cached, "uncached" to uncached)
+    }
+
+}
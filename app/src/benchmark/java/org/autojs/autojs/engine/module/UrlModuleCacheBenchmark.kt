@@ -0,0 +1,43 @@
+package org.autojs.autojs.engine.module
+
+import org.autojs.autojs.benchmark.Benchmark
+import org.autojs.autojs.engine.module.UrlModuleCacheTest.ServerStub
+import org.junit.After
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class UrlModuleCacheBenchmark {
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private lateinit var server: ServerStub
+
+    @Before
+    fun setUp() {
+        server = ServerStub()
+    }
+
+    @After
+    fun tearDown() = server.close()
+
+    @Test
+    fun diskHit() {
+        server.bodies["/big.js"] = (1..2_000).joinToString("\n") { "exports.f$it = function (x) { return x + $it; };" }
+        val url = server.url("/big.js")
+        val cache = UrlModuleCache(folder.root)
+        val rounds = 100
+        val network = Benchmark.measure(rounds) {
+            cache.clear()
+            cache.load(url)
+        }
+        val disk = Benchmark.measure(rounds) { cache.load(url) }
+        Benchmark.report("UrlModuleCache: $rounds loads of a 2000-line module", "from loopback" to network, "from disk" to disk)
+    }
+
+}
@@ -0,0 +1,71 @@
+package org.autojs.autojs.rhino
+
+import org.autojs.autojs.benchmark.Benchmark
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.mozilla.javascript.Context
+import org.mozilla.javascript.ContextFactory
+import org.mozilla.javascript.Script
+import org.mozilla.javascript.ScriptableObject
+
+/**
+ * Overhead of interruption checks on a tight loop, with fixed observation thresholds from 1000 to 1M instructions
+ * and with the adaptive strategy, relative to a loop without instruction counting.
+ *
+ * zh-CN: 中断检查对紧凑循环的开销, 分别使用 1000 至 1M 条指令的固定观测阈值及自适应策略, 并与不计数指令的循环对比.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+class InterruptCheckerBenchmark {
+
+    private val factory = object : ContextFactory() {
+        var checker = InterruptChecker(InterruptChecker.FIXED_STRATEGY)
+
+        override fun observeInstructionCount(cx: Context, instructionCount: Int) = checker.observe(cx)
+    }
+
+    private lateinit var cx: Context
+    private lateinit var scope: ScriptableObject
+    private lateinit var loop: Script
+
+    @Before
+    fun setUp() {
+        cx = factory.enterContext().apply { isInterpretedMode = true }
+        scope = cx.initStandardObjects()
+        loop = cx.compileString("var s = 0; for (var i = 0; i < 1000000; i++) { s += i & 7; } s", "loop.js", 1, null)
+    }
+
+    @After
+    fun tearDown() = Context.exit()
+
+    private fun measure(strategy: InterruptChecker.Strategy?): Long {
+        if (strategy == null) {
+            cx.instructionObserverThreshold = 0
+        } else {
+            factory.checker = InterruptChecker(strategy).also { it.install(cx, strategy) }
+        }
+        return Benchmark.measure(20) { loop.exec(cx, scope) }
+    }
+
+    private fun fixed(threshold: Int) = InterruptChecker.Strategy(
+        threshold = threshold,
+        minThreshold = 1,
+        maxThreshold = threshold,
+        targetIntervalNanos = 0L,
+    )
+
+    @Test
+    fun loopOverhead() {
+        Benchmark.report(
+            "InterruptChecker: 20 loops of 1M iterations",
+            "no instruction counting" to measure(null),
+            "fixed threshold 1000" to measure(fixed(1000)),
+            "fixed threshold 10000 (former default)" to measure(fixed(10000)),
+            "fixed threshold 100000" to measure(fixed(100_000)),
+            "fixed threshold 1000000" to measure(fixed(1_000_000)),
+            "adaptive" to measure(InterruptChecker.ADAPTIVE_STRATEGY),
+        )
+    }
+
+}
@@ -0,0 +1,56 @@
+package org.autojs.autojs.rhino
+
+import org.autojs.autojs.benchmark.Benchmark
+import org.autojs.autojs.extension.ArrayExtensions.toNativeArray
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.mozilla.javascript.Context
+import org.mozilla.javascript.Function
+import org.mozilla.javascript.ScriptableObject
+
+/**
+ * Passing an `int[]` to a script as a [PrimitiveArrayView] versus copying it into a native array,
+ * for a single element and for 10,000 elements.
+ *
+ * zh-CN: 以 [PrimitiveArrayView] 将 `int[]` 传递给脚本与将其复制为原生数组的对比, 分别针对 1 个元素及 10,000 个元素.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+class PrimitiveArrayViewBenchmark {
+
+    private lateinit var cx: Context
+    private lateinit var scope: ScriptableObject
+    private lateinit var sum: Function
+
+    @Before
+    fun setUp() {
+        cx = Context.enter().apply { languageVersion = Context.VERSION_ES6 }
+        scope = cx.initStandardObjects()
+        sum = cx.compileFunction(scope, "function (a) { var s = 0; for (var i = 0; i < a.length; i++) s += a[i]; return s; }", "sum.js", 1, null)
+    }
+
+    @After
+    fun tearDown() = Context.exit()
+
+    private fun run(size: Int, rounds: Int) {
+        val array = IntArray(size) { it }
+        Benchmark.report(
+            "PrimitiveArrayView: $size elements, $rounds conversions",
+            "copy" to Benchmark.measure(rounds) { array.toTypedArray().toNativeArray() },
+            "view" to Benchmark.measure(rounds) { PrimitiveArrayView(array, scope) },
+        )
+        Benchmark.report(
+            "PrimitiveArrayView: $size elements, $rounds conversions summed by a script",
+            "copy" to Benchmark.measure(rounds) { sum.call(cx, scope, scope, arrayOf(array.toTypedArray().toNativeArray())) },
+            "view" to Benchmark.measure(rounds) { sum.call(cx, scope, scope, arrayOf(PrimitiveArrayView(array, scope))) },
+        )
+    }
+
+    @Test
+    fun singleElement() = run(1, 100_000)
+
+    @Test
+    fun tenThousandElements() = run(10_000, 200)
+
+}
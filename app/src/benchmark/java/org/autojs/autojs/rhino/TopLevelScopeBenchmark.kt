@@ -0,0 +1,54 @@
+package org.autojs.autojs.rhino
+
+import org.autojs.autojs.benchmark.Benchmark
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.mozilla.javascript.Context
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class TopLevelScopeBenchmark {
+
+    private lateinit var cx: Context
+
+    // Touches a few standard objects, as a script would right after its scope is created.
+    private val startupSource = "JSON.stringify([1, 2, 3].map(function (x) { return Math.max(x, 2) })) + new Date(0).getTime()"
+
+    @Before
+    fun setUp() {
+        cx = Context.enter().apply { languageVersion = Context.VERSION_ES6 }
+    }
+
+    @After
+    fun tearDown() = Context.exit()
+
+    private fun privateScope() = TopLevelScope().apply { initStandardObjects(cx, false) }
+
+    @Test
+    fun scopeCreation() {
+        val rounds = 200
+        val sharedCreation = Benchmark.once { TopLevelScope.createSharedScope(cx) }
+        val shared = TopLevelScope.createSharedScope(cx)
+        Benchmark.report(
+            "TopLevelScope: $rounds scopes",
+            "private" to Benchmark.measure(rounds) { privateScope() },
+            "shared (one-time sealed scope)" to sharedCreation,
+            "shared" to Benchmark.measure(rounds) { TopLevelScope(cx, shared) },
+        )
+    }
+
+    @Test
+    fun scriptStartup() {
+        val rounds = 200
+        val script = cx.compileString(startupSource, "startup.js", 1, null)
+        val shared = TopLevelScope.createSharedScope(cx)
+        Benchmark.report(
+            "TopLevelScope: $rounds script startups",
+            "private" to Benchmark.measure(rounds) { script.exec(cx, privateScope()) },
+            "shared" to Benchmark.measure(rounds) { script.exec(cx, TopLevelScope(cx, shared)) },
+        )
+    }
+
+}
@@ -0,0 +1,45 @@
+package org.autojs.autojs.rhino.debug
+
+import org.autojs.autojs.benchmark.Benchmark
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.mozilla.javascript.Context
+import org.mozilla.javascript.ScriptableObject
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class SamplingProfilerBenchmark {
+
+    private lateinit var cx: Context
+    private lateinit var scope: ScriptableObject
+
+    @Before
+    fun setUp() {
+        cx = Context.enter().apply { isInterpretedMode = true }
+        scope = cx.initStandardObjects()
+    }
+
+    @After
+    fun tearDown() = Context.exit()
+
+    @Test
+    fun overhead() {
+        val script = cx.compileString("""
+            function add(a, b) { return a + b; }
+            var s = 0;
+            for (var i = 0; i < 1000000; i++) s = add(s, i);
+            s;
+        """.trimIndent(), "bench.js", 1, null)
+        val plain = Benchmark.measure(3, 1) { script.exec(cx, scope) }
+        val profiler = SamplingProfiler().apply { start(cx) }
+        val profiled = try {
+            Benchmark.measure(3, 1) { script.exec(cx, scope) }
+        } finally {
+            profiler.stop()
+        }
+        Benchmark.report("SamplingProfiler: 3M calls", "plain" to plain, "profiled" to profiled)
+    }
+
+}
@@ -0,0 +1,94 @@
+package org.autojs.autojs.runtime.api.augment
+
+import org.autojs.autojs.benchmark.Benchmark
+import org.autojs.autojs.runtime.api.augment.AugmentableTest.DirectStub
+import org.autojs.autojs.runtime.api.augment.AugmentableTest.EnumerationStub
+import org.autojs.autojs.runtime.api.augment.AugmentableTest.ReflectiveStub
+import org.autojs.autojs.util.RhinoUtils.NOT_CONSTRUCTABLE
+import org.autojs.autojs.util.RhinoUtils.newBaseFunction
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.mozilla.javascript.Context
+import org.mozilla.javascript.ScriptableObject
+import java.util.function.Supplier
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class AugmentableBenchmark {
+
+    private lateinit var cx: Context
+    private lateinit var scope: ScriptableObject
+
+    @Before
+    fun setUp() {
+        cx = Context.enter()
+        scope = cx.initStandardObjects()
+    }
+
+    @After
+    fun tearDown() = Context.exit()
+
+    private fun installLazily(scope: ScriptableObject) {
+        Augmentable.augmentLazily(scope) { ReflectiveStub() }
+        Augmentable.augmentLazily(scope) { DirectStub() }
+        Augmentable.augmentLazily(scope) { EnumerationStub() }
+    }
+
+    @Test
+    fun scopeStartup() {
+        val rounds = 500
+        // Layouts are learned once per process, which the first script pays for.
+        installLazily(cx.initStandardObjects())
+        fun measure(install: (ScriptableObject) -> Unit): Long {
+            val scopes = List(rounds + rounds / 10) { cx.initStandardObjects() }
+            var next = 0
+            return Benchmark.measure(rounds) { install(scopes[next++]) }
+        }
+        Benchmark.report(
+            "Augmentable: 3 modules installed into $rounds scopes",
+            "eager" to measure { scope ->
+                ReflectiveStub().augment(scope)
+                DirectStub().augment(scope)
+                EnumerationStub().augment(scope)
+            },
+            "lazy" to measure(::installLazily),
+            "lazy, then all read" to measure { scope ->
+                installLazily(scope)
+                listOf("reflectiveStub", "directStub", "enumerationStub").forEach { scope.get(it, scope) }
+            },
+        )
+    }
+
+    /**
+     * Module object whose `inc` looks up its method on every call, as functions installed by [Augmentable] did
+     * before methods were resolved once per function.
+     */
+    private fun installPerCallLookup() {
+        val stub = ReflectiveStub()
+        val module = cx.newObject(scope) as ScriptableObject
+        module.defineProperty("inc", newBaseFunction("inc", { args ->
+            stub.javaClass.getMethod("inc", Array<Any>::class.java).invoke(stub, args)
+        }, NOT_CONSTRUCTABLE), ScriptableObject.PERMANENT)
+        scope.defineProperty("perCallLookupStub", module, ScriptableObject.PERMANENT)
+    }
+
+    @Test
+    fun millionCalls() {
+        installPerCallLookup()
+        Augmentable.augmentLazily(scope, ReflectiveStub::class.java, Supplier { ReflectiveStub() })
+        Augmentable.augmentLazily(scope, DirectStub::class.java, Supplier { DirectStub() })
+        fun measure(name: String): Long {
+            val script = cx.compileString("var s = 0; for (var i = 0; i < 1000000; i++) s = $name.inc(s); s;", "bench.js", 1, null)
+            return Benchmark.measure(3, 1) { script.exec(cx, scope) }
+        }
+        Benchmark.report(
+            "Augmentable: 3M calls",
+            "by reflection with a method lookup per call (former binding)" to measure("perCallLookupStub"),
+            "by reflection" to measure("reflectiveStub"),
+            "by direct call" to measure("directStub"),
+        )
+    }
+
+}
@@ -0,0 +1,190 @@
+// Crypto: RSA encryption and decryption of a short text with a 512-bit key, in the spirit of the Crypto benchmark
+// of the V8 / Octane benchmark suites, on a small arbitrary-precision integer implementation
+// (little-endian arrays of 14-bit digits and Montgomery multiplication). Evaluates to the decrypted text.
+
+var BITS = 14;
+var BASE = 1 << BITS;
+var MASK = BASE - 1;
+
+var N_HEX = 'cf8fd481fd71ffa08d0e549c22084da074a0027ca3e3902224c484e5e8c008f8' +
+    '59d3e6fcf8e98db792e8465a5d638cfc99a0003ad6b01d059eb87e36446dd4e3';
+var E_HEX = '10001';
+var D_HEX = '6206545f5bb9c5f72606d990af45ea9b57d8e5b3c596c85047bb03e4acaa5cd1' +
+    '4b63e0a60a9302359158b4b6fc57868eb8a9285c354a7183e4b58226ab2f80f9';
+
+var TEXT = 'The quick brown fox jumped over the lazy frog!';
+var BLOCK_CHARS = 48;
+
+function fromHex(hex, size) {
+    var digits = [];
+    var digit = 0, shift = 0;
+    for (var i = hex.length - 1; i >= 0; i--) {
+        digit |= parseInt(hex.charAt(i), 16) << shift;
+        shift += 4;
+        if (shift >= BITS) {
+            digits.push(digit & MASK);
+            digit >>= BITS;
+            shift -= BITS;
+        }
+    }
+    if (shift > 0) digits.push(digit);
+    while (digits.length < size) digits.push(0);
+    return digits;
+}
+
+function fromText(text, size) {
+    var hex = '';
+    for (var i = 0; i < text.length; i++) {
+        var code = text.charCodeAt(i);
+        hex += (code < 16 ? '0' : '') + code.toString(16);
+    }
+    return fromHex(hex, size);
+}
+
+function toText(digits) {
+    var codes = [];
+    var value = 0, bits = 0;
+    for (var i = 0; i < digits.length; i++) {
+        value |= digits[i] << bits;
+        bits += BITS;
+        while (bits >= 8) {
+            codes.push(value & 0xff);
+            value >>= 8;
+            bits -= 8;
+        }
+    }
+    while (codes.length > 0 && codes[codes.length - 1] == 0) codes.pop();
+    var text = '';
+    for (var j = codes.length - 1; j >= 0; j--) text += String.fromCharCode(codes[j]);
+    return text;
+}
+
+function bitLength(digits) {
+    for (var i = digits.length - 1; i >= 0; i--) {
+        if (digits[i] != 0) {
+            var bits = 0;
+            for (var d = digits[i]; d != 0; d >>= 1) bits++;
+            return i * BITS + bits;
+        }
+    }
+    return 0;
+}
+
+function testBit(digits, bit) {
+    return (digits[Math.floor(bit / BITS)] >> (bit % BITS) & 1) != 0;
+}
+
+// Whether a, which may have one more digit than n, is not less than n.
+function notLessThan(a, n) {
+    if (a.length > n.length && a[n.length] != 0) return true;
+    for (var i = n.length - 1; i >= 0; i--) {
+        if (a[i] != n[i]) return a[i] > n[i];
+    }
+    return true;
+}
+
+function subtractInPlace(a, n) {
+    var borrow = 0;
+    for (var i = 0; i < a.length; i++) {
+        var x = a[i] - (i < n.length ? n[i] : 0) - borrow;
+        borrow = x < 0 ? 1 : 0;
+        a[i] = x & MASK;
+    }
+}
+
+function Modulus(n) {
+    this.n = n;
+    this.size = n.length;
+    // -1 / n mod BASE, by Newton's iteration.
+    var y = 1;
+    for (var i = 0; i < 5; i++) {
+        y = y * ((2 - (n[0] * y & MASK) + BASE) & MASK) & MASK;
+    }
+    this.nInv = BASE - y & MASK;
+    // BASE ^ (2 * size) mod n, by doubling.
+    var r2 = [1];
+    while (r2.length <= this.size) r2.push(0);
+    for (var j = 0; j < 2 * this.size * BITS; j++) {
+        var carry = 0;
+        for (var k = 0; k <= this.size; k++) {
+            var x = (r2[k] << 1) | carry;
+            r2[k] = x & MASK;
+            carry = x >> BITS;
+        }
+        if (notLessThan(r2, n)) subtractInPlace(r2, n);
+    }
+    r2.length = this.size;
+    this.r2 = r2;
+}
+
+// a * b / BASE ^ size mod n.
+Modulus.prototype.multiply = function (a, b) {
+    var n = this.n, size = this.size, t = [];
+    var i, j, x, c;
+    for (i = 0; i < size + 2; i++) t.push(0);
+    for (i = 0; i < size; i++) {
+        var ai = a[i];
+        c = 0;
+        for (j = 0; j < size; j++) {
+            x = t[j] + ai * b[j] + c;
+            t[j] = x & MASK;
+            c = x >>> BITS;
+        }
+        x = t[size] + c;
+        t[size] = x & MASK;
+        t[size + 1] = x >>> BITS;
+        var m = t[0] * this.nInv & MASK;
+        c = (t[0] + m * n[0]) >>> BITS;
+        for (j = 1; j < size; j++) {
+            x = t[j] + m * n[j] + c;
+            t[j - 1] = x & MASK;
+            c = x >>> BITS;
+        }
+        x = t[size] + c;
+        t[size - 1] = x & MASK;
+        t[size] = t[size + 1] + (x >>> BITS);
+        t[size + 1] = 0;
+    }
+    t.length = size + 1;
+    if (notLessThan(t, n)) subtractInPlace(t, n);
+    t.length = size;
+    return t;
+};
+
+Modulus.prototype.pow = function (base, exponent) {
+    var one = [1];
+    while (one.length < this.size) one.push(0);
+    var b = this.multiply(base, this.r2);
+    var x = this.multiply(one, this.r2);
+    for (var bit = bitLength(exponent) - 1; bit >= 0; bit--) {
+        x = this.multiply(x, x);
+        if (testBit(exponent, bit)) x = this.multiply(x, b);
+    }
+    return this.multiply(x, one);
+};
+
+function encrypt(modulus, e, text) {
+    var blocks = [];
+    for (var i = 0; i < text.length; i += BLOCK_CHARS) {
+        blocks.push(modulus.pow(fromText(text.substring(i, i + BLOCK_CHARS), modulus.size), e));
+    }
+    return blocks;
+}
+
+function decrypt(modulus, d, blocks) {
+    var text = '';
+    for (var i = 0; i < blocks.length; i++) text += toText(modulus.pow(blocks[i], d));
+    return text;
+}
+
+function runCrypto() {
+    var n = fromHex(N_HEX, 0);
+    var modulus = new Modulus(n);
+    var e = fromHex(E_HEX, n.length);
+    var d = fromHex(D_HEX, n.length);
+    var decrypted = decrypt(modulus, d, encrypt(modulus, e, TEXT));
+    if (decrypted != TEXT) throw new Error('Crypto failed: ' + decrypted);
+    return decrypted;
+}
+
+runCrypto();
@@ -42,6 +42,7 @@ import java.io.File
  * Modified by SuperMonster003 as of Jun 10, 2022.
  * Transformed by SuperMonster003 on Oct 10, 2022.
  * Modified by LZX284 (https://github.com/LZX284) as of Sep 30, 2023.
+ * Modified by agent as of Oct 19, 2026.
  */
 abstract class AbstractAutoJs protected constructor(val application: Application) {
 
@@ -98,9 +99,17 @@ abstract class AbstractAutoJs protected constructor(val application: Application
     fun createAccessibilityBridge() = AccessibilityBridgeImpl(this)
 
     private fun addAccessibilityServiceDelegates() {
+        // @Hint by agent on Oct 19, 2026.
+        //  ! The info provider only records the latest component and stays on the service thread,
+        //  ! so that currentPackage() and currentActivity() never lag behind window changes.
+        //  ! The other built-in delegates never consume events, so they run on their own worker threads
+        //  ! and never hold up the service thread with IPC calls or file operations.
+        //  ! zh-CN:
+        //  ! 信息提供者仅记录最新组件, 因此保留在服务线程中运行, 使 currentPackage() 及 currentActivity() 不会滞后于窗口变化.
+        //  ! 其他内置代理均不消费事件, 因此在各自的工作线程中运行, 不会因 IPC 调用或文件操作阻塞服务线程.
         AccessibilityService.addDelegate(100, infoProvider)
-        AccessibilityService.addDelegate(200, notificationObserver)
-        AccessibilityService.addDelegate(300, accessibilityActionRecorder)
+        AccessibilityService.addAsyncDelegate(200, notificationObserver)
+        AccessibilityService.addAsyncDelegate(300, accessibilityActionRecorder)
     }
 
     private fun registerActivityLifecycleCallbacks() {
@@ -13,6 +13,7 @@ import org.apache.commons.io.FileUtils
 import org.autojs.autojs.AbstractAutoJs.Companion.isInrt
 import org.autojs.autojs.apkbuilder.keystore.AESUtils
 import org.autojs.autojs.app.GlobalAppContext
+import org.autojs.autojs.engine.PrecompiledScriptBundle
 import org.autojs.autojs.engine.encryption.AdvancedEncryptionStandard
 import org.autojs.autojs.pio.PFiles
 import org.autojs.autojs.project.BuildInfo
@@ -24,10 +25,12 @@ import org.autojs.autojs.script.JavaScriptFileSource
 import org.autojs.autojs.util.FileUtils.TYPE.JAVASCRIPT
 import org.autojs.autojs.util.MD5Utils
 import org.autojs.autojs6.R
+import org.mozilla.javascript.RhinoException
 import pxb.android.StringItem
 import pxb.android.axml.AxmlWriter
 import zhao.arsceditor.ResDecoder.ARSCDecoder
 import java.io.BufferedInputStream
+import java.io.ByteArrayOutputStream
 import java.io.File
 import java.io.FileInputStream
 import java.io.FileNotFoundException
@@ -38,6 +41,7 @@ import java.io.InputStream
 /**
  * Created by Stardust on Oct 24, 2017.
  * Modified by SuperMonster003 as of Jul 8, 2022.
+ * Modified by agent as of Oct 19, 2026.
  */
 open class ApkBuilder(apkInputStream: InputStream?, private val outApkFile: File, private val buildPath: String) {
 
@@ -46,6 +50,7 @@ open class ApkBuilder(apkInputStream: InputStream?, private val outApkFile: File
     private var mManifestEditor: ManifestEditor? = null
     private var mInitVector: String? = null
     private var mKey: String? = null
+    private var mPrecompiledScripts: PrecompiledScriptBundle.Writer? = null
 
     private lateinit var mProjectConfig: ProjectConfig
 
@@ -82,13 +87,47 @@ open class ApkBuilder(apkInputStream: InputStream?, private val outApkFile: File
     @Throws(IOException::class)
     fun setScriptFile(path: String?) = also {
         path?.let {
-            when {
-                PFiles.isDir(it) -> copyDir(it, "assets/project/")
-                else -> replaceFile(it, "assets/project/main.js")
+            mPrecompiledScripts = PrecompiledScriptBundle.Writer()
+            try {
+                when {
+                    PFiles.isDir(it) -> copyDir(it, "assets/project/")
+                    else -> replaceFile(it, "assets/project/main.js")
+                }
+                writePrecompiledScripts()
+            } finally {
+                mPrecompiledScripts = null
             }
         }
     }
 
+    /**
+     * Compile the script about to be packaged as [destFile] into the precompiled bundle,
+     * which also validates the script, as a script with syntax errors fails the build here instead of at runtime.
+     *
+     * zh-CN: 将即将打包为 [destFile] 的脚本编译至预编译脚本包, 同时校验该脚本, 存在语法错误的脚本将在此处而非运行时使构建失败.
+     */
+    @Throws(IOException::class)
+    private fun precompile(srcFile: File, destFile: File) {
+        val writer = mPrecompiledScripts ?: return
+        val name = destFile.relativeTo(File(buildPath, "assets/project")).invariantSeparatorsPath
+        if (name.startsWith("..")) return
+        try {
+            // The same decoding as LoopBasedJavaScriptEngineWithDecryption, so that the source hashes match at runtime.
+            // zh-CN: 与 LoopBasedJavaScriptEngineWithDecryption 的解码方式相同, 以使运行时的源码哈希匹配.
+            writer.add(name, String(PFiles.readBytes(srcFile.path)))
+        } catch (e: RhinoException) {
+            throw IOException("Failed to compile $name: ${e.message}", e)
+        }
+    }
+
+    @Throws(IOException::class)
+    private fun writePrecompiledScripts() {
+        val writer = mPrecompiledScripts?.takeIf { it.size > 0 } ?: return
+        val destFile = File(File(buildPath, "assets"), PrecompiledScriptBundle.ASSET_PATH)
+        val bytes = ByteArrayOutputStream().also { writer.writeTo(it) }.toByteArray()
+        encrypt(bytes, destFile, 0)
+    }
+
     @Throws(IOException::class)
     @Suppress("SameParameterValue")
     private fun copyDir(srcPath: String, relativeDestPath: String) {
@@ -115,10 +154,16 @@ open class ApkBuilder(apkInputStream: InputStream?, private val outApkFile: File
 
     @Throws(IOException::class)
     private fun encrypt(srcFile: File, destFile: File) {
+        precompile(srcFile, destFile)
+        encrypt(PFiles.readBytes(srcFile.path), destFile, JavaScriptFileSource(srcFile).executionMode.toShort())
+    }
+
+    @Throws(IOException::class)
+    private fun encrypt(srcBytes: ByteArray, destFile: File, flags: Short) {
         destFile.outputStream().use { os ->
-            writeHeader(os, JavaScriptFileSource(srcFile).executionMode.toShort())
+            writeHeader(os, flags)
             AdvancedEncryptionStandard(mKey!!.toByteArray(), mInitVector!!)
-                .encrypt(PFiles.readBytes(srcFile.path))
+                .encrypt(srcBytes)
                 .let { bytes -> os.write(bytes) }
         }
     }
@@ -35,6 +35,7 @@ public abstract class AccessibilityBridge {
     private int mMode = MODE_NORMAL;
     private int mFlags = 0;
     private WindowFilter mWindowFilter;
+    private WindowSearch mWindowSearch;
 
     private final UiHandler mUiHandler;
     private final Context mContext;
@@ -69,9 +70,9 @@ public abstract class AccessibilityBridge {
             return Collections.emptyList();
         }
         ArrayList<AccessibilityNodeInfo> roots = new ArrayList<>();
-        if (mWindowFilter != null) {
+        if (mWindowFilter != null || mWindowSearch != null) {
             for (AccessibilityWindowInfo window : service.getWindows()) {
-                if (mWindowFilter.filter(window)) {
+                if ((mWindowFilter == null || mWindowFilter.filter(window)) && (mWindowSearch == null || mWindowSearch.accepts(window))) {
                     AccessibilityNodeInfo root = window.getRoot();
                     if (root != null) {
                         roots.add(root);
@@ -121,6 +122,21 @@ public abstract class AccessibilityBridge {
         mWindowFilter = windowFilter;
     }
 
+    @Nullable
+    public WindowSearch getWindowSearch() {
+        return mWindowSearch;
+    }
+
+    /**
+     * Search all windows accepted by the given options, in parallel where possible, instead of the active window only.
+     * Pass null to restore the default behavior.
+     * <p>
+     * zh-CN: 搜索所有被给定选项接受的窗口 (尽可能并行), 而非仅搜索活动窗口. 传入 null 以恢复默认行为.
+     */
+    public void setWindowSearch(@Nullable WindowSearch windowSearch) {
+        mWindowSearch = windowSearch;
+    }
+
     public abstract ActivityInfoProvider getInfoProvider();
 
     public void setMode(int mode) {
@@ -13,7 +13,8 @@ import org.autojs.autojs.event.EventDispatcher
 import org.autojs.autojs.core.pref.Language
 import org.autojs.autojs.ui.main.drawer.DrawerFragment.Companion.Event.AccessibilityServiceStateChangedEvent
 import org.greenrobot.eventbus.EventBus
-import java.util.TreeMap
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentSkipListMap
 import java.util.concurrent.ExecutorService
 import java.util.concurrent.Executors
 import java.util.concurrent.TimeUnit
@@ -22,6 +23,7 @@ import java.util.concurrent.locks.ReentrantLock
 /**
  * Created by Stardust on May 2, 2017.
  * Modified by SuperMonster003 as of Mar 20, 2022.
+ * Modified by agent as of Oct 19, 2026.
  */
 open class AccessibilityService : android.accessibilityservice.AccessibilityService() {
 
@@ -30,7 +32,27 @@ open class AccessibilityService : android.accessibilityservice.AccessibilityServ
     var fastRootInActiveWindow: AccessibilityNodeInfo? = null
     var bridge: AccessibilityBridge? = null
 
-    private val eventBox = TreeMap<Int, AccessibilityEventCallback?>()
+    private val eventBox = ConcurrentHashMap<Int, AccessibilityEventCallback>()
+
+    // @Hint by agent on Oct 19, 2026.
+    //  ! Script callbacks registered by auto.registerEvent may be arbitrarily slow,
+    //  ! so they are run on a worker thread rather than on the service thread.
+    //  ! zh-CN: 通过 auto.registerEvent 注册的脚本回调可能任意缓慢, 因此在工作线程而非服务线程中运行.
+    private val eventBoxDelegate = object : AccessibilityDelegate {
+
+        override val eventTypes: Set<Int>?
+            get() = AccessibilityDelegate.ALL_EVENT_TYPES
+
+        override fun onAccessibilityEvent(service: android.accessibilityservice.AccessibilityService, event: AccessibilityEvent): Boolean {
+            eventBox[event.eventType]?.onAccessibilityEvent(AccessibilityEventWrapper(event))
+            return false
+        }
+
+    }
+
+    private var mEventBoxDispatcher: AsyncAccessibilityDelegate? = null
+    private val eventBoxDispatcher: AsyncAccessibilityDelegate
+        @Synchronized get() = mEventBoxDispatcher ?: AsyncAccessibilityDelegate(eventBoxDelegate).also { mEventBoxDispatcher = it }
 
     private val gestureEventDispatcher = EventDispatcher<GestureListener>()
 
@@ -49,7 +71,11 @@ open class AccessibilityService : android.accessibilityservice.AccessibilityServ
     }
 
     fun addAccessibilityEventCallback(name: String, callback: AccessibilityEventCallback?) {
-        eventBox[eventNameToType(name)] = callback
+        val type = eventNameToType(name)
+        when (callback) {
+            null -> eventBox.remove(type)
+            else -> eventBox[type] = callback
+        }
     }
 
     fun removeAccessibilityEventCallback(name: String) {
@@ -59,12 +85,18 @@ open class AccessibilityService : android.accessibilityservice.AccessibilityServ
     override fun onAccessibilityEvent(event: AccessibilityEvent) {
         instance = this
         val type = event.eventType
-        eventBox[type]?.onAccessibilityEvent(AccessibilityEventWrapper(event))
+        if (eventBox.containsKey(type)) {
+            eventBoxDispatcher.onAccessibilityEvent(this@AccessibilityService, event)
+        }
         if (containsAllEventTypes || eventTypes.contains(type)) {
             if (type == TYPE_WINDOW_STATE_CHANGED || type == TYPE_VIEW_FOCUSED) {
                 rootInActiveWindow?.also { fastRootInActiveWindow = it }
             }
             for ((_, delegate) in delegates) {
+                if (delegate is AsyncAccessibilityDelegate) {
+                    delegate.onAccessibilityEvent(this@AccessibilityService, event)
+                    continue
+                }
                 val types = delegate.eventTypes
                 if (types == null || types.contains(type)) {
                     // val start = System.currentTimeMillis()
@@ -115,6 +147,7 @@ open class AccessibilityService : android.accessibilityservice.AccessibilityServ
         bridge = null
 
         mEventExecutor?.shutdownNow()
+        mEventBoxDispatcher?.shutdown()
         callback?.onDisconnected()
         EventBus.getDefault().post(object : AccessibilityServiceStateChangedEvent {})
 
@@ -142,9 +175,17 @@ open class AccessibilityService : android.accessibilityservice.AccessibilityServ
 
         private const val TAG = "AccessibilityService"
 
-        private val delegates = TreeMap<Int, AccessibilityDelegate>()
+        // @Hint by agent on Oct 19, 2026.
+        //  ! Delegates may be added or removed by scripts while the service thread iterates them,
+        //  ! so a concurrent sorted map is used, and the event type summary is replaced rather than mutated.
+        //  ! zh-CN: 脚本可能在服务线程遍历代理期间添加或移除代理, 因此使用并发有序映射, 且事件类型汇总以替换而非修改的方式更新.
+        private val delegates = ConcurrentSkipListMap<Int, AccessibilityDelegate>()
+
+        @Volatile
         private var containsAllEventTypes = false
-        private val eventTypes = HashSet<Int>()
+
+        @Volatile
+        private var eventTypes: Set<Int> = emptySet()
 
         private val LOCK = ReentrantLock()
         private val ENABLED = LOCK.newCondition()
@@ -163,6 +204,7 @@ open class AccessibilityService : android.accessibilityservice.AccessibilityServ
 
         fun hasInstance() = instance != null
 
+        @Synchronized
         fun addDelegate(uniquePriority: Int, delegate: AccessibilityDelegate) {
             // @Hint by 抠脚本人 (https://github.com/little-alei) on Jul 10, 2023.
             //  ! 用于记录 eventTypes 中的事件 id.
@@ -173,10 +215,57 @@ open class AccessibilityService : android.accessibilityservice.AccessibilityServ
             if (set == null) {
                 containsAllEventTypes = true
             } else {
-                eventTypes.addAll(set)
+                eventTypes = eventTypes + set
             }
         }
 
+        /**
+         * Register a delegate which receives events on its own worker thread through a bounded queue,
+         * so that a slow delegate will not hold up the service thread and the other delegates.
+         *
+         * The [BLOCK][BoundedEventQueue.OverflowPolicy.BLOCK] policy is not accepted,
+         * as it would block the service thread once the queue is full.
+         *
+         * zh-CN:
+         *
+         * 注册一个通过有界队列在独立工作线程中接收事件的代理, 避免慢速代理阻塞服务线程及其他代理.
+         *
+         * 不接受 [BLOCK][BoundedEventQueue.OverflowPolicy.BLOCK] 策略, 因其会在队列已满时阻塞服务线程.
+         */
+        @JvmOverloads
+        fun addAsyncDelegate(
+            uniquePriority: Int,
+            delegate: AccessibilityDelegate,
+            capacity: Int = AsyncAccessibilityDelegate.DEFAULT_CAPACITY,
+            policy: BoundedEventQueue.OverflowPolicy = BoundedEventQueue.OverflowPolicy.DROP_OLDEST,
+            eventTypeMask: Int = AsyncAccessibilityDelegate.maskOf(delegate.eventTypes),
+        ) = AsyncAccessibilityDelegate(delegate, capacity, policy, eventTypeMask).also {
+            removeDelegate(uniquePriority)
+            addDelegate(uniquePriority, it)
+        }
+
+        @Synchronized
+        fun removeDelegate(uniquePriority: Int) {
+            val removed = delegates.remove(uniquePriority) ?: return
+            (removed as? AsyncAccessibilityDelegate)?.shutdown()
+            val types = HashSet<Int>()
+            var containsAll = false
+            delegates.values.forEach { delegate ->
+                delegate.eventTypes?.let { types.addAll(it) } ?: run { containsAll = true }
+            }
+            eventTypes = types
+            containsAllEventTypes = containsAll
+        }
+
+        /**
+         * Queue depth and latency metrics of all asynchronous delegates keyed by their priorities.
+         *
+         * zh-CN: 所有异步代理的队列深度及延迟指标, 以优先级为键.
+         */
+        fun delegateMetrics(): Map<Int, AsyncAccessibilityDelegate.Metrics> = delegates.entries
+            .mapNotNull { (priority, delegate) -> (delegate as? AsyncAccessibilityDelegate)?.let { priority to it.metrics() } }
+            .toMap()
+
         fun stop() = try {
             instance?.disableSelf()
             instance = null
@@ -0,0 +1,203 @@
+package org.autojs.autojs.core.accessibility
+
+import android.accessibilityservice.AccessibilityService
+import android.os.Build
+import android.util.Log
+import android.view.accessibility.AccessibilityEvent
+import org.autojs.autojs.core.accessibility.BoundedEventQueue.OverflowPolicy
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Runs a wrapped [AccessibilityDelegate] on its own worker thread,
+ * so that a slow delegate will not delay event delivery to the others.
+ *
+ * Events are copied before being enqueued as the system recycles them after dispatching.
+ * As a consequence, an asynchronous delegate could never consume an event,
+ * i.e. its return value no longer stops the propagation.
+ *
+ * The [BLOCK][OverflowPolicy.BLOCK] policy is rejected, as events are offered on the service thread,
+ * which must never wait for a delegate.
+ *
+ * zh-CN:
+ *
+ * 在独立的工作线程中运行被包装的 [AccessibilityDelegate], 避免慢速代理延迟其他代理的事件分发.
+ *
+ * 由于系统会在分发后回收事件, 事件入队前会被复制.
+ * 因此异步代理无法消费事件, 即其返回值不再阻止事件继续传递.
+ *
+ * [BLOCK][OverflowPolicy.BLOCK] 策略将被拒绝, 因为事件在服务线程中提交, 而服务线程不应等待任何代理.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+class AsyncAccessibilityDelegate internal constructor(
+    val delegate: AccessibilityDelegate,
+    capacity: Int,
+    policy: OverflowPolicy,
+    eventTypeMask: Int,
+    private val events: EventAccess,
+) : AccessibilityDelegate {
+
+    @JvmOverloads
+    constructor(
+        delegate: AccessibilityDelegate,
+        capacity: Int = DEFAULT_CAPACITY,
+        policy: OverflowPolicy = OverflowPolicy.DROP_OLDEST,
+        eventTypeMask: Int = maskOf(delegate.eventTypes),
+    ) : this(delegate, capacity, policy, eventTypeMask, SystemEventAccess)
+
+    /**
+     * Reads, copies and recycles events for the delegate.
+     * Events of the system are stubs on the JVM, so local unit tests supply their own.
+     *
+     * zh-CN: 为代理读取, 复制及回收事件. 系统事件在 JVM 上仅为桩实现, 因此本地单元测试需自行提供.
+     */
+    internal interface EventAccess {
+        fun typeOf(event: AccessibilityEvent): Int
+        fun copy(event: AccessibilityEvent): AccessibilityEvent
+        fun recycle(event: AccessibilityEvent)
+    }
+
+    init {
+        require(policy != OverflowPolicy.BLOCK) { "Policy ${OverflowPolicy.BLOCK} would block the accessibility service thread" }
+    }
+
+    private val mEventTypeMask = eventTypeMask
+
+    private val mQueue = BoundedEventQueue(capacity, policy, events::typeOf) { events.recycle(it) }
+
+    private val mDispatchedCount = AtomicLong()
+    private val mTotalLatencyNanos = AtomicLong()
+    private val mTotalHandlingNanos = AtomicLong()
+
+    @Volatile
+    private var mMaxLatencyNanos = 0L
+
+    @Volatile
+    private var mService: AccessibilityService? = null
+
+    private val mWorker = Thread(::loop, "${TAG}-${delegate.javaClass.simpleName}").apply {
+        isDaemon = true
+        start()
+    }
+
+    override val eventTypes: Set<Int>? = typesOf(eventTypeMask)
+
+    fun accepts(eventType: Int) = mEventTypeMask and eventType != 0
+
+    override fun onAccessibilityEvent(service: AccessibilityService, event: AccessibilityEvent): Boolean {
+        if (!accepts(events.typeOf(event))) return false
+        mService = service
+        val copy = events.copy(event)
+        if (!mQueue.offer(copy)) events.recycle(copy)
+        return false
+    }
+
+    fun metrics() = Metrics(
+        delegateName = delegate.javaClass.name,
+        queueDepth = mQueue.depth,
+        maxQueueDepth = mQueue.maxDepth,
+        dispatchedCount = mDispatchedCount.get(),
+        droppedCount = mQueue.droppedCount,
+        coalescedCount = mQueue.coalescedCount,
+        averageLatencyMillis = average(mTotalLatencyNanos.get()),
+        maxLatencyMillis = mMaxLatencyNanos / NANOS_PER_MILLI,
+        averageHandlingMillis = average(mTotalHandlingNanos.get()),
+    )
+
+    fun shutdown() {
+        mQueue.close()
+        mWorker.interrupt()
+    }
+
+    private fun loop() {
+        while (!Thread.currentThread().isInterrupted) {
+            val entry = try {
+                mQueue.take()
+            } catch (e: InterruptedException) {
+                break
+            } ?: break
+            val event = entry.event
+            val start = System.nanoTime()
+            try {
+                mService?.let { delegate.onAccessibilityEvent(it, event) }
+            } catch (e: Exception) {
+                Log.w(TAG, "Delegate ${delegate.javaClass.name} failed on event $event", e)
+            } finally {
+                val end = System.nanoTime()
+                val latency = end - entry.enqueuedAtNanos
+                events.recycle(event)
+                mTotalLatencyNanos.addAndGet(latency)
+                mTotalHandlingNanos.addAndGet(end - start)
+                if (latency > mMaxLatencyNanos) mMaxLatencyNanos = latency
+                mDispatchedCount.incrementAndGet()
+            }
+        }
+    }
+
+    private fun average(totalNanos: Long): Double {
+        val count = mDispatchedCount.get().takeIf { it > 0 } ?: return 0.0
+        return totalNanos.toDouble() / count / NANOS_PER_MILLI
+    }
+
+    data class Metrics(
+        val delegateName: String,
+        val queueDepth: Int,
+        val maxQueueDepth: Int,
+        val dispatchedCount: Long,
+        val droppedCount: Long,
+        val coalescedCount: Long,
+        val averageLatencyMillis: Double,
+        val maxLatencyMillis: Long,
+        val averageHandlingMillis: Double,
+    )
+
+    companion object {
+
+        private const val TAG = "AsyncA11yDelegate"
+
+        private const val NANOS_PER_MILLI = 1_000_000L
+
+        const val DEFAULT_CAPACITY = 64
+
+        /**
+         * Mask accepting all event types, as [AccessibilityEvent.TYPES_ALL_MASK] does.
+         */
+        const val ALL_EVENT_TYPES_MASK = AccessibilityEvent.TYPES_ALL_MASK
+
+        @JvmStatic
+        fun maskOf(eventTypes: Set<Int>?): Int {
+            eventTypes ?: return ALL_EVENT_TYPES_MASK
+            return eventTypes.fold(0) { acc, type -> acc or type }
+        }
+
+        private fun typesOf(mask: Int): Set<Int>? {
+            if (mask == ALL_EVENT_TYPES_MASK) return AccessibilityDelegate.ALL_EVENT_TYPES
+            return (0 until Int.SIZE_BITS).map { 1 shl it }.filter { mask and it != 0 }.toSet()
+        }
+
+    }
+
+    private object SystemEventAccess : EventAccess {
+
+        override fun typeOf(event: AccessibilityEvent) = event.eventType
+
+        @Suppress("DEPRECATION")
+        override fun copy(event: AccessibilityEvent) = when {
+            Build.VERSION.SDK_INT >= Build.VERSION_CODES.R -> AccessibilityEvent(event)
+            else -> AccessibilityEvent.obtain(event)
+        }
+
+        @Suppress("DEPRECATION")
+        override fun recycle(event: AccessibilityEvent) {
+            if (Build.VERSION.SDK_INT < Build.VERSION_CODES.R) {
+                try {
+                    event.recycle()
+                } catch (e: IllegalStateException) {
+                    /* Ignored. */
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,153 @@
+package org.autojs.autojs.core.accessibility
+
+import java.util.ArrayDeque
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
+
+/**
+ * A bounded FIFO queue of events with a configurable overflow policy.
+ *
+ * The queue is independent of Android classes, so that it could be driven by synthetic events.
+ *
+ * zh-CN:
+ *
+ * 具有可配置溢出策略的有界先进先出事件队列.
+ *
+ * 此队列不依赖安卓类, 因此可使用合成事件驱动.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+class BoundedEventQueue<T : Any>(
+    val capacity: Int,
+    val policy: OverflowPolicy,
+    private val typeOf: (T) -> Int,
+    private val onDiscard: (T) -> Unit = {},
+) {
+
+    private val mLock = ReentrantLock()
+    private val mNotEmpty = mLock.newCondition()
+    private val mNotFull = mLock.newCondition()
+    private val mEntries = ArrayDeque<Entry<T>>(capacity)
+
+    @Volatile
+    private var mClosed = false
+
+    @Volatile
+    var maxDepth = 0
+        private set
+
+    @Volatile
+    var droppedCount = 0L
+        private set
+
+    @Volatile
+    var coalescedCount = 0L
+        private set
+
+    init {
+        require(capacity > 0) { "Capacity must be positive: $capacity" }
+    }
+
+    val depth: Int
+        get() = mLock.withLock { mEntries.size }
+
+    /**
+     * Returns false if the event was not enqueued (queue closed or interrupted while blocking).
+     */
+    fun offer(event: T): Boolean = mLock.withLock {
+        if (mClosed) return false
+        if (mEntries.size >= capacity) {
+            when (policy) {
+                OverflowPolicy.DROP_OLDEST -> dropOldest()
+                OverflowPolicy.COALESCE_BY_TYPE -> {
+                    val type = typeOf(event)
+                    val iterator = mEntries.iterator()
+                    var coalesced = false
+                    while (iterator.hasNext()) {
+                        val entry = iterator.next()
+                        if (typeOf(entry.event) == type) {
+                            iterator.remove()
+                            onDiscard(entry.event)
+                            coalescedCount += 1
+                            coalesced = true
+                            break
+                        }
+                    }
+                    if (!coalesced) dropOldest()
+                }
+                OverflowPolicy.BLOCK -> {
+                    while (mEntries.size >= capacity && !mClosed) {
+                        try {
+                            mNotFull.await()
+                        } catch (e: InterruptedException) {
+                            Thread.currentThread().interrupt()
+                            return false
+                        }
+                    }
+                    if (mClosed) return false
+                }
+            }
+        }
+        mEntries.addLast(Entry(event, System.nanoTime()))
+        if (mEntries.size > maxDepth) maxDepth = mEntries.size
+        mNotEmpty.signal()
+        true
+    }
+
+    /**
+     * Waits for the next event, returns null if the queue was closed or the timeout elapsed.
+     */
+    @Throws(InterruptedException::class)
+    fun take(timeout: Long = -1L, unit: TimeUnit = TimeUnit.MILLISECONDS): Entry<T>? = mLock.withLock {
+        var nanos = unit.toNanos(timeout)
+        while (mEntries.isEmpty()) {
+            if (mClosed) return null
+            if (timeout < 0) {
+                mNotEmpty.await()
+            } else {
+                if (nanos <= 0L) return null
+                nanos = mNotEmpty.awaitNanos(nanos)
+            }
+        }
+        mEntries.pollFirst()!!.also { mNotFull.signal() }
+    }
+
+    fun close() = mLock.withLock {
+        mClosed = true
+        mEntries.forEach { onDiscard(it.event) }
+        mEntries.clear()
+        mNotEmpty.signalAll()
+        mNotFull.signalAll()
+    }
+
+    private fun dropOldest() {
+        mEntries.pollFirst()?.let {
+            onDiscard(it.event)
+            droppedCount += 1
+        }
+    }
+
+    class Entry<T>(val event: T, val enqueuedAtNanos: Long)
+
+    enum class OverflowPolicy {
+
+        /**
+         * Discard the oldest pending event to make room for the new one.
+         */
+        DROP_OLDEST,
+
+        /**
+         * Discard the oldest pending event of the same type in favour of the new one,
+         * or discard the oldest pending event if there is none of that type.
+         */
+        COALESCE_BY_TYPE,
+
+        /**
+         * Block the producer until the consumer makes room.
+         */
+        BLOCK,
+
+    }
+
+}
@@ -0,0 +1,332 @@
+package org.autojs.autojs.core.accessibility
+
+import org.autojs.autojs.core.automator.UiObject
+import java.io.ByteArrayOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.IOException
+import java.io.InputStream
+import java.io.OutputStream
+import java.util.ArrayDeque
+
+/**
+ * A compact layout dump which stores nodes in a flat int array with an interned string table.
+ *
+ * Compared with a tree of [NodeInfo], no object is allocated per node except for distinct strings,
+ * nodes are captured breadth-first so that upper levels could be rendered before the whole tree is done,
+ * and both depth and node count could be capped for heavy screens such as large WebView pages.
+ *
+ * zh-CN:
+ *
+ * 紧凑的布局转储, 节点以扁平整型数组存储, 字符串通过驻留字符串表存储.
+ *
+ * 与 [NodeInfo] 树相比, 除不同的字符串外不为每个节点分配对象,
+ * 节点按广度优先顺序采集, 因此可在整棵树采集完成前渲染上层节点,
+ * 且对于大型 WebView 页面等复杂界面, 可限制采集深度及节点数量.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+class FlatNodeDump private constructor(private val mStrings: MutableList<String>, private var mData: IntArray, size: Int) {
+
+    var size = size
+        private set
+
+    /**
+     * Whether the capture stopped early because of the depth or node count cap.
+     */
+    var isTruncated = false
+        private set
+
+    private val mStringIndex = HashMap<String, Int>().also { map -> mStrings.forEachIndexed { i, s -> map[s] = i } }
+
+    val strings: List<String> get() = mStrings
+
+    fun parent(node: Int) = field(node, PARENT)
+
+    fun depth(node: Int) = field(node, DEPTH)
+
+    fun indexInParent(node: Int) = field(node, INDEX_IN_PARENT)
+
+    fun childCount(node: Int) = field(node, CHILD_COUNT)
+
+    fun className(node: Int) = string(field(node, CLASS_NAME))
+
+    fun packageName(node: Int) = string(field(node, PACKAGE_NAME))
+
+    fun id(node: Int) = string(field(node, ID))
+
+    fun text(node: Int) = string(field(node, TEXT))
+
+    fun desc(node: Int) = string(field(node, DESC))
+
+    fun left(node: Int) = field(node, LEFT)
+
+    fun top(node: Int) = field(node, TOP)
+
+    fun right(node: Int) = field(node, RIGHT)
+
+    fun bottom(node: Int) = field(node, BOTTOM)
+
+    fun hasFlag(node: Int, flag: Int) = field(node, FLAGS) and flag != 0
+
+    /**
+     * Indices of the children of [node], which are contiguous as nodes are appended breadth-first.
+     *
+     * zh-CN: [node] 的子节点索引, 由于节点按广度优先顺序追加, 这些索引是连续的.
+     */
+    fun children(node: Int): IntRange {
+        val first = field(node, FIRST_CHILD)
+        return if (first < 0) IntRange.EMPTY else first until first + childCount(node)
+    }
+
+    private fun field(node: Int, offset: Int): Int {
+        if (node !in 0 until size) throw IndexOutOfBoundsException("Node $node out of $size")
+        return mData[node * STRIDE + offset]
+    }
+
+    private fun string(index: Int) = if (index == NO_STRING) null else mStrings[index]
+
+    private fun intern(s: CharSequence?): Int {
+        s ?: return NO_STRING
+        val str = s.toString()
+        return mStringIndex.getOrPut(str) { mStrings.size.also { mStrings += str } }
+    }
+
+    private fun append(parent: Int, depth: Int, node: UiObject): Int {
+        val index = size
+        ensureCapacity(index + 1)
+        val bounds = node.bounds()
+        var flags = 0
+        if (node.isClickable) flags = flags or FLAG_CLICKABLE
+        if (node.isLongClickable) flags = flags or FLAG_LONG_CLICKABLE
+        if (node.isScrollable) flags = flags or FLAG_SCROLLABLE
+        if (node.isCheckable) flags = flags or FLAG_CHECKABLE
+        if (node.isChecked) flags = flags or FLAG_CHECKED
+        if (node.isEnabled) flags = flags or FLAG_ENABLED
+        if (node.isFocusable) flags = flags or FLAG_FOCUSABLE
+        if (node.isSelected) flags = flags or FLAG_SELECTED
+        if (node.isVisibleToUser) flags = flags or FLAG_VISIBLE_TO_USER
+        if (node.isEditable) flags = flags or FLAG_EDITABLE
+        val base = index * STRIDE
+        mData[base + PARENT] = parent
+        mData[base + DEPTH] = depth
+        mData[base + INDEX_IN_PARENT] = node.indexInParent()
+        mData[base + CHILD_COUNT] = 0
+        mData[base + FIRST_CHILD] = -1
+        mData[base + CLASS_NAME] = intern(node.className())
+        mData[base + PACKAGE_NAME] = intern(node.packageName())
+        mData[base + ID] = intern(node.fullId())
+        mData[base + TEXT] = intern(node.text())
+        mData[base + DESC] = intern(node.desc())
+        mData[base + LEFT] = bounds.left
+        mData[base + TOP] = bounds.top
+        mData[base + RIGHT] = bounds.right
+        mData[base + BOTTOM] = bounds.bottom
+        mData[base + FLAGS] = flags
+        if (parent >= 0) {
+            val parentBase = parent * STRIDE
+            if (mData[parentBase + CHILD_COUNT] == 0) mData[parentBase + FIRST_CHILD] = index
+            mData[parentBase + CHILD_COUNT] += 1
+        }
+        size += 1
+        return index
+    }
+
+    private fun ensureCapacity(nodes: Int) {
+        if (nodes * STRIDE > mData.size) {
+            mData = mData.copyOf(maxOf(nodes * STRIDE, mData.size * 2))
+        }
+    }
+
+    /**
+     * Write the dump in a compact binary form, which could be read back by [readFrom].
+     *
+     * zh-CN: 以紧凑的二进制形式写出转储, 可通过 [readFrom] 读回.
+     */
+    @Throws(IOException::class)
+    fun writeTo(output: OutputStream) {
+        val out = DataOutputStream(output)
+        out.writeInt(MAGIC)
+        out.writeInt(VERSION)
+        out.writeBoolean(isTruncated)
+        out.writeInt(mStrings.size)
+        // @Hint by agent on Oct 19, 2026.
+        //  ! DataOutputStream.writeUTF is limited to 65535 bytes, which texts of large WebView pages may exceed,
+        //  ! so strings are written as length-prefixed UTF-8 byte arrays instead.
+        //  ! zh-CN: DataOutputStream.writeUTF 限制为 65535 字节, 大型 WebView 页面的文本可能超出此限制, 因此字符串改以带长度前缀的 UTF-8 字节数组写出.
+        mStrings.forEach { s ->
+            val bytes = s.toByteArray(Charsets.UTF_8)
+            out.writeInt(bytes.size)
+            out.write(bytes)
+        }
+        out.writeInt(size)
+        for (i in 0 until size * STRIDE) out.writeInt(mData[i])
+        out.flush()
+    }
+
+    override fun toString() = "FlatNodeDump(size=$size, strings=${mStrings.size}, truncated=$isTruncated)"
+
+    fun interface ProgressListener {
+
+        /**
+         * Called on the capturing thread each time another batch of nodes is appended.
+         * Nodes in `[from, to)` are ready for rendering, and their parents are always appended before them.
+         *
+         * zh-CN: 每追加一批节点时在采集线程中调用. 区间 `[from, to)` 内的节点可供渲染, 且其父节点总是先于它们被追加.
+         */
+        fun onProgress(dump: FlatNodeDump, from: Int, to: Int)
+
+    }
+
+    companion object {
+
+        const val FLAG_CLICKABLE = 1
+        const val FLAG_LONG_CLICKABLE = 1 shl 1
+        const val FLAG_SCROLLABLE = 1 shl 2
+        const val FLAG_CHECKABLE = 1 shl 3
+        const val FLAG_CHECKED = 1 shl 4
+        const val FLAG_ENABLED = 1 shl 5
+        const val FLAG_FOCUSABLE = 1 shl 6
+        const val FLAG_SELECTED = 1 shl 7
+        const val FLAG_VISIBLE_TO_USER = 1 shl 8
+        const val FLAG_EDITABLE = 1 shl 9
+
+        const val DEFAULT_MAX_DEPTH = 128
+        const val DEFAULT_MAX_NODES = 20_000
+        const val DEFAULT_PROGRESS_BATCH = 256
+
+        private const val PARENT = 0
+        private const val DEPTH = 1
+        private const val INDEX_IN_PARENT = 2
+        private const val CHILD_COUNT = 3
+        private const val CLASS_NAME = 4
+        private const val PACKAGE_NAME = 5
+        private const val ID = 6
+        private const val TEXT = 7
+        private const val DESC = 8
+        private const val LEFT = 9
+        private const val TOP = 10
+        private const val RIGHT = 11
+        private const val BOTTOM = 12
+        private const val FLAGS = 13
+        private const val FIRST_CHILD = 14
+        private const val STRIDE = 15
+
+        private const val NO_STRING = -1
+        private const val STRING_FIELDS = DESC - CLASS_NAME + 1
+        private const val STRING_CHUNK_SIZE = 8192
+
+        private const val MAGIC = 0x464C4E44 /* "FLND" */
+        private const val VERSION = 2
+
+        @JvmStatic
+        @JvmOverloads
+        fun capture(
+            root: UiObject,
+            maxDepth: Int = DEFAULT_MAX_DEPTH,
+            maxNodes: Int = DEFAULT_MAX_NODES,
+            listener: ProgressListener? = null,
+            progressBatch: Int = DEFAULT_PROGRESS_BATCH,
+        ): FlatNodeDump {
+            val dump = FlatNodeDump(ArrayList(), IntArray(STRIDE * 64), 0)
+            val queue = ArrayDeque<Pair<Int, UiObject>>()
+            fun append(parent: Int, depth: Int, node: UiObject) = queue.add(dump.append(parent, depth, node) to node)
+            append(-1, 0, root)
+            var reported = 0
+            while (queue.isNotEmpty()) {
+                val (index, node) = queue.poll()!!
+                val depth = dump.depth(index)
+                val childCount = node.childCount
+                if (childCount > 0 && depth >= maxDepth) {
+                    dump.isTruncated = true
+                    continue
+                }
+                for (i in 0 until childCount) {
+                    if (dump.size >= maxNodes) {
+                        dump.isTruncated = true
+                        queue.clear()
+                        break
+                    }
+                    val child = node.child(i) ?: continue
+                    append(index, depth + 1, child)
+                }
+                if (listener != null && dump.size - reported >= progressBatch) {
+                    listener.onProgress(dump, reported, dump.size)
+                    reported = dump.size
+                }
+            }
+            if (listener != null && dump.size > reported) {
+                listener.onProgress(dump, reported, dump.size)
+            }
+            return dump
+        }
+
+        /**
+         * Read a dump written by [writeTo].
+         * Counts and references from the stream are validated before anything is allocated for them,
+         * so that a truncated or forged stream fails with an [IOException] rather than an [OutOfMemoryError].
+         *
+         * zh-CN:
+         *
+         * 读取由 [writeTo] 写出的转储.
+         * 流中的数量及引用在为其分配内存前均会被校验, 因此截断或伪造的流将以 [IOException] 而非 [OutOfMemoryError] 失败.
+         */
+        @JvmStatic
+        @JvmOverloads
+        @Throws(IOException::class)
+        fun readFrom(input: InputStream, maxNodes: Int = DEFAULT_MAX_NODES): FlatNodeDump {
+            val inp = DataInputStream(input)
+            if (inp.readInt() != MAGIC) throw IOException("Not a flat node dump")
+            val version = inp.readInt()
+            if (version != VERSION) throw IOException("Unsupported flat node dump version: $version")
+            val truncated = inp.readBoolean()
+            val stringCount = inp.readInt()
+            if (stringCount !in 0..maxNodes * STRING_FIELDS) throw IOException("Invalid string count: $stringCount")
+            val strings = ArrayList<String>(stringCount)
+            repeat(stringCount) { strings += readString(inp) }
+            val size = inp.readInt()
+            if (size !in 0..maxNodes) throw IOException("Invalid node count: $size")
+            val data = IntArray(size * STRIDE) { inp.readInt() }
+            for (node in 0 until size) {
+                val base = node * STRIDE
+                val parent = data[base + PARENT]
+                if (if (node == 0) parent != -1 else parent !in 0 until node) {
+                    throw IOException("Invalid parent of node $node: $parent")
+                }
+                val childCount = data[base + CHILD_COUNT]
+                val firstChild = data[base + FIRST_CHILD]
+                if (childCount < 0 || childCount > 0 && (firstChild !in node + 1 until size || childCount > size - firstChild)) {
+                    throw IOException("Invalid children of node $node: $childCount from $firstChild")
+                }
+                for (offset in CLASS_NAME..DESC) {
+                    val index = data[base + offset]
+                    if (index != NO_STRING && index !in 0 until stringCount) {
+                        throw IOException("Invalid string index of node $node: $index")
+                    }
+                }
+            }
+            return FlatNodeDump(strings, data, size).also { it.isTruncated = truncated }
+        }
+
+        private fun readString(inp: DataInputStream): String {
+            val length = inp.readInt()
+            if (length < 0) throw IOException("Invalid string length: $length")
+            // @Hint by agent on Oct 19, 2026.
+            //  ! The length is not trusted for allocation, as a forged one could claim gigabytes,
+            //  ! so bytes are read in chunks and an EOFException is thrown once the stream runs out.
+            //  ! zh-CN: 长度不可信, 伪造的长度可能声明数 GB 的数据, 因此字节按块读取, 并在流耗尽时抛出 EOFException.
+            val out = ByteArrayOutputStream(minOf(length, STRING_CHUNK_SIZE))
+            val chunk = ByteArray(minOf(length, STRING_CHUNK_SIZE))
+            var remaining = length
+            while (remaining > 0) {
+                val n = minOf(remaining, chunk.size)
+                inp.readFully(chunk, 0, n)
+                out.write(chunk, 0, n)
+                remaining -= n
+            }
+            return out.toString(Charsets.UTF_8.name())
+        }
+
+    }
+
+}
@@ -16,6 +16,7 @@ import java.util.HashMap
 /**
  * Created by Stardust on Mar 10, 2017.
  * Modified by SuperMonster003 as of Jun 17, 2022.
+ * Modified by agent as of Oct 19, 2026.
  */
 
 @Suppress("unused", "MemberVisibilityCanBePrivate")
@@ -73,7 +74,7 @@ class NodeInfo(private val resources: Resources?, private val node: UiObject, va
         @JvmStatic
         fun boundsToString(rect: Rect) = rect.toString().replace(" - ", " , ").replace(" ", "").substring(4)
 
-        internal fun capture(resourcesCache: HashMap<String, Resources>, context: Context, uiObject: UiObject, parent: NodeInfo?): NodeInfo {
+        private fun create(resourcesCache: HashMap<String, Resources>, context: Context, uiObject: UiObject, parent: NodeInfo?): NodeInfo {
             val resources: Resources? = uiObject.packageName()?.let { pkg ->
                 return@let resourcesCache[pkg] ?: run {
                     try {
@@ -84,18 +85,39 @@ class NodeInfo(private val resources: Resources?, private val node: UiObject, va
                     }
                 }
             }
-            return NodeInfo(resources, uiObject, parent).apply {
-                0.until(uiObject.childCount)
-                    .asSequence()
-                    .mapNotNull { uiObject.child(it) }
-                    .forEach { children += capture(resourcesCache, context, it, this) }
-            }
+            return NodeInfo(resources, uiObject, parent).also { parent?.children?.add(it) }
         }
 
-        fun capture(context: Context, root: AccessibilityNodeInfo): NodeInfo {
-            val r = UiObject.createRoot(root)
+        /**
+         * Capture a [NodeInfo] tree breadth-first, which stops at [maxDepth] or [maxNodes],
+         * so that heavy screens such as large WebView pages will not freeze the inspector.
+         *
+         * zh-CN: 按广度优先顺序采集 [NodeInfo] 树, 采集在达到 [maxDepth] 或 [maxNodes] 时停止, 避免大型 WebView 页面等复杂界面导致检查器卡顿.
+         */
+        @JvmStatic
+        @JvmOverloads
+        fun capture(
+            context: Context,
+            root: AccessibilityNodeInfo,
+            maxDepth: Int = FlatNodeDump.DEFAULT_MAX_DEPTH,
+            maxNodes: Int = FlatNodeDump.DEFAULT_MAX_NODES,
+        ): NodeInfo {
             val resourcesCache = HashMap<String, Resources>()
-            return capture(resourcesCache, context, r, null)
+            val rootObject = UiObject.createRoot(root)
+            val rootInfo = create(resourcesCache, context, rootObject, null)
+            val queue = ArrayDeque<Triple<NodeInfo, UiObject, Int>>().apply { add(Triple(rootInfo, rootObject, 0)) }
+            var count = 1
+            while (queue.isNotEmpty()) {
+                val (info, node, depth) = queue.removeFirst()
+                if (depth >= maxDepth) continue
+                for (i in 0 until node.childCount) {
+                    if (count >= maxNodes) return rootInfo
+                    val child = node.child(i) ?: continue
+                    queue.addLast(Triple(create(resourcesCache, context, child, info), child, depth + 1))
+                    count += 1
+                }
+            }
+            return rootInfo
         }
 
     }
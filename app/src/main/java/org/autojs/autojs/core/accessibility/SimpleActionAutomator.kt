@@ -21,6 +21,8 @@ import org.autojs.autojs.core.automator.UiObject
 import org.autojs.autojs.core.automator.action.ActionFactory
 import org.autojs.autojs.core.automator.action.ActionTarget
 import org.autojs.autojs.core.automator.action.SimpleAction
+import org.autojs.autojs.core.automator.diff.TreeDiffWatcher
+import org.autojs.autojs.core.automator.diff.TreeSnapshot
 import org.autojs.autojs.core.image.ImageWrapper
 import org.autojs.autojs.runtime.ScriptRuntime
 import org.autojs.autojs.runtime.accessibility.AccessibilityConfig
@@ -29,11 +31,13 @@ import org.autojs.autojs.runtime.api.ScriptPromiseAdapter
 import org.autojs.autojs.runtime.api.augment.global.Global
 import org.autojs.autojs.util.DeveloperUtils
 import java.lang.ref.WeakReference
+import java.util.concurrent.CopyOnWriteArrayList
 import java.util.concurrent.atomic.AtomicInteger
 import android.accessibilityservice.AccessibilityService as AndroidAccessibilityService
 
 /**
  * Created by Stardust on Apr 2, 2017.
+ * Modified by agent as of Oct 19, 2026.
  */
 class SimpleActionAutomator(private val accessibilityBridge: AccessibilityBridge, private val scriptRuntime: ScriptRuntime) {
 
@@ -60,6 +64,8 @@ class SimpleActionAutomator(private val accessibilityBridge: AccessibilityBridge
 
     private var mPromiseAdapter: ScriptPromiseAdapter? = null
 
+    private val mTreeDiffWatchers = CopyOnWriteArrayList<TreeDiffWatcher>()
+
     @ScriptInterface
     fun text(text: String, i: Int) = ActionTarget.TextActionTarget(text, i)
 
@@ -167,6 +173,15 @@ class SimpleActionAutomator(private val accessibilityBridge: AccessibilityBridge
     @JvmOverloads
     fun gesturesAsync(strokes: Array<GestureDescription.StrokeDescription>, callback: GestureResultCallback? = null) = mGlobalActionAutomatorForGesture.gesturesAsync(strokes, callback)
 
+    /**
+     * Create a gesture queue which scales coordinates with the screen metrics currently set for this script,
+     * including metrics set after other gestures were performed.
+     *
+     * zh-CN: 创建手势队列, 其坐标按此脚本当前设置的屏幕度量缩放, 包括在执行过其他手势之后设置的度量.
+     */
+    @ScriptInterface
+    fun gestureQueue() = mGlobalActionAutomatorForGesture.apply { setScreenMetrics(mScreenMetrics) }.gestureQueue()
+
     @ScriptInterface
     fun click(x: Int, y: Int) = mGlobalActionAutomatorForGesture.click(x, y)
 
@@ -206,6 +221,24 @@ class SimpleActionAutomator(private val accessibilityBridge: AccessibilityBridge
         AccessibilityService.instance?.removeAccessibilityEventCallback(eventName)
     }
 
+    @ScriptInterface
+    @JvmOverloads
+    fun watchTree(listener: TreeDiffWatcher.Listener, maxDepth: Int = TreeSnapshot.DEFAULT_MAX_DEPTH): TreeDiffWatcher {
+        ensureService()
+        val rootSupplier = { accessibilityBridge.getRootInActiveWindow()?.let { UiObject.createRoot(it) } }
+        return TreeDiffWatcher(rootSupplier, listener, maxDepth).start().also { mTreeDiffWatchers += it }
+    }
+
+    fun unwatchTree(watcher: TreeDiffWatcher) {
+        watcher.stop()
+        mTreeDiffWatchers -= watcher
+    }
+
+    fun unwatchAllTrees() {
+        mTreeDiffWatchers.forEach { it.stop() }
+        mTreeDiffWatchers.clear()
+    }
+
     private fun performAction(simpleAction: SimpleAction): Boolean {
         ensureService()
         if (AccessibilityConfig.isUnintendedGuardEnabled() && isRunningPackageSelf) {
@@ -8,6 +8,7 @@ import androidx.annotation.FloatRange
 import org.autojs.autojs.annotation.ScriptInterface
 import org.autojs.autojs.concurrent.VolatileBox
 import org.autojs.autojs.core.automator.ActionArgument
+import org.autojs.autojs.core.automator.ScrollCollector
 import org.autojs.autojs.core.automator.UiObject
 import org.autojs.autojs.core.automator.UiObject.Companion.COMPASS_PASS_ON
 import org.autojs.autojs.core.automator.UiObject.Companion.Detector
@@ -22,6 +23,7 @@ import org.autojs.autojs.core.automator.filter.AppFilter
 import org.autojs.autojs.core.automator.filter.BooleanFilter
 import org.autojs.autojs.core.automator.filter.BoundsFilter
 import org.autojs.autojs.core.automator.filter.ClassNameFilter
+import org.autojs.autojs.core.automator.filter.CompiledSelector
 import org.autojs.autojs.core.automator.filter.ContentFilter
 import org.autojs.autojs.core.automator.filter.DescFilter
 import org.autojs.autojs.core.automator.filter.DoubleMinFilter
@@ -42,6 +44,7 @@ import org.autojs.autojs.core.automator.filter.ToleranceFilter
 import org.autojs.autojs.core.automator.search.BFS
 import org.autojs.autojs.core.automator.search.DFS
 import org.autojs.autojs.core.automator.search.SearchAlgorithm
+import org.autojs.autojs.core.trace.Tracer
 import org.autojs.autojs.runtime.ScriptRuntime
 import org.autojs.autojs.runtime.api.StringReadable
 import org.autojs.autojs.runtime.exception.ScriptInterruptedException
@@ -60,6 +63,7 @@ import java.math.BigInteger
 /**
  * Created by Stardust on Mar 9, 2017.
  * Modified by SuperMonster003 as of Jun 11, 2022.
+ * Modified by agent as of Oct 19, 2026.
  */
 open class UiSelector : UiObjectActions, StringReadable {
 
@@ -71,7 +75,7 @@ open class UiSelector : UiObjectActions, StringReadable {
 
     private val mAllocator: AccessibilityNodeInfoAllocator?
 
-    private val mA11yTool = AccessibilityTool()
+    private val mA11yTool by lazy { AccessibilityTool() }
 
     constructor() : this(AccessibilityService.bridge)
 
@@ -488,21 +492,20 @@ open class UiSelector : UiObjectActions, StringReadable {
     fun screenCoverage() = also { addFilter(DoubleMinFilter(DoubleMinFilter.SCREEN_COVERAGE)) }
 
     @ScriptInterface
-    fun algorithm(str: String) = when {
-        str.equals("BFS", true) -> also { searchAlgorithm = BFS }
-        str.equals("DFS", true) -> also { searchAlgorithm = DFS }
-        else -> throw IllegalArgumentException(str(R.string.error_unknown_algorithm_selector_param, str))
+    fun algorithm(str: String) = also {
+        ensureNotCompiled()
+        searchAlgorithm = when {
+            str.equals("BFS", true) -> BFS
+            str.equals("DFS", true) -> DFS
+            else -> throw IllegalArgumentException(str(R.string.error_unknown_algorithm_selector_param, str))
+        }
     }
 
     @ScriptInterface
     fun action(vararg actions: Any) = also { addFilter(ActionFilter(actions)) }
 
     @ScriptInterface
-    fun filter(filter: BooleanFilter.BooleanSupplier) = also {
-        addFilter(object : Filter {
-            override fun filter(node: UiObject) = filter[node]
-        })
-    }
+    fun filter(filter: BooleanFilter.BooleanSupplier) = also { addFilter(CallbackFilter(filter)) }
 
     @ScriptInterface
     fun hasChildren() = also { addFilter(BooleanFilter(BooleanFilter.HAS_CHILDREN)) }
@@ -674,7 +677,11 @@ open class UiSelector : UiObjectActions, StringReadable {
     fun find(): UiObjectCollection = find(Int.MAX_VALUE)
 
     @ScriptInterface
-    fun find(max: Int): UiObjectCollection {
+    fun find(max: Int): UiObjectCollection = Tracer.trace("selector-find", Tracer.CATEGORY_SELECTOR) {
+        findUntraced(max)
+    }
+
+    private fun findUntraced(max: Int): UiObjectCollection {
         mA11yTool.ensureService()
         return when {
             max >= 0 -> findInternal(max)
@@ -744,6 +751,14 @@ open class UiSelector : UiObjectActions, StringReadable {
         return untilFind()
     }
 
+    @ScriptInterface
+    @JvmOverloads
+    fun scrollCollect(
+        container: UiObject,
+        maxScrolls: Int = ScrollCollector.DEFAULT_MAX_SCROLLS,
+        keyFunction: ScrollCollector.KeyFunction = ScrollCollector.DEFAULT_KEY_FUNCTION,
+    ) = container.scrollCollect(this, maxScrolls, keyFunction)
+
     @ScriptInterface
     fun performAction(action: Int) = performAction(action, *emptyArray())
 
@@ -764,11 +779,22 @@ open class UiSelector : UiObjectActions, StringReadable {
 
     protected fun findImpl(max: Int): UiObjectCollection = findImpl(mAccessibilityBridge?.windowRoots() ?: emptyList(), max)
 
-    protected fun findImpl(node: AccessibilityNodeInfo, max: Int): UiObjectCollection = findImpl(listOf(node), max)
+    // @Hint by agent on Oct 19, 2026.
+    //  ! A root passed explicitly by the caller is searched as is, without the window filters of WindowSearch.
+    //  ! zh-CN: 调用方显式传入的根节点按原样搜索, 不经过 WindowSearch 的窗口过滤.
+    protected fun findImpl(node: AccessibilityNodeInfo, max: Int): UiObjectCollection = findImpl(listOf(node), max, false)
+
+    protected fun findImpl(roots: List<AccessibilityNodeInfo?>, max: Int): UiObjectCollection = findImpl(roots, max, true)
 
-    protected fun findImpl(roots: List<AccessibilityNodeInfo?>, max: Int): UiObjectCollection {
+    private fun findImpl(roots: List<AccessibilityNodeInfo?>, max: Int, isWindowSearchable: Boolean): UiObjectCollection {
         mAccessibilityBridge ?: return of(emptyList())
         fun isInWhitelist(node: AccessibilityNodeInfo) = !mAccessibilityBridge.config.isInBlacklist("${node.packageName}")
+        mAccessibilityBridge.windowSearch?.takeIf { isWindowSearchable }?.let { windowSearch ->
+            val accepted = roots.filterNotNull().filter { isInWhitelist(it) && windowSearch.accepts(it) }
+            return of(windowSearch.search(accepted, max, { "${it.packageName}" }, isParallelizable()) { root, limit ->
+                findAndReturnList(UiObject.createRoot(root, mAllocator), limit)
+            })
+        }
         val result = mutableListOf<UiObject?>()
         for (root in roots.filterNotNull()) {
             if (isInWhitelist(root)) {
@@ -781,9 +807,48 @@ open class UiSelector : UiObjectActions, StringReadable {
 
     private fun findOf(root: UiObject, max: Int): UiObjectCollection = of(findAndReturnList(root, max))
 
-    private fun addFilter(filter: Filter) = also { selector.add(filter) }
+    // @Hint by agent on Oct 19, 2026.
+    //  ! Allocators are not thread-safe, and callback filters call into the script engine,
+    //  ! so window roots are searched sequentially in either case.
+    //  ! zh-CN:
+    //  ! 分配器不是线程安全的, 且回调过滤器会调用脚本引擎,
+    //  ! 因此在这两种情况下窗口根节点均按顺序搜索.
+    private fun isParallelizable() = mAllocator == null && selector.filters.none { it is CallbackFilter }
+
+    private fun addFilter(filter: Filter) = also {
+        ensureNotCompiled()
+        selector.add(filter)
+    }
+
+    private fun ensureNotCompiled() {
+        if (selector is CompiledSelector) {
+            throw IllegalStateException(str(R.string.error_compiled_selector_is_immutable, toString()))
+        }
+    }
+
+    /**
+     * Freeze this selector into an immutable query with pre-compiled patterns and pre-ordered filters,
+     * which could be reused (e.g. in a loop) and shared between threads.
+     * Further conditions could not be added to the returned selector, use [plus] to derive a new one instead.
+     *
+     * zh-CN:
+     *
+     * 将此选择器固定为不可变的查询, 其正则表达式已预编译, 过滤器已预排序, 可重复使用 (如在循环中) 并在线程之间共享.
+     * 返回的选择器不能再添加条件, 如需派生新的选择器, 可使用 [plus].
+     */
+    @ScriptInterface
+    fun compile(): UiSelector = when (selector) {
+        is CompiledSelector -> this
+        else -> UiSelector(mAccessibilityBridge, mAllocator).also { compiled ->
+            compiled.selector = CompiledSelector.of(selector)
+            compiled.searchAlgorithm = searchAlgorithm
+        }
+    }
+
+    fun isCompiled() = selector is CompiledSelector
 
     fun append(selector: UiSelector?) = also {
+        ensureNotCompiled()
         selector?.let {
             this.selector.append(it)
             this.searchAlgorithm = it.searchAlgorithm
@@ -1156,6 +1221,10 @@ open class UiSelector : UiObjectActions, StringReadable {
             str(R.string.error_selector_method_without_calling, selector.toString())
         )
 
+        private class CallbackFilter(private val supplier: BooleanFilter.BooleanSupplier) : Filter {
+            override fun filter(node: UiObject) = supplier[node]
+        }
+
         private fun intermission() {
             if (Thread.currentThread().isInterrupted) {
                 throw ScriptInterruptedException()
@@ -0,0 +1,155 @@
+package org.autojs.autojs.core.accessibility
+
+import android.os.SystemClock
+import android.util.Log
+import android.view.accessibility.AccessibilityNodeInfo
+import android.view.accessibility.AccessibilityWindowInfo
+import org.autojs.autojs.core.automator.UiObject
+import org.autojs.autojs.runtime.exception.ScriptInterruptedException
+import org.autojs.autojs6.BuildConfig
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Future
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Options of searching multiple windows for [UiSelector].
+ *
+ * Windows are filtered by package name, window type and layer before any traversal,
+ * and the remaining window roots are searched in parallel on a bounded executor.
+ * Results are always merged in window order, so the outcome is the same as a sequential search.
+ *
+ * zh-CN:
+ *
+ * [UiSelector] 多窗口搜索的选项.
+ *
+ * 遍历前先按包名, 窗口类型及层级过滤窗口, 剩余的窗口根节点在有界线程池中并行搜索.
+ * 结果总是按窗口顺序合并, 因此与顺序搜索的结果一致.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+class WindowSearch @JvmOverloads constructor(
+    val packageNames: Set<String>? = null,
+    val windowTypes: Set<Int>? = null,
+    val minLayer: Int = Int.MIN_VALUE,
+    val maxLayer: Int = Int.MAX_VALUE,
+    val parallelism: Int = DEFAULT_PARALLELISM,
+) {
+
+    data class WindowTiming(val windowIndex: Int, val packageName: String?, val matchCount: Int, val elapsedNanos: Long)
+
+    /**
+     * Timings of each searched window in the latest search, in window order.
+     *
+     * zh-CN: 最近一次搜索中各个被搜索窗口的耗时, 按窗口顺序排列.
+     */
+    @Volatile
+    var lastTimings: List<WindowTiming> = emptyList()
+        private set
+
+    fun accepts(window: AccessibilityWindowInfo): Boolean {
+        if (windowTypes != null && window.type !in windowTypes) return false
+        if (window.layer !in minLayer..maxLayer) return false
+        return true
+    }
+
+    fun accepts(root: AccessibilityNodeInfo): Boolean {
+        if (packageNames != null && "${root.packageName}" !in packageNames) return false
+        return root.window?.let { accepts(it) } ?: (windowTypes == null)
+    }
+
+    /**
+     * Search [roots] with [searcher] and merge the results in the order of [roots].
+     * Roots are searched sequentially when [parallel] is false or there is only one of them.
+     *
+     * If the calling thread is interrupted while waiting, e.g. because the script is stopped,
+     * the pending searches are cancelled (and their threads interrupted) and [ScriptInterruptedException] is thrown.
+     *
+     * zh-CN:
+     *
+     * 使用 [searcher] 搜索 [roots], 并按 [roots] 的顺序合并结果. 当 [parallel] 为 false 或仅有一个根节点时, 顺序搜索.
+     *
+     * 若调用线程在等待期间被中断 (如脚本被停止), 将取消尚未完成的搜索 (并中断其线程), 并抛出 [ScriptInterruptedException].
+     */
+    @JvmOverloads
+    fun <R> search(
+        roots: List<R>,
+        max: Int,
+        packageNameOf: (R) -> String?,
+        parallel: Boolean = true,
+        searcher: (R, Int) -> List<UiObject>,
+    ): List<UiObject> {
+        val timings = arrayOfNulls<WindowTiming>(roots.size)
+        fun timed(index: Int, root: R, limit: Int): List<UiObject> {
+            val start = SystemClock.elapsedRealtimeNanos()
+            return searcher(root, limit).also {
+                timings[index] = WindowTiming(index, packageNameOf(root), it.size, SystemClock.elapsedRealtimeNanos() - start)
+            }
+        }
+
+        val result = ArrayList<UiObject>()
+        if (!parallel || roots.size <= 1 || parallelism <= 1) {
+            for ((index, root) in roots.withIndex()) {
+                result += timed(index, root, max - result.size)
+                if (result.size >= max) break
+            }
+        } else {
+            val executor = executor(parallelism)
+            val futures: List<Future<List<UiObject>>> = roots.mapIndexed { index, root ->
+                executor.submit<List<UiObject>> { timed(index, root, max) }
+            }
+            for (future in futures) {
+                if (result.size >= max) {
+                    future.cancel(true)
+                    continue
+                }
+                val found = try {
+                    future.get()
+                } catch (e: InterruptedException) {
+                    futures.forEach { it.cancel(true) }
+                    throw ScriptInterruptedException()
+                } catch (e: ExecutionException) {
+                    futures.forEach { it.cancel(true) }
+                    throw e.cause ?: e
+                }
+                result += if (found.size > max - result.size) found.subList(0, max - result.size) else found
+            }
+        }
+        lastTimings = timings.filterNotNull()
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "search: ${lastTimings.joinToString { "#${it.windowIndex}(${it.packageName}): ${it.matchCount} in ${it.elapsedNanos / 1000}us" }}")
+        }
+        return result
+    }
+
+    override fun toString() = "WindowSearch(packageNames=$packageNames, windowTypes=$windowTypes, layer=[$minLayer, $maxLayer], parallelism=$parallelism)"
+
+    companion object {
+
+        private val TAG = WindowSearch::class.java.simpleName
+
+        @JvmField
+        val DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors().coerceIn(1, 4)
+
+        private val sThreadCount = AtomicInteger()
+
+        @Volatile
+        private var sExecutor: ThreadPoolExecutor? = null
+
+        @Synchronized
+        private fun executor(parallelism: Int): ThreadPoolExecutor {
+            val executor = sExecutor ?: ThreadPoolExecutor(parallelism, parallelism, 30L, TimeUnit.SECONDS, LinkedBlockingQueue()) { r ->
+                Thread(r, "window-search-${sThreadCount.incrementAndGet()}").apply { isDaemon = true }
+            }.apply { allowCoreThreadTimeOut(true) }.also { sExecutor = it }
+            if (executor.maximumPoolSize < parallelism) {
+                executor.maximumPoolSize = parallelism
+                executor.corePoolSize = parallelism
+            }
+            return executor
+        }
+
+    }
+
+}
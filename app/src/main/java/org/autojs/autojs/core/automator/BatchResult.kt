@@ -0,0 +1,36 @@
+package org.autojs.autojs.core.automator
+
+/**
+ * Per-node results of a batched operation on a [UiObjectCollection].
+ *
+ * zh-CN: [UiObjectCollection] 批量操作中每个节点的结果.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+class BatchResult(val results: List<NodeResult>, val elapsedMillis: Long) {
+
+    /**
+     * @param startOffsetNanos Time from the start of the batch to the start of the operation on this node.
+     * For taps combined into gestures, it is the scheduled offset rather than a measured one.
+     *
+     * zh-CN: 从批量操作开始至此节点的操作开始所经过的时间. 对于合并进手势的点击, 该值为计划偏移量而非实测值.
+     */
+    data class NodeResult(
+        val index: Int,
+        val node: UiObject,
+        val isSuccessful: Boolean,
+        val startOffsetNanos: Long,
+        val elapsedNanos: Long,
+    )
+
+    val size get() = results.size
+
+    val successCount get() = results.count { it.isSuccessful }
+
+    val isAllSuccessful get() = results.all { it.isSuccessful }
+
+    operator fun get(i: Int) = results[i]
+
+    override fun toString() = "BatchResult(successful=$successCount/$size, elapsed=${elapsedMillis}ms)"
+
+}
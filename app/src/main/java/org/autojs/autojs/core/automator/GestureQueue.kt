@@ -0,0 +1,440 @@
+package org.autojs.autojs.core.automator
+
+import android.accessibilityservice.AccessibilityService.GestureResultCallback
+import android.accessibilityservice.GestureDescription
+import android.accessibilityservice.GestureDescription.StrokeDescription
+import android.graphics.Path
+import android.os.Build
+import android.os.Handler
+import android.os.HandlerThread
+import android.os.SystemClock
+import androidx.annotation.RequiresApi
+import org.autojs.autojs.runtime.exception.ScriptInterruptedException
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+import kotlin.math.hypot
+import kotlin.math.max
+import kotlin.math.min
+import kotlin.math.roundToInt
+
+/**
+ * Pipelines a batch of gestures through a [Dispatcher].
+ *
+ * Strokes (including their paths) are all built before the first dispatch,
+ * and each gesture is dispatched right after the completion of the previous one,
+ * so the calling thread waits only once for the whole batch instead of once per gesture.
+ *
+ * zh-CN:
+ *
+ * 通过 [Dispatcher] 流水线式地分发一批手势.
+ *
+ * 所有笔画 (包括路径) 均在首次分发前构建完成, 每个手势均在上一个手势完成后立即分发,
+ * 因此调用线程对整批手势只需等待一次, 而非每个手势等待一次.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+class GestureQueue @JvmOverloads constructor(
+    private val dispatcher: Dispatcher,
+    private val pointsTransformer: ((IntArray) -> IntArray)? = null,
+) {
+
+    /**
+     * Performs one gesture at a time. Gestures are handed over as their strokes, so that the queue itself
+     * does not depend on a gesture description being buildable (which it is not outside a device).
+     *
+     * zh-CN: 每次执行一个手势. 手势以其笔画的形式交付, 因此队列本身不依赖于可构建的手势描述 (在设备之外无法构建).
+     */
+    interface Dispatcher {
+
+        /**
+         * Dispatch a gesture made of [strokes], and report whether it was completed (rather than cancelled) through [onResult].
+         * Return false if the gesture was rejected, in which case [onResult] will not be called.
+         *
+         * zh-CN: 分发由 [strokes] 组成的手势, 并通过 [onResult] 报告手势是否完成 (而非被取消). 手势被拒绝时返回 false, 此时不会调用 [onResult].
+         */
+        fun dispatch(strokes: List<StrokeDescription>, onResult: (isCompleted: Boolean) -> Unit): Boolean
+
+        val maxStrokeCount: Int get() = GestureDescription.getMaxStrokeCount()
+
+        val maxGestureDuration: Long get() = GestureDescription.getMaxGestureDuration()
+
+    }
+
+    /**
+     * Dispatches gestures through [dispatchGesture], usually [android.accessibilityservice.AccessibilityService.dispatchGesture].
+     * Results are delivered on [handler], or on a shared callback thread if it is null,
+     * so that a caller waiting on the main thread does not block its own callbacks.
+     *
+     * zh-CN: 通过 [dispatchGesture] (通常为 [android.accessibilityservice.AccessibilityService.dispatchGesture]) 分发手势.
+     * 结果在 [handler] 上传递, 其为 null 时在共享的回调线程上传递, 以免在主线程等待的调用方阻塞其自身的回调.
+     */
+    class ServiceDispatcher(
+        private val handler: Handler?,
+        private val dispatchGesture: (description: GestureDescription, callback: GestureResultCallback, handler: Handler) -> Boolean,
+    ) : Dispatcher {
+
+        override fun dispatch(strokes: List<StrokeDescription>, onResult: (isCompleted: Boolean) -> Unit): Boolean {
+            val description = GestureDescription.Builder().apply { strokes.forEach { addStroke(it) } }.build()
+            return dispatchGesture(description, object : GestureResultCallback() {
+                override fun onCompleted(gestureDescription: GestureDescription) = onResult(true)
+                override fun onCancelled(gestureDescription: GestureDescription) = onResult(false)
+            }, handler ?: callbackHandler)
+        }
+
+    }
+
+    private val mPending = ArrayList<List<StrokeDescription>>()
+
+    val size get() = mPending.size
+
+    /**
+     * Add a gesture consisting of one or more simultaneous strokes.
+     */
+    fun add(vararg strokes: StrokeDescription) = also {
+        require(strokes.isNotEmpty()) { "At least one stroke is required" }
+        mPending += strokes.toList()
+    }
+
+    /**
+     * Add a gesture from a compact point array in the form of `[ x0, y0, x1, y1, ... ]`.
+     */
+    @JvmOverloads
+    fun add(points: IntArray, duration: Long, start: Long = 0L, stepPx: Float = 0f) = also {
+        add(StrokeDescription(pathOf(transform(points), stepPx), start, max(1L, duration)))
+    }
+
+    fun tap(x: Int, y: Int, duration: Long) = add(intArrayOf(x, y), duration)
+
+    fun swipe(x1: Int, y1: Int, x2: Int, y2: Int, duration: Long) = add(intArrayOf(x1, y1, x2, y2), duration)
+
+    /**
+     * Add a tap at each point of a compact point array in the form of `[ x0, y0, x1, y1, ... ]`.
+     *
+     * Taps are packed as strokes with staggered start times into as few gestures as the platform allows,
+     * limited by [Dispatcher.maxStrokeCount] and [Dispatcher.maxGestureDuration].
+     * The returned array holds, for each tap, the index of the gesture carrying it among all pending gestures,
+     * followed by its start time within that gesture.
+     *
+     * zh-CN:
+     *
+     * 在形如 `[ x0, y0, x1, y1, ... ]` 的紧凑点数组的每个点处添加点击.
+     *
+     * 点击以起始时间错开的笔画形式, 在平台允许的范围内打包进尽可能少的手势中,
+     * 受 [Dispatcher.maxStrokeCount] 及 [Dispatcher.maxGestureDuration] 限制.
+     * 返回的数组依次包含每个点击所在手势在全部待处理手势中的索引, 及其在该手势中的起始时间.
+     */
+    @JvmOverloads
+    fun taps(points: IntArray, duration: Long, interval: Long = DEFAULT_TAP_INTERVAL): LongArray {
+        val count = checkPoints(points)
+        val transformed = transform(points)
+        val slot = max(1L, duration) + max(0L, interval)
+        val perGesture = min(
+            dispatcher.maxStrokeCount.toLong(),
+            max(1L, dispatcher.maxGestureDuration / slot),
+        ).toInt()
+        val placements = LongArray(count * 2)
+        var strokes = ArrayList<StrokeDescription>(perGesture)
+        for (i in 0 until count) {
+            val start = strokes.size * slot
+            val path = pathOf(intArrayOf(transformed[i * 2], transformed[i * 2 + 1]), 0f)
+            strokes += StrokeDescription(path, start, max(1L, duration))
+            placements[i * 2] = mPending.size.toLong()
+            placements[i * 2 + 1] = start
+            if (strokes.size == perGesture || i == count - 1) {
+                add(*strokes.toTypedArray())
+                strokes = ArrayList(perGesture)
+            }
+        }
+        return placements
+    }
+
+    /**
+     * Add a long drag along a compact point array, split into continued strokes of [segmentDuration] at most,
+     * so that the drag is not limited by [GestureDescription.getMaxGestureDuration].
+     *
+     * The path is split into pieces of equal length, with points interpolated at the boundaries,
+     * so that a drag between two points only is split as well, at a constant speed.
+     *
+     * zh-CN:
+     *
+     * 沿紧凑点数组添加长拖动手势, 拆分为时长不超过 [segmentDuration] 的连续笔画, 以突破 [GestureDescription.getMaxGestureDuration] 的限制.
+     *
+     * 路径被拆分为等长的若干段, 并在分段处插值, 因此仅含两个点的拖动同样可被拆分, 且速度恒定.
+     */
+    @RequiresApi(Build.VERSION_CODES.O)
+    @JvmOverloads
+    fun drag(points: IntArray, duration: Long, segmentDuration: Long = DEFAULT_SEGMENT_DURATION) = also {
+        require(checkPoints(points) >= 2) { "A drag requires at least two points" }
+        require(segmentDuration > 0L) { "Segment duration must be positive: $segmentDuration" }
+        val segments = max(1L, (duration + segmentDuration - 1) / segmentDuration).toInt()
+        val perSegmentDuration = max(1L, duration / segments)
+        var stroke: StrokeDescription? = null
+        splitPolyline(points, segments).forEachIndexed { i, piece ->
+            val path = pathOf(transform(piece), 0f)
+            val willContinue = i < segments - 1
+            stroke = stroke?.continueStroke(path, 0L, perSegmentDuration, willContinue)
+                ?: StrokeDescription(path, 0L, perSegmentDuration, willContinue)
+            add(stroke!!)
+        }
+    }
+
+    /**
+     * Dispatch all pending gestures back-to-back.
+     *
+     * The returned future completes with true if every gesture was completed,
+     * or with false as soon as one is cancelled (the rest will not be dispatched).
+     *
+     * zh-CN: 连续分发所有待处理手势. 全部手势完成时 future 结果为 true, 任一手势被取消时立即为 false (其余手势不再分发).
+     */
+    fun dispatch(): CompletableFuture<Result> = pipeline().start().future
+
+    /**
+     * Dispatch all pending gestures back-to-back and wait for them at most [timeoutMillis].
+     *
+     * On timeout, for instance when the accessibility service died in the meantime, no further gesture is dispatched,
+     * and the result is unsuccessful with the gestures completed so far, as [GlobalActionAutomator.gestures] gives false.
+     *
+     * zh-CN:
+     *
+     * 连续分发所有待处理手势, 并最多等待 [timeoutMillis] 毫秒.
+     *
+     * 超时 (例如无障碍服务在此期间终止) 时不再分发后续手势, 结果为失败并包含已完成的手势数, 与 [GlobalActionAutomator.gestures] 返回 false 一致.
+     *
+     * @throws ScriptInterruptedException if the waiting thread is interrupted.
+     */
+    @JvmOverloads
+    fun dispatchAndWait(timeoutMillis: Long = DEFAULT_TIMEOUT): Result {
+        val pipeline = pipeline().start()
+        return try {
+            pipeline.future.get(timeoutMillis, TimeUnit.MILLISECONDS)
+        } catch (e: TimeoutException) {
+            pipeline.cancel()
+        } catch (e: InterruptedException) {
+            pipeline.cancel()
+            throw ScriptInterruptedException()
+        } catch (e: ExecutionException) {
+            throw e.cause ?: e
+        }
+    }
+
+    private fun pipeline(): Pipeline<List<StrokeDescription>> {
+        val gestures = mPending.toList().also { mPending.clear() }
+        return Pipeline(gestures) { strokes, onResult -> dispatcher.dispatch(strokes, onResult) }
+    }
+
+    private fun transform(points: IntArray) = pointsTransformer?.invoke(points) ?: points
+
+    /**
+     * Dispatches [items] one after another, each right after the completion of the previous one.
+     *
+     * Completions reported synchronously from within the dispatch call are handled by the dispatching loop
+     * rather than by dispatching the next item from the callback, so the stack depth stays constant
+     * however many items there are.
+     *
+     * zh-CN:
+     *
+     * 逐个分发 [items], 每项均在上一项完成后立即分发.
+     *
+     * 在分发调用内同步报告的完成由分发循环处理, 而非在回调中分发下一项, 因此无论项数多少, 调用栈深度均保持不变.
+     */
+    internal class Pipeline<T>(
+        private val items: List<T>,
+        private val dispatch: (item: T, onResult: (isCompleted: Boolean) -> Unit) -> Boolean,
+    ) {
+
+        val future = CompletableFuture<Result>()
+
+        private val mStartedAt = SystemClock.uptimeMillis()
+
+        private var mIsDispatching = false
+        private var mIsSettled = false
+        private var mIsCancelled = false
+        private var mCompletedCount = 0
+
+        fun start() = also { runFrom(0) }
+
+        /**
+         * Stop dispatching, and settle the future with the items completed so far unless it is already settled.
+         *
+         * zh-CN: 停止分发, 并在 future 尚未完成时以当前已完成的项数将其完成.
+         */
+        fun cancel(): Result {
+            val completedCount = synchronized(this) {
+                mIsCancelled = true
+                mCompletedCount
+            }
+            finish(false, completedCount)
+            return future.getNow(null)
+        }
+
+        private fun runFrom(first: Int) {
+            var index = first
+            while (index < items.size) {
+                synchronized(this) {
+                    if (mIsCancelled) return
+                    mIsDispatching = true
+                    mIsSettled = false
+                }
+                val current = index
+                val isAccepted = try {
+                    dispatch(items[current]) { isCompleted -> onResult(current, isCompleted) }
+                } catch (e: Exception) {
+                    future.completeExceptionally(e)
+                    return
+                }
+                if (!isAccepted) {
+                    finish(false, current)
+                    return
+                }
+                synchronized(this) {
+                    mIsDispatching = false
+                    // The result will arrive later, and the callback will carry on from there.
+                    // zh-CN: 结果将稍后到达, 届时由回调继续.
+                    if (!mIsSettled) return
+                }
+                index += 1
+            }
+            finish(true, items.size)
+        }
+
+        private fun onResult(index: Int, isCompleted: Boolean) {
+            if (!isCompleted) {
+                finish(false, index)
+                return
+            }
+            synchronized(this) {
+                mCompletedCount = index + 1
+                if (mIsDispatching) {
+                    mIsSettled = true
+                    return
+                }
+            }
+            runFrom(index + 1)
+        }
+
+        private fun finish(isSuccessful: Boolean, completedCount: Int) {
+            future.complete(Result(isSuccessful, completedCount, items.size, SystemClock.uptimeMillis() - mStartedAt))
+        }
+
+    }
+
+    data class Result(val isSuccessful: Boolean, val completedCount: Int, val totalCount: Int, val elapsedMillis: Long)
+
+    companion object {
+
+        const val DEFAULT_SEGMENT_DURATION = 1_000L
+
+        const val DEFAULT_TAP_INTERVAL = 50L
+
+        /**
+         * Same as the limit of [GlobalActionAutomator.gestures] waiting for a single gesture.
+         *
+         * zh-CN: 与 [GlobalActionAutomator.gestures] 等待单个手势的时限相同.
+         */
+        const val DEFAULT_TIMEOUT = 128_000L
+
+        private val callbackHandler by lazy {
+            Handler(HandlerThread("GestureQueue-callbacks").apply { start() }.looper)
+        }
+
+        /**
+         * Split a polyline given as a compact point array into [segments] pieces of equal length.
+         * Each piece starts exactly where the previous one ends, as required for continued strokes.
+         *
+         * zh-CN: 将以紧凑点数组表示的折线拆分为 [segments] 段等长部分. 每段的起点与上一段的终点完全相同, 以满足连续笔画的要求.
+         */
+        @JvmStatic
+        fun splitPolyline(points: IntArray, segments: Int): List<IntArray> {
+            val count = checkPoints(points)
+            require(segments > 0) { "Segments must be positive: $segments" }
+            val lengths = DoubleArray(count)
+            for (i in 1 until count) {
+                lengths[i] = lengths[i - 1] + hypot(
+                    (points[i * 2] - points[i * 2 - 2]).toDouble(),
+                    (points[i * 2 + 1] - points[i * 2 - 1]).toDouble(),
+                )
+            }
+            val total = lengths[count - 1]
+            val pieces = ArrayList<IntArray>(segments)
+            var vertex = 1
+            var start = intArrayOf(points[0], points[1])
+            for (k in 1..segments) {
+                val piece = ArrayList<Int>()
+                piece += start[0]
+                piece += start[1]
+                val distance = total * k / segments
+                while (vertex < count - 1 && lengths[vertex] < distance) {
+                    piece += points[vertex * 2]
+                    piece += points[vertex * 2 + 1]
+                    vertex += 1
+                }
+                val end = when {
+                    k == segments -> intArrayOf(points[count * 2 - 2], points[count * 2 - 1])
+                    else -> pointAt(points, lengths, distance)
+                }
+                piece += end[0]
+                piece += end[1]
+                pieces += piece.toIntArray()
+                start = end
+            }
+            return pieces
+        }
+
+        private fun pointAt(points: IntArray, lengths: DoubleArray, distance: Double): IntArray {
+            var i = 1
+            while (i < lengths.size - 1 && lengths[i] < distance) i += 1
+            val span = lengths[i] - lengths[i - 1]
+            val t = if (span > 0.0) (distance - lengths[i - 1]) / span else 0.0
+            return intArrayOf(
+                (points[i * 2 - 2] + (points[i * 2] - points[i * 2 - 2]) * t).roundToInt(),
+                (points[i * 2 - 1] + (points[i * 2 + 1] - points[i * 2 - 1]) * t).roundToInt(),
+            )
+        }
+
+        private fun checkPoints(points: IntArray): Int {
+            require(points.isNotEmpty() && points.size % 2 == 0) { "Points must be a non-empty array of x, y pairs" }
+            for (v in points) require(v >= 0) { "Coordinates cannot be negative: ${points.contentToString()}" }
+            return points.size / 2
+        }
+
+        /**
+         * Build a path from a compact point array in the form of `[ x0, y0, x1, y1, ... ]`.
+         *
+         * When [stepPx] is positive, intermediate points are interpolated every [stepPx] pixels,
+         * which gives apps with velocity trackers a smoother trajectory.
+         *
+         * zh-CN:
+         *
+         * 由形如 `[ x0, y0, x1, y1, ... ]` 的紧凑点数组构建路径.
+         *
+         * 当 [stepPx] 为正数时, 每隔 [stepPx] 像素插入中间点, 为依赖速度追踪的应用提供更平滑的轨迹.
+         */
+        @JvmStatic
+        fun pathOf(points: IntArray, stepPx: Float): Path {
+            val count = checkPoints(points)
+            val path = Path()
+            path.moveTo(points[0].toFloat(), points[1].toFloat())
+            for (i in 1 until count) {
+                val x0 = points[i * 2 - 2].toFloat()
+                val y0 = points[i * 2 - 1].toFloat()
+                val x1 = points[i * 2].toFloat()
+                val y1 = points[i * 2 + 1].toFloat()
+                if (stepPx > 0f) {
+                    val steps = min(MAX_INTERPOLATED_STEPS, (hypot(x1 - x0, y1 - y0) / stepPx).toInt())
+                    for (s in 1 until steps) {
+                        val t = s.toFloat() / steps
+                        path.lineTo(x0 + (x1 - x0) * t, y0 + (y1 - y0) * t)
+                    }
+                }
+                path.lineTo(x1, y1)
+            }
+            return path
+        }
+
+        private const val MAX_INTERPOLATED_STEPS = 256
+
+    }
+
+}
@@ -20,6 +20,7 @@ import org.autojs.autojs6.R
 /**
  * Created by Stardust on May 16, 2017.
  * Modified by SuperMonster003 as of Dec 1, 2021.
+ * Modified by agent as of Oct 19, 2026.
  */
 class GlobalActionAutomator(private val context: Context, private val handler: Handler?, private val serviceProvider: () -> AccessibilityService) {
 
@@ -176,6 +177,18 @@ class GlobalActionAutomator(private val context: Context, private val handler: H
         return result.get()
     }
 
+    /**
+     * Create a queue which pipelines a batch of gestures and returns one future for the whole batch,
+     * rather than blocking for the completion of each gesture like [gestures] does.
+     *
+     * zh-CN: 创建一个手势队列, 以流水线方式分发一批手势并对整批返回一个 future, 而非像 [gestures] 那样阻塞等待每个手势完成.
+     */
+    fun gestureQueue() = GestureQueue(GestureQueue.ServiceDispatcher(handler) { description, callback, callbackHandler ->
+        service.dispatchGesture(description, callback, callbackHandler)
+    }) { points ->
+        IntArray(points.size) { i -> if (i % 2 == 0) scaleX(points[i]) else scaleY(points[i]) }
+    }
+
     fun gesturesAsync(strokes: Array<out GestureDescription.StrokeDescription>, callback: GestureResultCallback? = null) {
         GestureDescription.Builder().let { builder ->
             val built = strokes.forEach { builder.addStroke(it) }.let { builder.build() }
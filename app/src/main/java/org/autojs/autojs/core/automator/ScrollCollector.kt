@@ -0,0 +1,96 @@
+package org.autojs.autojs.core.automator
+
+import android.os.SystemClock
+import org.autojs.autojs.core.accessibility.UiSelector
+
+/**
+ * Scrolls a container and collects the nodes matching a selector after each scroll.
+ *
+ * Only the subtree of the container is searched again after a scroll, rather than the whole window,
+ * nodes are de-duplicated by a stable key, and the end of the list is detected either by a failed scroll
+ * or by a number of consecutive scrolls which bring no new node.
+ *
+ * zh-CN:
+ *
+ * 滚动容器并在每次滚动后收集与选择器匹配的节点.
+ *
+ * 每次滚动后仅重新搜索容器的子树, 而非整个窗口, 节点通过稳定的键去重,
+ * 当滚动失败或连续若干次滚动均未带来新节点时, 视为已到达列表末尾.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+class ScrollCollector @JvmOverloads constructor(
+    private val container: UiObject,
+    private val selector: UiSelector,
+    private val keyFunction: KeyFunction = DEFAULT_KEY_FUNCTION,
+    private val maxScrolls: Int = DEFAULT_MAX_SCROLLS,
+    private val maxItems: Int = Int.MAX_VALUE,
+    private val settleMillis: Long = DEFAULT_SETTLE_MILLIS,
+    private val idleScrolls: Int = DEFAULT_IDLE_SCROLLS,
+) {
+
+    fun interface KeyFunction {
+        fun keyOf(node: UiObject): Any?
+    }
+
+    fun interface Scroller {
+        fun scroll(container: UiObject): Boolean
+    }
+
+    /**
+     * Collect items until the end of the list, [maxScrolls] or [maxItems] is reached.
+     * Nodes whose key is null are collected without de-duplication.
+     *
+     * zh-CN: 收集节点, 直至到达列表末尾, [maxScrolls] 或 [maxItems]. 键为 null 的节点不参与去重, 直接收集.
+     */
+    @JvmOverloads
+    fun collect(scroller: Scroller = Scroller { it.scrollForward() }): Result {
+        val startedAt = SystemClock.uptimeMillis()
+        val seen = HashSet<Any>()
+        val items = ArrayList<UiObject>()
+        var scrolls = 0
+        var idle = 0
+        var reachedEnd = false
+        while (true) {
+            var added = 0
+            for (node in selector.findOf(container)) {
+                node ?: continue
+                val key = keyFunction.keyOf(node)
+                if (key != null && !seen.add(key)) continue
+                items += node
+                added += 1
+                if (items.size >= maxItems) break
+            }
+            idle = if (added == 0 && scrolls > 0) idle + 1 else 0
+            if (items.size >= maxItems || scrolls >= maxScrolls) break
+            if (idle >= idleScrolls) {
+                reachedEnd = true
+                break
+            }
+            if (!scroller.scroll(container)) {
+                reachedEnd = true
+                break
+            }
+            scrolls += 1
+            if (settleMillis > 0) SystemClock.sleep(settleMillis)
+            container.refresh()
+        }
+        return Result(UiObjectCollection.of(items), scrolls, reachedEnd, SystemClock.uptimeMillis() - startedAt)
+    }
+
+    data class Result(val items: UiObjectCollection, val scrollCount: Int, val reachedEnd: Boolean, val elapsedMillis: Long)
+
+    companion object {
+
+        const val DEFAULT_MAX_SCROLLS = 100
+        const val DEFAULT_SETTLE_MILLIS = 200L
+        const val DEFAULT_IDLE_SCROLLS = 2
+
+        @JvmField
+        val DEFAULT_KEY_FUNCTION = KeyFunction { node ->
+            listOf(node.fullId(), node.className(), node.text(), node.desc())
+        }
+
+    }
+
+}
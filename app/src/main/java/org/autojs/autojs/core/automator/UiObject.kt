@@ -2,7 +2,9 @@ package org.autojs.autojs.core.automator
 
 import android.annotation.SuppressLint
 import android.content.pm.PackageManager
+import android.graphics.Rect
 import android.os.Bundle
+import android.util.Log
 import android.view.accessibility.AccessibilityNodeInfo
 import androidx.core.view.accessibility.AccessibilityNodeInfoCompat
 import org.autojs.autojs.AutoJs
@@ -11,6 +13,7 @@ import org.autojs.autojs.app.GlobalAppContext
 import org.autojs.autojs.core.accessibility.AccessibilityNodeInfoAllocator
 import org.autojs.autojs.core.accessibility.AccessibilityNodeInfoHelper
 import org.autojs.autojs.core.accessibility.UiSelector
+import org.autojs.autojs.core.automator.path.UiPath
 import org.autojs.autojs.extension.AnyExtensions.isJsNullish
 import org.autojs.autojs.extension.AnyExtensions.isJsUndefined
 import org.autojs.autojs.extension.ArrayExtensions.toHashCode
@@ -42,6 +45,8 @@ open class UiObject(
 
     private val accessibilityBridge by lazy { AutoJs.instance.createAccessibilityBridge() }
 
+    private val mPropertyCache = UiObjectPropertyCache()
+
     constructor(
         info: Any?,
         allocator: AccessibilityNodeInfoAllocator,
@@ -134,7 +139,36 @@ open class UiObject(
 
     fun findOne(selector: UiSelector): UiObject? = selector.findOneOf(this)
 
-    open fun bounds() = AccessibilityNodeInfoHelper.getBoundsInScreen(this)
+    /**
+     * Scroll this container forward and collect nodes in its subtree matching [selector], de-duplicated by [keyFunction].
+     *
+     * zh-CN: 向前滚动此容器, 并收集其子树中与 [selector] 匹配的节点, 节点通过 [keyFunction] 去重.
+     *
+     * @see ScrollCollector
+     */
+    @JvmOverloads
+    fun scrollCollect(
+        selector: UiSelector,
+        maxScrolls: Int = ScrollCollector.DEFAULT_MAX_SCROLLS,
+        keyFunction: ScrollCollector.KeyFunction = ScrollCollector.DEFAULT_KEY_FUNCTION,
+    ): UiObjectCollection = ScrollCollector(this, selector, keyFunction, maxScrolls).collect().items
+
+    /**
+     * Find nodes with an XPath-like [path] evaluated against the subtree rooted at this node, e.g. `//LinearLayout[.//TextView[@text='Price']]/TextView[2]`.
+     *
+     * zh-CN: 使用类 XPath 的 [path] 在以此节点为根的子树上查找节点, 如 `//LinearLayout[.//TextView[@text='Price']]/TextView[2]`.
+     *
+     * @see UiPath
+     */
+    @JvmOverloads
+    fun findByPath(path: String, max: Int = Int.MAX_VALUE): UiObjectCollection = UiPath.of(path).find(this, max)
+
+    fun findOneByPath(path: String): UiObject? = UiPath.of(path).findOne(this)
+
+    // @Hint by agent on Oct 19, 2026.
+    //  ! A copy is returned as Rect is mutable and the cached one must stay intact.
+    //  ! zh-CN: 由于 Rect 是可变的, 返回副本以保证缓存的 Rect 不被修改.
+    open fun bounds() = Rect(mPropertyCache.getOrPut(UiObjectPropertyCache.BOUNDS) { AccessibilityNodeInfoHelper.getBoundsInScreen(this) })
 
     fun boundsInScreen() = bounds()
 
@@ -205,7 +239,7 @@ open class UiObject(
 
     open fun drawingOrder() = drawingOrder
 
-    fun fullId(): String? = viewIdResourceName
+    fun fullId(): String? = mPropertyCache.getOrPut(UiObjectPropertyCache.ID) { viewIdResourceName }
 
     open fun id(): String? = fullId()
 
@@ -218,8 +252,10 @@ open class UiObject(
 
     fun simpleId(): String? = idEntry()
 
+    fun idHex(): String? = mPropertyCache.getOrPut(UiObjectPropertyCache.ID_HEX) { queryIdHex() }
+
     @SuppressLint("DiscouragedApi")
-    fun idHex(): String? {
+    private fun queryIdHex(): String? {
         val pkg = packageName() ?: return null
         val fullId = viewIdResourceName ?: return null
         val resources = try {
@@ -231,17 +267,42 @@ open class UiObject(
         return "0x${Integer.toHexString(resources.getIdentifier(fullId, null, null))}"
     }
 
-    open fun text() = text?.toString() ?: ""
+    open fun text(): String = mPropertyCache.getOrPut(UiObjectPropertyCache.TEXT) { text?.toString() ?: "" }
 
     override fun getText(): CharSequence? = takeUnless { isPassword }?.let { super.getText() } ?: ""
 
-    open fun desc(): String? = contentDescription?.toString()
+    open fun desc(): String? = mPropertyCache.getOrPut(UiObjectPropertyCache.DESC) { contentDescription?.toString() }
 
     fun content(): String = desc() ?: text()
 
-    open fun className(): String? = className?.toString()
-
-    open fun packageName(): String? = packageName?.toString()
+    open fun className(): String? = mPropertyCache.getOrPut(UiObjectPropertyCache.CLASS_NAME) { className?.toString() }
+
+    open fun packageName(): String? = mPropertyCache.getOrPut(UiObjectPropertyCache.PACKAGE_NAME) { packageName?.toString() }
+
+    /**
+     * Object standing for the source node of this object, by which tree snapshots match nodes across captures,
+     * or null if there is none. It is the wrapped [AccessibilityNodeInfo], whose equality is based on the window id and the source node id.
+     *
+     * zh-CN:
+     *
+     * 代表此对象源节点的标识对象, 控件树快照据此在多次捕获之间匹配节点, 不存在时为 null.
+     * 其值为被包装的 [AccessibilityNodeInfo], 其相等性基于窗口 ID 及源节点 ID.
+     */
+    open fun identity(): Any? = unwrap()
+
+    /**
+     * Fill the property cache with the commonly used attributes in one pass.
+     *
+     * zh-CN: 一次性将常用属性填充至属性缓存.
+     */
+    fun prefetch() = also {
+        bounds()
+        text()
+        desc()
+        className()
+        packageName()
+        fullId()
+    }
 
     open fun depth() = depth
 
@@ -391,6 +452,15 @@ open class UiObject(
         return w
     }
 
+    override fun refresh(): Boolean {
+        mPropertyCache.clear()
+        return try {
+            super.refresh()
+        } catch (e: IllegalStateException) {
+            false.also { Log.w(TAG, "Failed to refresh the node", e) }
+        }
+    }
+
     override fun performAction(action: Int, vararg arguments: ActionArgument): Boolean {
         return performAction(action, Bundle().apply { arguments.forEach { it.putIn(this) } })
     }
@@ -429,6 +499,7 @@ open class UiObject(
 
     @Deprecated("Deprecated in Java")
     override fun recycle() {
+        mPropertyCache.clear()
         try {
             super.recycle()
         } catch (e: Exception) {
@@ -618,6 +689,8 @@ open class UiObject(
 
     companion object {
 
+        private val TAG = UiObject::class.java.simpleName
+
         internal const val ACTION_APPEND_TEXT = 0x00200001
         internal const val COMPASS_PASS_ON = "%"
         internal const val RESULT_TYPE_WIDGET = "widget"
@@ -1,14 +1,22 @@
 package org.autojs.autojs.core.automator
 
+import android.view.ViewConfiguration
+import androidx.core.view.accessibility.AccessibilityNodeInfoCompat
+import androidx.core.view.accessibility.AccessibilityNodeInfoCompat.AccessibilityActionCompat
+import org.autojs.autojs.AutoJs
 import org.autojs.autojs.core.accessibility.UiSelector
 import org.autojs.autojs.extension.ArrayExtensions.toHashCode
+import org.autojs.autojs.rhino.AutoJsContext
+import org.autojs.autojs.runtime.ScriptRuntime
 import org.autojs.autojs.tool.Consumer
 import org.autojs.autojs.util.RhinoUtils
+import org.mozilla.javascript.Context
 import org.mozilla.javascript.Scriptable
 
 /**
  * Created by Stardust on Mar 9, 2017.
  * Modified by SuperMonster003 as of Jul 1, 2022.
+ * Modified by agent as of Oct 19, 2026.
  */
 class UiObjectCollection private constructor(val nodes: List<UiObject?>) : UiObjectActions {
 
@@ -36,6 +44,14 @@ class UiObjectCollection private constructor(val nodes: List<UiObject?>) : UiObj
 
     fun each(consumer: Consumer<UiObject>) = also { nodes.forEach(consumer::accept) }
 
+    /**
+     * Fill the property caches of all nodes with the commonly used attributes in one pass,
+     * so that subsequent filtering on bounds, text, desc and so forth no longer queries the nodes.
+     *
+     * zh-CN: 一次性将所有节点的常用属性填充至各自的属性缓存, 后续按 bounds/text/desc 等属性过滤时无需再次查询节点.
+     */
+    fun prefetch() = also { nodes.forEach { it?.prefetch() } }
+
     fun find(selector: UiSelector): UiObjectCollection {
         return ArrayList<UiObject?>()
             .also { list ->
@@ -64,6 +80,105 @@ class UiObjectCollection private constructor(val nodes: List<UiObject?>) : UiObj
         return success
     }
 
+    /**
+     * Perform [action] on every node back-to-back, without any wait in between, and return per-node results with timing.
+     *
+     * zh-CN: 对每个节点连续执行 [action], 其间不做任何等待, 并返回包含耗时的各节点结果.
+     */
+    fun performActionAll(action: Int, vararg arguments: ActionArgument): BatchResult {
+        val startedAt = System.nanoTime()
+        val results = nodes.mapIndexedNotNull { index, node ->
+            node ?: return@mapIndexedNotNull null
+            val start = System.nanoTime()
+            val isSuccessful = when (arguments.isEmpty()) {
+                true -> node.performAction(action)
+                else -> node.performAction(action, *arguments)
+            }
+            BatchResult.NodeResult(index, node, isSuccessful, start - startedAt, System.nanoTime() - start)
+        }
+        return BatchResult(results, (System.nanoTime() - startedAt) / 1_000_000)
+    }
+
+    fun clickAll() = performActionAll(AccessibilityActionCompat.ACTION_CLICK.id)
+
+    fun longClickAll() = performActionAll(AccessibilityActionCompat.ACTION_LONG_CLICK.id)
+
+    fun setTextAll(text: String) = performActionAll(
+        AccessibilityActionCompat.ACTION_SET_TEXT.id,
+        ActionArgument.CharSequenceActionArgument(AccessibilityNodeInfoCompat.ACTION_ARGUMENT_SET_TEXT_CHARSEQUENCE, text),
+    )
+
+    /**
+     * Tap the center of every node's bounds. Taps are combined into as few multi-stroke gestures as the platform allows,
+     * rather than paying a gesture round trip per node.
+     *
+     * zh-CN: 点击每个节点控件矩形的中心. 点击在平台允许的范围内被合并进尽可能少的多笔画手势, 而非每个节点各进行一次手势往返.
+     *
+     * @param timeout Maximum time to wait for all taps, after which the remaining ones are not dispatched and reported as not completed.
+     *
+     * @see GestureQueue.taps
+     */
+    @JvmOverloads
+    fun clickBoundsAll(
+        queue: GestureQueue = defaultGestureQueue(),
+        duration: Long = DEFAULT_TAP_DURATION,
+        interval: Long = GestureQueue.DEFAULT_TAP_INTERVAL,
+        timeout: Long = GestureQueue.DEFAULT_TIMEOUT,
+    ): BatchResult {
+        val targets = nodes.withIndex().mapNotNull { (index, node) -> node?.let { index to it } }
+        if (targets.isEmpty()) return BatchResult(emptyList(), 0L)
+        val points = IntArray(targets.size * 2).also { points ->
+            targets.forEachIndexed { i, (_, node) ->
+                points[i * 2] = node.centerX()
+                points[i * 2 + 1] = node.centerY()
+            }
+        }
+        val firstGesture = queue.size
+        val placements = queue.taps(points, duration, interval)
+        val gestureDurations = LongArray(queue.size - firstGesture)
+        targets.indices.forEach { i ->
+            val gesture = placements[i * 2].toInt() - firstGesture
+            gestureDurations[gesture] = maxOf(gestureDurations[gesture], placements[i * 2 + 1] + duration)
+        }
+        val result = queue.dispatchAndWait(timeout)
+        val gestureOffsets = LongArray(gestureDurations.size).also { offsets ->
+            for (g in 1 until offsets.size) offsets[g] = offsets[g - 1] + gestureDurations[g - 1]
+        }
+        val results = targets.mapIndexed { i, (index, node) ->
+            val gesture = placements[i * 2].toInt() - firstGesture
+            val offsetMillis = gestureOffsets[gesture] + placements[i * 2 + 1]
+            BatchResult.NodeResult(index, node, gesture < result.completedCount - firstGesture, offsetMillis * 1_000_000, duration * 1_000_000)
+        }
+        return BatchResult(results, result.elapsedMillis)
+    }
+
+    fun interface PointsProvider {
+        fun pointsOf(node: UiObject): IntArray
+    }
+
+    /**
+     * Perform one gesture per node along the points given by [provider], in the form of `[ x0, y0, x1, y1, ... ]`.
+     * Gestures are pipelined through [queue], so the calling thread waits only once for all of them, at most [timeout] milliseconds.
+     *
+     * zh-CN: 对每个节点沿 [provider] 给出的点 (形如 `[ x0, y0, x1, y1, ... ]`) 执行一次手势. 手势通过 [queue] 流水线式分发, 调用线程对所有手势只需等待一次, 且最多等待 [timeout] 毫秒.
+     */
+    @JvmOverloads
+    fun gestureAll(
+        duration: Long,
+        provider: PointsProvider,
+        queue: GestureQueue = defaultGestureQueue(),
+        timeout: Long = GestureQueue.DEFAULT_TIMEOUT,
+    ): BatchResult {
+        val targets = nodes.withIndex().mapNotNull { (index, node) -> node?.let { index to it } }
+        val firstGesture = queue.size
+        targets.forEach { (_, node) -> queue.add(provider.pointsOf(node), duration) }
+        val result = queue.dispatchAndWait(timeout)
+        val results = targets.mapIndexed { i, (index, node) ->
+            BatchResult.NodeResult(index, node, i < result.completedCount - firstGesture, i * duration * 1_000_000, duration * 1_000_000)
+        }
+        return BatchResult(results, result.elapsedMillis)
+    }
+
     override fun toString(): String {
         return "${UiObjectCollection::class.java.name}@${super.hashCode()}"
     }
@@ -101,6 +216,22 @@ class UiObjectCollection private constructor(val nodes: List<UiObject?>) : UiObj
 
         val EMPTY = of(emptyList())
 
+        private val DEFAULT_TAP_DURATION = (ViewConfiguration.getTapTimeout() * 1.25).toLong()
+
+        private val accessibilityBridge by lazy { AutoJs.instance.createAccessibilityBridge() }
+
+        // @Hint by agent on Oct 19, 2026.
+        //  ! The queue of the calling script's automator carries the ScreenMetrics of that script and its servant handler.
+        //  ! An unscaled queue is only used when no script is running on the current thread.
+        //  ! zh-CN: 调用脚本的 automator 所创建的手势队列包含该脚本的 ScreenMetrics 及其 servant handler. 仅当当前线程没有正在运行的脚本时, 才使用未经缩放的手势队列.
+        private fun defaultGestureQueue(): GestureQueue {
+            val runtime = (Context.getCurrentContext() as? AutoJsContext)?.rhinoJavaScriptEngine?.runtime
+            return runtime?.automator?.gestureQueue() ?: GlobalActionAutomator(ScriptRuntime.applicationContext, null) {
+                accessibilityBridge.ensureServiceStarted()
+                accessibilityBridge.service!!
+            }.gestureQueue()
+        }
+
         @JvmStatic
         fun of(list: List<UiObject?>) = UiObjectCollection(list)
 
@@ -0,0 +1,55 @@
+package org.autojs.autojs.core.automator
+
+/**
+ * Lazily filled property slots of a single [UiObject].
+ *
+ * Values of an [android.view.accessibility.AccessibilityNodeInfo] are a snapshot
+ * which will not change until the node is refreshed,
+ * so a property only needs to be read from the node once per snapshot.
+ *
+ * zh-CN:
+ *
+ * 单个 [UiObject] 的属性缓存槽, 首次访问时填充.
+ *
+ * [android.view.accessibility.AccessibilityNodeInfo] 的属性值是一份快照, 节点刷新前不会改变,
+ * 因此每份快照的属性只需从节点读取一次.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+class UiObjectPropertyCache {
+
+    private val mSlots = arrayOfNulls<Any>(SLOT_COUNT).apply { fill(UNSET) }
+
+    @Suppress("UNCHECKED_CAST")
+    fun <T> getOrPut(slot: Int, supplier: () -> T): T {
+        val cached = mSlots[slot]
+        if (cached !== UNSET) {
+            return cached as T
+        }
+        return supplier().also { mSlots[slot] = it }
+    }
+
+    fun clear() = mSlots.fill(UNSET)
+
+    companion object {
+
+        const val BOUNDS = 0
+        const val TEXT = 1
+        const val DESC = 2
+        const val CLASS_NAME = 3
+        const val PACKAGE_NAME = 4
+        const val ID = 5
+        const val ID_HEX = 6
+
+        private const val SLOT_COUNT = 7
+
+        // @Hint by agent on Oct 19, 2026.
+        //  ! A null value is a legal cached result (e.g. desc of a node without content description),
+        //  ! so a dedicated sentinel is used to tell "not yet cached" apart.
+        //  ! zh-CN:
+        //  ! null 是合法的缓存结果 (如无内容描述节点的 desc), 因此使用专用哨兵对象表示 "尚未缓存".
+        private val UNSET = Any()
+
+    }
+
+}
@@ -0,0 +1,65 @@
+package org.autojs.autojs.core.automator.diff
+
+import org.autojs.autojs.core.automator.diff.TreeSnapshot.Node
+
+/**
+ * Structured differences between two consecutive [TreeSnapshot] instances.
+ *
+ * Nodes are matched by their identities through a hash index, so a diff costs O(n) of the tree size.
+ *
+ * zh-CN:
+ *
+ * 两份相邻 [TreeSnapshot] 之间的结构化差异.
+ *
+ * 节点通过哈希索引按标识匹配, 因此计算差异的开销与树的大小呈线性关系.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+class TreeDiff(
+    val added: List<Node>,
+    val removed: List<Node>,
+    val textChanged: List<Change>,
+    val boundsMoved: List<Change>,
+) {
+
+    fun isEmpty() = added.isEmpty() && removed.isEmpty() && textChanged.isEmpty() && boundsMoved.isEmpty()
+
+    fun isNotEmpty() = !isEmpty()
+
+    override fun toString() = "TreeDiff(added=${added.size}, removed=${removed.size}, textChanged=${textChanged.size}, boundsMoved=${boundsMoved.size})"
+
+    class Change(val before: Node, val after: Node) {
+
+        val key get() = after.key
+
+        override fun toString() = "Change(key=$key, before=$before, after=$after)"
+
+    }
+
+    companion object {
+
+        @JvmField
+        val EMPTY = TreeDiff(emptyList(), emptyList(), emptyList(), emptyList())
+
+        @JvmStatic
+        fun between(previous: TreeSnapshot, current: TreeSnapshot): TreeDiff {
+            val added = ArrayList<Node>()
+            val textChanged = ArrayList<Change>()
+            val boundsMoved = ArrayList<Change>()
+            for (node in current.nodes) {
+                val before = previous.find(node)
+                when {
+                    before == null -> added += node
+                    else -> {
+                        if (before.text != node.text || before.desc != node.desc) textChanged += Change(before, node)
+                        if (!before.hasSameBounds(node)) boundsMoved += Change(before, node)
+                    }
+                }
+            }
+            val removed = previous.nodes.filter { current.find(it) == null }
+            return TreeDiff(added, removed, textChanged, boundsMoved)
+        }
+
+    }
+
+}
@@ -0,0 +1,104 @@
+package org.autojs.autojs.core.automator.diff
+
+import android.accessibilityservice.AccessibilityService
+import android.os.SystemClock
+import android.view.accessibility.AccessibilityEvent
+import org.autojs.autojs.core.accessibility.AccessibilityDelegate
+import org.autojs.autojs.core.accessibility.BoundedEventQueue.OverflowPolicy
+import org.autojs.autojs.core.automator.UiObject
+import java.util.concurrent.atomic.AtomicInteger
+import org.autojs.autojs.core.accessibility.AccessibilityService as A11yService
+
+/**
+ * Emits a [TreeDiff] between consecutive snapshots of the active window whenever its content changes.
+ *
+ * Snapshots are taken on the worker thread of an asynchronous accessibility delegate,
+ * and at most one diff is computed per frame, as change events of a frame are coalesced by the queue.
+ *
+ * zh-CN:
+ *
+ * 当活动窗口内容变化时, 发出相邻快照之间的 [TreeDiff].
+ *
+ * 快照在异步无障碍代理的工作线程中获取, 由于同一帧内的变化事件会在队列中合并, 每帧最多计算一次差异.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+class TreeDiffWatcher @JvmOverloads constructor(
+    private val rootSupplier: () -> UiObject?,
+    private val listener: Listener,
+    private val maxDepth: Int = TreeSnapshot.DEFAULT_MAX_DEPTH,
+    private val frameIntervalMillis: Long = FRAME_INTERVAL_MILLIS,
+) : AccessibilityDelegate {
+
+    fun interface Listener {
+        fun onTreeDiff(diff: TreeDiff, snapshot: TreeSnapshot)
+    }
+
+    private val mPriority = sNextPriority.getAndIncrement()
+
+    @Volatile
+    private var mPrevious: TreeSnapshot? = null
+
+    private var mLastDiffAt = 0L
+
+    @Volatile
+    var isWatching = false
+        private set
+
+    override val eventTypes = EVENT_TYPES
+
+    fun start() = also {
+        if (isWatching) return@also
+        isWatching = true
+        mPrevious = rootSupplier()?.let { TreeSnapshot.of(it, maxDepth) }
+        A11yService.addAsyncDelegate(mPriority, this, EVENT_QUEUE_CAPACITY, OverflowPolicy.COALESCE_BY_TYPE)
+    }
+
+    fun stop() {
+        if (!isWatching) return
+        isWatching = false
+        A11yService.removeDelegate(mPriority)
+        mPrevious = null
+    }
+
+    fun previous() = mPrevious
+
+    override fun onAccessibilityEvent(service: AccessibilityService, event: AccessibilityEvent): Boolean {
+        if (!isWatching) return false
+        val elapsed = SystemClock.uptimeMillis() - mLastDiffAt
+        if (elapsed < frameIntervalMillis) {
+            try {
+                Thread.sleep(frameIntervalMillis - elapsed)
+            } catch (e: InterruptedException) {
+                Thread.currentThread().interrupt()
+                return false
+            }
+        }
+        mLastDiffAt = SystemClock.uptimeMillis()
+        val current = rootSupplier()?.let { TreeSnapshot.of(it, maxDepth) } ?: return false
+        val previous = mPrevious.also { mPrevious = current } ?: return false
+        TreeDiff.between(previous, current).takeIf { it.isNotEmpty() }?.let { listener.onTreeDiff(it, current) }
+        return false
+    }
+
+    companion object {
+
+        const val FRAME_INTERVAL_MILLIS = 16L
+
+        private const val EVENT_QUEUE_CAPACITY = 4
+
+        // @Hint by agent on Oct 19, 2026.
+        //  ! Priorities of built-in delegates are within 1000, see AbstractAutoJs.
+        //  ! zh-CN: 内置代理的优先级均在 1000 以内, 参阅 AbstractAutoJs.
+        private val sNextPriority = AtomicInteger(10_000)
+
+        private val EVENT_TYPES = setOf(
+            AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED,
+            AccessibilityEvent.TYPE_WINDOW_CONTENT_CHANGED,
+            AccessibilityEvent.TYPE_VIEW_SCROLLED,
+            AccessibilityEvent.TYPE_VIEW_TEXT_CHANGED,
+        )
+
+    }
+
+}
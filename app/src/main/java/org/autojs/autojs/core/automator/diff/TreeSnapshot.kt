@@ -0,0 +1,122 @@
+package org.autojs.autojs.core.automator.diff
+
+import org.autojs.autojs.core.automator.UiObject
+
+/**
+ * A flat, immutable snapshot of a widget tree with keyed nodes, used for computing [TreeDiff].
+ *
+ * The key of a node consists of its view id and its path from the root,
+ * where each path segment is a class name with the ordinal among siblings of the same class,
+ * such as `FrameLayout[0]/LinearLayout[1]/TextView[0]`.
+ *
+ * Nodes are matched across snapshots by their [identity][Node.identity] rather than by their keys,
+ * as inserting a sibling shifts the ordinals of all later siblings of the same class.
+ * The identity of a node is given by [UiObject.identity], which is the [AccessibilityNodeInfo][android.view.accessibility.AccessibilityNodeInfo]
+ * of a live node, whose equality is based on the window id and the source node id. Nodes without one fall back to their keys.
+ *
+ * zh-CN:
+ *
+ * 控件树的扁平不可变快照, 每个节点均带有键, 用于计算 [TreeDiff].
+ *
+ * 节点的键由视图 ID 及其自根节点起的路径构成,
+ * 路径的每一段为类名及其在同类兄弟节点中的序号, 如 `FrameLayout[0]/LinearLayout[1]/TextView[0]`.
+ *
+ * 快照之间的节点按其 [标识][Node.identity] 而非键进行匹配, 因为插入一个兄弟节点会使其后所有同类兄弟节点的序号发生偏移.
+ * 节点的标识由 [UiObject.identity] 给出, 实时节点的标识为其 [AccessibilityNodeInfo][android.view.accessibility.AccessibilityNodeInfo], 其相等性基于窗口 ID 及源节点 ID.
+ * 不具备该信息的节点以其键作为标识.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+class TreeSnapshot(val nodes: List<Node>, val timestamp: Long = System.currentTimeMillis()) {
+
+    val size get() = nodes.size
+
+    private val mIndex by lazy { nodes.associateBy { it.key } }
+
+    private val mIdentityIndex by lazy { nodes.associateBy { it.identity } }
+
+    operator fun get(key: String) = mIndex[key]
+
+    /**
+     * Find the node of this snapshot which has the same identity as [node] of another snapshot.
+     *
+     * zh-CN: 查找此快照中与另一快照的 [node] 具有相同标识的节点.
+     */
+    fun find(node: Node) = mIdentityIndex[node.identity]
+
+    fun keys(): Set<String> = mIndex.keys
+
+    fun diff(previous: TreeSnapshot) = TreeDiff.between(previous, this)
+
+    override fun toString() = "TreeSnapshot(size=$size, timestamp=$timestamp)"
+
+    class Node @JvmOverloads constructor(
+        val key: String,
+        val path: String,
+        val id: String?,
+        val className: String?,
+        val text: String,
+        val desc: String?,
+        val left: Int,
+        val top: Int,
+        val right: Int,
+        val bottom: Int,
+        val depth: Int,
+        val identity: Any = key,
+    ) {
+
+        fun hasSameBounds(other: Node) = left == other.left && top == other.top && right == other.right && bottom == other.bottom
+
+        fun bounds() = "[$left,$top][$right,$bottom]"
+
+        override fun toString() = "Node(key=$key, text=$text, bounds=${bounds()})"
+
+    }
+
+    companion object {
+
+        const val DEFAULT_MAX_DEPTH = 64
+
+        @JvmStatic
+        @JvmOverloads
+        fun of(root: UiObject, maxDepth: Int = DEFAULT_MAX_DEPTH): TreeSnapshot {
+            val nodes = ArrayList<Node>()
+            collect(root, "${simpleClassName(root.className())}[0]", 0, maxDepth, nodes)
+            return TreeSnapshot(nodes)
+        }
+
+        private fun collect(node: UiObject, path: String, depth: Int, maxDepth: Int, out: MutableList<Node>) {
+            node.prefetch()
+            val bounds = node.bounds()
+            val id = node.fullId()
+            val key = "${id ?: ""}@$path"
+            out += Node(
+                key = key,
+                path = path,
+                id = id,
+                className = node.className(),
+                text = node.text(),
+                desc = node.desc(),
+                left = bounds.left,
+                top = bounds.top,
+                right = bounds.right,
+                bottom = bounds.bottom,
+                depth = depth,
+                identity = node.identity() ?: key,
+            )
+            if (depth >= maxDepth) return
+            val ordinals = HashMap<String, Int>()
+            for (i in 0 until node.childCount) {
+                val child = node.child(i) ?: continue
+                val simpleClassName = simpleClassName(child.className())
+                val ordinal = ordinals[simpleClassName] ?: 0
+                ordinals[simpleClassName] = ordinal + 1
+                collect(child, "$path/$simpleClassName[$ordinal]", depth + 1, maxDepth, out)
+            }
+        }
+
+        private fun simpleClassName(className: String?) = className?.substringAfterLast('.') ?: "?"
+
+    }
+
+}
@@ -1,7 +1,6 @@
 package org.autojs.autojs.core.automator.filter
 
 import android.graphics.Rect
-import org.autojs.autojs.core.accessibility.AccessibilityNodeInfoHelper
 import org.autojs.autojs.core.automator.UiObject
 import org.autojs.autojs.util.DisplayUtils.toCeilIntX
 import org.autojs.autojs.util.DisplayUtils.toCeilIntY
@@ -15,7 +14,7 @@ import org.autojs.autojs.util.StringUtils.formatDouble
  */
 class BoundsFilter(private val left: Double, private val top: Double, private val right: Double, private val bottom: Double, private val type: Int) : Filter {
 
-    override fun filter(node: UiObject) = AccessibilityNodeInfoHelper.getBoundsInScreen(node).let {
+    override fun filter(node: UiObject) = node.bounds().let {
         when (type) {
             TYPE_INSIDE -> DesirableRect(it).inside(left, top, right, bottom)
             TYPE_CONTAINS -> DesirableRect(it).contains(left, top, right, bottom)
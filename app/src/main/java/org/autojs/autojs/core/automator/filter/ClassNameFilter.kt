@@ -10,7 +10,7 @@ object ClassNameFilter {
 
     private val CLASS_NAME_GETTER = object : KeyGetter {
 
-        override fun getKey(nodeInfo: UiObject) = nodeInfo.className?.toString()
+        override fun getKey(nodeInfo: UiObject) = nodeInfo.className()
 
         override fun toString() = "className"
 
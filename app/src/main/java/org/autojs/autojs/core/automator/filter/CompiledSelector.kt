@@ -0,0 +1,126 @@
+package org.autojs.autojs.core.automator.filter
+
+import org.autojs.autojs.core.automator.UiObject
+import java.lang.reflect.Field
+import java.lang.reflect.Modifier
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * An immutable [Selector] whose filters are frozen into an array, cheapest first.
+ *
+ * As all filters must pass, evaluating the cheap ones (boolean and integer properties) before
+ * string comparisons and regular expressions gives the same result with fewer costly checks.
+ * The relative order of filters with the same cost is kept, and callback filters always run last.
+ * Instances are shared between threads, and cached by the structure of the source filters,
+ * i.e. their classes and the exact values they were created with, not by the lossy string form.
+ *
+ * zh-CN:
+ *
+ * 不可变的 [Selector], 其过滤器被固定为数组, 且按开销由低到高排列.
+ *
+ * 由于所有过滤器都必须通过, 先检查开销低的过滤器 (布尔及整数属性), 再进行字符串比较及正则表达式匹配,
+ * 可以在结果不变的前提下减少高开销的检查. 开销相同的过滤器保持原有相对顺序, 回调过滤器总是最后执行.
+ * 实例可在线程之间共享, 并以源过滤器的结构 (即过滤器类型及其创建时的精确参数值) 为键进行缓存,
+ * 而不是以有损的字符串形式为键.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+class CompiledSelector private constructor(private val mSource: String, source: List<Filter>) : Selector() {
+
+    private val mOrderedFilters: Array<Filter> = source.sortedBy { costOf(it) }.toTypedArray()
+
+    init {
+        filters.addAll(source)
+    }
+
+    override fun filter(node: UiObject): Boolean {
+        for (filter in mOrderedFilters) {
+            if (!filter.filter(node)) return false
+        }
+        return true
+    }
+
+    override fun toString() = mSource
+
+    companion object {
+
+        private const val MAX_CACHE_SIZE = 128
+
+        private val sCache = object : LinkedHashMap<List<List<Any?>>, CompiledSelector>(16, 0.75f, true) {
+            override fun removeEldestEntry(eldest: MutableMap.MutableEntry<List<List<Any?>>, CompiledSelector>) = size > MAX_CACHE_SIZE
+        }
+
+        private val sKeyFields = ConcurrentHashMap<Class<*>, List<Field>>()
+
+        /**
+         * Compile [selector] or get a cached one with structurally equal filters.
+         * Selectors with callback filters are compiled but never cached,
+         * as callbacks cannot be compared by value.
+         *
+         * zh-CN:
+         *
+         * 编译 [selector], 或获取过滤器结构相同的已缓存实例.
+         * 含有回调过滤器的选择器会被编译但不会被缓存, 因为回调无法按值比较.
+         */
+        @JvmStatic
+        fun of(selector: Selector): CompiledSelector {
+            if (selector is CompiledSelector) return selector
+            val filters = selector.filters.toList()
+            val source = selector.toString()
+            if (filters.any { costOf(it) >= COST_UNKNOWN }) {
+                return CompiledSelector(source, filters)
+            }
+            val key = filters.map { keyOf(it) }
+            return synchronized(sCache) {
+                sCache.getOrPut(key) { CompiledSelector(source, filters) }
+            }
+        }
+
+        /**
+         * Structural key of [filter]: its class followed by the values of its instance fields.
+         * Lazily derived state (e.g. a compiled regular expression) is skipped, arrays are compared by content.
+         *
+         * zh-CN: [filter] 的结构键: 其类型及各实例字段的值. 惰性派生的状态 (如已编译的正则表达式) 会被跳过, 数组按内容比较.
+         */
+        @JvmStatic
+        internal fun keyOf(filter: Filter): List<Any?> {
+            val fields = sKeyFields.getOrPut(filter.javaClass) {
+                generateSequence<Class<*>>(filter.javaClass) { it.superclass }
+                    .takeWhile { it != Any::class.java }
+                    .flatMap { it.declaredFields.asSequence() }
+                    .filterNot { Modifier.isStatic(it.modifiers) || Lazy::class.java.isAssignableFrom(it.type) }
+                    .onEach { it.isAccessible = true }
+                    .toList()
+            }
+            return listOf<Any?>(filter.javaClass) + fields.map { valueKeyOf(it.get(filter)) }
+        }
+
+        private fun valueKeyOf(value: Any?): Any? = when (value) {
+            is Array<*> -> value.map { valueKeyOf(it) }
+            is IntArray -> value.toList()
+            is CharSequence -> value.toString()
+            else -> value
+        }
+
+        @JvmStatic
+        fun clearCache() = synchronized(sCache) { sCache.clear() }
+
+        private const val COST_PROPERTY = 0
+        private const val COST_BOUNDS = 1
+        private const val COST_STRING = 2
+        private const val COST_REGEX = 3
+        private const val COST_UNKNOWN = 4
+
+        private fun costOf(filter: Filter) = when (filter) {
+            is BooleanFilter, is IntFilter, is MinIntFilter, is MaxIntFilter -> COST_PROPERTY
+            is BoundsFilter, is MetricsFilter, is MetricsMinFilter, is MetricsMaxFilter, is MetricsRangeFilter -> COST_BOUNDS
+            is StringEqualsFilter, is StringContainsFilter, is StringStartsWithFilter, is StringEndsWithFilter,
+            is StringListEqualsFilter, is StringListContainsFilter, is StringListStartsWithFilter, is StringListEndsWithFilter,
+            is ActionFilter, is AppFilter, is ToleranceFilter, is DoubleMinFilter -> COST_STRING
+            is StringMatchesFilter, is StringMatchFilter, is StringListMatchesFilter, is StringListMatchFilter -> COST_REGEX
+            else -> COST_UNKNOWN
+        }
+
+    }
+
+}
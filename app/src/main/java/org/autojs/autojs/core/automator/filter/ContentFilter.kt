@@ -9,7 +9,7 @@ object ContentFilter {
 
     private val CONTENT_GETTER = object : KeysGetter {
 
-        override fun getKeys(nodeInfo: UiObject) = listOf(nodeInfo.contentDescription, nodeInfo.text)
+        override fun getKeys(nodeInfo: UiObject) = listOf(nodeInfo.desc(), nodeInfo.text())
 
         override fun toString() = "content"
 
@@ -10,7 +10,7 @@ object DescFilter {
 
     private val DESC_GETTER = object : KeyGetter {
 
-        override fun getKey(nodeInfo: UiObject) = nodeInfo.contentDescription?.toString()
+        override fun getKey(nodeInfo: UiObject) = nodeInfo.desc()
 
         override fun toString() = "desc"
 
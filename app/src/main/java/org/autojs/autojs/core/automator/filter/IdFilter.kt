@@ -11,7 +11,7 @@ object IdFilter {
 
     private val ID_GETTER = object : KeyGetter {
 
-        override fun getKey(nodeInfo: UiObject) = nodeInfo.viewIdResourceName
+        override fun getKey(nodeInfo: UiObject) = nodeInfo.fullId()
 
         override fun toString() = "id"
 
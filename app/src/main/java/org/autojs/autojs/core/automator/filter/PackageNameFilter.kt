@@ -10,7 +10,7 @@ object PackageNameFilter {
 
     private val PACKAGE_NAME_GETTER = object : KeyGetter {
 
-        override fun getKey(nodeInfo: UiObject) = nodeInfo.packageName?.toString()
+        override fun getKey(nodeInfo: UiObject) = nodeInfo.packageName()
 
         override fun toString() = "packageName"
 
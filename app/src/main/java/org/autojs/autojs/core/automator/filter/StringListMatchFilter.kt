@@ -7,6 +7,18 @@ import org.autojs.autojs.core.automator.UiObject
  */
 class StringListMatchFilter internal constructor(private val mRegex: String, private val mKeysGetter: KeysGetter) : Filter {
 
+    private val mCompiledRegex by lazy {
+        val prefix = "/"
+        val suffix = "/i"
+        if (mRegex.startsWith(prefix) && mRegex.endsWith(suffix)) {
+            mRegex
+                .slice(prefix.length until mRegex.length - suffix.length)
+                .toRegex(RegexOption.IGNORE_CASE)
+        } else {
+            mRegex.toRegex()
+        }
+    }
+
     // @Hint by SuperMonster003 on Oct 17, 2022.
     //  ! Similar to JavaScript "String.prototype.match"
     //  ! which returns the result of matching a string against a regular expression.
@@ -19,16 +31,7 @@ class StringListMatchFilter internal constructor(private val mRegex: String, pri
     //  ! 参考链接见上.
     override fun filter(node: UiObject) = mKeysGetter.getKeys(node).any {
         it ?: return@any false
-        val prefix = "/"
-        val suffix = "/i"
-        if (mRegex.startsWith(prefix) && mRegex.endsWith(suffix)) {
-            mRegex
-                .slice(prefix.length until mRegex.length - suffix.length)
-                .toRegex(RegexOption.IGNORE_CASE)
-                .containsMatchIn(it)
-        } else {
-            mRegex.toRegex().containsMatchIn(it)
-        }
+        mCompiledRegex.containsMatchIn(it)
     }
 
     override fun toString() = "${mKeysGetter}Match(\"$mRegex\")"
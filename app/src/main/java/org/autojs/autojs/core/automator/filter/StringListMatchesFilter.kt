@@ -7,6 +7,8 @@ import org.autojs.autojs.core.automator.UiObject
  */
 class StringListMatchesFilter internal constructor(private val mRegex: String, private val mKeysGetter: KeysGetter) : Filter {
 
+    private val mCompiledRegex by lazy { mRegex.toRegex() }
+
     // @Hint by SuperMonster003 on Oct 17, 2022.
     //  ! Kotlin method "CharSequence.matches(regex: Regex): Boolean"
     //  ! indicates whether the regular expression matches the ENTIRE input (not partial input).
@@ -17,7 +19,7 @@ class StringListMatchesFilter internal constructor(private val mRegex: String, p
     //  ! Kotlin 的方法 "CharSequence.matches(regex: Regex): Boolean"
     //  ! 表示正则表达式是否完全匹配输入 (注意是完全而非部分匹配).
     //  ! 参考链接见上.
-    override fun filter(node: UiObject) = mKeysGetter.getKeys(node).any { it?.matches(mRegex.toRegex()) ?: false }
+    override fun filter(node: UiObject) = mKeysGetter.getKeys(node).any { it?.matches(mCompiledRegex) ?: false }
 
     override fun toString() = "${mKeysGetter}Matches(\"$mRegex\")"
 
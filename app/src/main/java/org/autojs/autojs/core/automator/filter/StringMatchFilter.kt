@@ -8,6 +8,8 @@ import org.autojs.autojs.core.automator.UiObject
  */
 class StringMatchFilter internal constructor(private val mRegex: String, private val mKeyGetter: KeyGetter) : Filter {
 
+    private val mCompiledRegex by lazy { mRegex.toRegex() }
+
     // @Hint by SuperMonster003 on Oct 17, 2022.
     //  ! Similar to JavaScript "String.prototype.match"
     //  ! which returns the result of matching a string against a regular expression.
@@ -18,7 +20,7 @@ class StringMatchFilter internal constructor(private val mRegex: String, private
     //  ! 与 JavaScript 的方法 "String.prototype.match" 类似,
     //  ! 它返回字符串与正则表达式匹配的结果.
     //  ! 参考链接见上.
-    override fun filter(node: UiObject) = mKeyGetter.getKey(node)?.contains(mRegex.toRegex()) ?: false
+    override fun filter(node: UiObject) = mKeyGetter.getKey(node)?.contains(mCompiledRegex) ?: false
 
     override fun toString(): String {
         val regexStr = when (mRegex.isEmpty()) {
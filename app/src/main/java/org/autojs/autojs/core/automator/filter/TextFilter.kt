@@ -10,7 +10,7 @@ object TextFilter {
 
     private val TEXT_GETTER = object : KeyGetter {
 
-        override fun getKey(nodeInfo: UiObject) = nodeInfo.text?.toString()
+        override fun getKey(nodeInfo: UiObject) = nodeInfo.text()
 
         override fun toString() = "text"
 
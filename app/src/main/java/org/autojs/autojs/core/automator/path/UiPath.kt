@@ -0,0 +1,611 @@
+package org.autojs.autojs.core.automator.path
+
+import org.autojs.autojs.core.automator.UiObject
+import org.autojs.autojs.core.automator.UiObjectCollection
+
+/**
+ * A compiled structural query over a node tree, written in a subset of XPath.
+ *
+ * Supported syntax:
+ * - steps separated by `/` or `//`, with an optional leading `/` or `//` for absolute paths
+ * - axes `child`, `descendant`, `descendant-or-self`, `parent`, `ancestor`, `following-sibling`, `preceding-sibling` and `self`,
+ *   plus the abbreviations `.`, `..` and `//`
+ * - node tests `*`, a full class name (`android.widget.TextView`) or a simple class name (`TextView`)
+ * - predicates with positions (`[2]`, `[last()]`), attributes (`@text`, `@desc`, `@id`, `@clickable`, `@depth`...),
+ *   comparisons `=`, `!=`, `<`, `<=`, `>`, `>=`, `and`, `or`, `not()`,
+ *   functions `contains()`, `starts-with()`, `ends-with()`, `matches()`, `text()`, `position()`, `last()`, `count()`
+ *   and nested relative paths (`[.//TextView[@text='Price']]`)
+ *
+ * A number-valued predicate selects by position (`[2]`, `[last()]`, `[count(*)]`), except a bare attribute,
+ * which is tested for truth instead (`[@childCount]` keeps nodes with children, `[@depth]` keeps nodes below depth 0).
+ *
+ * The path is parsed once, and each evaluation traverses the tree at most once to build a [UiTreeIndex].
+ *
+ * zh-CN:
+ *
+ * 以 XPath 子集编写的节点树结构化查询 (已编译).
+ *
+ * 支持的语法:
+ * - 以 `/` 或 `//` 分隔的步, 绝对路径可以 `/` 或 `//` 开头
+ * - 轴 `child`, `descendant`, `descendant-or-self`, `parent`, `ancestor`, `following-sibling`, `preceding-sibling` 及 `self`,
+ *   以及缩写 `.`, `..` 和 `//`
+ * - 节点测试 `*`, 完整类名 (`android.widget.TextView`) 或简单类名 (`TextView`)
+ * - 谓词, 支持位置 (`[2]`, `[last()]`), 属性 (`@text`, `@desc`, `@id`, `@clickable`, `@depth` 等),
+ *   比较运算 `=`, `!=`, `<`, `<=`, `>`, `>=`, `and`, `or`, `not()`,
+ *   函数 `contains()`, `starts-with()`, `ends-with()`, `matches()`, `text()`, `position()`, `last()`, `count()`
+ *   以及嵌套的相对路径 (`[.//TextView[@text='Price']]`)
+ *
+ * 数值型谓词按位置选择 (`[2]`, `[last()]`, `[count(*)]`), 但单独的属性除外, 它按真值判断
+ * (`[@childCount]` 保留有子节点的节点, `[@depth]` 保留深度不为 0 的节点).
+ *
+ * 路径仅解析一次, 每次求值最多遍历节点树一次以构建 [UiTreeIndex].
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+class UiPath private constructor(val source: String, private val mPath: Expr.Path) {
+
+    /**
+     * Evaluate the path against the subtree rooted at [root] (which acts as the document root), and return matched nodes in document order.
+     * Relative paths are evaluated with [root] as the context node.
+     *
+     * zh-CN: 在以 [root] 为根的子树 (视为文档根) 上对路径求值, 并按文档顺序返回匹配的节点. 相对路径以 [root] 作为上下文节点求值.
+     */
+    @JvmOverloads
+    fun find(root: UiObject, max: Int = Int.MAX_VALUE): UiObjectCollection {
+        val tree = UiTreeIndex.of(root)
+        val matched = mPath.select(tree, ROOT)
+        return UiObjectCollection.of(matched.asSequence().take(max).map { tree.node(it) }.toList())
+    }
+
+    /**
+     * Evaluate the path like [find] but return the first matched node only.
+     * Paths going downwards only (child, descendant and self axes) without positional predicates
+     * stop at the first match in document order, without visiting the rest of the tree.
+     *
+     * zh-CN:
+     *
+     * 与 [find] 一样对路径求值, 但仅返回首个匹配的节点.
+     * 仅向下求值 (子节点, 后代及自身轴) 且不含位置谓词的路径, 会在文档顺序中的首个匹配处停止, 而不访问节点树的其余部分.
+     */
+    fun findOne(root: UiObject): UiObject? {
+        val tree = UiTreeIndex.of(root)
+        return mPath.selectFirst(tree, ROOT).takeIf { it >= 0 }?.let { tree.node(it) }
+    }
+
+    override fun toString() = source
+
+    class UiPathSyntaxException(path: String, position: Int, reason: String) :
+        IllegalArgumentException("$reason at position $position of path \"$path\"")
+
+    internal enum class Axis(val symbol: String) {
+        CHILD("child"),
+        DESCENDANT("descendant"),
+        DESCENDANT_OR_SELF("descendant-or-self"),
+        PARENT("parent"),
+        ANCESTOR("ancestor"),
+        FOLLOWING_SIBLING("following-sibling"),
+        PRECEDING_SIBLING("preceding-sibling"),
+        SELF("self");
+
+        /** Whether candidates are all in the subtree of the context node, i.e. follow it in document order. */
+        val isDownward get() = this == CHILD || this == DESCENDANT || this == DESCENDANT_OR_SELF || this == SELF
+
+        /**
+         * The first node in document order selected through candidates of [context] on a downward axis, or -1 if none,
+         * where [select] gives the first node selected through a single candidate.
+         * As nodes selected through a candidate never precede it, candidates are visited in document order
+         * and the visit stops as soon as no later candidate could give an earlier node.
+         */
+        inline fun firstDownward(tree: UiTreeIndex, context: Int, select: (Int) -> Int): Int = when (this) {
+            SELF -> select(context)
+            CHILD -> {
+                var selected = -1
+                var n = tree.firstChild(context)
+                while (n >= 0) {
+                    selected = select(n)
+                    // Later siblings and their subtrees all follow the subtree of this child.
+                    if (selected >= 0) break
+                    n = tree.nextSibling(n)
+                }
+                selected
+            }
+            DESCENDANT, DESCENDANT_OR_SELF -> {
+                var first = -1
+                var n = if (this == DESCENDANT) context + 1 else context
+                while ((first < 0 || n < first) && tree.isInSubtree(n, context)) {
+                    val selected = select(n)
+                    if (selected >= 0 && (first < 0 || selected < first)) first = selected
+                    n += 1
+                }
+                first
+            }
+            else -> throw IllegalStateException("Axis $symbol is not downward")
+        }
+
+        /**
+         * Candidates of [context] on this axis, in axis order (reverse axes yield the nearest node first).
+         */
+        fun candidates(tree: UiTreeIndex, context: Int): IntArray = when (this) {
+            CHILD -> tree.children(context)
+            DESCENDANT -> IntArray(tree.end(context) - context - 1) { context + 1 + it }
+            DESCENDANT_OR_SELF -> IntArray(tree.end(context) - context) { context + it }
+            PARENT -> tree.parent(context).let { if (it < 0) IntArray(0) else intArrayOf(it) }
+            ANCESTOR -> generateSequence(tree.parent(context).takeIf { it >= 0 }) { p -> tree.parent(p).takeIf { it >= 0 } }.toList().toIntArray()
+            FOLLOWING_SIBLING, PRECEDING_SIBLING -> tree.parent(context).let { parent ->
+                if (parent < 0) return IntArray(0)
+                val siblings = tree.children(parent)
+                val pos = tree.indexInParent(context)
+                when (this) {
+                    FOLLOWING_SIBLING -> siblings.copyOfRange(pos + 1, siblings.size)
+                    else -> siblings.copyOfRange(0, pos).reversedArray()
+                }
+            }
+            SELF -> intArrayOf(context)
+        }
+
+        companion object {
+            fun of(symbol: String) = values().firstOrNull { it.symbol == symbol }
+        }
+    }
+
+    internal class Step(val axis: Axis, val test: String?, val predicates: List<Expr>) {
+
+        /** Whether a predicate depends on the position of candidates, which requires all of them to be known. */
+        val isPositional = predicates.any { it.usesPosition || it is Expr.Literal && it.value is Number || it is Expr.Call && it.returnsNumber }
+
+        fun matches(tree: UiTreeIndex, i: Int): Boolean {
+            test ?: return true /* node() */
+            if (i == UiTreeIndex.DOCUMENT) return false
+            if (test == "*") return true
+            val className = tree.node(i)?.className() ?: return false
+            return className == test || className.endsWith(".$test")
+        }
+
+    }
+
+    internal class EvalContext(val tree: UiTreeIndex, val node: Int, val position: Int, val size: Int)
+
+    internal sealed class Expr {
+
+        abstract fun evaluate(ctx: EvalContext): Any?
+
+        /** Whether the value depends on the position of the context node or the size of its node-set. */
+        open val usesPosition: Boolean get() = false
+
+        class Literal(val value: Any) : Expr() {
+            override fun evaluate(ctx: EvalContext) = value
+        }
+
+        class Attribute(private val name: String) : Expr() {
+            override fun evaluate(ctx: EvalContext) = attributeOf(ctx.tree, ctx.node, name)
+        }
+
+        class Path(private val absolute: Boolean, private val steps: List<Step>) : Expr() {
+
+            override fun evaluate(ctx: EvalContext) = select(ctx.tree, ctx.node)
+
+            /**
+             * Steps for [selectFirst], or null if the path is not streamable, i.e. goes upwards or sideways,
+             * or has positional predicates which need all candidates of a step.
+             * As predicates are not positional, `//X` (`descendant-or-self::node()/child::X`) is merged into
+             * `descendant::X`, which is then visited node by node rather than child list by child list.
+             */
+            private val mStreamSteps: List<Step>? = steps.takeIf { all -> all.all { it.axis.isDownward && !it.isPositional } }?.let { all ->
+                val merged = ArrayList<Step>()
+                for (step in all) {
+                    val last = merged.lastOrNull()
+                    if (step.axis == Axis.CHILD && last != null && last.axis == Axis.DESCENDANT_OR_SELF && last.test == null && last.predicates.isEmpty()) {
+                        merged[merged.lastIndex] = Step(Axis.DESCENDANT, step.test, step.predicates)
+                    } else {
+                        merged += step
+                    }
+                }
+                merged
+            }
+
+            /**
+             * Index of the first node selected from [context] in document order, or -1 if none.
+             * Streamable paths stop at the first match, indexing the tree only as far as needed.
+             *
+             * zh-CN: 从 [context] 选中的首个节点 (按文档顺序) 的索引, 若无则为 -1. 可流式求值的路径将在首个匹配处停止, 仅按需为节点树建立索引.
+             */
+            fun selectFirst(tree: UiTreeIndex, context: Int): Int {
+                val streamSteps = mStreamSteps ?: return select(tree, context).firstOrNull() ?: -1
+                return selectFirst(tree, streamSteps, if (absolute) UiTreeIndex.DOCUMENT else context, 0)
+            }
+
+            private fun selectFirst(tree: UiTreeIndex, steps: List<Step>, context: Int, stepIndex: Int): Int {
+                if (stepIndex == steps.size) return if (context == UiTreeIndex.DOCUMENT) -1 else context
+                val step = steps[stepIndex]
+                return step.axis.firstDownward(tree, context) { n ->
+                    val accepted = step.matches(tree, n) && step.predicates.all { isTruthy(it.evaluate(EvalContext(tree, n, 1, 1))) }
+                    if (accepted) selectFirst(tree, steps, n, stepIndex + 1) else -1
+                }
+            }
+
+            /**
+             * Select nodes from [context] step by step. Each step only carries the indices it selected,
+             * so a nested path costs time proportional to what it visits rather than to the whole tree.
+             *
+             * zh-CN: 从 [context] 开始逐步选择节点. 每一步仅携带其选中的索引, 因此嵌套路径的开销与其访问的节点数成正比, 而非与整棵树成正比.
+             */
+            fun select(tree: UiTreeIndex, context: Int): IntArray {
+                var current = intArrayOf(if (absolute) UiTreeIndex.DOCUMENT else context)
+                for (step in steps) {
+                    var next = IntArray(0)
+                    var nextSize = 0
+                    for (c in current) {
+                        val candidates = step.axis.candidates(tree, c)
+                        val selected = IntArray(candidates.size)
+                        var size = 0
+                        for (n in candidates) {
+                            if (step.matches(tree, n)) selected[size++] = n
+                        }
+                        for (predicate in step.predicates) {
+                            val positional = predicate !is Expr.Attribute
+                            var kept = 0
+                            for (i in 0 until size) {
+                                val value = predicate.evaluate(EvalContext(tree, selected[i], i + 1, size))
+                                if (isTruthy(value, if (positional) i + 1 else -1)) selected[kept++] = selected[i]
+                            }
+                            size = kept
+                        }
+                        if (nextSize + size > next.size) {
+                            next = next.copyOf(maxOf(next.size * 2, nextSize + size))
+                        }
+                        System.arraycopy(selected, 0, next, nextSize, size)
+                        nextSize += size
+                    }
+                    current = sortedDistinct(next, nextSize)
+                    if (current.isEmpty()) break
+                }
+                return current.filter { it != UiTreeIndex.DOCUMENT }.toIntArray()
+            }
+
+            /** Pre-order indices are in document order, so sorting restores it after reverse axes and merges duplicates. */
+            private fun sortedDistinct(indices: IntArray, size: Int): IntArray {
+                if (size == 0) return IntArray(0)
+                indices.sort(0, size)
+                var distinct = 1
+                for (i in 1 until size) {
+                    if (indices[i] != indices[distinct - 1]) indices[distinct++] = indices[i]
+                }
+                return indices.copyOf(distinct)
+            }
+
+        }
+
+        class Binary(private val op: String, private val left: Expr, private val right: Expr) : Expr() {
+            override val usesPosition get() = left.usesPosition || right.usesPosition
+            override fun evaluate(ctx: EvalContext): Any = when (op) {
+                "or" -> isTruthy(left.evaluate(ctx)) || isTruthy(right.evaluate(ctx))
+                "and" -> isTruthy(left.evaluate(ctx)) && isTruthy(right.evaluate(ctx))
+                else -> compare(op, valueOf(ctx, left.evaluate(ctx)), valueOf(ctx, right.evaluate(ctx)))
+            }
+        }
+
+        class Call(private val name: String, private val args: List<Expr>, private val regex: Regex?) : Expr() {
+            override val usesPosition get() = name == "position" || name == "last" || args.any { it.usesPosition }
+            val returnsNumber get() = name == "position" || name == "last" || name == "count"
+            override fun evaluate(ctx: EvalContext): Any? = when (name) {
+                "position" -> ctx.position
+                "last" -> ctx.size
+                "text" -> attributeOf(ctx.tree, ctx.node, "text")
+                "not" -> !isTruthy(args[0].evaluate(ctx))
+                "count" -> (args[0].evaluate(ctx) as? IntArray)?.size ?: 0
+                else -> {
+                    val subject = stringOf(valueOf(ctx, args[0].evaluate(ctx))) ?: return false
+                    val operand = stringOf(valueOf(ctx, args[1].evaluate(ctx))) ?: return false
+                    when (name) {
+                        "contains" -> subject.contains(operand)
+                        "starts-with" -> subject.startsWith(operand)
+                        "ends-with" -> subject.endsWith(operand)
+                        "matches" -> (regex ?: operand.toRegex()).containsMatchIn(subject)
+                        else -> throw IllegalStateException("Unknown function $name()")
+                    }
+                }
+            }
+        }
+
+    }
+
+    private class Parser(private val source: String) {
+
+        private var pos = 0
+
+        fun parse(): Expr.Path {
+            skipSpaces()
+            val path = parsePath() ?: fail("Path expected")
+            skipSpaces()
+            if (pos < source.length) fail("Unexpected '${source[pos]}'")
+            return path
+        }
+
+        private fun fail(reason: String): Nothing = throw UiPathSyntaxException(source, pos, reason)
+
+        private fun skipSpaces() {
+            while (pos < source.length && source[pos].isWhitespace()) pos++
+        }
+
+        private fun peek(s: String) = source.startsWith(s, pos)
+
+        private fun consume(s: String) = peek(s).also { if (it) pos += s.length }
+
+        private fun expect(s: String) {
+            skipSpaces()
+            if (!consume(s)) fail("'$s' expected")
+        }
+
+        private fun isNameStart(c: Char) = c.isLetter() || c == '_'
+
+        private fun isNameChar(c: Char) = c.isLetterOrDigit() || c == '_' || c == '-' || c == '.' || c == '$'
+
+        private fun readName(): String {
+            val start = pos
+            if (pos >= source.length || !isNameStart(source[pos])) fail("Name expected")
+            while (pos < source.length && isNameChar(source[pos])) pos++
+            return source.substring(start, pos)
+        }
+
+        private fun isPathStart(): Boolean {
+            if (pos >= source.length) return false
+            val c = source[pos]
+            return c == '/' || c == '.' || c == '*' || isNameStart(c)
+        }
+
+        private fun parsePath(): Expr.Path? {
+            if (!isPathStart()) return null
+            val steps = ArrayList<Step>()
+            val absolute = peek("/")
+            var first = true
+            while (true) {
+                skipSpaces()
+                when {
+                    consume("//") -> steps += Step(Axis.DESCENDANT_OR_SELF, null, emptyList())
+                    consume("/") -> Unit
+                    !first -> break
+                }
+                skipSpaces()
+                if (first && absolute && (pos >= source.length || source[pos] !in "*._" && !source[pos].isLetter())) {
+                    break /* The single "/" selecting the document. */
+                }
+                steps += parseStep()
+                first = false
+            }
+            return Expr.Path(absolute, steps)
+        }
+
+        private fun parseStep(): Step {
+            if (consume("..")) return Step(Axis.PARENT, null, emptyList())
+            if (consume(".")) return Step(Axis.SELF, null, emptyList())
+            var axis = Axis.CHILD
+            val test = when {
+                consume("*") -> "*"
+                else -> {
+                    val name = readName()
+                    if (consume("::")) {
+                        axis = Axis.of(name) ?: fail("Unknown axis \"$name\"")
+                        if (consume("*")) "*" else readName()
+                    } else name
+                }
+            }
+            val predicates = ArrayList<Expr>()
+            while (true) {
+                skipSpaces()
+                if (!consume("[")) break
+                predicates += parseOr()
+                expect("]")
+            }
+            return Step(axis, test, predicates)
+        }
+
+        private fun parseOr(): Expr {
+            var left = parseAnd()
+            while (consumeKeyword("or")) left = Expr.Binary("or", left, parseAnd())
+            return left
+        }
+
+        private fun parseAnd(): Expr {
+            var left = parseComparison()
+            while (consumeKeyword("and")) left = Expr.Binary("and", left, parseComparison())
+            return left
+        }
+
+        private fun consumeKeyword(keyword: String): Boolean {
+            skipSpaces()
+            val end = pos + keyword.length
+            if (!peek(keyword) || end < source.length && isNameChar(source[end])) return false
+            pos = end
+            return true
+        }
+
+        private fun parseComparison(): Expr {
+            val left = parsePrimary()
+            skipSpaces()
+            val op = listOf("!=", "<=", ">=", "=", "<", ">").firstOrNull { consume(it) } ?: return left
+            return Expr.Binary(op, left, parsePrimary())
+        }
+
+        private fun parsePrimary(): Expr {
+            skipSpaces()
+            if (pos >= source.length) fail("Expression expected")
+            val c = source[pos]
+            return when {
+                c == '(' -> {
+                    pos++
+                    parseOr().also { expect(")") }
+                }
+                c == '@' -> {
+                    pos++
+                    Expr.Attribute(readName())
+                }
+                c == '\'' || c == '"' -> {
+                    val end = source.indexOf(c, pos + 1).takeIf { it > 0 } ?: fail("Unterminated string")
+                    Expr.Literal(source.substring(pos + 1, end)).also { pos = end + 1 }
+                }
+                c.isDigit() || c == '-' -> {
+                    val start = pos
+                    pos++
+                    while (pos < source.length && (source[pos].isDigit() || source[pos] == '.')) pos++
+                    Expr.Literal(source.substring(start, pos).toDoubleOrNull() ?: fail("Invalid number"))
+                }
+                isNameStart(c) && isFunctionCall() -> parseCall()
+                else -> parsePath() ?: fail("Expression expected")
+            }
+        }
+
+        private fun isFunctionCall(): Boolean {
+            var i = pos
+            while (i < source.length && isNameChar(source[i])) i++
+            val name = source.substring(pos, i)
+            while (i < source.length && source[i].isWhitespace()) i++
+            return i < source.length && source[i] == '(' && name in FUNCTION_ARITIES
+        }
+
+        private fun parseCall(): Expr {
+            val start = pos
+            val name = readName()
+            expect("(")
+            val args = ArrayList<Expr>()
+            skipSpaces()
+            if (!consume(")")) {
+                do {
+                    args += parseOr()
+                    skipSpaces()
+                } while (consume(","))
+                expect(")")
+            }
+            if (args.size != FUNCTION_ARITIES[name]) {
+                pos = start
+                fail("Function $name() takes ${FUNCTION_ARITIES[name]} argument(s) but ${args.size} given")
+            }
+            val regex = if (name == "matches") (args[1] as? Expr.Literal)?.let { "${it.value}".toRegex() } else null
+            return Expr.Call(name, args, regex)
+        }
+
+    }
+
+    companion object {
+
+        private const val ROOT = 1
+
+        private val FUNCTION_ARITIES = mapOf(
+            "position" to 0, "last" to 0, "text" to 0, "not" to 1, "count" to 1,
+            "contains" to 2, "starts-with" to 2, "ends-with" to 2, "matches" to 2,
+        )
+
+        /**
+         * Parse [path] into a reusable [UiPath].
+         *
+         * zh-CN: 将 [path] 解析为可重复使用的 [UiPath].
+         *
+         * @throws UiPathSyntaxException if [path] is not valid.
+         */
+        @JvmStatic
+        fun compile(path: String) = UiPath(path, Parser(path).parse())
+
+        /**
+         * Get a compiled [UiPath] from a small cache keyed by [path], compiling it if absent.
+         *
+         * zh-CN: 从以 [path] 为键的小型缓存中获取已编译的 [UiPath], 不存在时进行编译.
+         */
+        @JvmStatic
+        fun of(path: String): UiPath = synchronized(sCache) { sCache.getOrPut(path) { compile(path) } }
+
+        private const val MAX_CACHE_SIZE = 64
+
+        private val sCache = object : LinkedHashMap<String, UiPath>(16, 0.75f, true) {
+            override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, UiPath>) = size > MAX_CACHE_SIZE
+        }
+
+        private fun attributeOf(tree: UiTreeIndex, i: Int, name: String): Any? {
+            val node = tree.node(i) ?: return null
+            return when (name) {
+                "text" -> node.text()
+                "desc" -> node.desc()
+                "content" -> node.content()
+                "id" -> node.fullId()
+                "simpleId" -> node.simpleId()
+                "class", "className" -> node.className()
+                "package", "packageName" -> node.packageName()
+                "clickable" -> node.isClickable
+                "longClickable" -> node.isLongClickable
+                "scrollable" -> node.isScrollable
+                "checkable" -> node.isCheckable
+                "checked" -> node.isChecked
+                "enabled" -> node.isEnabled
+                "focusable" -> node.isFocusable
+                "focused" -> node.isFocused
+                "selected" -> node.isSelected
+                "editable" -> node.isEditable
+                "visibleToUser" -> node.isVisibleToUser
+                "depth" -> tree.depth(i)
+                "indexInParent" -> if (i == ROOT) node.indexInParent() else tree.indexInParent(i)
+                "childCount" -> tree.children(i).size
+                "left" -> node.left()
+                "top" -> node.top()
+                "right" -> node.right()
+                "bottom" -> node.bottom()
+                "width" -> node.width()
+                "height" -> node.height()
+                "centerX" -> node.centerX()
+                "centerY" -> node.centerY()
+                else -> null
+            }
+        }
+
+        private fun valueOf(ctx: EvalContext, value: Any?): Any? = when (value) {
+            is IntArray -> value.firstOrNull()?.let { attributeOf(ctx.tree, it, "text") }
+            else -> value
+        }
+
+        private fun stringOf(value: Any?): String? = when (value) {
+            null -> null
+            is Double -> if (value == Math.floor(value)) value.toLong().toString() else value.toString()
+            else -> value.toString()
+        }
+
+        private fun numberOf(value: Any?): Double? = when (value) {
+            is Number -> value.toDouble()
+            is Boolean -> if (value) 1.0 else 0.0
+            else -> value?.toString()?.toDoubleOrNull()
+        }
+
+        private fun compare(op: String, left: Any?, right: Any?): Boolean {
+            if (left == null || right == null) return op == "!=" && (left != null || right != null)
+            if (left is Boolean || right is Boolean) {
+                val l = if (left is Boolean) left else left.toString().toBoolean()
+                val r = if (right is Boolean) right else right.toString().toBoolean()
+                return when (op) {
+                    "=" -> l == r
+                    "!=" -> l != r
+                    else -> false
+                }
+            }
+            if (left is Number || right is Number || op !in listOf("=", "!=")) {
+                val l = numberOf(left) ?: return op == "!="
+                val r = numberOf(right) ?: return op == "!="
+                return when (op) {
+                    "=" -> l == r
+                    "!=" -> l != r
+                    "<" -> l < r
+                    "<=" -> l <= r
+                    ">" -> l > r
+                    else -> l >= r
+                }
+            }
+            return (stringOf(left) == stringOf(right)) == (op == "=")
+        }
+
+        private fun isTruthy(value: Any?, position: Int = -1): Boolean = when (value) {
+            null -> false
+            is Boolean -> value
+            is Number -> if (position >= 0) value.toDouble() == position.toDouble() else value.toDouble() != 0.0
+            is String -> value.isNotEmpty()
+            is IntArray -> value.isNotEmpty()
+            else -> true
+        }
+
+    }
+
+}
@@ -0,0 +1,169 @@
+package org.autojs.autojs.core.automator.path
+
+import org.autojs.autojs.core.automator.UiObject
+
+/**
+ * Pre-order index of a node tree, over which all [UiPath] axes are evaluated.
+ *
+ * Index 0 is a virtual document node whose only child is the root, so that absolute paths
+ * such as `/FrameLayout` and `//TextView` behave as in XPath. The subtree of node `i` is the range `[i, end(i))`.
+ *
+ * Nodes are indexed on demand, in the order of a single depth-first traversal, so that a query which
+ * stops at its first match (e.g. [UiPath.findOne]) only visits the part of the tree before that match
+ * and the subtrees its predicates look into.
+ *
+ * zh-CN:
+ *
+ * 节点树的先序索引, [UiPath] 的所有轴均在此索引上求值.
+ *
+ * 索引 0 为虚拟的文档节点, 其唯一子节点为根节点, 因此 `/FrameLayout` 及 `//TextView` 等绝对路径的行为与 XPath 一致.
+ * 节点 `i` 的子树为区间 `[i, end(i))`.
+ *
+ * 节点按需建立索引, 顺序与单次深度优先遍历一致, 因此在首个匹配处停止的查询 (如 [UiPath.findOne])
+ * 仅访问该匹配之前的部分节点树, 以及其谓词所检查的子树.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+internal class UiTreeIndex private constructor(private val root: UiObject) {
+
+    /** The child at [slot] of [parent], which is fetched only when visited. */
+    private class Pending(val parentNode: UiObject, val parent: Int, val slot: Int)
+
+    private var mNodes = arrayOfNulls<UiObject>(INITIAL_CAPACITY)
+    private var mParents = IntArray(INITIAL_CAPACITY)
+    private var mIndexesInParent = IntArray(INITIAL_CAPACITY)
+    private var mDepths = IntArray(INITIAL_CAPACITY)
+    private var mSlots = IntArray(INITIAL_CAPACITY)
+    private var mSlotCounts = IntArray(INITIAL_CAPACITY)
+    private var mVisitedChildCounts = IntArray(INITIAL_CAPACITY)
+    private var mEnds = IntArray(INITIAL_CAPACITY)
+    private var mSize = 0
+
+    private val mChildren = HashMap<Int, IntArray>()
+
+    /** Nodes to visit, the next one on top. */
+    private val mPending = ArrayDeque<Pending>()
+
+    /** Visited nodes whose subtree is not complete yet, i.e. the ancestors-or-self of the last visited node. */
+    private val mOpen = ArrayDeque<Int>()
+
+    init {
+        add(null, -1, -1, 1)
+        add(root, DOCUMENT, 0, root.childCount)
+    }
+
+    fun node(i: Int) = mNodes[i]
+
+    fun parent(i: Int) = mParents[i]
+
+    fun indexInParent(i: Int) = mIndexesInParent[i]
+
+    fun depth(i: Int) = mDepths[i]
+
+    fun end(i: Int): Int {
+        while (mEnds[i] < 0) visitNext()
+        return mEnds[i]
+    }
+
+    fun children(i: Int): IntArray = mChildren.getOrPut(i) {
+        val children = ArrayList<Int>()
+        var child = firstChild(i)
+        while (child >= 0) {
+            children += child
+            child = nextSibling(child)
+        }
+        children.toIntArray()
+    }
+
+    /**
+     * Whether node [i] exists, indexing the tree up to it if needed.
+     *
+     * zh-CN: 节点 [i] 是否存在, 必要时将节点树索引至该节点.
+     */
+    fun exists(i: Int): Boolean {
+        while (i >= mSize && mPending.isNotEmpty()) visitNext()
+        return i < mSize
+    }
+
+    /** The first child of [i] always follows it in pre-order. */
+    fun firstChild(i: Int) = if (mSlotCounts[i] > 0 && exists(i + 1) && mParents[i + 1] == i) i + 1 else -1
+
+    /** The next sibling of [i] follows its subtree, which is indexed only if [i] is not known to be the last child. */
+    fun nextSibling(i: Int): Int {
+        val parent = mParents[i]
+        if (parent < 0 || mSlots[i] + 1 >= mSlotCounts[parent]) return -1
+        val next = end(i)
+        return if (exists(next) && mParents[next] == parent) next else -1
+    }
+
+    /**
+     * Whether node [i] is in the subtree of [ancestor] (itself included), without indexing the rest of that subtree.
+     *
+     * zh-CN: 节点 [i] 是否位于 [ancestor] 的子树中 (包括其自身), 且不会为该子树的其余部分建立索引.
+     */
+    fun isInSubtree(i: Int, ancestor: Int): Boolean {
+        if (i < ancestor || !exists(i)) return false
+        // An ancestor whose end is still unknown is open, so every node visited after it is inside its subtree.
+        return mEnds[ancestor] < 0 || i < mEnds[ancestor]
+    }
+
+    private fun visitNext() {
+        while (true) {
+            val pending = mPending.removeLastOrNull()
+            if (pending == null) {
+                while (mOpen.isNotEmpty()) mEnds[mOpen.removeLast()] = mSize
+                return
+            }
+            // Children which are gone are skipped, as in a full traversal.
+            val node = pending.parentNode.child(pending.slot) ?: continue
+            add(node, pending.parent, pending.slot, node.childCount)
+            return
+        }
+    }
+
+    private fun add(node: UiObject?, parent: Int, slot: Int, slotCount: Int) {
+        val index = mSize
+        if (index == mNodes.size) grow()
+        while (mOpen.isNotEmpty() && mOpen.last() != parent) mEnds[mOpen.removeLast()] = index
+        mNodes[index] = node
+        mParents[index] = parent
+        mSlots[index] = slot
+        mSlotCounts[index] = slotCount
+        mVisitedChildCounts[index] = 0
+        mIndexesInParent[index] = if (parent < 0) -1 else mVisitedChildCounts[parent]++
+        mDepths[index] = when (parent) {
+            -1 -> 0
+            DOCUMENT -> root.depth()
+            else -> mDepths[parent] + 1
+        }
+        mEnds[index] = -1
+        mOpen.addLast(index)
+        mSize += 1
+        if (node != null) {
+            for (i in slotCount - 1 downTo 0) mPending.addLast(Pending(node, index, i))
+        }
+    }
+
+    private fun grow() {
+        val capacity = mNodes.size * 2
+        mNodes = mNodes.copyOf(capacity)
+        mParents = mParents.copyOf(capacity)
+        mIndexesInParent = mIndexesInParent.copyOf(capacity)
+        mDepths = mDepths.copyOf(capacity)
+        mSlots = mSlots.copyOf(capacity)
+        mSlotCounts = mSlotCounts.copyOf(capacity)
+        mVisitedChildCounts = mVisitedChildCounts.copyOf(capacity)
+        mEnds = mEnds.copyOf(capacity)
+    }
+
+    companion object {
+
+        const val DOCUMENT = 0
+
+        private const val INITIAL_CAPACITY = 64
+
+        fun of(root: UiObject) = UiTreeIndex(root)
+
+    }
+
+}
@@ -3,11 +3,13 @@ package org.autojs.autojs.core.http
 import android.util.Log
 import okhttp3.Interceptor
 import okhttp3.OkHttpClient
+import org.autojs.autojs.core.trace.Tracer
 import java.util.concurrent.TimeUnit
 
 /**
  * Created by Stardust on Apr 11, 2018.
  * Modified by SuperMonster003 as of Sep 8, 2022.
+ * Modified by agent as of Oct 19, 2026.
  */
 class MutableOkHttp : OkHttpClient() {
 
@@ -27,6 +29,7 @@ class MutableOkHttp : OkHttpClient() {
 
     init {
         mOkHttpClient = newClient(Builder())
+        mInterceptors.add(getTracingInterceptor())
         mInterceptors.add(getRetryInterceptor())
     }
 
@@ -49,6 +52,14 @@ class MutableOkHttp : OkHttpClient() {
     @Synchronized
     private fun muteClient() = muteClient(mOkHttpClient.newBuilder())
 
+    // Added before the retry interceptor, so that a span covers all retries of a call.
+    // zh-CN: 添加于重试拦截器之前, 因此一个区间涵盖一次调用的所有重试.
+    private fun getTracingInterceptor() = Interceptor { chain ->
+        val request = chain.request()
+        val detail = if (Tracer.isEnabled) "${request.method} ${request.url}" else null
+        Tracer.trace("http", Tracer.CATEGORY_HTTP, detail) { chain.proceed(request) }
+    }
+
     private fun getRetryInterceptor() = Interceptor { chain ->
 
         // @Reference to stackoverflow.com by SuperMonster003 on Apr 9, 2024.
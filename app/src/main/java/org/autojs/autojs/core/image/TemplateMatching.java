@@ -3,6 +3,7 @@ package org.autojs.autojs.core.image;
 import android.util.TimingLogger;
 
 import org.autojs.autojs.core.opencv.OpenCVHelper;
+import org.autojs.autojs.core.trace.Tracer;
 import org.autojs.autojs.util.MathUtils;
 
 import org.autojs.autojs.core.opencv.Mat;
@@ -23,6 +24,7 @@ import java.util.List;
 
 /**
  * Created by Stardust on Nov 25, 2017.
+ * Modified by agent as of Oct 19, 2026.
  */
 public class TemplateMatching {
 
@@ -139,6 +141,7 @@ public class TemplateMatching {
         boolean useTransparentMask = options.getUseTransparentMask();
 
         TimingLogger logger = new TimingLogger(LOG_TAG, "fast_tm");
+        long traceBegin = Tracer.begin();
 
         int selectPyramidLevel = maxLevel;
 
@@ -214,6 +217,7 @@ public class TemplateMatching {
         }
         logger.addSplit("result:" + finalMatchResult);
         logger.dumpToLog();
+        Tracer.end("fast-template-matching", Tracer.CATEGORY_IMAGE, traceBegin);
         return finalMatchResult;
     }
 
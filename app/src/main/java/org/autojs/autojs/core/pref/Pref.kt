@@ -25,6 +25,7 @@ import java.util.*
 
 /**
  * Created by Stardust on Jan 31, 2017.
+ * Modified by agent as of Oct 19, 2026.
  */
 object Pref {
 
@@ -67,6 +68,22 @@ object Pref {
             resources.getBoolean(R.bool.pref_extending_js_build_in_objects),
         )
 
+    @JvmStatic
+    var isSharingStandardObjectsScopeEnabled
+        get() = getBoolean(
+            R.string.key_sharing_standard_objects_scope,
+            resources.getBoolean(R.bool.pref_sharing_standard_objects_scope),
+        )
+        set(value) = putBoolean(R.string.key_sharing_standard_objects_scope, value)
+
+    @JvmStatic
+    var isScriptEnginePoolEnabled
+        get() = getBoolean(
+            R.string.key_script_engine_pool,
+            resources.getBoolean(R.bool.pref_script_engine_pool),
+        )
+        set(value) = putBoolean(R.string.key_script_engine_pool, value)
+
     @JvmStatic
     val isGuardModeEnabled
         get() = getBoolean(
@@ -0,0 +1,194 @@
+package org.autojs.autojs.core.trace
+
+import android.os.Process
+import org.json.JSONArray
+import org.json.JSONObject
+import java.io.File
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Process-wide recorder of timing spans, such as engine initialization, module installation, screen capturing,
+ * OCR, selector searches and HTTP calls, which may be exported in the Chrome trace event format
+ * and inspected in a trace viewer (`chrome://tracing`, Perfetto and so on).
+ *
+ * Spans are kept in a ring buffer of [capacity] entries, so the oldest spans are overwritten on long runs.
+ * When disabled, which is the default, a span costs a single volatile read and nothing is allocated.
+ *
+ * zh-CN:
+ *
+ * 进程级的计时区间记录器, 记录引擎初始化, 模块安装, 截屏, OCR, 选择器查找及 HTTP 调用等区间,
+ * 可导出为 Chrome 跟踪事件格式, 并在跟踪查看器 (`chrome://tracing`, Perfetto 等) 中查看.
+ *
+ * 区间保存于容量为 [capacity] 的环形缓冲区, 因此长时间运行时最早的区间将被覆盖.
+ * 禁用时 (默认), 每个区间的开销仅为一次 volatile 读取, 且不分配任何内存.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+object Tracer {
+
+    const val DEFAULT_CAPACITY = 65536
+
+    const val CATEGORY_ENGINE = "engine"
+    const val CATEGORY_MODULE = "module"
+    const val CATEGORY_IMAGE = "image"
+    const val CATEGORY_OCR = "ocr"
+    const val CATEGORY_SELECTOR = "selector"
+    const val CATEGORY_HTTP = "http"
+
+    /**
+     * Returned by [begin] when tracing is disabled, which makes [end] a no-op.
+     *
+     * zh-CN: 追踪禁用时由 [begin] 返回, 此时 [end] 不执行任何操作.
+     */
+    const val NOT_TRACING = -1L
+
+    private const val DURATION_INSTANT = -1L
+
+    @JvmStatic
+    @Volatile
+    var isEnabled = false
+
+    @JvmStatic
+    var capacity = DEFAULT_CAPACITY
+        @Synchronized get
+        @Synchronized set(value) {
+            field = value.coerceAtLeast(1)
+            allocate(field)
+        }
+
+    private var mNames = arrayOfNulls<String>(0)
+    private var mCategories = arrayOfNulls<String>(0)
+    private var mDetails = arrayOfNulls<String>(0)
+    private var mThreadIds = LongArray(0)
+    private var mBeginNanos = LongArray(0)
+    private var mDurationNanos = LongArray(0)
+    private var mCount = 0L
+
+    private val mThreadNames = ConcurrentHashMap<Long, String>()
+
+    /**
+     * Run [block] as a span named [name].
+     *
+     * zh-CN: 以名为 [name] 的区间运行 [block].
+     */
+    @JvmStatic
+    inline fun <R> trace(name: String, category: String, detail: String? = null, block: () -> R): R {
+        if (!isEnabled) return block()
+        val begin = System.nanoTime()
+        try {
+            return block()
+        } finally {
+            end(name, category, begin, detail)
+        }
+    }
+
+    /**
+     * Begin a span, for callers which cannot wrap the span in a block, such as Java code with several exits.
+     *
+     * zh-CN: 开始一个区间, 供无法以代码块包裹区间的调用方使用, 如存在多个出口的 Java 代码.
+     */
+    @JvmStatic
+    fun begin() = if (isEnabled) System.nanoTime() else NOT_TRACING
+
+    @JvmStatic
+    @JvmOverloads
+    fun end(name: String, category: String, beginNanos: Long, detail: String? = null) {
+        if (beginNanos == NOT_TRACING) return
+        record(name, category, detail, beginNanos, System.nanoTime() - beginNanos)
+    }
+
+    @JvmStatic
+    @JvmOverloads
+    fun instant(name: String, category: String, detail: String? = null) {
+        if (!isEnabled) return
+        record(name, category, detail, System.nanoTime(), DURATION_INSTANT)
+    }
+
+    @JvmStatic
+    @Synchronized
+    fun clear() {
+        mCount = 0L
+        mNames.fill(null)
+        mCategories.fill(null)
+        mDetails.fill(null)
+    }
+
+    /**
+     * Export the recorded spans in the Chrome trace event format (JSON object format).
+     *
+     * zh-CN: 以 Chrome 跟踪事件格式 (JSON 对象格式) 导出已记录的区间.
+     */
+    @JvmStatic
+    @Synchronized
+    fun toChromeTrace(): String {
+        val pid = Process.myPid()
+        val events = JSONArray()
+        mThreadNames.forEach { (tid, threadName) ->
+            events.put(JSONObject().apply {
+                put("name", "thread_name")
+                put("ph", "M")
+                put("pid", pid)
+                put("tid", tid)
+                put("args", JSONObject().put("name", threadName))
+            })
+        }
+        val size = mNames.size
+        val first = (mCount - size).coerceAtLeast(0L)
+        for (i in first until mCount) {
+            val index = (i % size).toInt()
+            val duration = mDurationNanos[index]
+            events.put(JSONObject().apply {
+                put("name", mNames[index])
+                put("cat", mCategories[index])
+                put("pid", pid)
+                put("tid", mThreadIds[index])
+                put("ts", mBeginNanos[index] / 1000.0)
+                if (duration == DURATION_INSTANT) {
+                    put("ph", "i")
+                    put("s", "t")
+                } else {
+                    put("ph", "X")
+                    put("dur", duration / 1000.0)
+                }
+                mDetails[index]?.let { put("args", JSONObject().put("detail", it)) }
+            })
+        }
+        return JSONObject().apply {
+            put("traceEvents", events)
+            put("displayTimeUnit", "ms")
+        }.toString()
+    }
+
+    @JvmStatic
+    fun writeChromeTrace(file: File) = file.writeText(toChromeTrace())
+
+    @Synchronized
+    private fun record(name: String, category: String, detail: String?, beginNanos: Long, durationNanos: Long) {
+        if (mNames.isEmpty()) allocate(capacity)
+        val thread = Thread.currentThread()
+        @Suppress("DEPRECATION")
+        val tid = thread.id
+        if (!mThreadNames.containsKey(tid)) mThreadNames[tid] = thread.name
+        val index = (mCount % mNames.size).toInt()
+        mNames[index] = name
+        mCategories[index] = category
+        mDetails[index] = detail
+        mThreadIds[index] = tid
+        mBeginNanos[index] = beginNanos
+        mDurationNanos[index] = durationNanos
+        mCount += 1
+    }
+
+    // Allocated on first use, so that the buffer costs no memory while tracing is never enabled.
+    // zh-CN: 首次使用时分配, 因此从未启用追踪时缓冲区不占用内存.
+    private fun allocate(size: Int) {
+        mNames = arrayOfNulls(size)
+        mCategories = arrayOfNulls(size)
+        mDetails = arrayOfNulls(size)
+        mThreadIds = LongArray(size)
+        mBeginNanos = LongArray(size)
+        mDurationNanos = LongArray(size)
+        mCount = 0L
+    }
+
+}
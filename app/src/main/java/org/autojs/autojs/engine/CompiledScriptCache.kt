@@ -0,0 +1,177 @@
+package org.autojs.autojs.engine
+
+import org.autojs.autojs.rhino.debug.SamplingProfiler
+import org.mozilla.javascript.Context
+import org.mozilla.javascript.Script
+import java.nio.ByteBuffer
+import java.security.MessageDigest
+
+/**
+ * Process-wide LRU cache of compiled Rhino [Script] objects, keyed by the hash of the source, the file name,
+ * and the language version, optimization level and instruction counting of the compiling context.
+ *
+ * A compiled script holds no state of its own scope, so the same instance may be executed
+ * by different engines on different threads, which saves re-parsing identical source
+ * for scripts launched repeatedly (timed tasks, intents and so on).
+ *
+ * zh-CN:
+ *
+ * 进程级的 Rhino 已编译 [Script] 对象 LRU 缓存, 以源码哈希, 文件名, 以及编译上下文的语言版本, 优化级别与指令计数为键.
+ *
+ * 已编译的脚本不持有其作用域的状态, 因此同一实例可被不同线程上的不同引擎执行,
+ * 对于反复启动的脚本 (定时任务, 意图等), 可省去对相同源码的重复解析.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+object CompiledScriptCache {
+
+    const val DEFAULT_MAX_ENTRIES = 64
+    const val DEFAULT_MAX_SOURCE_CHARS = 8 * 1024 * 1024
+
+    private const val HASH_CHUNK_CHARS = 4096
+
+    private data class Key(
+        val hash: String,
+        val fileName: String,
+        val languageVersion: Int,
+        val optimizationLevel: Int,
+        val generateObserverCount: Boolean,
+    )
+
+    private class Entry(val script: Script, val sourceChars: Int, val compileNanos: Long)
+
+    data class Stats(
+        val hits: Long,
+        val misses: Long,
+        val evictions: Long,
+        val size: Int,
+        val sourceChars: Long,
+        val savedNanos: Long,
+    ) {
+        val hitRate get() = if (hits + misses == 0L) 0.0 else hits.toDouble() / (hits + misses)
+    }
+
+    @Volatile
+    var isEnabled = true
+
+    /**
+     * Upper bound of the number of cached scripts.
+     *
+     * zh-CN: 缓存脚本数量的上限.
+     */
+    @Volatile
+    var maxEntries = DEFAULT_MAX_ENTRIES
+        set(value) {
+            field = value.coerceAtLeast(0)
+            synchronized(mEntries) { trim() }
+        }
+
+    /**
+     * Upper bound of the total source length of cached scripts, as scripts are roughly proportional to their source in memory.
+     *
+     * zh-CN: 缓存脚本源码总长度的上限, 因为脚本占用的内存大致与其源码长度成正比.
+     */
+    @Volatile
+    var maxSourceChars = DEFAULT_MAX_SOURCE_CHARS
+        set(value) {
+            field = value.coerceAtLeast(0)
+            synchronized(mEntries) { trim() }
+        }
+
+    private val mEntries = LinkedHashMap<Key, Entry>(16, 0.75f, true)
+
+    private var mSourceChars = 0L
+    private var mHits = 0L
+    private var mMisses = 0L
+    private var mEvictions = 0L
+    private var mSavedNanos = 0L
+
+    /**
+     * Get the compiled script of [source] from the cache, or compile it with [context] and cache it.
+     *
+     * Compilation happens outside the lock, so a slow compilation never blocks lookups of other scripts.
+     * Contexts with a debugger attached always compile, as the debugger is notified during compilation, unless it is a profiler.
+     *
+     * zh-CN:
+     *
+     * 从缓存中获取 [source] 的已编译脚本, 或使用 [context] 编译并缓存.
+     *
+     * 编译在锁外进行, 因此耗时的编译不会阻塞其他脚本的查找.
+     * 附加了调试器的上下文总是重新编译, 因为调试器需要在编译期间获得通知, 分析器除外.
+     */
+    @JvmStatic
+    fun getOrCompile(context: Context, source: String, fileName: String): Script {
+        if (!isEnabled || SamplingProfiler.isCompilationObserved(context) || source.length > maxSourceChars) {
+            synchronized(mEntries) { mMisses += 1 }
+            return context.compileString(source, fileName, 1, null)
+        }
+        @Suppress("DEPRECATION")
+        val key = Key(hashOf(source), fileName, context.languageVersion, context.optimizationLevel, context.isGenerateObserverCount)
+        synchronized(mEntries) {
+            mEntries[key]?.let {
+                mHits += 1
+                mSavedNanos += it.compileNanos
+                return it.script
+            }
+            mMisses += 1
+        }
+        val start = System.nanoTime()
+        val script = context.compileString(source, fileName, 1, null)
+        val entry = Entry(script, source.length, System.nanoTime() - start)
+        synchronized(mEntries) {
+            mEntries[key]?.let { return it.script }
+            mEntries[key] = entry
+            mSourceChars += entry.sourceChars
+            trim()
+        }
+        return script
+    }
+
+    @JvmStatic
+    fun stats() = synchronized(mEntries) {
+        Stats(mHits, mMisses, mEvictions, mEntries.size, mSourceChars, mSavedNanos)
+    }
+
+    @JvmStatic
+    fun clear() = synchronized(mEntries) {
+        mEntries.clear()
+        mSourceChars = 0L
+    }
+
+    @JvmStatic
+    fun resetStats() = synchronized(mEntries) {
+        mHits = 0L
+        mMisses = 0L
+        mEvictions = 0L
+        mSavedNanos = 0L
+    }
+
+    private fun trim() {
+        val iterator = mEntries.values.iterator()
+        while (iterator.hasNext() && (mEntries.size > maxEntries || mSourceChars > maxSourceChars)) {
+            mSourceChars -= iterator.next().sourceChars
+            iterator.remove()
+            mEvictions += 1
+        }
+    }
+
+    /**
+     * SHA-256 of the UTF-16 code units of [source], fed in small chunks rather than through a byte array as large as the source.
+     * Unlike encoding chunks to UTF-8 separately, surrogate pairs split between chunks still hash distinctly.
+     */
+    private fun hashOf(source: String): String {
+        val digest = MessageDigest.getInstance("SHA-256")
+        val buffer = ByteBuffer.allocate(HASH_CHUNK_CHARS * 2)
+        val chars = buffer.asCharBuffer()
+        var start = 0
+        while (start < source.length) {
+            val end = minOf(start + HASH_CHUNK_CHARS, source.length)
+            chars.clear()
+            chars.put(source, start, end)
+            digest.update(buffer.array(), 0, (end - start) * 2)
+            start = end
+        }
+        return digest.digest().joinToString("") { "%02x".format(it) }
+    }
+
+}
@@ -0,0 +1,242 @@
+package org.autojs.autojs.engine
+
+import android.content.res.AssetManager
+import android.util.Log
+import org.autojs.autojs.engine.encryption.ScriptEncryption
+import org.autojs.autojs.rhino.debug.SamplingProfiler
+import org.autojs.autojs.script.EncryptedScriptFileHeader
+import org.autojs.autojs.script.EncryptedScriptFileHeader.BLOCK_SIZE
+import org.mozilla.javascript.Context
+import org.mozilla.javascript.Script
+import org.mozilla.javascript.SecurityController
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.IOException
+import java.io.ObjectInputStream
+import java.io.ObjectOutputStream
+import java.io.OutputStream
+import java.security.MessageDigest
+
+/**
+ * Bundle of scripts compiled into the interpreter form of Rhino at build time, so that a packaged app
+ * executes its scripts without parsing them again on each launch.
+ *
+ * Each entry holds a compiled script serialized with Java serialization, together with the SHA-256 hash of its source.
+ * At runtime the source is still read as usual, and the compiled script is used only when the hash of the source matches,
+ * so an outdated bundle never executes code other than the source.
+ * The whole bundle is dropped when it was produced by another Rhino implementation or for another language version.
+ *
+ * Source map: scripts are compiled with their paths relative to the project as source names and start at line 1,
+ * so stack traces report the project path and the original line numbers, which [sourceMap] maps back to the entries.
+ *
+ * zh-CN:
+ *
+ * 构建时编译为 Rhino 解释器形式的脚本包, 使打包应用每次启动时执行脚本无需重新解析.
+ *
+ * 每个条目包含以 Java 序列化方式序列化的已编译脚本及其源码的 SHA-256 哈希.
+ * 运行时仍照常读取源码, 仅当源码哈希匹配时使用已编译的脚本, 因此过时的脚本包绝不会执行与源码不同的代码.
+ * 若脚本包由其他 Rhino 实现或针对其他语言版本生成, 则整个脚本包将被弃用.
+ *
+ * 源码映射: 脚本以相对于项目的路径作为源名称编译, 且从第 1 行开始,
+ * 因此堆栈跟踪报告项目路径及原始行号, 并可通过 [sourceMap] 映射回各条目.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+class PrecompiledScriptBundle private constructor(
+    val implementationVersion: String,
+    val languageVersion: Int,
+    private val mEntries: Map<String, Entry>,
+) {
+
+    /**
+     * @param name Path of the script relative to the project, which is also its source name in stack traces.
+     * @param sourceHash SHA-256 hash of the source in hex.
+     * @param lineCount Number of lines of the source.
+     *
+     * zh-CN:
+     *
+     * @param name 脚本相对于项目的路径, 亦为其在堆栈跟踪中的源名称.
+     * @param sourceHash 源码的 SHA-256 哈希 (十六进制).
+     * @param lineCount 源码的行数.
+     */
+    class Entry(val name: String, val sourceHash: String, val lineCount: Int, internal val bytes: ByteArray) {
+
+        @Volatile
+        internal var script: Script? = null
+
+    }
+
+    /**
+     * Source names in stack traces mapped to the entries they were compiled from.
+     *
+     * zh-CN: 堆栈跟踪中的源名称至其编译来源条目的映射.
+     */
+    val sourceMap: Map<String, Entry> get() = mEntries
+
+    private val mEntriesByHash = mEntries.values.associateBy { it.sourceHash }
+
+    /**
+     * Find the compiled script of [source] for [context], or return null if the bundle does not contain it
+     * or the context cannot execute it, in which case the caller compiles the source as usual.
+     *
+     * zh-CN: 查找供 [context] 执行的 [source] 的已编译脚本, 若脚本包不包含该脚本或上下文无法执行, 则返回 null, 此时由调用方照常编译源码.
+     */
+    fun find(context: Context, source: String): Script? {
+        if (SamplingProfiler.isCompilationObserved(context) || context.languageVersion != languageVersion) return null
+        val entry = mEntriesByHash[hashOf(source)] ?: return null
+        entry.script?.let { return it }
+        return try {
+            ObjectInputStream(ByteArrayInputStream(entry.bytes)).use { it.readObject() as Script }.also { entry.script = it }
+        } catch (e: Exception) {
+            Log.w(TAG, "Failed to load precompiled script ${entry.name}", e)
+            null
+        }
+    }
+
+    /**
+     * Compiles scripts and writes them into a bundle, which is used by the APK builder.
+     * Compilation errors are thrown as [org.mozilla.javascript.EvaluatorException], so invalid scripts fail the build.
+     *
+     * zh-CN: 编译脚本并将其写入脚本包, 供 APK 构建器使用. 编译错误以 [org.mozilla.javascript.EvaluatorException] 抛出, 因此无效的脚本将使构建失败.
+     */
+    class Writer(private val languageVersion: Int = Context.VERSION_ES6) {
+
+        private val mEntries = LinkedHashMap<String, Entry>()
+        private var mImplementationVersion = ""
+
+        fun add(name: String, source: String) = also {
+            val cx = Context.enter()
+            try {
+                cx.languageVersion = languageVersion
+                cx.isInterpretedMode = true
+                mImplementationVersion = cx.implementationVersion ?: ""
+                val script = cx.compileString(source, name, 1, null)
+                val bytes = ByteArrayOutputStream().also { os ->
+                    ScriptOutputStream(os).use { it.writeObject(script) }
+                }.toByteArray()
+                mEntries[name] = Entry(name, hashOf(source), source.lines().size, bytes)
+            } finally {
+                Context.exit()
+            }
+        }
+
+        val size get() = mEntries.size
+
+        @Throws(IOException::class)
+        fun writeTo(os: OutputStream) {
+            DataOutputStream(os).run {
+                writeInt(MAGIC)
+                writeInt(FORMAT_VERSION)
+                writeUTF(mImplementationVersion)
+                writeInt(languageVersion)
+                writeInt(mEntries.size)
+                mEntries.values.forEach { entry ->
+                    writeUTF(entry.name)
+                    writeUTF(entry.sourceHash)
+                    writeInt(entry.lineCount)
+                    writeInt(entry.bytes.size)
+                    write(entry.bytes)
+                }
+                flush()
+            }
+        }
+
+    }
+
+    // @Hint by agent on Oct 19, 2026.
+    //  ! A compiled script refers to the global security controller, which is not serializable.
+    //  ! Scripts compiled without a security domain never consult it, so it is written as null.
+    //  ! zh-CN: 已编译的脚本引用了全局安全控制器, 而后者不可序列化. 未指定安全域编译的脚本从不使用它, 因此将其写为 null.
+    private class ScriptOutputStream(os: OutputStream) : ObjectOutputStream(os) {
+
+        init {
+            enableReplaceObject(true)
+        }
+
+        override fun replaceObject(obj: Any?): Any? = if (obj is SecurityController) null else obj
+
+    }
+
+    companion object {
+
+        private val TAG = PrecompiledScriptBundle::class.java.simpleName
+
+        const val ASSET_PATH = "project/.precompiled.bundle"
+
+        private const val MAGIC = 0x414A3642
+        private const val FORMAT_VERSION = 1
+
+        private val sAssetBundleLock = Any()
+        private var sAssetBundle: PrecompiledScriptBundle? = null
+        private var sIsAssetBundleLoaded = false
+
+        /**
+         * Read a bundle written by [Writer.writeTo], which may be encrypted like script files.
+         * Returns null if the bundle is malformed or not produced by the running Rhino implementation.
+         *
+         * zh-CN: 读取由 [Writer.writeTo] 写入的脚本包, 该脚本包可能与脚本文件一样被加密. 若脚本包格式错误或并非由当前运行的 Rhino 实现生成, 则返回 null.
+         */
+        @JvmStatic
+        fun read(bytes: ByteArray): PrecompiledScriptBundle? = try {
+            val data = when {
+                EncryptedScriptFileHeader.isValidFile(bytes) -> ScriptEncryption.decrypt(bytes, BLOCK_SIZE)
+                else -> bytes
+            }
+            DataInputStream(ByteArrayInputStream(data)).use { input ->
+                if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) return null
+                val implementationVersion = input.readUTF()
+                val languageVersion = input.readInt()
+                if (implementationVersion != currentImplementationVersion()) return null
+                val entries = LinkedHashMap<String, Entry>()
+                repeat(input.readInt()) {
+                    val name = input.readUTF()
+                    val sourceHash = input.readUTF()
+                    val lineCount = input.readInt()
+                    val entryBytes = ByteArray(input.readInt()).also { input.readFully(it) }
+                    entries[name] = Entry(name, sourceHash, lineCount, entryBytes)
+                }
+                PrecompiledScriptBundle(implementationVersion, languageVersion, entries)
+            }
+        } catch (e: Exception) {
+            Log.w(TAG, "Failed to read precompiled script bundle", e)
+            null
+        }
+
+        /**
+         * The bundle packaged in the assets of the app at [ASSET_PATH], which is read once per process.
+         *
+         * zh-CN: 打包于应用资源 [ASSET_PATH] 处的脚本包, 每个进程仅读取一次.
+         */
+        @JvmStatic
+        fun fromAssets(assets: AssetManager): PrecompiledScriptBundle? = synchronized(sAssetBundleLock) {
+            if (!sIsAssetBundleLoaded) {
+                sIsAssetBundleLoaded = true
+                sAssetBundle = try {
+                    assets.open(ASSET_PATH).use { it.readBytes() }.let { read(it) }
+                } catch (e: IOException) {
+                    null
+                }
+            }
+            sAssetBundle
+        }
+
+        private fun currentImplementationVersion(): String {
+            val cx = Context.enter()
+            return try {
+                cx.implementationVersion ?: ""
+            } finally {
+                Context.exit()
+            }
+        }
+
+        private fun hashOf(source: String): String {
+            return MessageDigest.getInstance("SHA-256")
+                .digest(source.toByteArray())
+                .joinToString("") { "%02x".format(it) }
+        }
+
+    }
+
+}
@@ -3,8 +3,11 @@ package org.autojs.autojs.engine
 import android.annotation.SuppressLint
 import android.util.Log
 import android.view.View
+import org.autojs.autojs.core.pref.Pref
+import org.autojs.autojs.core.trace.Tracer
 import org.autojs.autojs.core.ui.ViewExtras
 import org.autojs.autojs.engine.module.AssetAndUrlModuleSourceProvider
+import org.autojs.autojs.engine.module.ModuleScriptCache
 import org.autojs.autojs.extension.AnyExtensions.isJsNullish
 import org.autojs.autojs.extension.AnyExtensions.jsBrief
 import org.autojs.autojs.extension.ScriptableExtensions.defineProp
@@ -12,12 +15,16 @@ import org.autojs.autojs.extension.ScriptableExtensions.prop
 import org.autojs.autojs.pio.PFiles
 import org.autojs.autojs.pio.UncheckedIOException
 import org.autojs.autojs.project.ScriptConfig
+import org.autojs.autojs.rhino.AndroidClassLoader
 import org.autojs.autojs.rhino.AndroidContextFactory
 import org.autojs.autojs.rhino.AutoJsContext
+import org.autojs.autojs.rhino.InterruptChecker
 import org.autojs.autojs.rhino.RhinoAndroidHelper
 import org.autojs.autojs.rhino.TopLevelScope
+import org.autojs.autojs.rhino.debug.SamplingProfiler
 import org.autojs.autojs.runtime.ScriptRuntime
 import org.autojs.autojs.script.JavaScriptSource
+import org.autojs.autojs.script.ScriptSource
 import org.autojs.autojs.util.RhinoUtils.coerceString
 import org.autojs.autojs.util.RhinoUtils.js_object_assign
 import org.autojs.autojs.util.RhinoUtils.js_require
@@ -26,11 +33,12 @@ import org.mozilla.javascript.BaseFunction
 import org.mozilla.javascript.Context
 import org.mozilla.javascript.NativeArray
 import org.mozilla.javascript.NativeObject
+import org.mozilla.javascript.RhinoException
 import org.mozilla.javascript.Script
 import org.mozilla.javascript.Scriptable
+import org.mozilla.javascript.ScriptableObject
 import org.mozilla.javascript.ScriptableObject.PERMANENT
 import org.mozilla.javascript.commonjs.module.RequireBuilder
-import org.mozilla.javascript.commonjs.module.provider.SoftCachingModuleScriptProvider
 import java.io.File
 import java.io.IOException
 import java.io.InputStreamReader
@@ -41,6 +49,7 @@ import java.util.*
 /**
  * Created by Stardust on Apr 2, 2017.
  * Modified by SuperMonster003 as of May 26, 2022.
+ * Modified by agent as of Oct 19, 2026.
  */
 open class RhinoJavaScriptEngine(private val scriptRuntime: ScriptRuntime, private val androidContext: android.content.Context) : JavaScriptEngine() {
 
@@ -51,14 +60,16 @@ open class RhinoJavaScriptEngine(private val scriptRuntime: ScriptRuntime, priva
     lateinit var thread: Thread
         private set
 
-    private val mInitScript: Script by lazy {
-        try {
-            val reader = InputStreamReader(androidContext.assets.open(SOURCE_FILE_INIT))
-            context.compileReader(reader, SOURCE_NAME_INIT, 1, null)
-        } catch (e: IOException) {
-            throw UncheckedIOException(e)
+    private val mInitScript: Script
+        get() = sInitScript ?: synchronized(sInitScriptLock) {
+            sInitScript ?: try {
+                InputStreamReader(androidContext.assets.open(SOURCE_FILE_INIT)).use { reader ->
+                    context.compileReader(reader, SOURCE_NAME_INIT, 1, null)
+                }
+            } catch (e: IOException) {
+                throw UncheckedIOException(e)
+            }.also { sInitScript = it }
         }
-    }
 
     override fun put(name: String, value: Any?) {
         scriptable.defineProp(name, Context.javaToJS(value, scriptable))
@@ -73,8 +84,22 @@ open class RhinoJavaScriptEngine(private val scriptRuntime: ScriptRuntime, priva
     public override fun doExecution(source: JavaScriptSource): Any? {
         try {
             val reader = preprocess(source.nonNullScriptReader)
-            val script = context.compileReader(reader, source.fullPath, 1, null)
-            return if (hasFeature(ScriptConfig.FEATURE_CONTINUATION)) {
+            // @Hint by agent on Oct 19, 2026.
+            //  ! The whole source is read before it is hashed, as Rhino compiles from a String in any case,
+            //  ! so hashing the buffered source for CompiledScriptCache costs no second read.
+            //  ! zh-CN: 源码在哈希前被完整读取, 因为 Rhino 无论如何都需要从 String 编译, 因此为 CompiledScriptCache 哈希已缓冲的源码无需再次读取.
+            val code = reader.use { it.readText() }
+            val isContinuationEnabled = hasFeature(ScriptConfig.FEATURE_CONTINUATION)
+            if (!isContinuationEnabled && isCompiledModeEnabled(source)) {
+                try {
+                    return compileInCompiledMode(code, source.fullPath).exec(context, scriptable)
+                } finally {
+                    // Classes are defined while compiling as well as while running (JavaAdapter), so they are counted up to the end of the run.
+                    Log.d(TAG, "Compiled run of ${source.fullPath} finished, class definitions in this process: ${AndroidClassLoader.stats()}")
+                }
+            }
+            val script = findPrecompiledScript(code) ?: CompiledScriptCache.getOrCompile(context, code, source.fullPath)
+            return if (isContinuationEnabled) {
                 context.executeScriptWithContinuations(script, scriptable)
             } else {
                 script.exec(context, scriptable)
@@ -87,19 +112,120 @@ open class RhinoJavaScriptEngine(private val scriptRuntime: ScriptRuntime, priva
     @Throws(IOException::class)
     protected fun preprocess(script: Reader) = script
 
+    /**
+     * Find a script compiled in advance for [code], such as one from a [PrecompiledScriptBundle], or return null to compile [code].
+     *
+     * zh-CN: 查找为 [code] 预先编译的脚本 (如来自 [PrecompiledScriptBundle] 的脚本), 返回 null 时将编译 [code].
+     */
+    protected open fun findPrecompiledScript(code: String): Script? = null
+
+    private fun isCompiledModeEnabled(source: JavaScriptSource): Boolean {
+        return hasFeature(ScriptConfig.FEATURE_COMPILED) || source.executionMode and JavaScriptSource.EXECUTION_MODE_COMPILED != 0
+    }
+
+    /**
+     * Compile the main script into bytecode, which is then dex-loaded by [org.autojs.autojs.rhino.AndroidClassLoader].
+     *
+     * Rhino itself falls back to the interpreter when a function exceeds the method size limits of class files,
+     * and here the same happens when the generated classes cannot be converted to dex or loaded.
+     * Only the main script is compiled, modules and code evaluated at runtime are still interpreted.
+     * Compiled scripts are cached by source hash in [CompiledScriptCache] like interpreted ones, so the dex is generated once per process.
+     *
+     * zh-CN:
+     *
+     * 将主脚本编译为字节码, 继而由 [org.autojs.autojs.rhino.AndroidClassLoader] 以 dex 形式加载.
+     *
+     * 当函数超出类文件的方法大小限制时, Rhino 自身会回退至解释器, 而当生成的类无法转换为 dex 或无法加载时, 此处同样回退.
+     * 仅主脚本被编译, 模块及运行时求值的代码仍以解释方式执行.
+     * 已编译的脚本与解释执行的脚本一样, 以源码哈希为键缓存于 [CompiledScriptCache], 因此每个进程仅生成一次 dex.
+     */
+    private fun compileInCompiledMode(code: String, fileName: String): Script {
+        // @Hint by agent on Oct 19, 2026.
+        //  ! Generated bytecode reports instruction counts only when asked to at compile time,
+        //  ! without which InterruptChecker is never called and the script cannot be stopped or held to its CPU time budget.
+        //  ! zh-CN: 生成的字节码仅在编译时被要求的情况下才会报告指令计数, 否则 InterruptChecker 永远不会被调用, 脚本将无法被停止, 也无法受 CPU 时间预算约束.
+        val isGeneratingObserverCount = context.isGenerateObserverCount
+        context.isGenerateObserverCount = true
+        context.isInterpretedMode = false
+        return try {
+            CompiledScriptCache.getOrCompile(context, code, fileName)
+        } catch (e: RhinoException) {
+            throw e
+        } catch (e: Throwable) {
+            if (e !is RuntimeException && e !is LinkageError) throw e
+            Log.w(TAG, "Failed to compile $fileName, falling back to interpreted mode", e)
+            context.isInterpretedMode = true
+            CompiledScriptCache.getOrCompile(context, code, fileName)
+        } finally {
+            context.isInterpretedMode = true
+            context.isGenerateObserverCount = isGeneratingObserverCount
+        }
+    }
+
+    /**
+     * CPU time budget of this script in milliseconds, or 0 for no budget, see [InterruptChecker.cpuTimeBudgetMillis].
+     *
+     * zh-CN: 此脚本的 CPU 时间预算 (毫秒), 为 0 时表示无预算, 参阅 [InterruptChecker.cpuTimeBudgetMillis].
+     */
+    var cpuTimeBudgetMillis: Long
+        get() = (context as? AutoJsContext)?.interruptChecker?.cpuTimeBudgetMillis ?: 0L
+        set(value) {
+            (context as? AutoJsContext)?.interruptChecker?.cpuTimeBudgetMillis = value
+        }
+
+    @Volatile
+    private var mProfiler: SamplingProfiler? = null
+
+    /**
+     * Start a [SamplingProfiler] for the scripts of this engine, which must be called on the script thread.
+     *
+     * zh-CN: 为此引擎的脚本启动 [SamplingProfiler], 必须在脚本线程上调用.
+     */
+    @Synchronized
+    @JvmOverloads
+    fun startProfiling(intervalMicros: Long = SamplingProfiler.DEFAULT_INTERVAL_MICROS): SamplingProfiler {
+        check(Thread.currentThread() == thread) { "Profiling must be started on the script thread of the engine" }
+        check(mProfiler == null) { "Profiling has already been started" }
+        return SamplingProfiler(intervalMicros).also {
+            it.start(context)
+            mProfiler = it
+        }
+    }
+
+    /**
+     * Stop the profiler started by [startProfiling] and return the profile, which may be called from any thread.
+     *
+     * zh-CN: 停止由 [startProfiling] 启动的分析器并返回分析结果, 可在任意线程上调用.
+     */
+    @Synchronized
+    fun stopProfiling(): SamplingProfiler.Profile {
+        val profiler = checkNotNull(mProfiler) { "Profiling has not been started" }
+        mProfiler = null
+        return profiler.stop()
+    }
+
+    val isProfiling get() = mProfiler != null
+
     override fun forceStop() {
         Log.d(TAG, "forceStop: interrupt Thread: $thread")
+        (context as? AutoJsContext)?.interruptChecker?.requestStop(context)
         thread.interrupt()
     }
 
     @Synchronized
     override fun destroy() {
+        mProfiler?.let { runCatching { it.stop() } }
+        mProfiler = null
         super.destroy()
         Log.d(TAG, "on destroy")
         Context.exit()
     }
 
-    override fun init() {
+    override fun init() = Tracer.trace("engine-init", Tracer.CATEGORY_ENGINE) {
+        initEngine()
+    }
+
+    private fun initEngine() {
         thread = Thread.currentThread()
         scriptable.defineProp("__engine__", this)
         initRequireBuilder(context, scriptable)
@@ -166,19 +292,21 @@ open class RhinoJavaScriptEngine(private val scriptRuntime: ScriptRuntime, priva
     }
 
     private fun initRequireBuilder(context: Context, scope: Scriptable) {
-        val provider = AssetAndUrlModuleSourceProvider(
-            androidContext, MODULES_ROOT_PATH, listOf<URI>(File(File.separator).toURI())
-        )
+        val searchLocations = listOf<URI>(File(File.separator).toURI())
+        val provider = AssetAndUrlModuleSourceProvider(androidContext, MODULES_ROOT_PATH, searchLocations)
         RequireBuilder()
-            .setModuleScriptProvider(SoftCachingModuleScriptProvider(provider))
+            .setModuleScriptProvider(ModuleScriptCache.provider(provider, listOf(MODULES_ROOT_PATH, searchLocations)))
             .setSandboxed(true)
             .createRequire(context, scope)
             .install(scope)
     }
 
-    protected fun createScope(context: Context) = TopLevelScope().apply {
-        initStandardObjects(context, false)
-    }
+    protected fun createScope(context: Context) = context.withTimeConsuming("scope-create") { cx ->
+        when (isSharingStandardObjects() && sPrivateScopeRequested.get() != true) {
+            true -> TopLevelScope(cx, sharedScope(cx))
+            else -> TopLevelScope().apply { initStandardObjects(cx, false) }
+        }
+    }!!
 
     @SuppressLint("VisibleForTests")
     fun enterContext(): Context {
@@ -225,6 +353,65 @@ open class RhinoJavaScriptEngine(private val scriptRuntime: ScriptRuntime, priva
 
         private val TAG = RhinoJavaScriptEngine::class.java.simpleName
 
+        // @Hint by agent on Oct 19, 2026.
+        //  ! The init script is compiled only once per process and shared by all engines,
+        //  ! as a compiled script holds no state of the scope it is executed in.
+        //  ! zh-CN: 初始化脚本在每个进程中仅编译一次并由所有引擎共享, 因为已编译的脚本不持有其执行作用域的状态.
+        @Volatile
+        private var sInitScript: Script? = null
+
+        private val sInitScriptLock = Any()
+
+        @Volatile
+        private var sSharedScope: ScriptableObject? = null
+
+        private val sPrivateScopeRequested = ThreadLocal<Boolean>()
+
+        /**
+         * Whether new engines share one sealed scope of standard objects instead of initializing their own.
+         * Scripts of such engines cannot modify built-in objects, so the mode is off when built-in objects are to be extended (JSOX), scripts in JSOX mode get a private scope (see [requiresPrivateScope]),
+         * and `Object.observe` / `Array.observe` polyfills, which modify `Object` and `Array`, are not installed.
+         *
+         * zh-CN:
+         *
+         * 新建引擎是否共享同一个密封的标准对象作用域, 而非各自初始化.
+         * 此类引擎中的脚本无法修改内置对象, 因此在需要扩展内置对象 (JSOX) 时此模式关闭, JSOX 模式的脚本使用独立作用域 (参阅 [requiresPrivateScope]),
+         * 且不会安装会修改 `Object` 及 `Array` 的 `Object.observe` / `Array.observe` 垫片.
+         */
+        @JvmStatic
+        fun isSharingStandardObjects() = Pref.isSharingStandardObjectsScopeEnabled && !Pref.isExtendingJsBuildInObjectsEnabled
+
+        /**
+         * Whether [source] needs an engine with a scope of its own even though standard objects are shared,
+         * as its execution mode (JSOX) extends built-in objects, which are sealed in the shared scope.
+         *
+         * zh-CN: 即便标准对象处于共享状态, [source] 是否仍需要拥有独立作用域的引擎, 因为其执行模式 (JSOX) 会扩展内置对象, 而内置对象在共享作用域中是密封的.
+         */
+        @JvmStatic
+        fun requiresPrivateScope(source: ScriptSource?) = isSharingStandardObjects()
+                && source is JavaScriptSource
+                && source.executionMode and JavaScriptSource.EXECUTION_MODE_JSOX != 0
+
+        /**
+         * Run [block], in which engines constructed on the current thread initialize standard objects of their own.
+         *
+         * zh-CN: 运行 [block], 其间在当前线程上构造的引擎将各自初始化标准对象.
+         */
+        @JvmStatic
+        fun <T> withPrivateScope(block: () -> T): T {
+            val former = sPrivateScopeRequested.get()
+            sPrivateScopeRequested.set(true)
+            try {
+                return block()
+            } finally {
+                sPrivateScopeRequested.set(former)
+            }
+        }
+
+        private fun sharedScope(context: Context) = sSharedScope ?: synchronized(sInitScriptLock) {
+            sSharedScope ?: TopLevelScope.createSharedScope(context).also { sSharedScope = it }
+        }
+
     }
 
 }
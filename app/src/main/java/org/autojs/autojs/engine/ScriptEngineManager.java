@@ -16,6 +16,7 @@ import java.util.Set;
 
 /**
  * Created by Stardust on Jan 27, 2017.
+ * Modified by agent as of Oct 19, 2026.
  */
 public class ScriptEngineManager {
 
@@ -93,11 +94,30 @@ public class ScriptEngineManager {
 
     @Nullable
     public ScriptEngine<? extends ScriptSource> createEngine(String name, int id) {
+        ScriptEngine<? extends ScriptSource> engine = createDetachedEngine(name);
+        if (engine == null) {
+            return null;
+        }
+        return attachEngine(engine, id);
+    }
+
+    /**
+     * Construct an engine without assigning an id, putting global variables or registering it,
+     * which is done later by {@link #attachEngine(ScriptEngine, int)}.
+     *
+     * <p>zh-CN: 构造引擎, 但不分配 id, 不放入全局变量, 也不注册, 这些将稍后由 {@link #attachEngine(ScriptEngine, int)} 完成.</p>
+     */
+    @Nullable
+    public ScriptEngine<? extends ScriptSource> createDetachedEngine(String name) {
         Supplier<ScriptEngine<? extends ScriptSource>> s = mEngineSuppliers.get(name);
         if (s == null) {
             return null;
         }
-        ScriptEngine<? extends ScriptSource> engine = s.get();
+        return s.get();
+    }
+
+    @NonNull
+    public ScriptEngine<? extends ScriptSource> attachEngine(ScriptEngine<? extends ScriptSource> engine, int id) {
         engine.setId(id);
         putProperties(engine);
         addEngine(engine);
@@ -0,0 +1,203 @@
+package org.autojs.autojs.engine
+
+import android.util.Log
+import org.autojs.autojs.execution.RunnableScriptExecution
+import org.autojs.autojs.lang.ThreadCompat
+import org.autojs.autojs.script.ScriptSource
+import org.mozilla.javascript.Context
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.ConcurrentLinkedDeque
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Pool of standby script threads, each holding an engine constructed in advance on that thread,
+ * so that an execution handed to the pool skips starting a thread, entering a Rhino context,
+ * creating the top-level scope and building the runtime.
+ *
+ * Isolation guarantees:
+ * - Each engine runs exactly one execution and is destroyed afterwards as usual, engines are never reset and reused.
+ * - A standby engine has never run any code, as [ScriptEngine.init] (init script, modules, globals,
+ *   timers, loopers, event emitters and so on) runs only after the engine is handed to an execution.
+ * - Each standby thread runs exactly one execution and then terminates, so thread-local state,
+ *   the looper of the thread and its interruption status never leak into the next execution.
+ * - Global variables of [ScriptEngineManager] are put into the engine when it is handed over, not when it is constructed.
+ *
+ * Standby engines not handed over within [idleTimeoutMillis] are discarded without running
+ * [ScriptEngine.destroy], whose runtime exit hooks affect process-wide state such as accessibility callbacks.
+ *
+ * zh-CN:
+ *
+ * 备用脚本线程池, 每个线程持有一个预先在该线程上构造的引擎,
+ * 因此交由线程池的执行可省去启动线程, 进入 Rhino 上下文, 创建顶层作用域及构建运行时的开销.
+ *
+ * 隔离保证:
+ * - 每个引擎仅运行一次执行, 之后照常销毁, 引擎从不被重置及复用.
+ * - 备用引擎从未运行任何代码, 因为 [ScriptEngine.init] (初始化脚本, 模块, 全局变量, 定时器, Looper, 事件发射器等) 仅在引擎交付执行后运行.
+ * - 每个备用线程仅运行一次执行后即终止, 因此线程局部状态, 线程的 Looper 及其中断状态不会泄漏至下一次执行.
+ * - [ScriptEngineManager] 的全局变量在引擎交付时放入, 而非在构造时放入.
+ *
+ * 未在 [idleTimeoutMillis] 内交付的备用引擎将被丢弃, 且不运行 [ScriptEngine.destroy], 因为其运行时退出钩子会影响无障碍回调等进程级状态.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+class ScriptEnginePool(private val manager: ScriptEngineManager, private val engineName: String) {
+
+    data class Stats(val standby: Int, val warming: Int, val hits: Long, val misses: Long, val discarded: Long)
+
+    /**
+     * Number of standby engines to keep, or 0 to keep none.
+     *
+     * zh-CN: 保持的备用引擎数量, 为 0 时不保持.
+     */
+    @Volatile
+    var size = DEFAULT_SIZE
+        set(value) {
+            field = value.coerceIn(0, MAX_SIZE)
+            if (mStandby.size > field) clear()
+        }
+
+    @Volatile
+    var idleTimeoutMillis = DEFAULT_IDLE_TIMEOUT_MILLIS
+        set(value) {
+            field = value.coerceAtLeast(0L)
+        }
+
+    private val mStandby = ConcurrentLinkedDeque<Worker>()
+    private val mWarming = AtomicInteger()
+    private val mHits = AtomicLong()
+    private val mMisses = AtomicLong()
+    private val mDiscarded = AtomicLong()
+
+    /**
+     * Hand [execution] to a standby engine and run it on the thread of that engine.
+     * Returns false if no standby engine is ready, in which case the caller runs the execution itself.
+     * Standby engines are replenished in either case.
+     *
+     * zh-CN:
+     *
+     * 将 [execution] 交付给备用引擎, 并在该引擎的线程上运行.
+     * 若无就绪的备用引擎则返回 false, 此时由调用方自行运行该执行.
+     * 无论何种情况, 备用引擎都将被补充.
+     */
+    fun offer(execution: RunnableScriptExecution): Boolean {
+        try {
+            while (true) {
+                val worker = mStandby.pollFirst() ?: break
+                if (worker.handOff(execution)) {
+                    mHits.incrementAndGet()
+                    return true
+                }
+            }
+            mMisses.incrementAndGet()
+            return false
+        } finally {
+            prewarm()
+        }
+    }
+
+    /**
+     * Start standby threads until [size] engines are ready or warming up.
+     *
+     * zh-CN: 启动备用线程, 直至就绪或预热中的引擎达到 [size] 个.
+     */
+    fun prewarm() {
+        while (true) {
+            val warming = mWarming.get()
+            if (mStandby.size + warming >= size) return
+            if (mWarming.compareAndSet(warming, warming + 1)) {
+                Worker().start()
+            }
+        }
+    }
+
+    /**
+     * Discard all standby engines.
+     *
+     * zh-CN: 丢弃所有备用引擎.
+     */
+    fun clear() {
+        while (true) {
+            mStandby.pollFirst()?.retire() ?: return
+        }
+    }
+
+    fun stats() = Stats(mStandby.size, mWarming.get(), mHits.get(), mMisses.get(), mDiscarded.get())
+
+    private inner class Worker : ThreadCompat("ScriptEnginePool-Standby") {
+
+        private val mState = AtomicInteger(STATE_WARMING)
+        private val mHandOff = ArrayBlockingQueue<RunnableScriptExecution>(1)
+
+        fun handOff(execution: RunnableScriptExecution): Boolean {
+            if (!mState.compareAndSet(STATE_STANDBY, STATE_TAKEN)) return false
+            mHandOff.add(execution)
+            return true
+        }
+
+        fun retire() {
+            if (mState.compareAndSet(STATE_STANDBY, STATE_RETIRED)) interrupt()
+        }
+
+        override fun run() {
+            val engine = try {
+                manager.createDetachedEngine(engineName)
+            } catch (e: Throwable) {
+                Log.w(TAG, "Failed to construct a standby engine", e)
+                null
+            } finally {
+                mWarming.decrementAndGet()
+            }
+            engine ?: return
+
+            mState.set(STATE_STANDBY)
+            mStandby.addLast(this)
+
+            val execution = try {
+                mHandOff.poll(idleTimeoutMillis, TimeUnit.MILLISECONDS)
+            } catch (e: InterruptedException) {
+                null
+            } ?: when {
+                mState.compareAndSet(STATE_STANDBY, STATE_RETIRED) || mState.get() == STATE_RETIRED -> {
+                    mStandby.remove(this)
+                    discard(engine)
+                    return
+                }
+                // Handed over right at the idle timeout.
+                // zh-CN: 恰在空闲超时时被交付.
+                else -> mHandOff.take()
+            }
+
+            ThreadCompat.interrupted()
+            execution.setPreparedEngine(engine)
+            execution.run()
+        }
+
+        private fun discard(engine: ScriptEngine<out ScriptSource>) {
+            mDiscarded.incrementAndGet()
+            // @Hint by agent on Oct 19, 2026.
+            //  ! The engine entered a Rhino context on this thread when constructed, and has not been initialized,
+            //  ! so exiting the context is all the cleanup it needs.
+            //  ! zh-CN: 引擎在构造时已在此线程上进入 Rhino 上下文, 且尚未初始化, 因此退出该上下文即可完成清理.
+            if (engine is RhinoJavaScriptEngine) Context.exit()
+        }
+
+    }
+
+    companion object {
+
+        private val TAG = ScriptEnginePool::class.java.simpleName
+
+        const val DEFAULT_SIZE = 1
+        const val MAX_SIZE = 4
+        const val DEFAULT_IDLE_TIMEOUT_MILLIS = 60_000L
+
+        private const val STATE_WARMING = 0
+        private const val STATE_STANDBY = 1
+        private const val STATE_TAKEN = 2
+        private const val STATE_RETIRED = 3
+
+    }
+
+}
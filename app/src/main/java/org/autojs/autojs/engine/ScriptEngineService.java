@@ -5,6 +5,7 @@ import android.os.Build;
 import android.util.Log;
 import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
+import org.autojs.autojs.core.pref.Pref;
 import org.autojs.autojs.execution.ExecutionConfig;
 import org.autojs.autojs.execution.LoopedBasedJavaScriptExecution;
 import org.autojs.autojs.execution.RunnableScriptExecution;
@@ -39,6 +40,7 @@ import static org.autojs.autojs.script.JavaScriptSource.EXECUTION_MODE_MODULE_I1
 
 /**
  * Created by Stardust on Jan 23, 2017.
+ * Modified by agent as of Oct 19, 2026.
  */
 public class ScriptEngineService {
 
@@ -63,10 +65,12 @@ public class ScriptEngineService {
     };
     private final ScriptExecutionObserver mScriptExecutionObserver = new ScriptExecutionObserver();
     private final LinkedHashMap<Integer, ScriptExecution> mScriptExecutions = new LinkedHashMap<>();
+    private final ScriptEnginePool mEnginePool;
 
     ScriptEngineService(ScriptEngineServiceBuilder builder) {
         mApplicationContext = builder.uiHandler.getApplicationContext();
         mScriptEngineManager = builder.scriptEngineManager;
+        mEnginePool = new ScriptEnginePool(mScriptEngineManager, JavaScriptSource.ENGINE);
         mGlobalConsole = builder.globalConsole;
         mScriptEngineManager.setEngineLifecycleCallback(mEngineLifecycleObserver);
         mScriptExecutionObserver.registerScriptExecutionListener(new SimpleScriptExecutionListener() {
@@ -122,6 +126,10 @@ public class ScriptEngineService {
         ScriptRuntime.setApplicationContext(mApplicationContext.getApplicationContext());
     }
 
+    public ScriptEnginePool getEnginePool() {
+        return mEnginePool;
+    }
+
     public Console getGlobalConsole() {
         return mGlobalConsole;
     }
@@ -170,6 +178,10 @@ public class ScriptEngineService {
         if (source instanceof JavaScriptSource) {
             Log.d(TAG, "JavaScriptSource: true");
             r = new LoopedBasedJavaScriptExecution(mScriptEngineManager, task);
+            // Standby engines share the sealed scope of standard objects, which JSOX scripts cannot extend.
+            if (Pref.isScriptEnginePoolEnabled() && !RhinoJavaScriptEngine.requiresPrivateScope(source) && mEnginePool.offer(r)) {
+                return r;
+            }
         } else {
             Log.d(TAG, "JavaScriptSource: false");
             r = new RunnableScriptExecution(mScriptEngineManager, task);
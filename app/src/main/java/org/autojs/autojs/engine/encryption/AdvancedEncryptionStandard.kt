@@ -1,11 +1,19 @@
 package org.autojs.autojs.engine.encryption
 
+import java.io.InputStream
 import javax.crypto.Cipher
+import javax.crypto.CipherInputStream
 import javax.crypto.spec.IvParameterSpec
 import javax.crypto.spec.SecretKeySpec
 
+/**
+ * Modified by agent as of Oct 19, 2026.
+ */
 class AdvancedEncryptionStandard(private val key: ByteArray, private val initVector: String) {
 
+    private val mSecretKey by lazy { SecretKeySpec(key, ALGORITHM) }
+    private val mIvParameterSpec by lazy { IvParameterSpec(initVector.toByteArray()) }
+
     /**
      * Encrypts the given plain text
      *
@@ -13,11 +21,7 @@ class AdvancedEncryptionStandard(private val key: ByteArray, private val initVec
      */
     @Throws(Exception::class)
     fun encrypt(plainText: ByteArray): ByteArray {
-        val secretKey = SecretKeySpec(key, ALGORITHM)
-        val cipher = Cipher.getInstance(FULL_ALGORITHM)
-        val ivParameterSpec = IvParameterSpec(initVector.toByteArray())
-        cipher.init(Cipher.ENCRYPT_MODE, secretKey, ivParameterSpec)
-        return cipher.doFinal(plainText)
+        return withCipher(Cipher.ENCRYPT_MODE) { it.doFinal(plainText) }
     }
 
     /**
@@ -27,16 +31,74 @@ class AdvancedEncryptionStandard(private val key: ByteArray, private val initVec
      */
     @Throws(Exception::class)
     fun decrypt(cipherText: ByteArray, start: Int = 0, end: Int = cipherText.size): ByteArray {
-        val secretKey = SecretKeySpec(key, ALGORITHM)
-        val ivParameterSpec = IvParameterSpec(initVector.toByteArray())
-        val cipher = Cipher.getInstance(FULL_ALGORITHM)
-        cipher.init(Cipher.DECRYPT_MODE, secretKey, ivParameterSpec)
-        return cipher.doFinal(cipherText, start, end - start)
+        return withCipher(Cipher.DECRYPT_MODE) { it.doFinal(cipherText, start, end - start) }
+    }
+
+    /**
+     * Decrypts the given stream while it is read, without holding the whole cipher text or plain text in memory.
+     * The cipher is returned to the pool of the closing thread when the returned stream is closed.
+     *
+     * zh-CN: 在读取时解密指定的流, 无需在内存中持有完整的密文或明文. 返回的流关闭时, 其密码器将归还至关闭线程的池中.
+     *
+     * @param input The stream of the data to decrypt, positioned after any header
+     */
+    @Throws(Exception::class)
+    fun decrypt(input: InputStream): InputStream {
+        val cipher = obtainCipher(Cipher.DECRYPT_MODE)
+        return object : CipherInputStream(input, cipher) {
+
+            private var mIsClosed = false
+
+            override fun close() {
+                if (mIsClosed) return
+                mIsClosed = true
+                try {
+                    super.close()
+                } finally {
+                    recycleCipher(cipher)
+                }
+            }
+
+        }
+    }
+
+    private inline fun <T> withCipher(mode: Int, block: (Cipher) -> T): T {
+        val cipher = obtainCipher(mode)
+        try {
+            return block(cipher)
+        } finally {
+            recycleCipher(cipher)
+        }
+    }
+
+    // @Hint by agent on Oct 19, 2026.
+    //  ! Cipher.getInstance() looks up security providers on each call, which dominates the cost of decrypting small scripts,
+    //  ! so instances are pooled per thread and only initialized again for each use, which also resets the IV of CBC.
+    //  ! zh-CN: Cipher.getInstance() 每次调用均会查找安全提供者, 这是解密小脚本的主要开销,
+    //  ! zh-CN: 因此实例按线程池化, 每次使用时仅重新初始化, 这同时也会重置 CBC 的 IV.
+    private fun obtainCipher(mode: Int): Cipher {
+        val cipher = sCipherPool.get()!!.removeLastOrNull() ?: Cipher.getInstance(FULL_ALGORITHM)
+        cipher.init(mode, mSecretKey, mIvParameterSpec)
+        return cipher
+    }
+
+    private fun recycleCipher(cipher: Cipher) {
+        val pool = sCipherPool.get()!!
+        if (pool.size < MAX_POOLED_CIPHERS_PER_THREAD) pool.addLast(cipher)
     }
 
     companion object {
 
         private const val ALGORITHM = "AES"
         private const val FULL_ALGORITHM = "AES/CBC/PKCS5Padding"
+
+        // More than one cipher may be in use on a thread at a time, such as a module decrypted while the main script is being read.
+        // zh-CN: 同一线程可能同时使用多个密码器, 例如在读取主脚本期间解密模块.
+        private const val MAX_POOLED_CIPHERS_PER_THREAD = 4
+
+        private val sCipherPool = object : ThreadLocal<ArrayDeque<Cipher>>() {
+            override fun initialValue() = ArrayDeque<Cipher>()
+        }
+
     }
-}
\ No newline at end of file
+}
@@ -1,13 +1,74 @@
 package org.autojs.autojs.engine.encryption
 
+import org.autojs.autojs.script.EncryptedScriptFileHeader
+import org.autojs.autojs.script.EncryptedScriptFileHeader.BLOCK_SIZE
+import java.io.BufferedInputStream
+import java.io.InputStream
+import java.io.InputStreamReader
+import java.io.Reader
+import java.nio.charset.Charset
+
+/**
+ * Modified by agent as of Oct 19, 2026.
+ */
 object ScriptEncryption {
 
     private var mKey = ""
     private var mInitVector = ""
 
+    // @Hint by agent on Oct 19, 2026.
+    //  ! The key and the init vector are assigned by reflection (see AssetsProjectLauncher.initKey),
+    //  ! so the cached instance is checked against them on each use.
+    //  ! zh-CN: 密钥及初始向量通过反射赋值 (参阅 AssetsProjectLauncher.initKey), 因此每次使用时均需校验缓存的实例.
+    @Volatile
+    private var mCached: Triple<String, String, AdvancedEncryptionStandard>? = null
+
+    private val aes: AdvancedEncryptionStandard
+        get() {
+            val key = mKey
+            val initVector = mInitVector
+            mCached?.let { (cachedKey, cachedInitVector, aes) ->
+                if (cachedKey == key && cachedInitVector == initVector) return aes
+            }
+            return AdvancedEncryptionStandard(key.toByteArray(), initVector).also { mCached = Triple(key, initVector, it) }
+        }
+
     @JvmStatic
     fun decrypt(bytes: ByteArray, start: Int = 0, end: Int = bytes.size): ByteArray {
-        return AdvancedEncryptionStandard(mKey.toByteArray(), mInitVector).decrypt(bytes, start, end)
+        return aes.decrypt(bytes, start, end)
+    }
+
+    /**
+     * Decrypt [input] while it is read, where [input] is positioned after the header of an encrypted script file.
+     *
+     * zh-CN: 在读取时解密 [input], 其中 [input] 位于加密脚本文件的文件头之后.
+     */
+    @JvmStatic
+    fun decrypt(input: InputStream): InputStream = aes.decrypt(input)
+
+    /**
+     * Create a reader of [input], which is decrypted while being read if it starts with the header of an encrypted script file,
+     * and read as is otherwise. Neither the cipher text nor the plain text is held in memory as a whole.
+     *
+     * zh-CN: 创建 [input] 的读取器, 若其以加密脚本文件的文件头开始, 则在读取时解密, 否则按原样读取. 密文及明文均不会完整地保存在内存中.
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun reader(input: InputStream, charset: Charset = Charsets.UTF_8): Reader {
+        val buffered = input as? BufferedInputStream ?: BufferedInputStream(input)
+        buffered.mark(BLOCK_SIZE)
+        val header = ByteArray(BLOCK_SIZE)
+        var read = 0
+        while (read < BLOCK_SIZE) {
+            val n = buffered.read(header, read, BLOCK_SIZE - read)
+            if (n < 0) break
+            read += n
+        }
+        if (read == BLOCK_SIZE && EncryptedScriptFileHeader.isValidFile(header)) {
+            return InputStreamReader(decrypt(buffered), charset)
+        }
+        buffered.reset()
+        return InputStreamReader(buffered, charset)
     }
 
-}
\ No newline at end of file
+}
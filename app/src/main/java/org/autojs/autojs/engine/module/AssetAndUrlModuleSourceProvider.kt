@@ -4,11 +4,8 @@ import android.content.Context
 import android.net.Uri
 import android.util.Log
 import okhttp3.OkHttpClient
-import okhttp3.Request
-import org.autojs.autojs.engine.encryption.ScriptEncryption.decrypt
+import org.autojs.autojs.engine.encryption.ScriptEncryption
 import org.autojs.autojs.runtime.ScriptRuntime
-import org.autojs.autojs.script.EncryptedScriptFileHeader
-import org.autojs.autojs.script.EncryptedScriptFileHeader.isValidFile
 import org.autojs.autojs.util.FileUtils.TYPE.JAVASCRIPT
 import org.mozilla.javascript.commonjs.module.provider.ModuleSource
 import java.io.*
@@ -22,6 +19,7 @@ import java.nio.charset.StandardCharsets
 /**
  * Created by Stardust on May 9, 2017.
  * Transformed by SuperMonster003 on Jul 14, 2023.
+ * Modified by agent as of Oct 19, 2026.
  */
 // @Inspired by aiselp (https://github.com/aiselp) on Jul 14, 2023.
 //  ! Related PR:
@@ -85,15 +83,12 @@ class AssetAndUrlModuleSourceProvider(
 
     private fun loadFromURL(url: String, validator: Any?): ModuleSource? {
         return try {
-            Request.Builder().url(url).build().let { request ->
-                val response = mOkHttpClient.newCall(request).execute()
-                if (!response.isSuccessful) {
-                    return null.also { response.close() }
-                }
-                return response.body?.let {
-                    createModuleSource(it.byteStream(), URI.create(url), null, validator, it.contentType()?.charset())
-                }
-            }
+            val module = urlModuleCacheOf(context, mOkHttpClient).load(url) ?: return null
+            createModuleSource(ByteArrayInputStream(module.bytes), URI.create(module.url), null, validator, module.charset)
+        } catch (e: UrlModuleCache.IntegrityException) {
+            // A module not matching its pinned hash fails the require call, rather than being treated as absent.
+            // zh-CN: 与固定哈希不符的模块将使 require 调用失败, 而非视为不存在.
+            throw e
         } catch (e: Exception) {
             null.also { ScriptRuntime.popException(e.message) }
         }
@@ -119,23 +114,23 @@ class AssetAndUrlModuleSourceProvider(
 
     @Throws(IOException::class)
     override fun getReader(urlConnection: URLConnection): Reader {
-        val stream = urlConnection.getInputStream()
-        val bytes = ByteArray(stream.available()).also {
-            stream.read(it)
-            stream.close()
-        }
-        return if (isValidFile(bytes)) {
-            val clearText = decrypt(bytes, EncryptedScriptFileHeader.BLOCK_SIZE, bytes.size)
-            InputStreamReader(ByteArrayInputStream(clearText))
-        } else {
-            InputStreamReader(ByteArrayInputStream(bytes))
-        }
+        return ScriptEncryption.reader(urlConnection.getInputStream())
     }
 
     companion object {
 
         private val TAG = AssetAndUrlModuleSourceProvider::class.java.simpleName
 
+        @Volatile
+        private var sUrlModuleCache: UrlModuleCache? = null
+
+        @JvmStatic
+        fun urlModuleCacheOf(context: Context, client: OkHttpClient): UrlModuleCache {
+            return sUrlModuleCache ?: synchronized(this) {
+                sUrlModuleCache ?: UrlModuleCache(File(context.applicationContext.cacheDir, "url-modules"), client).also { sUrlModuleCache = it }
+            }
+        }
+
     }
 
 }
\ No newline at end of file
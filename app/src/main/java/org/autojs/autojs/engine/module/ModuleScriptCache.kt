@@ -0,0 +1,319 @@
+package org.autojs.autojs.engine.module
+
+import org.autojs.autojs.core.trace.Tracer
+import org.autojs.autojs.rhino.debug.SamplingProfiler
+import org.mozilla.javascript.Context
+import org.mozilla.javascript.Script
+import org.mozilla.javascript.ScriptRuntime
+import org.mozilla.javascript.Scriptable
+import org.mozilla.javascript.ScriptableObject
+import org.mozilla.javascript.commonjs.module.ModuleScript
+import org.mozilla.javascript.commonjs.module.ModuleScriptProvider
+import org.mozilla.javascript.commonjs.module.provider.ModuleSource
+import org.mozilla.javascript.commonjs.module.provider.ModuleSourceProvider
+import java.io.File
+import java.net.URI
+
+/**
+ * Process-wide cache of compiled module scripts, keyed by the resolved URI of the module,
+ * and validated by the last modified time and size of the module file.
+ *
+ * Compiled scripts are shared across engines, while module instances (`exports`) are still created by
+ * each engine, as [org.mozilla.javascript.commonjs.module.Require] executes the shared script in its own module scope.
+ * A cached file module is found by checking the file status only, without reading and compiling it again.
+ * Top-level module ids are resolved per search locations, i.e. the `paths` of `require` and the locations of the module source provider,
+ * so that the same id required by engines with different search locations is resolved separately.
+ * Modules in assets are immutable, so they are cached without validation.
+ * Modules loaded from other locations, such as URLs, are not cached here.
+ *
+ * The cache records which module requires which while module scripts execute, so that when a module file changes,
+ * the module and the modules depending on it, directly or indirectly, are invalidated, while the rest remain cached.
+ *
+ * zh-CN:
+ *
+ * 进程级的已编译模块脚本缓存, 以模块解析后的 URI 为键, 并以模块文件的最后修改时间及大小进行校验.
+ *
+ * 已编译的脚本在引擎间共享, 而模块实例 (`exports`) 仍由各引擎创建,
+ * 因为 [org.mozilla.javascript.commonjs.module.Require] 在其自身的模块作用域中执行共享的脚本.
+ * 对于已缓存的文件模块, 仅需检查文件状态即可命中, 无需再次读取及编译.
+ * 顶层模块 ID 按搜索位置 (即 `require` 的 `paths` 及模块源码提供器的位置) 进行解析,
+ * 因此搜索位置不同的引擎引入同一 ID 时将分别解析.
+ * 资源 (assets) 中的模块不可变, 因此缓存时无需校验.
+ * 从 URL 等其他位置加载的模块不在此缓存.
+ *
+ * 缓存在模块脚本执行期间记录模块间的依赖关系, 因此当某个模块文件变化时,
+ * 仅该模块及直接或间接依赖它的模块失效, 其余模块仍保留在缓存中.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+object ModuleScriptCache {
+
+    const val DEFAULT_MAX_ENTRIES = 256
+
+    private const val ASSET_PATH_PREFIX = "/android_asset/"
+
+    private data class ResolutionKey(val moduleId: String, val paths: List<String>, val locationKey: Any)
+
+    private data class Stamp(val lastModified: Long, val length: Long)
+
+    private class Entry(
+        val moduleScript: ModuleScript,
+        val stamp: Stamp?,
+        val languageVersion: Int,
+        val optimizationLevel: Int,
+        val loadNanos: Long,
+    )
+
+    data class Stats(
+        val hits: Long,
+        val misses: Long,
+        val invalidations: Long,
+        val size: Int,
+        val savedNanos: Long,
+    ) {
+        val hitRate get() = if (hits + misses == 0L) 0.0 else hits.toDouble() / (hits + misses)
+    }
+
+    @Volatile
+    var isEnabled = true
+
+    @Volatile
+    var maxEntries = DEFAULT_MAX_ENTRIES
+        set(value) {
+            field = value.coerceAtLeast(0)
+            synchronized(mEntries) { trim() }
+        }
+
+    private val mEntries = LinkedHashMap<URI, Entry>(16, 0.75f, true)
+
+    // Resolved URIs of top-level module ids, such as "lodash" or "/sdcard/lib/utils", with the search locations used.
+    // zh-CN: 顶层模块 ID (如 "lodash" 或 "/sdcard/lib/utils") 连同所用搜索位置解析后的 URI.
+    private val mResolvedIds = HashMap<ResolutionKey, URI>()
+
+    // Module URI to the URIs of modules requiring it.
+    // zh-CN: 模块 URI 至依赖它的模块 URI.
+    private val mDependents = HashMap<URI, MutableSet<URI>>()
+
+    private val sExecutingModules = ThreadLocal.withInitial { ArrayDeque<URI>() }
+
+    private var mHits = 0L
+    private var mMisses = 0L
+    private var mInvalidations = 0L
+    private var mSavedNanos = 0L
+
+    /**
+     * Create a module script provider for an engine, which loads module sources by [sourceProvider] on cache misses.
+     *
+     * Resolved top-level module ids are shared only among providers with equal [locationKey],
+     * which describes the search locations of [sourceProvider], and defaults to the provider itself.
+     *
+     * zh-CN:
+     *
+     * 为引擎创建模块脚本提供器, 缓存未命中时通过 [sourceProvider] 加载模块源码.
+     *
+     * 顶层模块 ID 的解析结果仅在 [locationKey] 相等的提供器间共享,
+     * [locationKey] 描述 [sourceProvider] 的搜索位置, 默认为该提供器本身.
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun provider(sourceProvider: ModuleSourceProvider, locationKey: Any = sourceProvider): ModuleScriptProvider {
+        return Provider(sourceProvider, locationKey)
+    }
+
+    /**
+     * Invalidate the module of [uri] and all modules depending on it, and return the URIs of the invalidated modules.
+     *
+     * zh-CN: 使 [uri] 对应的模块及所有依赖它的模块失效, 并返回失效模块的 URI.
+     */
+    @JvmStatic
+    fun invalidate(uri: URI): Set<URI> = synchronized(mEntries) {
+        collectDependents(uri).onEach { invalidated ->
+            if (mEntries.remove(invalidated) != null) mInvalidations += 1
+            mResolvedIds.values.removeAll { it == invalidated }
+        }
+    }
+
+    @JvmStatic
+    fun invalidate(file: File) = invalidate(file.toURI())
+
+    /**
+     * URIs of the modules depending on the module of [uri], directly or indirectly.
+     *
+     * zh-CN: 直接或间接依赖 [uri] 对应模块的模块 URI.
+     */
+    @JvmStatic
+    fun dependentsOf(uri: URI): Set<URI> = synchronized(mEntries) { collectDependents(uri) - uri }
+
+    /**
+     * A snapshot of the dependency graph, mapping each module URI to the URIs of the modules it requires.
+     *
+     * zh-CN: 依赖关系图的快照, 将各模块 URI 映射至其所依赖模块的 URI.
+     */
+    @JvmStatic
+    fun dependencyGraph(): Map<URI, Set<URI>> = synchronized(mEntries) {
+        val graph = LinkedHashMap<URI, MutableSet<URI>>()
+        mDependents.forEach { (dependency, dependents) ->
+            dependents.forEach { graph.getOrPut(it) { LinkedHashSet() } += dependency }
+        }
+        graph
+    }
+
+    @JvmStatic
+    fun stats() = synchronized(mEntries) {
+        Stats(mHits, mMisses, mInvalidations, mEntries.size, mSavedNanos)
+    }
+
+    @JvmStatic
+    fun clear() = synchronized(mEntries) {
+        mEntries.clear()
+        mResolvedIds.clear()
+        mDependents.clear()
+    }
+
+    @JvmStatic
+    fun resetStats() = synchronized(mEntries) {
+        mHits = 0L
+        mMisses = 0L
+        mInvalidations = 0L
+        mSavedNanos = 0L
+    }
+
+    private class Provider(private val sourceProvider: ModuleSourceProvider, private val locationKey: Any) : ModuleScriptProvider {
+
+        override fun getModuleScript(cx: Context, moduleId: String, moduleUri: URI?, baseUri: URI?, paths: Scriptable?): ModuleScript? {
+            if (!isEnabled || SamplingProfiler.isCompilationObserved(cx)) {
+                val source = loadSource(moduleId, moduleUri, baseUri, paths) ?: return null
+                return compile(cx, source)
+            }
+            val resolutionKey = if (moduleUri == null) ResolutionKey(moduleId, pathsOf(paths), locationKey) else null
+            val resolved = when (resolutionKey) {
+                null -> resolve(moduleUri!!)
+                else -> synchronized(mEntries) { mResolvedIds[resolutionKey] }
+            }
+            resolved?.let { lookup(cx, it) }?.let { return it }
+
+            val start = System.nanoTime()
+            val source = loadSource(moduleId, moduleUri, baseUri, paths) ?: return null
+            val uri = source.uri
+            val stamp = stampOf(uri)
+            val moduleScript = compile(cx, source)
+            recordDependency(uri)
+            if (stamp == null && !isAsset(uri)) {
+                return moduleScript
+            }
+            @Suppress("DEPRECATION")
+            val entry = Entry(moduleScript, stamp, cx.languageVersion, cx.optimizationLevel, System.nanoTime() - start)
+            synchronized(mEntries) {
+                mEntries[uri] = entry
+                if (resolutionKey != null) mResolvedIds[resolutionKey] = uri
+                trim()
+            }
+            return moduleScript
+        }
+
+        private fun loadSource(moduleId: String, moduleUri: URI?, baseUri: URI?, paths: Scriptable?): ModuleSource? = when (moduleUri) {
+            null -> sourceProvider.loadSource(moduleId, paths, null)
+            else -> sourceProvider.loadSource(moduleUri, baseUri, null)
+        }
+
+    }
+
+    private fun lookup(cx: Context, uri: URI): ModuleScript? {
+        val stamp = stampOf(uri)
+        val moduleScript = synchronized(mEntries) {
+            val entry = mEntries[uri]
+            @Suppress("DEPRECATION")
+            if (entry == null || entry.languageVersion != cx.languageVersion || entry.optimizationLevel != cx.optimizationLevel) {
+                mMisses += 1
+                return null
+            }
+            if (entry.stamp != stamp) {
+                invalidate(uri)
+                mMisses += 1
+                return null
+            }
+            mHits += 1
+            mSavedNanos += entry.loadNanos
+            entry.moduleScript
+        }
+        recordDependency(uri)
+        return moduleScript
+    }
+
+    // The same candidates as UrlModuleSourceProvider.loadFromUri(), which tries the URI with the extension first.
+    // zh-CN: 与 UrlModuleSourceProvider.loadFromUri() 的候选项相同, 即优先尝试带扩展名的 URI.
+    private fun pathsOf(paths: Scriptable?): List<String> {
+        paths ?: return emptyList()
+        val length = (ScriptableObject.getProperty(paths, "length") as? Number)?.toInt() ?: 0
+        return List(length.coerceAtLeast(0)) { ScriptRuntime.toString(ScriptableObject.getProperty(paths, it)) }
+    }
+
+    private fun resolve(moduleUri: URI): URI? {
+        val candidates = listOf(URI("$moduleUri.js"), moduleUri)
+        return when {
+            isAsset(moduleUri) -> synchronized(mEntries) { candidates.firstOrNull { mEntries.containsKey(it) } }
+            else -> candidates.firstOrNull { stampOf(it) != null }
+        }
+    }
+
+    private fun compile(cx: Context, source: ModuleSource): ModuleScript {
+        val uri = source.uri
+        val script = Tracer.trace("module-compile", Tracer.CATEGORY_MODULE, uri.toString()) {
+            source.reader.use { cx.compileReader(it, uri.toString(), 1, source.securityDomain) }
+        }
+        return ModuleScript(TrackedScript(script, uri), uri, source.base)
+    }
+
+    private fun recordDependency(uri: URI) {
+        val dependent = sExecutingModules.get()!!.lastOrNull() ?: return
+        if (dependent == uri) return
+        synchronized(mEntries) { mDependents.getOrPut(uri) { HashSet() } += dependent }
+    }
+
+    private fun collectDependents(uri: URI): Set<URI> {
+        val result = LinkedHashSet<URI>()
+        val queue = ArrayDeque(listOf(uri))
+        while (queue.isNotEmpty()) {
+            val current = queue.removeFirst()
+            if (result.add(current)) mDependents[current]?.let { queue.addAll(it) }
+        }
+        return result
+    }
+
+    private fun trim() {
+        val iterator = mEntries.keys.iterator()
+        while (iterator.hasNext() && mEntries.size > maxEntries) {
+            iterator.next()
+            iterator.remove()
+        }
+    }
+
+    private fun isAsset(uri: URI) = uri.scheme == "file" && uri.path?.startsWith(ASSET_PATH_PREFIX) == true
+
+    private fun stampOf(uri: URI): Stamp? {
+        if (uri.scheme != "file" || isAsset(uri)) return null
+        val file = runCatching { File(uri) }.getOrNull() ?: return null
+        return file.takeIf { it.isFile }?.let { Stamp(it.lastModified(), it.length()) }
+    }
+
+    /**
+     * Module script which records itself as the module being executed,
+     * so that modules required during its execution are recorded as its dependencies.
+     *
+     * zh-CN: 将自身记录为正在执行的模块的模块脚本, 以便将其执行期间引入的模块记录为其依赖.
+     */
+    private class TrackedScript(private val script: Script, private val uri: URI) : Script {
+
+        override fun exec(cx: Context, scope: Scriptable): Any? {
+            val executing = sExecutingModules.get()!!
+            executing.addLast(uri)
+            return try {
+                script.exec(cx, scope)
+            } finally {
+                executing.removeLast()
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,364 @@
+package org.autojs.autojs.engine.module
+
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import okhttp3.Response
+import okio.ByteString.Companion.decodeBase64
+import java.io.File
+import java.io.IOException
+import java.net.HttpURLConnection
+import java.nio.charset.Charset
+import java.security.MessageDigest
+import java.util.Properties
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executors
+
+/**
+ * On-disk cache of modules loaded from URLs, which persists across process restarts.
+ *
+ * - A module fetched within its TTL (`max-age` of the response, or [defaultTtlMillis]) is served from disk without network access.
+ * - A module older than its TTL but within the stale-while-revalidate window (`stale-while-revalidate` of the response,
+ *   or [staleWhileRevalidateMillis]) is served from disk at once, and revalidated in the background.
+ * - Otherwise it is revalidated with `If-None-Match` / `If-Modified-Since` before being served,
+ *   and if the network fails, the stale copy is served instead of failing the script.
+ * - Contents are stored by their SHA-256 hash, so identical modules from different URLs share one file.
+ *   Contents no longer referenced by any module are deleted when the cache is trimmed after each fetch.
+ * - A module may be pinned by a Subresource Integrity hash in the fragment of its URL,
+ *   e.g. `https://example.com/lib.js#sha256-<base64>`. A pinned module never changes, so a copy with the pinned
+ *   SHA-256 hash is served without network access, and content not matching the pin is rejected.
+ *
+ * This class depends on `java.io` and OkHttp only, so it can be exercised on a plain JVM against a local HTTP server,
+ * and [isOffline] simulates a device without network access.
+ *
+ * zh-CN:
+ *
+ * 从 URL 加载的模块的磁盘缓存, 可跨进程重启保留.
+ *
+ * - 在 TTL (响应的 `max-age`, 或 [defaultTtlMillis]) 内获取的模块直接从磁盘提供, 无需访问网络.
+ * - 超过 TTL 但仍处于过期重验证窗口 (响应的 `stale-while-revalidate`, 或 [staleWhileRevalidateMillis]) 内的模块
+ *   将立即从磁盘提供, 并在后台重新验证.
+ * - 其他情况下, 模块在提供前将以 `If-None-Match` / `If-Modified-Since` 重新验证, 若网络失败, 则提供过期的副本而非使脚本失败.
+ * - 内容以其 SHA-256 哈希存储, 因此来自不同 URL 的相同模块共享同一文件.
+ *   每次获取后整理缓存时, 不再被任何模块引用的内容将被删除.
+ * - 模块可通过 URL 片段中的子资源完整性 (SRI) 哈希固定, 如 `https://example.com/lib.js#sha256-<base64>`.
+ *   固定的模块不会改变, 因此具有固定 SHA-256 哈希的副本无需访问网络即可提供, 且与固定哈希不符的内容将被拒绝.
+ *
+ * 此类仅依赖 `java.io` 及 OkHttp, 因此可在普通 JVM 上针对本地 HTTP 服务器检验, 且 [isOffline] 可模拟无网络的设备.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+class UrlModuleCache @JvmOverloads constructor(
+    val directory: File,
+    private val client: OkHttpClient = OkHttpClient.Builder().followRedirects(true).build(),
+    private val maxBytes: Long = DEFAULT_MAX_BYTES,
+) {
+
+    class Module(val url: String, val bytes: ByteArray, val charset: Charset?, val contentHash: String, val isStale: Boolean)
+
+    class IntegrityException(message: String) : IOException(message)
+
+    private data class Entry(
+        val url: String,
+        val contentHash: String,
+        val charset: String?,
+        val etag: String?,
+        val lastModified: String?,
+        val fetchedAt: Long,
+        val ttlMillis: Long,
+        val staleWhileRevalidateMillis: Long,
+    )
+
+    private data class Integrity(val algorithm: String, val digest: ByteArray)
+
+    @Volatile
+    var defaultTtlMillis = DEFAULT_TTL_MILLIS
+
+    @Volatile
+    var staleWhileRevalidateMillis = DEFAULT_STALE_WHILE_REVALIDATE_MILLIS
+
+    /**
+     * Never access the network, as if the device were offline.
+     *
+     * zh-CN: 从不访问网络, 如同设备处于离线状态.
+     */
+    @Volatile
+    var isOffline = false
+
+    private val mEntryDir = File(directory, "entries")
+    private val mContentDir = File(directory, "contents")
+    private val mRevalidating: MutableSet<String> = ConcurrentHashMap.newKeySet()
+
+    /**
+     * Load the module of [url], which may end with an integrity fragment, or return null if the server responds without success.
+     *
+     * zh-CN: 加载 [url] 对应的模块, URL 可以完整性片段结尾. 若服务器响应未成功则返回 null.
+     */
+    @Throws(IOException::class)
+    fun load(url: String): Module? {
+        val location = url.substringBefore('#')
+        val integrity = parseIntegrity(url.substringAfter('#', ""))
+        val entry = readEntry(location)
+
+        if (integrity?.algorithm == "SHA-256") {
+            val hash = integrity.digest.toHex()
+            readContent(hash)?.let { return Module(location, it, entry?.charset?.let(::charsetOrNull), hash, false) }
+        }
+
+        val cached = entry?.let { e -> readContent(e.contentHash)?.let { e to it } }
+        if (cached != null) {
+            val (e, bytes) = cached
+            val age = System.currentTimeMillis() - e.fetchedAt
+            when {
+                age <= e.ttlMillis || isOffline -> {
+                    return verified(Module(location, bytes, e.charset?.let(::charsetOrNull), e.contentHash, age > e.ttlMillis), integrity)
+                }
+                age <= e.ttlMillis + e.staleWhileRevalidateMillis && integrity == null -> {
+                    revalidateInBackground(e)
+                    return Module(location, bytes, e.charset?.let(::charsetOrNull), e.contentHash, true)
+                }
+            }
+        }
+        if (isOffline) {
+            throw IOException("Module $location is not cached and the network is offline")
+        }
+        val fetched = try {
+            fetch(location, cached?.first)
+        } catch (e: IOException) {
+            cached ?: throw e
+            null
+        }
+        val module = fetched ?: cached?.let { (e, bytes) ->
+            Module(location, bytes, e.charset?.let(::charsetOrNull), e.contentHash, true)
+        }
+        return module?.let { verified(it, integrity) }
+    }
+
+    fun clear() {
+        mEntryDir.deleteRecursively()
+        mContentDir.deleteRecursively()
+    }
+
+    fun size() = contents().sumOf { it.length() }
+
+    // Returns null for unsuccessful responses, and the cached copy for "304 Not Modified".
+    // zh-CN: 响应未成功时返回 null, 响应 "304 Not Modified" 时返回缓存副本.
+    @Throws(IOException::class)
+    private fun fetch(location: String, entry: Entry?): Module? {
+        val request = Request.Builder().url(location).apply {
+            entry?.etag?.let { header("If-None-Match", it) }
+            entry?.lastModified?.let { header("If-Modified-Since", it) }
+        }.build()
+        client.newCall(request).execute().use { response ->
+            val now = System.currentTimeMillis()
+            if (response.code == HttpURLConnection.HTTP_NOT_MODIFIED && entry != null) {
+                val bytes = readContent(entry.contentHash) ?: return null
+                val refreshed = entry.copy(fetchedAt = now, ttlMillis = ttlOf(response), staleWhileRevalidateMillis = staleWhileRevalidateOf(response))
+                writeEntry(refreshed)
+                return Module(location, bytes, refreshed.charset?.let(::charsetOrNull), refreshed.contentHash, false)
+            }
+            if (!response.isSuccessful) {
+                return null
+            }
+            val body = response.body ?: return null
+            val bytes = body.bytes()
+            val charset = body.contentType()?.charset()
+            val hash = sha256(bytes).toHex()
+            if (!isNoStore(response)) {
+                // Stored under the lock, so that a trim from another thread never collects the content before its entry is written.
+                // zh-CN: 在锁内存储, 以免其他线程的整理在条目写入前回收该内容.
+                synchronized(this) {
+                    writeContent(hash, bytes)
+                    writeEntry(
+                        Entry(
+                            url = location,
+                            contentHash = hash,
+                            charset = charset?.name(),
+                            etag = response.header("ETag"),
+                            lastModified = response.header("Last-Modified"),
+                            fetchedAt = now,
+                            ttlMillis = ttlOf(response),
+                            staleWhileRevalidateMillis = staleWhileRevalidateOf(response),
+                        )
+                    )
+                    trim()
+                }
+            }
+            return Module(location, bytes, charset, hash, false)
+        }
+    }
+
+    private fun revalidateInBackground(entry: Entry) {
+        if (isOffline || !mRevalidating.add(entry.url)) return
+        revalidationExecutor.execute {
+            try {
+                fetch(entry.url, entry)
+            } catch (_: IOException) {
+                /* Ignored, and the stale copy is kept. */
+            } finally {
+                mRevalidating.remove(entry.url)
+            }
+        }
+    }
+
+    @Throws(IntegrityException::class)
+    private fun verified(module: Module, integrity: Integrity?): Module {
+        integrity ?: return module
+        val actual = MessageDigest.getInstance(integrity.algorithm).digest(module.bytes)
+        if (!MessageDigest.isEqual(actual, integrity.digest)) {
+            throw IntegrityException("Integrity check failed for module ${module.url}")
+        }
+        return module
+    }
+
+    private fun ttlOf(response: Response): Long {
+        val cacheControl = response.cacheControl
+        return when {
+            cacheControl.noCache -> 0L
+            cacheControl.maxAgeSeconds >= 0 -> cacheControl.maxAgeSeconds * 1000L
+            else -> defaultTtlMillis
+        }
+    }
+
+    private fun staleWhileRevalidateOf(response: Response): Long {
+        return response.header("Cache-Control")
+            ?.let { REGEX_STALE_WHILE_REVALIDATE.find(it)?.groupValues?.get(1)?.toLongOrNull() }
+            ?.let { it * 1000L }
+            ?: staleWhileRevalidateMillis
+    }
+
+    private fun isNoStore(response: Response) = response.cacheControl.noStore
+
+    private fun readEntry(location: String): Entry? {
+        val file = entryFileOf(location)
+        if (!file.isFile) return null
+        return runCatching {
+            val properties = Properties().apply { file.inputStream().use { load(it) } }
+            Entry(
+                url = properties.getProperty(KEY_URL),
+                contentHash = properties.getProperty(KEY_CONTENT_HASH),
+                charset = properties.getProperty(KEY_CHARSET),
+                etag = properties.getProperty(KEY_ETAG),
+                lastModified = properties.getProperty(KEY_LAST_MODIFIED),
+                fetchedAt = properties.getProperty(KEY_FETCHED_AT).toLong(),
+                ttlMillis = properties.getProperty(KEY_TTL).toLong(),
+                staleWhileRevalidateMillis = properties.getProperty(KEY_STALE_WHILE_REVALIDATE).toLong(),
+            ).takeIf { it.url == location }
+        }.getOrNull()
+    }
+
+    private fun writeEntry(entry: Entry) {
+        val properties = Properties().apply {
+            setProperty(KEY_URL, entry.url)
+            setProperty(KEY_CONTENT_HASH, entry.contentHash)
+            entry.charset?.let { setProperty(KEY_CHARSET, it) }
+            entry.etag?.let { setProperty(KEY_ETAG, it) }
+            entry.lastModified?.let { setProperty(KEY_LAST_MODIFIED, it) }
+            setProperty(KEY_FETCHED_AT, entry.fetchedAt.toString())
+            setProperty(KEY_TTL, entry.ttlMillis.toString())
+            setProperty(KEY_STALE_WHILE_REVALIDATE, entry.staleWhileRevalidateMillis.toString())
+        }
+        writeAtomically(entryFileOf(entry.url)) { file -> file.outputStream().use { properties.store(it, null) } }
+    }
+
+    private fun readContent(hash: String): ByteArray? {
+        val file = File(mContentDir, hash)
+        if (!file.isFile) return null
+        val bytes = runCatching { file.readBytes() }.getOrNull() ?: return null
+        // Contents with a damaged file are treated as absent.
+        // zh-CN: 文件损坏的内容视为不存在.
+        return bytes.takeIf { sha256(it).toHex() == hash } ?: null.also { file.delete() }
+    }
+
+    private fun writeContent(hash: String, bytes: ByteArray) {
+        val file = File(mContentDir, hash)
+        if (!file.isFile) writeAtomically(file) { it.writeBytes(bytes) }
+    }
+
+    private fun writeAtomically(target: File, write: (File) -> Unit) {
+        val dir = target.parentFile!!
+        if (!dir.isDirectory && !dir.mkdirs()) {
+            throw IOException("Failed to create directory: $dir")
+        }
+        val temp = File(dir, "${target.name}.${System.nanoTime()}.tmp")
+        try {
+            write(temp)
+            if (!temp.renameTo(target)) {
+                throw IOException("Failed to move $temp to $target")
+            }
+        } finally {
+            temp.delete()
+        }
+    }
+
+    // Contents no longer referenced by any entry, such as the previous content of a module which has changed,
+    // are deleted first, so that only the referenced contents count towards maxBytes.
+    // zh-CN: 首先删除不再被任何条目引用的内容 (如已变化模块的先前内容), 以便仅被引用的内容计入 maxBytes.
+    private fun trim() {
+        val entries = mEntryDir.listFiles { f -> f.isFile && !f.name.endsWith(".tmp") }.orEmpty()
+            .mapNotNull { file -> runCatching { Properties().apply { file.inputStream().use { load(it) } } }.getOrNull()?.let { file to it } }
+            .sortedBy { (_, properties) -> properties.getProperty(KEY_FETCHED_AT)?.toLongOrNull() ?: 0L }
+            .toMutableList()
+        val references = entries.mapNotNull { (_, properties) -> properties.getProperty(KEY_CONTENT_HASH) }.groupingBy { it }.eachCount().toMutableMap()
+        var total = 0L
+        contents().forEach { content ->
+            when (content.name in references) {
+                true -> total += content.length()
+                else -> content.delete()
+            }
+        }
+        while (total > maxBytes && entries.isNotEmpty()) {
+            val (file, properties) = entries.removeAt(0)
+            file.delete()
+            val hash = properties.getProperty(KEY_CONTENT_HASH) ?: continue
+            val remaining = references.getValue(hash) - 1
+            references[hash] = remaining
+            if (remaining == 0) {
+                val content = File(mContentDir, hash)
+                total -= content.length()
+                content.delete()
+            }
+        }
+    }
+
+    private fun contents() = mContentDir.listFiles { f -> f.isFile && !f.name.endsWith(".tmp") }.orEmpty().toList()
+
+    private fun entryFileOf(location: String) = File(mEntryDir, sha256(location.toByteArray()).toHex())
+
+    companion object {
+
+        const val DEFAULT_MAX_BYTES = 16L * 1024 * 1024
+        const val DEFAULT_TTL_MILLIS = 5L * 60 * 1000
+        const val DEFAULT_STALE_WHILE_REVALIDATE_MILLIS = 7L * 24 * 60 * 60 * 1000
+
+        private const val KEY_URL = "url"
+        private const val KEY_CONTENT_HASH = "content_hash"
+        private const val KEY_CHARSET = "charset"
+        private const val KEY_ETAG = "etag"
+        private const val KEY_LAST_MODIFIED = "last_modified"
+        private const val KEY_FETCHED_AT = "fetched_at"
+        private const val KEY_TTL = "ttl"
+        private const val KEY_STALE_WHILE_REVALIDATE = "stale_while_revalidate"
+
+        private val REGEX_STALE_WHILE_REVALIDATE = "stale-while-revalidate\\s*=\\s*(\\d+)".toRegex()
+
+        private val SRI_ALGORITHMS = mapOf("sha256" to "SHA-256", "sha384" to "SHA-384", "sha512" to "SHA-512")
+
+        private val revalidationExecutor by lazy {
+            Executors.newSingleThreadExecutor { Thread(it, "UrlModuleCache-Revalidation").apply { isDaemon = true } }
+        }
+
+        private fun parseIntegrity(fragment: String): Integrity? {
+            val algorithm = SRI_ALGORITHMS[fragment.substringBefore('-', "")] ?: return null
+            val digest = fragment.substringAfter('-').decodeBase64()?.toByteArray() ?: return null
+            return Integrity(algorithm, digest)
+        }
+
+        private fun sha256(bytes: ByteArray) = MessageDigest.getInstance("SHA-256").digest(bytes)
+
+        private fun ByteArray.toHex() = joinToString("") { "%02x".format(it) }
+
+        private fun charsetOrNull(name: String) = runCatching { Charset.forName(name) }.getOrNull()
+
+    }
+
+}
@@ -1,6 +1,8 @@
 package org.autojs.autojs.execution;
 
 import android.util.Log;
+import androidx.annotation.Nullable;
+import org.autojs.autojs.engine.RhinoJavaScriptEngine;
 import org.autojs.autojs.engine.ScriptEngine;
 import org.autojs.autojs.engine.ScriptEngineManager;
 import org.autojs.autojs.lang.ThreadCompat;
@@ -9,11 +11,14 @@ import org.autojs.autojs.script.ScriptSource;
 
 /**
  * Created by Stardust on May 1, 2017.
+ * Modified by agent as of Oct 19, 2026.
  */
 public class RunnableScriptExecution extends ScriptExecution.AbstractScriptExecution implements Runnable {
 
     private static final String TAG = "RunnableJSExecution";
     private ScriptEngine<? extends ScriptSource> mScriptEngine;
+    @Nullable
+    private ScriptEngine<? extends ScriptSource> mPreparedEngine;
     private final ScriptEngineManager mScriptEngineManager;
 
     public RunnableScriptExecution(ScriptEngineManager manager, ScriptExecutionTask task) {
@@ -27,8 +32,24 @@ public class RunnableScriptExecution extends ScriptExecution.AbstractScriptExecu
         execute();
     }
 
+    /**
+     * Run with an engine constructed in advance on the current thread, see {@link org.autojs.autojs.engine.ScriptEnginePool}.
+     *
+     * <p>zh-CN: 使用预先在当前线程上构造的引擎运行, 参阅 {@link org.autojs.autojs.engine.ScriptEnginePool}.</p>
+     */
+    public void setPreparedEngine(@Nullable ScriptEngine<? extends ScriptSource> engine) {
+        mPreparedEngine = engine;
+    }
+
     public Object execute() {
-        mScriptEngine = mScriptEngineManager.createEngineOfSourceOrThrow(getSource(), getId());
+        if (mPreparedEngine != null) {
+            mScriptEngine = mScriptEngineManager.attachEngine(mPreparedEngine, getId());
+        } else if (RhinoJavaScriptEngine.requiresPrivateScope(getSource())) {
+            mScriptEngine = RhinoJavaScriptEngine.withPrivateScope(() -> mScriptEngineManager.createEngineOfSourceOrThrow(getSource(), getId()));
+        } else {
+            mScriptEngine = mScriptEngineManager.createEngineOfSourceOrThrow(getSource(), getId());
+        }
+        mPreparedEngine = null;
         mScriptEngine.setTag(ExecutionConfig.tag, getConfig());
         return execute(mScriptEngine);
     }
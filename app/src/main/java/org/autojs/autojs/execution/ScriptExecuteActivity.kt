@@ -23,6 +23,7 @@ import org.autojs.autojs.core.eventloop.SimpleEvent
 import org.autojs.autojs.engine.JavaScriptEngine
 import org.autojs.autojs.engine.LoopBasedJavaScriptEngine
 import org.autojs.autojs.engine.LoopBasedJavaScriptEngine.ExecuteCallback
+import org.autojs.autojs.engine.RhinoJavaScriptEngine
 import org.autojs.autojs.engine.ScriptEngine
 import org.autojs.autojs.engine.ScriptEngineManager
 import org.autojs.autojs.engine.ScriptEngineService
@@ -37,6 +38,7 @@ import org.mozilla.javascript.ContinuationPending
 /**
  * Created by Stardust on Feb 5, 2017.
  * Modified by SuperMonster003 as of Nov 15, 2023.
+ * Modified by agent as of Oct 19, 2026.
  */
 class ScriptExecuteActivity : AppCompatActivity() {
 
@@ -250,7 +252,8 @@ class ScriptExecuteActivity : AppCompatActivity() {
         @Suppress("unused", "UNUSED_PARAMETER")
         fun createEngine(activity: Activity?): ScriptEngine<*> {
             mScriptEngine?.forceStop()
-            return mScriptEngineManager.createEngineOfSourceOrThrow(source, id)
+            val create = { mScriptEngineManager.createEngineOfSourceOrThrow(source, id) }
+            return (if (RhinoJavaScriptEngine.requiresPrivateScope(source)) RhinoJavaScriptEngine.withPrivateScope(create) else create())
                 .apply { setTag(ExecutionConfig.tag, config) }
                 .also { mScriptEngine = it }
         }
@@ -2,7 +2,9 @@ package org.autojs.autojs.extension
 
 import org.autojs.autojs.extension.AnyExtensions.jsBrief
 import org.autojs.autojs.util.RhinoUtils.UNDEFINED
+import org.autojs.autojs.util.RhinoUtils.conversionScopeOf
 import org.autojs.autojs.util.RhinoUtils.newNativeObject
+import org.autojs.autojs.util.RhinoUtils.newPrimitiveArrayView
 import org.autojs.autojs.util.RhinoUtils.withRhinoContext
 import org.mozilla.javascript.Context
 import org.mozilla.javascript.NativeArray
@@ -53,18 +55,28 @@ object ArrayExtensions {
 
     fun Iterable<*>.toNativeArray(): NativeArray {
         return withRhinoContext { cx ->
-            val standardObjects = cx.initStandardObjects()
-            cx.newArray(standardObjects, this.map { Context.javaToJS(it, standardObjects) }.toTypedArray()) as NativeArray
+            val scope = conversionScopeOf(cx)
+            cx.newArray(scope, this.map { Context.javaToJS(it, scope) }.toTypedArray()) as NativeArray
         }
     }
 
     fun Array<*>.toNativeArray(): NativeArray {
         return withRhinoContext { cx ->
-            val standardObjects = cx.initStandardObjects()
-            cx.newArray(standardObjects, this.toList().map { Context.javaToJS(it, standardObjects) }.toTypedArray()) as NativeArray
+            val scope = conversionScopeOf(cx)
+            cx.newArray(scope, Array(size) { Context.javaToJS(this[it], scope) }) as NativeArray
         }
     }
 
+    fun IntArray.toArrayView() = withRhinoContext { cx -> newPrimitiveArrayView(cx, this) }
+
+    fun LongArray.toArrayView() = withRhinoContext { cx -> newPrimitiveArrayView(cx, this) }
+
+    fun FloatArray.toArrayView() = withRhinoContext { cx -> newPrimitiveArrayView(cx, this) }
+
+    fun DoubleArray.toArrayView() = withRhinoContext { cx -> newPrimitiveArrayView(cx, this) }
+
+    fun ByteArray.toArrayView() = withRhinoContext { cx -> newPrimitiveArrayView(cx, this) }
+
     fun <K, V> Map<K, V>.toNativeObject(): NativeObject = newNativeObject().also { o ->
         forEach { entry: Map.Entry<K, V> ->
             val key = Context.toString(entry.key)
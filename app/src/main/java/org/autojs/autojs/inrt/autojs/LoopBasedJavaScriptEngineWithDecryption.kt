@@ -2,24 +2,31 @@ package org.autojs.autojs.inrt.autojs
 
 import android.content.Context
 import org.autojs.autojs.engine.LoopBasedJavaScriptEngine
-import org.autojs.autojs.engine.encryption.ScriptEncryption
-import org.autojs.autojs.pio.PFiles
+import org.autojs.autojs.engine.PrecompiledScriptBundle
 import org.autojs.autojs.runtime.ScriptRuntime
+import org.autojs.autojs.script.EncryptedJavaScriptFileSource
 import org.autojs.autojs.script.EncryptedScriptFileHeader
-import org.autojs.autojs.script.EncryptedScriptFileHeader.BLOCK_SIZE
 import org.autojs.autojs.script.JavaScriptFileSource
 import org.autojs.autojs.script.ScriptSource
-import org.autojs.autojs.script.StringScriptSource
+import org.mozilla.javascript.Script
 
+/**
+ * Modified by agent as of Oct 19, 2026.
+ */
 class LoopBasedJavaScriptEngineWithDecryption(scriptRuntime: ScriptRuntime, context: Context) : LoopBasedJavaScriptEngine(scriptRuntime, context) {
 
+    private val mAssets = context.assets
+
+    override fun findPrecompiledScript(code: String): Script? {
+        return PrecompiledScriptBundle.fromAssets(mAssets)?.find(this.context, code)
+    }
+
     override fun execute(source: ScriptSource?, callback: ExecuteCallback?) {
         if (source is JavaScriptFileSource) {
             try {
                 val file = source.file
-                val bytes = PFiles.readBytes(file.path)
-                if (EncryptedScriptFileHeader.isValidFile(bytes)) {
-                    super.execute(StringScriptSource(file.name, String(ScriptEncryption.decrypt(bytes, BLOCK_SIZE))), callback)
+                if (EncryptedScriptFileHeader.getHeaderFlags(file) != EncryptedScriptFileHeader.FLAG_INVALID_FILE) {
+                    super.execute(EncryptedJavaScriptFileSource(file.name, file), callback)
                 } else {
                     super.execute(source, callback)
                 }
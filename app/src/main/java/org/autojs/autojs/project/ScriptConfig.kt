@@ -20,6 +20,13 @@ data class ScriptConfig @JvmOverloads constructor(
 
     companion object {
         const val FEATURE_CONTINUATION = "continuation"
+
+        /**
+         * Compile scripts to Java bytecode (then dex) instead of interpreting them, unless continuations are used.
+         *
+         * zh-CN: 将脚本编译为 Java 字节码 (继而转为 dex) 而非解释执行, 使用 continuation 时除外.
+         */
+        const val FEATURE_COMPILED = "compiled"
     }
 
 }
\ No newline at end of file
@@ -16,12 +16,15 @@ import java.io.ByteArrayInputStream
 import java.io.File
 import java.io.FileNotFoundException
 import java.io.IOException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
 import com.legacy.android.dx.command.dexer.Main as LegacyMain
 
 /**
  * Created by Stardust on Apr 5, 2017.
  * Modified by SuperMonster003 as of Jul 5, 2023.
  * Transformed by SuperMonster003 on Jul 5, 2023.
+ * Modified by agent as of Oct 19, 2026.
  */
 /**
  * Create a new instance with the given parent classloader and cache directory
@@ -31,16 +34,37 @@ import com.legacy.android.dx.command.dexer.Main as LegacyMain
  */
 open class AndroidClassLoader(private val parent: ClassLoader, private val cacheDir: File) : ClassLoader(), GeneratedClassLoader {
 
+    // @Hint by agent on Oct 19, 2026.
+    //  ! Loaded jars and defined classes belong to this instance, as Rhino creates a class loader for each compiled script
+    //  ! and generated class names (such as "adapter1") repeat across scripts. They are released together with the instance.
+    //  ! zh-CN: 已加载的 jar 及已定义的类归属于此实例, 因为 Rhino 为每个编译的脚本创建一个类加载器,
+    //  ! 且生成的类名 (如 "adapter1") 在不同脚本间会重复. 它们随实例一同释放.
+    private val dexClassLoaders = ConcurrentHashMap<String, DexClassLoader>()
+    private val definedClassLoaders = ConcurrentHashMap<String, DexClassLoader>()
+
     init {
-        if (cacheDir.exists()) {
-            deleteFilesOfDir(cacheDir)
-        } else {
-            if (!cacheDir.mkdirs()) {
-                Log.e(TAG, "dir.mkdirs() failed")
+        // @Hint by agent on Oct 19, 2026.
+        //  ! Temporary files are cleared once per directory and process rather than once per instance,
+        //  ! which would delete files still in use by other instances sharing the directory.
+        //  ! zh-CN: 临时文件在每个进程中对每个目录仅清理一次, 而非每个实例清理一次, 后者会删除共用该目录的其他实例仍在使用的文件.
+        synchronized(clearedCacheDirs) {
+            if (clearedCacheDirs.add(cacheDir.absolutePath)) {
+                if (cacheDir.exists()) {
+                    deleteFilesOfDir(cacheDir)
+                } else {
+                    if (!cacheDir.mkdirs()) {
+                        Log.e(TAG, "dir.mkdirs() failed")
+                    }
+                }
             }
         }
     }
 
+    // @Hint by agent on Oct 19, 2026.
+    //  ! Rhino creates a class loader for each compiled script, so the dex cache is shared by all instances using the same directory.
+    //  ! zh-CN: Rhino 为每个编译的脚本创建一个类加载器, 因此 dex 缓存由使用同一目录的所有实例共享.
+    private val dexCache = DexCache.of(File(cacheDir.parentFile, "${cacheDir.name}-dex"))
+
     /**
      * Might be thrown in any Rhino method that loads bytecode if the loading failed
      */
@@ -125,6 +149,7 @@ open class AndroidClassLoader(private val parent: ClassLoader, private val cache
     @Throws(ClassNotFoundException::class)
     public override fun loadClass(name: String, resolve: Boolean): Class<*> {
         findLoadedClass(name)?.let { return it }
+        definedClassLoaders[name]?.let { return it.loadClass(name) }
         for (dex in dexClassLoaders.values) try {
             dex.loadClass(name)?.let { return it }
         } catch (e: Exception) {
@@ -144,54 +169,82 @@ open class AndroidClassLoader(private val parent: ClassLoader, private val cache
     }
 
     /**
-     * {@inheritDoc}
+     * Define a class generated by Rhino, such as a compiled script or a JavaAdapter.
+     *
+     * The dexed class is looked up in, or added to, a [DexCache] keyed by its name and bytecode,
+     * so a class generated identically in a previous run is loaded without dexing again.
+     *
+     * zh-CN:
+     *
+     * 定义由 Rhino 生成的类, 如已编译的脚本或 JavaAdapter.
+     *
+     * dex 后的类以其名称及字节码为键在 [DexCache] 中查找或加入, 因此在之前运行中生成的相同类无需再次 dex 即可加载.
      */
     override fun defineClass(name: String, data: ByteArray): Class<*> {
-        Log.d(TAG, "defineClass: name = $name data.length = ${data.size}")
+        Log.d(TAG, "defineClass: name = $name length = ${data.size}")
+        val startedAt = System.nanoTime()
         var classFile: File? = null
         return try {
-            classFile = generateTempFile(name, false)
-            ZipFile(classFile).addStream(ByteArrayInputStream(data), ZipParameters().apply {
-                fileNameInZip = name.replace('.', '/') + ".class"
-            })
-            dexJar(classFile, null).loadClass(name)
+            val key = DexCache.keyOf(name, data)
+            val dexFile = dexCache.get(key)?.also { cachedClasses.incrementAndGet() } ?: run {
+                classFile = generateTempFile(key, false)
+                ZipFile(classFile).addStream(ByteArrayInputStream(data), ZipParameters().apply {
+                    fileNameInZip = name.replace('.', '/') + ".class"
+                })
+                val tempDexFile = generateTempFile("dex-$key", true)
+                val dexStartedAt = System.nanoTime()
+                runDx(classFile!!, tempDexFile)
+                dexNanos.addAndGet(System.nanoTime() - dexStartedAt)
+                dexInvocations.incrementAndGet()
+                dexCache.put(key, tempDexFile)
+            }
+            // Classes defined earlier by this instance are resolved through this loader, as its parent.
+            // zh-CN: 此实例先前定义的类以此加载器 (作为父加载器) 进行解析.
+            val loader = DexClassLoader(dexFile.path, cacheDir.path, null, this)
+            loader.loadClass(name).also { definedClassLoaders[name] = loader }
         } catch (e: IOException) {
             throw FatalLoadingException(e)
         } catch (e: ClassNotFoundException) {
             throw FatalLoadingException(e)
         } finally {
-            if (classFile != null) {
-                if (!classFile.delete()) {
+            classFile?.let {
+                if (it.exists() && !it.delete()) {
                     Log.e(TAG, "classFile.delete() failed")
                 }
             }
+            definedClasses.incrementAndGet()
+            defineNanos.addAndGet(System.nanoTime() - startedAt)
         }
     }
 
     @Throws(IOException::class)
     private fun dexJar(classFile: File, dexFile: File?): DexClassLoader {
         val niceDexFile = dexFile ?: generateTempFile("dex-" + classFile.path, true)
+        runDx(classFile, niceDexFile)
+        val loader = loadDex(niceDexFile)
+        if (dexFile == null) /* is temporary file generated */ {
+            if (!niceDexFile.delete()) {
+                Log.e(TAG, "dexFile.delete() failed")
+            }
+        }
+        return loader
+    }
+
+    private fun runDx(classFile: File, dexFile: File) {
         when (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
             true -> Main.Arguments().apply {
                 fileNames = arrayOf(classFile.path)
-                outName = niceDexFile.path
+                outName = dexFile.path
                 jarOutput = true
                 Main.run(this)
             }
             else -> LegacyMain.Arguments().apply {
                 fileNames = arrayOf(classFile.path)
-                outName = niceDexFile.path
+                outName = dexFile.path
                 jarOutput = true
                 LegacyMain.run(this)
             }
         }
-        val loader = loadDex(niceDexFile)
-        if (dexFile == null) /* is temporary file generated */ {
-            if (!niceDexFile.delete()) {
-                Log.e(TAG, "dexFile.delete() failed")
-            }
-        }
-        return loader
     }
 
     @Throws(IOException::class)
@@ -216,7 +269,31 @@ open class AndroidClassLoader(private val parent: ClassLoader, private val cache
     companion object {
 
         private val TAG = AndroidClassLoader::class.java.simpleName
-        private val dexClassLoaders = HashMap<String, DexClassLoader>()
+
+        private val clearedCacheDirs = HashSet<String>()
+
+        private val definedClasses = AtomicLong()
+        private val cachedClasses = AtomicLong()
+        private val dexInvocations = AtomicLong()
+        private val defineNanos = AtomicLong()
+        private val dexNanos = AtomicLong()
+
+        data class Stats(val definedClasses: Long, val cachedClasses: Long, val dexInvocations: Long, val defineMillis: Long, val dexMillis: Long)
+
+        /**
+         * Number of classes defined in this process, how many of them were loaded from the [DexCache],
+         * and time spent on defining them, of which dex conversion is a part.
+         *
+         * zh-CN: 本进程中已定义的类数量, 其中从 [DexCache] 加载的数量, 以及定义这些类的耗时, dex 转换耗时为其中一部分.
+         */
+        @JvmStatic
+        fun stats() = Stats(
+            definedClasses.get(),
+            cachedClasses.get(),
+            dexInvocations.get(),
+            defineNanos.get() / 1_000_000,
+            dexNanos.get() / 1_000_000,
+        )
 
     }
 
@@ -6,12 +6,17 @@ import org.mozilla.javascript.ContextFactory
 import org.mozilla.javascript.ContinuationPending
 import org.mozilla.javascript.Scriptable
 
+/**
+ * Modified by agent as of Oct 19, 2026.
+ */
 class AutoJsContext(factory: ContextFactory?) : Context(factory) {
 
     val continuations = HashSet<Any>()
 
     var rhinoJavaScriptEngine: RhinoJavaScriptEngine? = null
 
+    val interruptChecker = InterruptChecker(InterruptChecker.ADAPTIVE_STRATEGY)
+
     override fun captureContinuation(): ContinuationPending {
         val continuationPending = super.captureContinuation()
         continuations.add(continuationPending.continuation)
@@ -0,0 +1,136 @@
+package org.autojs.autojs.rhino
+
+import java.io.File
+import java.io.IOException
+import java.security.MessageDigest
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Content-addressed on-disk cache of dexed classes, keyed by the hash of class name and bytecode.
+ *
+ * As the key is derived from the bytecode only, a class generated identically in a later run
+ * (the same script, or the same JavaAdapter signature) is loaded from the cache without running dx again.
+ * One instance serves each directory in the process (see [of]), so that evictions and statistics cover all class loaders.
+ * Entries are written to a temporary file and renamed into place, so a reader never sees a partial entry,
+ * and they are made read-only, as required for dex files by newer Android versions.
+ * The least recently used entries are evicted when the total size exceeds [maxBytes].
+ * This class depends on `java.io` only, so it can be exercised on a plain JVM.
+ *
+ * zh-CN:
+ *
+ * 以类名及字节码哈希为键, 基于内容寻址的 dex 类磁盘缓存.
+ *
+ * 由于键仅由字节码导出, 后续运行中生成的相同类 (相同脚本, 或相同的 JavaAdapter 签名) 将直接从缓存加载, 无需再次运行 dx.
+ * 进程中每个目录仅由一个实例负责 (参阅 [of]), 因此淘汰及统计涵盖所有类加载器.
+ * 条目先写入临时文件再重命名就位, 因此读取方不会看到不完整的条目, 且条目被设为只读, 以满足较新 Android 版本对 dex 文件的要求.
+ * 当总大小超过 [maxBytes] 时, 最近最少使用的条目将被淘汰.
+ * 此类仅依赖 `java.io`, 因此可在普通 JVM 上检验.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+class DexCache @JvmOverloads constructor(val directory: File, private val maxBytes: Long = DEFAULT_MAX_BYTES) {
+
+    private val mHits = AtomicLong()
+    private val mMisses = AtomicLong()
+
+    val hits get() = mHits.get()
+
+    val misses get() = mMisses.get()
+
+    /**
+     * Get the cached dex jar of [key], or null if absent.
+     *
+     * zh-CN: 获取 [key] 对应的已缓存 dex jar, 不存在时返回 null.
+     */
+    fun get(key: String): File? {
+        val file = fileOf(key)
+        if (!file.isFile) {
+            mMisses.incrementAndGet()
+            return null
+        }
+        file.setLastModified(System.currentTimeMillis())
+        mHits.incrementAndGet()
+        return file
+    }
+
+    /**
+     * Move [dexJar] into the cache under [key] and return the cached file.
+     *
+     * zh-CN: 将 [dexJar] 以 [key] 为键移入缓存, 并返回缓存文件.
+     */
+    @Synchronized
+    @Throws(IOException::class)
+    fun put(key: String, dexJar: File): File {
+        val file = fileOf(key)
+        if (file.isFile) {
+            dexJar.delete()
+            return file
+        }
+        if (!directory.isDirectory && !directory.mkdirs()) {
+            throw IOException("Failed to create directory: $directory")
+        }
+        val temp = File(directory, "$key.${System.nanoTime()}.tmp")
+        dexJar.copyTo(temp, overwrite = true)
+        dexJar.delete()
+        temp.setReadOnly()
+        if (!temp.renameTo(file) && !file.isFile) {
+            temp.delete()
+            throw IOException("Failed to move $temp to $file")
+        }
+        temp.delete()
+        trim()
+        return file
+    }
+
+    fun size() = entries().sumOf { it.length() }
+
+    fun clear() = entries().forEach { it.delete() }
+
+    private fun trim() {
+        val entries = entries().sortedBy { it.lastModified() }
+        var total = entries.sumOf { it.length() }
+        for (entry in entries) {
+            if (total <= maxBytes) break
+            total -= entry.length()
+            entry.delete()
+        }
+    }
+
+    private fun entries() = directory.listFiles { f -> f.isFile && f.name.endsWith(SUFFIX) }.orEmpty().toList()
+
+    private fun fileOf(key: String) = File(directory, key + SUFFIX)
+
+    companion object {
+
+        const val DEFAULT_MAX_BYTES = 32L * 1024 * 1024
+
+        private const val SUFFIX = ".dex.jar"
+
+        private val sInstances = ConcurrentHashMap<String, DexCache>()
+
+        /**
+         * The cache of [directory] shared within the process.
+         *
+         * zh-CN: 进程内共享的 [directory] 缓存.
+         */
+        @JvmStatic
+        fun of(directory: File): DexCache = sInstances.computeIfAbsent(directory.absolutePath) { DexCache(File(it)) }
+
+        /**
+         * Key of the class [name] with [bytecode].
+         *
+         * zh-CN: 字节码为 [bytecode] 的类 [name] 的键.
+         */
+        @JvmStatic
+        fun keyOf(name: String, bytecode: ByteArray): String {
+            val digest = MessageDigest.getInstance("SHA-256")
+            digest.update(name.toByteArray())
+            digest.update(0)
+            digest.update(bytecode)
+            return digest.digest().joinToString("") { "%02x".format(it) }
+        }
+
+    }
+
+}
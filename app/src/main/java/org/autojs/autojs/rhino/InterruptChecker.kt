@@ -0,0 +1,215 @@
+package org.autojs.autojs.rhino
+
+import android.os.SystemClock
+import org.autojs.autojs.runtime.exception.ScriptInterruptedException
+import org.autojs.autojs.util.RhinoUtils.isBackgroundThread
+import org.mozilla.javascript.Context
+import org.mozilla.javascript.ScriptRuntime
+
+/**
+ * Per-context state of interruption checks, which are performed each time Rhino observes the instruction count.
+ *
+ * With an adaptive [Strategy], the observation threshold is doubled when observations come more often than
+ * the target interval (tight loops pay less callback overhead), and halved when they come less often
+ * (slow instructions such as Java calls still notice an interruption in time).
+ * Once a stop is requested by [requestStop], the threshold is lowered to [Strategy.pendingStopThreshold]
+ * at once, so that the script notices the interruption within a few instructions.
+ *
+ * An optional CPU time budget may be set by [cpuTimeBudgetMillis]. When the script thread exceeds it,
+ * a catchable `TimeoutError` is thrown once, and if the script keeps running for another [CPU_TIME_GRACE_MILLIS]
+ * of CPU time, it is interrupted like being stopped.
+ *
+ * zh-CN:
+ *
+ * 上下文级的中断检查状态, 中断检查在 Rhino 每次观测指令计数时执行.
+ *
+ * 使用自适应的 [Strategy] 时, 若观测频率高于目标间隔, 观测阈值将加倍 (紧凑循环的回调开销更低),
+ * 若观测频率低于目标间隔, 阈值将减半 (Java 调用等耗时指令仍能及时察觉中断).
+ * 一旦通过 [requestStop] 请求停止, 阈值将立即降至 [Strategy.pendingStopThreshold], 使脚本在少量指令内察觉中断.
+ *
+ * 可通过 [cpuTimeBudgetMillis] 设置可选的 CPU 时间预算. 脚本线程超出预算时, 将抛出一次可捕获的 `TimeoutError`,
+ * 若脚本继续运行超过 [CPU_TIME_GRACE_MILLIS] 的 CPU 时间, 则与停止时一样被中断.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+class InterruptChecker @JvmOverloads constructor(strategy: Strategy, private val clock: Clock = SYSTEM_CLOCK) {
+
+    /**
+     * Time sources of the checks, which may be replaced in tests.
+     *
+     * zh-CN: 检查所用的时间源, 可在测试中替换.
+     */
+    interface Clock {
+        fun nanoTime(): Long
+        fun threadCpuTimeMillis(): Long
+    }
+
+    /**
+     * @param threshold Initial instruction observation threshold.
+     * @param minThreshold Lower bound of the adaptive threshold.
+     * @param maxThreshold Upper bound of the adaptive threshold.
+     * @param targetIntervalNanos Target interval between two observations, or 0 for a fixed [threshold].
+     * @param pendingStopThreshold Threshold used once a stop is requested.
+     *
+     * zh-CN:
+     *
+     * @param threshold 初始指令观测阈值.
+     * @param minThreshold 自适应阈值的下限.
+     * @param maxThreshold 自适应阈值的上限.
+     * @param targetIntervalNanos 两次观测间的目标间隔, 为 0 时使用固定的 [threshold].
+     * @param pendingStopThreshold 请求停止后使用的阈值.
+     */
+    data class Strategy @JvmOverloads constructor(
+        val threshold: Int = DEFAULT_THRESHOLD,
+        val minThreshold: Int = DEFAULT_MIN_THRESHOLD,
+        val maxThreshold: Int = DEFAULT_MAX_THRESHOLD,
+        val targetIntervalNanos: Long = DEFAULT_TARGET_INTERVAL_NANOS,
+        val pendingStopThreshold: Int = DEFAULT_PENDING_STOP_THRESHOLD,
+    ) {
+        init {
+            require(minThreshold in 1..maxThreshold) { "Invalid threshold range: [$minThreshold, $maxThreshold]" }
+            require(threshold > 0 && pendingStopThreshold > 0) { "Thresholds must be positive" }
+        }
+
+        val isAdaptive get() = targetIntervalNanos > 0
+    }
+
+    @Volatile
+    var strategy = strategy
+        private set
+
+    @Volatile
+    var isStopPending = false
+        private set
+
+    /**
+     * CPU time budget of the script thread in milliseconds, or 0 for no budget.
+     * The budget counts from the first observation after it is set.
+     *
+     * zh-CN: 脚本线程的 CPU 时间预算 (毫秒), 为 0 时表示无预算. 预算从设置后的首次观测开始计算.
+     */
+    @Volatile
+    var cpuTimeBudgetMillis = 0L
+        set(value) {
+            field = value.coerceAtLeast(0L)
+            mCpuTimeBaseMillis = -1L
+            mIsTimeoutThrown = false
+        }
+
+    @Volatile
+    private var mCpuTimeBaseMillis = -1L
+    private var mIsTimeoutThrown = false
+    private var mLastObservedNanos = 0L
+
+    fun install(cx: Context, strategy: Strategy) {
+        this.strategy = strategy
+        mLastObservedNanos = 0L
+        cx.instructionObserverThreshold = if (isStopPending) strategy.pendingStopThreshold else strategy.threshold
+    }
+
+    /**
+     * Request the script running on [cx] to stop, which may be called from any thread before interrupting the script thread.
+     *
+     * zh-CN: 请求运行于 [cx] 的脚本停止, 可在中断脚本线程之前于任意线程调用.
+     */
+    fun requestStop(cx: Context) {
+        isStopPending = true
+        // @Hint by agent on Oct 19, 2026.
+        //  ! The threshold of a context is a plain field owned by the script thread, so this write from another thread
+        //  ! may be seen late, or be overwritten by an adaptation that read isStopPending just before it was set.
+        //  ! Neither affects correctness: isStopPending is volatile and written first, and observe() applies
+        //  ! the pending stop threshold again on the script thread, so it holds from the next observation on at the latest.
+        //  ! zh-CN:
+        //  ! 上下文的阈值是由脚本线程持有的普通字段, 因此其他线程的此次写入可能延迟可见,
+        //  ! 或被恰好在 isStopPending 设置前读取它的自适应调整覆盖.
+        //  ! 两者均不影响正确性: isStopPending 为 volatile 且先于阈值写入, 并且 observe() 会在脚本线程上再次应用停止阈值,
+        //  ! 因此该阈值最迟从下一次观测起生效.
+        cx.instructionObserverThreshold = strategy.pendingStopThreshold
+    }
+
+    fun observe(cx: Context) {
+        if (Thread.currentThread().isInterrupted && isBackgroundThread()) {
+            throw ScriptInterruptedException()
+        }
+        if (cpuTimeBudgetMillis > 0) {
+            checkCpuTime()
+        }
+        if (isStopPending) {
+            cx.instructionObserverThreshold = strategy.pendingStopThreshold
+        } else if (strategy.isAdaptive) {
+            adapt(cx)
+        }
+    }
+
+    private fun adapt(cx: Context) {
+        val now = clock.nanoTime()
+        val elapsed = now - mLastObservedNanos
+        val isFirstObservation = mLastObservedNanos == 0L
+        mLastObservedNanos = now
+        if (isFirstObservation) return
+
+        val strategy = strategy
+        val threshold = cx.instructionObserverThreshold
+        when {
+            elapsed < strategy.targetIntervalNanos / 2 && threshold < strategy.maxThreshold -> {
+                cx.instructionObserverThreshold = (threshold.toLong() * 2).coerceAtMost(strategy.maxThreshold.toLong()).toInt()
+            }
+            elapsed > strategy.targetIntervalNanos * 2 && threshold > strategy.minThreshold -> {
+                cx.instructionObserverThreshold = (threshold / 2).coerceAtLeast(strategy.minThreshold)
+            }
+        }
+    }
+
+    private fun checkCpuTime() {
+        val now = clock.threadCpuTimeMillis()
+        if (mCpuTimeBaseMillis < 0) {
+            mCpuTimeBaseMillis = now
+            return
+        }
+        val used = now - mCpuTimeBaseMillis
+        val budget = cpuTimeBudgetMillis
+        if (used <= budget) return
+        if (!mIsTimeoutThrown) {
+            mIsTimeoutThrown = true
+            throw ScriptRuntime.constructError("TimeoutError", "CPU time budget of $budget ms exceeded ($used ms used)")
+        }
+        if (used > budget + CPU_TIME_GRACE_MILLIS) {
+            throw ScriptInterruptedException()
+        }
+    }
+
+    companion object {
+
+        const val DEFAULT_THRESHOLD = 10000
+        const val DEFAULT_MIN_THRESHOLD = 1000
+        const val DEFAULT_MAX_THRESHOLD = 1_000_000
+        const val DEFAULT_TARGET_INTERVAL_NANOS = 5_000_000L
+        const val DEFAULT_PENDING_STOP_THRESHOLD = 100
+
+        const val CPU_TIME_GRACE_MILLIS = 1000L
+
+        /**
+         * The behavior before adaptive checks were introduced, which observes every 10000 instructions.
+         *
+         * zh-CN: 引入自适应检查之前的行为, 即每 10000 条指令观测一次.
+         */
+        @JvmField
+        val FIXED_STRATEGY = Strategy(targetIntervalNanos = 0L)
+
+        @JvmField
+        val ADAPTIVE_STRATEGY = Strategy()
+
+        /**
+         * Monotonic time of [System.nanoTime] and thread CPU time of [SystemClock.currentThreadTimeMillis].
+         *
+         * zh-CN: 由 [System.nanoTime] 提供的单调时间及由 [SystemClock.currentThreadTimeMillis] 提供的线程 CPU 时间.
+         */
+        @JvmField
+        val SYSTEM_CLOCK = object : Clock {
+            override fun nanoTime() = System.nanoTime()
+            override fun threadCpuTimeMillis() = SystemClock.currentThreadTimeMillis()
+        }
+
+    }
+
+}
@@ -9,11 +9,16 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.autojs.autojs.util.RhinoUtils.isBackgroundThread;
 
+/**
+ * Modified by agent as of Oct 19, 2026.
+ */
 public class InterruptibleAndroidContextFactory extends AndroidContextFactory {
 
     private final AtomicInteger mContextCount = new AtomicInteger();
     private static final String LOG_TAG = "ContextFactory";
 
+    private static volatile InterruptChecker.Strategy sInterruptCheckStrategy = InterruptChecker.ADAPTIVE_STRATEGY;
+
     /**
      * Create a new factory. It will cache generated code in the given directory
      *
@@ -23,17 +28,33 @@ public class InterruptibleAndroidContextFactory extends AndroidContextFactory {
         super(cacheDirectory);
     }
 
+    /**
+     * Strategy of interruption checks applied to contexts created afterwards,
+     * use {@link InterruptChecker#FIXED_STRATEGY} for the former fixed threshold of 10000 instructions.
+     *
+     * <p>zh-CN: 应用于此后创建的上下文的中断检查策略, 使用 {@link InterruptChecker#FIXED_STRATEGY} 可恢复此前固定为 10000 条指令的阈值.</p>
+     */
+    public static InterruptChecker.Strategy getInterruptCheckStrategy() {
+        return sInterruptCheckStrategy;
+    }
+
+    public static void setInterruptCheckStrategy(InterruptChecker.Strategy strategy) {
+        sInterruptCheckStrategy = strategy;
+    }
+
     @Override
     protected void observeInstructionCount(Context cx, int instructionCount) {
-        if (Thread.currentThread().isInterrupted() && isBackgroundThread()) {
+        if (cx instanceof AutoJsContext autoJsContext) {
+            autoJsContext.getInterruptChecker().observe(cx);
+        } else if (Thread.currentThread().isInterrupted() && isBackgroundThread()) {
             throw new ScriptInterruptedException();
         }
     }
 
     @Override
     protected Context makeContext() {
-        Context cx = new AutoJsContext(this);
-        cx.setInstructionObserverThreshold(10000);
+        AutoJsContext cx = new AutoJsContext(this);
+        cx.getInterruptChecker().install(cx, sInterruptCheckStrategy);
         return cx;
     }
 
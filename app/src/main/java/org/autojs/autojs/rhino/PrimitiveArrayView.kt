@@ -0,0 +1,103 @@
+package org.autojs.autojs.rhino
+
+import org.mozilla.javascript.Context
+import org.mozilla.javascript.ScriptRuntime
+import org.mozilla.javascript.Scriptable
+import org.mozilla.javascript.ScriptableObject
+import org.mozilla.javascript.Wrapper
+
+/**
+ * Array-like view of a primitive Java array (`int[]`, `double[]` and so on) without copying its elements.
+ *
+ * Elements are read from and written to the backing array on access, with values coerced to its component type.
+ * The prototype is `Array.prototype` of the given scope, so generic array methods such as
+ * `forEach`, `map`, `indexOf` and `sort` work on the view, while the length is fixed,
+ * as methods changing the length (`push`, `splice` and so on) cannot resize a Java array.
+ *
+ * zh-CN:
+ *
+ * 原始类型 Java 数组 (`int[]`, `double[]` 等) 的类数组视图, 不复制其元素.
+ *
+ * 元素在访问时直接读写底层数组, 写入值将被转换为数组的元素类型.
+ * 原型为指定作用域的 `Array.prototype`, 因此 `forEach`, `map`, `indexOf`, `sort` 等通用数组方法可作用于此视图,
+ * 但长度是固定的, 因为改变长度的方法 (`push`, `splice` 等) 无法调整 Java 数组的大小.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+class PrimitiveArrayView(private val array: Any, scope: Scriptable) : ScriptableObject(scope, getArrayPrototype(scope)), Wrapper {
+
+    private val mLength = java.lang.reflect.Array.getLength(array)
+
+    init {
+        require(isPrimitiveArray(array)) { "Argument array must be a primitive Java array instead of ${array.javaClass.name}" }
+    }
+
+    override fun getClassName() = "PrimitiveArrayView"
+
+    override fun unwrap() = array
+
+    override fun get(index: Int, start: Scriptable?): Any? = when {
+        index !in 0 until mLength -> super.get(index, start)
+        else -> when (array) {
+            is IntArray -> array[index]
+            is DoubleArray -> array[index]
+            is LongArray -> array[index].toDouble()
+            is FloatArray -> array[index].toDouble()
+            is ShortArray -> array[index].toInt()
+            is ByteArray -> array[index].toInt()
+            is CharArray -> array[index].toString()
+            is BooleanArray -> array[index]
+            else -> NOT_FOUND
+        }
+    }
+
+    override fun has(index: Int, start: Scriptable?) = index in 0 until mLength || super.has(index, start)
+
+    override fun put(index: Int, start: Scriptable?, value: Any?) {
+        if (index !in 0 until mLength) return
+        when (array) {
+            is IntArray -> array[index] = ScriptRuntime.toInt32(value)
+            is DoubleArray -> array[index] = Context.toNumber(value)
+            is LongArray -> array[index] = Context.toNumber(value).toLong()
+            is FloatArray -> array[index] = Context.toNumber(value).toFloat()
+            is ShortArray -> array[index] = ScriptRuntime.toInt32(value).toShort()
+            is ByteArray -> array[index] = ScriptRuntime.toInt32(value).toByte()
+            is CharArray -> array[index] = Context.jsToJava(value, Char::class.javaPrimitiveType) as Char
+            is BooleanArray -> array[index] = Context.toBoolean(value)
+        }
+    }
+
+    override fun delete(index: Int) {
+        if (index !in 0 until mLength) super.delete(index)
+    }
+
+    override fun get(name: String?, start: Scriptable?): Any? = when (name) {
+        "length" -> mLength
+        else -> super.get(name, start)
+    }
+
+    override fun has(name: String?, start: Scriptable?) = name == "length" || super.has(name, start)
+
+    override fun put(name: String?, start: Scriptable?, value: Any?) {
+        // @Hint by agent on Oct 19, 2026.
+        //  ! The length of a Java array is fixed, so assignments to it are ignored, like those to a sealed array.
+        //  ! zh-CN: Java 数组的长度是固定的, 因此对其赋值将被忽略, 与密封数组的行为一致.
+        if (name != "length") super.put(name, start, value)
+    }
+
+    override fun getIds(): Array<Any> = Array<Any>(mLength) { it } + super.getIds()
+
+    override fun getDefaultValue(typeHint: Class<*>?): Any = when (typeHint) {
+        ScriptRuntime.BooleanClass -> true
+        ScriptRuntime.NumberClass -> ScriptRuntime.NaNobj
+        else -> (0 until mLength).joinToString(",") { ScriptRuntime.toString(get(it, this)) }
+    }
+
+    companion object {
+
+        @JvmStatic
+        fun isPrimitiveArray(o: Any?) = o?.javaClass?.componentType?.isPrimitive == true
+
+    }
+
+}
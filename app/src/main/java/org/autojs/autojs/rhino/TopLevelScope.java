@@ -1,7 +1,130 @@
 package org.autojs.autojs.rhino;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.mozilla.javascript.ClassCache;
+import org.mozilla.javascript.Context;
 import org.mozilla.javascript.ImporterTopLevel;
+import org.mozilla.javascript.JavaAdapter;
+import org.mozilla.javascript.NativeJavaPackage;
+import org.mozilla.javascript.NativeJavaTopPackage;
+import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
+import org.mozilla.javascript.TopLevel;
 
+/**
+ * Modified by agent as of Oct 19, 2026.
+ */
 public class TopLevelScope extends ImporterTopLevel {
-    /* Empty body. */
+
+    @Nullable
+    private final ScriptableObject mSharedScope;
+
+    public TopLevelScope() {
+        mSharedScope = null;
+    }
+
+    /**
+     * Creates a lightweight per-script scope over a sealed scope created by {@link #createSharedScope(Context)},
+     * which is the end of the prototype chain of this scope, and looked up right after the own properties,
+     * so that standard objects are neither re-initialized for each script nor shadowed by later prototypes.
+     *
+     * <p>zh-CN: 在由 {@link #createSharedScope(Context)} 创建的密封作用域之上创建轻量的脚本作用域.
+     * 共享作用域位于此作用域原型链的末端, 且紧随自有属性之后被查找,
+     * 因此标准对象无需为每个脚本重新初始化, 也不会被后续设置的原型遮蔽.</p>
+     */
+    public TopLevelScope(@NonNull Context cx, @NonNull ScriptableObject sharedScope) {
+        mSharedScope = sharedScope;
+        super.setPrototype(sharedScope);
+
+        // @Hint by agent on Oct 19, 2026.
+        //  ! importClass() and importPackage() are bound to this scope rather than the shared one.
+        //  ! Java members hold references to the scope they were looked up from, so they are cached per script,
+        //  ! and so are the Java packages (Packages, java, android...) and JavaAdapter they are reached through,
+        //  ! which would otherwise resolve the class cache of the shared scope.
+        //  ! zh-CN: importClass() 及 importPackage() 绑定至此作用域而非共享作用域.
+        //  ! Java 成员持有其被查找时所在作用域的引用, 因此按脚本缓存,
+        //  ! 访问它们所经由的 Java 包 (Packages, java, android 等) 及 JavaAdapter 亦按脚本定义, 否则将解析到共享作用域的类缓存.
+        exportAsJSClass(importerMaxPrototypeId(), this, false);
+        delete("constructor");
+        new ClassCache().associate(this);
+        NativeJavaTopPackage.init(cx, this, false);
+        JavaAdapter.init(cx, this, false);
+        cacheBuiltins(this, false);
+    }
+
+    /**
+     * The largest prototype id of {@link ImporterTopLevel}, derived from its own id lookup rather than copied from Rhino.
+     *
+     * <p>zh-CN: {@link ImporterTopLevel} 的最大原型 id, 由其自身的 id 查找得出, 而非照抄 Rhino 中的常量.</p>
+     */
+    private int importerMaxPrototypeId() {
+        int max = 0;
+        for (String name : new String[]{"constructor", "importClass", "importPackage"}) {
+            max = Math.max(max, findPrototypeId(name));
+        }
+        return max;
+    }
+
+    public boolean isSharingStandardObjects() {
+        return mSharedScope != null;
+    }
+
+    @Override
+    public Object get(String name, Scriptable start) {
+        Object value = super.get(name, start);
+        if (value == NOT_FOUND && mSharedScope != null) {
+            return mSharedScope.get(name, start);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean has(String name, Scriptable start) {
+        // Assignments to standard object names then land on this scope instead of the sealed shared one.
+        // zh-CN: 对标准对象名称的赋值因此落在此作用域上, 而非密封的共享作用域.
+        return super.has(name, start) || mSharedScope != null && mSharedScope.has(name, start);
+    }
+
+    @Override
+    public void setPrototype(Scriptable prototype) {
+        if (mSharedScope != null && prototype != null && prototype != mSharedScope) {
+            Scriptable tail = prototype;
+            while (tail.getPrototype() != null && tail.getPrototype() != mSharedScope) {
+                tail = tail.getPrototype();
+            }
+            tail.setPrototype(mSharedScope);
+        }
+        super.setPrototype(prototype == null ? mSharedScope : prototype);
+    }
+
+    /**
+     * Creates a scope with all standard objects initialized, lazily loaded constructors resolved,
+     * and the scope itself as well as every built-in constructor and prototype sealed,
+     * so that it can be safely shared by scripts running on different threads.
+     *
+     * <p>zh-CN: 创建一个作用域, 其中所有标准对象均已初始化, 延迟加载的构造器均已解析,
+     * 且作用域本身及所有内置构造器与原型均已密封, 因此可被运行于不同线程的脚本安全共享.</p>
+     */
+    @NonNull
+    public static ScriptableObject createSharedScope(@NonNull Context cx) {
+        TopLevel shared = new TopLevel();
+        cx.initStandardObjects(shared, true);
+        for (Object id : shared.getAllIds()) {
+            if (!(id instanceof String name)) continue;
+            Object value = ScriptableObject.getProperty(shared, name);
+            // Java packages create their sub-packages on demand, so they are synchronized rather than sealed.
+            // zh-CN: Java 包按需创建子包, 因此它们采用同步机制而非密封.
+            if (value instanceof ScriptableObject builtin && !(value instanceof NativeJavaPackage)) {
+                builtin.sealObject();
+                if (ScriptableObject.getProperty(builtin, "prototype") instanceof ScriptableObject prototype) {
+                    prototype.sealObject();
+                }
+            }
+        }
+        shared.sealObject();
+        return shared;
+    }
+
 }
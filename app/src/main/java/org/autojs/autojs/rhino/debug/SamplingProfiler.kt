@@ -0,0 +1,360 @@
+package org.autojs.autojs.rhino.debug
+
+import org.json.JSONArray
+import org.json.JSONObject
+import org.mozilla.javascript.Context
+import org.mozilla.javascript.Scriptable
+import org.mozilla.javascript.debug.DebugFrame
+import org.mozilla.javascript.debug.DebuggableScript
+import java.io.File
+import java.util.IdentityHashMap
+import java.util.concurrent.locks.LockSupport
+
+/**
+ * Sampling profiler of the Rhino interpreter, which periodically captures the script stack
+ * (function name, source and line) of a script thread and aggregates the samples into a call tree.
+ *
+ * The script thread keeps a shadow stack through a minimal [org.mozilla.javascript.debug.Debugger],
+ * which costs a frame lookup, a push and a pop for each call and a field write for each line, with no locks on that thread.
+ * However, Rhino gives every interpreted call an activation object ([org.mozilla.javascript.NativeCall]) while a debugger is attached,
+ * so each call also allocates one object, and small functions called in hot loops run noticeably slower than without profiling,
+ * which makes their share of the profile larger than it would otherwise be.
+ * A separate sampler thread reads the shadow stack at [intervalMicros] intervals, so the profiling cost
+ * does not grow with the sampling rate on the script thread. Unlike [Dim], it never suspends the script.
+ * The profiler needs no notice of compilation, so cached compiled scripts and modules are still used while profiling,
+ * see [isCompilationObserved].
+ *
+ * Only interpreted code is observed, so scripts executed in compiled mode appear as the frame calling them.
+ * A profile may be exported as folded stacks (for flame graph tools) or in the `.cpuprofile` format of Chrome DevTools.
+ *
+ * zh-CN:
+ *
+ * Rhino 解释器的采样分析器, 定期捕获脚本线程的脚本调用栈 (函数名, 源及行号) 并将样本聚合为调用树.
+ *
+ * 脚本线程通过一个最简的 [org.mozilla.javascript.debug.Debugger] 维护影子调用栈,
+ * 每次调用需一次帧查找及一次入栈与出栈, 每行需一次字段写入, 且在该线程上无锁.
+ * 但附加调试器时, Rhino 会为每次解释执行的调用创建活动对象 ([org.mozilla.javascript.NativeCall]),
+ * 因此每次调用还会分配一个对象, 在热循环中调用的小函数将明显慢于未分析时, 其在分析结果中的占比也会相应偏大.
+ * 独立的采样线程以 [intervalMicros] 为间隔读取影子调用栈, 因此脚本线程上的分析开销不随采样频率增长. 与 [Dim] 不同, 它从不挂起脚本.
+ * 分析器无需获得编译通知, 因此分析期间仍使用已缓存的编译脚本及模块, 参阅 [isCompilationObserved].
+ *
+ * 仅解释执行的代码可被观测, 因此以编译模式执行的脚本将显示为调用它的帧.
+ * 分析结果可导出为折叠栈 (供火焰图工具使用) 或 Chrome DevTools 的 `.cpuprofile` 格式.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+class SamplingProfiler @JvmOverloads constructor(
+    val intervalMicros: Long = DEFAULT_INTERVAL_MICROS,
+    val maxDepth: Int = DEFAULT_MAX_DEPTH,
+) {
+
+    /**
+     * A function or a top-level script, identified by its source name and first line.
+     *
+     * zh-CN: 函数或顶层脚本, 以源名称及首行标识.
+     */
+    data class CallFrame(val name: String, val sourceName: String, val line: Int) {
+        override fun toString() = "$name ($sourceName:$line)"
+    }
+
+    class Node internal constructor(val id: Int, val function: CallFrame, val parent: Node?) {
+
+        val children = LinkedHashMap<CallFrame, Node>()
+
+        /**
+         * Samples taken while this node was on the top of the stack.
+         *
+         * zh-CN: 此节点位于栈顶时采集的样本数.
+         */
+        var selfSamples = 0
+            internal set
+
+        /**
+         * Self samples by line.
+         *
+         * zh-CN: 按行统计的自身样本数.
+         */
+        val lineSamples = LinkedHashMap<Int, Int>()
+
+        val totalSamples: Int get() = selfSamples + children.values.sumOf { it.totalSamples }
+
+    }
+
+    class Profile internal constructor(
+        val root: Node,
+        val startNanos: Long,
+        val endNanos: Long,
+        private val mSampleNodes: IntArray,
+        private val mSampleNanos: LongArray,
+        private val mNodes: List<Node>,
+    ) {
+
+        val sampleCount get() = mSampleNodes.size
+
+        /**
+         * Self samples of each function summed over all its nodes, in descending order.
+         *
+         * zh-CN: 各函数在其所有节点上的自身样本数之和, 按降序排列.
+         */
+        fun selfSamplesByFunction(): List<Pair<CallFrame, Int>> {
+            val result = LinkedHashMap<CallFrame, Int>()
+            mNodes.forEach { if (it.selfSamples > 0) result.merge(it.function, it.selfSamples, Int::plus) }
+            return result.toList().sortedByDescending { it.second }
+        }
+
+        /**
+         * Folded stacks, one line per distinct stack, such as `(root);main (main.js:1);fib (main.js:3) 42`.
+         *
+         * zh-CN: 折叠栈, 每个不同的调用栈占一行, 如 `(root);main (main.js:1);fib (main.js:3) 42`.
+         */
+        fun toFoldedStacks(): String {
+            val sb = StringBuilder()
+            fun visit(node: Node, path: String) {
+                val current = if (path.isEmpty()) "${node.function}" else "$path;${node.function}"
+                if (node.selfSamples > 0) sb.append(current).append(' ').append(node.selfSamples).append('\n')
+                node.children.values.forEach { visit(it, current) }
+            }
+            visit(root, "")
+            return sb.toString()
+        }
+
+        /**
+         * The profile in the `.cpuprofile` JSON format, which may be loaded by Chrome DevTools and compatible viewers.
+         *
+         * zh-CN: `.cpuprofile` JSON 格式的分析结果, 可由 Chrome DevTools 及兼容的查看器加载.
+         */
+        fun toCpuProfile(): String {
+            val scriptIds = HashMap<String, Int>()
+            val nodes = JSONArray()
+            mNodes.forEach { node ->
+                val function = node.function
+                nodes.put(JSONObject().apply {
+                    put("id", node.id)
+                    put("callFrame", JSONObject().apply {
+                        put("functionName", function.name)
+                        put("scriptId", scriptIds.getOrPut(function.sourceName) { scriptIds.size + 1 }.toString())
+                        put("url", function.sourceName)
+                        put("lineNumber", (function.line - 1).coerceAtLeast(0))
+                        put("columnNumber", 0)
+                    })
+                    put("hitCount", node.selfSamples)
+                    if (node.children.isNotEmpty()) {
+                        put("children", JSONArray(node.children.values.map { it.id }))
+                    }
+                    if (node.lineSamples.isNotEmpty()) {
+                        put("positionTicks", JSONArray(node.lineSamples.map { (line, ticks) ->
+                            JSONObject().put("line", line).put("ticks", ticks)
+                        }))
+                    }
+                })
+            }
+            val timeDeltas = JSONArray()
+            var last = startNanos
+            mSampleNanos.forEach {
+                timeDeltas.put((it - last) / 1000)
+                last = it
+            }
+            return JSONObject().apply {
+                put("nodes", nodes)
+                put("startTime", startNanos / 1000)
+                put("endTime", endNanos / 1000)
+                put("samples", JSONArray(mSampleNodes.toList()))
+                put("timeDeltas", timeDeltas)
+            }.toString()
+        }
+
+        fun writeFoldedStacks(file: File) = file.writeText(toFoldedStacks())
+
+        fun writeCpuProfile(file: File) = file.writeText(toCpuProfile())
+
+    }
+
+    // Shadow stack, written by the script thread only and read by the sampler thread.
+    // zh-CN: 影子调用栈, 仅由脚本线程写入, 由采样线程读取.
+    private val mStackFunctions = arrayOfNulls<CallFrame>(maxDepth)
+    private val mStackLines = IntArray(maxDepth)
+
+    @Volatile
+    private var mDepth = 0
+
+    // Calls deeper than maxDepth, which are counted but not recorded.
+    // zh-CN: 深于 maxDepth 的调用, 仅计数而不记录.
+    private var mOverflow = 0
+
+    private var mContext: Context? = null
+    private var mSampler: Thread? = null
+
+    @Volatile
+    private var mIsSampling = false
+
+    private val mRoot = Node(0, ROOT, null)
+    private val mNodes = arrayListOf(mRoot)
+    private var mSampleNodes = IntArray(1024)
+    private var mSampleNanos = LongArray(1024)
+    private var mSampleCount = 0
+    private var mStartNanos = 0L
+
+    val isRunning get() = mIsSampling
+
+    /**
+     * Start profiling the scripts running on [cx], which must be called on the thread of [cx].
+     * Functions already running when profiling starts are missing from the sampled stacks, while the functions they call are not.
+     *
+     * zh-CN: 开始分析运行于 [cx] 的脚本, 必须在 [cx] 所在线程上调用. 分析开始时已在运行的函数不会出现在采样的调用栈中, 但其调用的函数会出现.
+     */
+    @JvmOverloads
+    fun start(cx: Context = Context.getCurrentContext() ?: throw IllegalStateException("No context associated with current thread")) {
+        check(mContext == null) { "Profiler has already been started" }
+        check(cx.debugger == null) { "Another debugger is attached to the context" }
+        mContext = cx
+        cx.setDebugger(ShadowStackDebugger(), null)
+        mStartNanos = System.nanoTime()
+        mIsSampling = true
+        mSampler = Thread(::sample, "SamplingProfiler").apply {
+            isDaemon = true
+            priority = Thread.MAX_PRIORITY
+            start()
+        }
+    }
+
+    /**
+     * Stop profiling and return the profile, which may be called from any thread. A profiler runs only once.
+     *
+     * zh-CN: 停止分析并返回分析结果, 可在任意线程上调用. 分析器仅可运行一次.
+     */
+    fun stop(): Profile {
+        val cx = checkNotNull(mContext) { "Profiler has not been started" }
+        mIsSampling = false
+        mSampler?.let {
+            LockSupport.unpark(it)
+            it.join()
+        }
+        // @Hint by agent on Oct 19, 2026.
+        //  ! Frames created before detaching keep reporting to the shadow stack, which no longer affects the profile.
+        //  ! zh-CN: 分离前创建的帧仍会向影子调用栈报告, 但已不再影响分析结果.
+        if (cx.debugger is ShadowStackDebugger) cx.setDebugger(null, null)
+        return Profile(
+            mRoot, mStartNanos, System.nanoTime(),
+            mSampleNodes.copyOf(mSampleCount), mSampleNanos.copyOf(mSampleCount), mNodes.toList(),
+        )
+    }
+
+    private fun sample() {
+        val intervalNanos = intervalMicros * 1000
+        val functions = arrayOfNulls<CallFrame>(maxDepth)
+        val lines = IntArray(maxDepth)
+        while (mIsSampling) {
+            LockSupport.parkNanos(intervalNanos)
+            if (!mIsSampling) break
+            val depth = mDepth.coerceIn(0, maxDepth)
+            System.arraycopy(mStackFunctions, 0, functions, 0, depth)
+            System.arraycopy(mStackLines, 0, lines, 0, depth)
+            record(functions, lines, depth, System.nanoTime())
+        }
+    }
+
+    private fun record(functions: Array<CallFrame?>, lines: IntArray, depth: Int, nanos: Long) {
+        var node = mRoot
+        if (depth == 0) {
+            node = child(node, IDLE)
+        }
+        for (i in 0 until depth) {
+            // A slot may be torn by a concurrent push, in which case the sample is truncated there.
+            // zh-CN: 某个槽位可能因并发入栈而处于不一致状态, 此时样本在该处截断.
+            node = child(node, functions[i] ?: break)
+        }
+        node.selfSamples += 1
+        if (depth > 0) node.lineSamples.merge(lines[depth - 1], 1, Int::plus)
+        if (mSampleCount == mSampleNodes.size) {
+            mSampleNodes = mSampleNodes.copyOf(mSampleCount * 2)
+            mSampleNanos = mSampleNanos.copyOf(mSampleCount * 2)
+        }
+        mSampleNodes[mSampleCount] = node.id
+        mSampleNanos[mSampleCount] = nanos
+        mSampleCount += 1
+    }
+
+    private fun child(parent: Node, function: CallFrame) = parent.children.getOrPut(function) {
+        Node(mNodes.size, function, parent).also { mNodes += it }
+    }
+
+    private inner class ShadowStackDebugger : org.mozilla.javascript.debug.Debugger {
+
+        private val mFrames = IdentityHashMap<DebuggableScript, ShadowFrame>()
+
+        override fun handleCompilationDone(cx: Context, fnOrScript: DebuggableScript, source: String?) = Unit
+
+        override fun getFrame(cx: Context, fnOrScript: DebuggableScript): DebugFrame {
+            return mFrames.getOrPut(fnOrScript) { ShadowFrame(functionOf(fnOrScript)) }
+        }
+
+    }
+
+    // One frame object per function, as the state of each call lives on the shadow stack.
+    // zh-CN: 每个函数仅一个帧对象, 因为每次调用的状态保存在影子调用栈上.
+    private inner class ShadowFrame(private val function: CallFrame) : DebugFrame {
+
+        override fun onEnter(cx: Context, activation: Scriptable?, thisObj: Scriptable?, args: Array<out Any?>?) {
+            val depth = mDepth
+            if (depth >= maxDepth || mOverflow > 0) {
+                mOverflow += 1
+                return
+            }
+            mStackFunctions[depth] = function
+            mStackLines[depth] = function.line
+            mDepth = depth + 1
+        }
+
+        override fun onLineChange(cx: Context, lineNumber: Int) {
+            if (mOverflow > 0) return
+            val depth = mDepth
+            if (depth > 0) mStackLines[depth - 1] = lineNumber
+        }
+
+        override fun onExit(cx: Context, byThrow: Boolean, resultOrException: Any?) {
+            if (mOverflow > 0) {
+                mOverflow -= 1
+                return
+            }
+            if (mDepth > 0) mDepth -= 1
+        }
+
+        override fun onExceptionThrown(cx: Context, ex: Throwable?) = Unit
+
+        override fun onDebuggerStatement(cx: Context) = Unit
+
+    }
+
+    companion object {
+
+        const val DEFAULT_INTERVAL_MICROS = 1000L
+        const val DEFAULT_MAX_DEPTH = 256
+
+        private val ROOT = CallFrame("(root)", "", 0)
+        private val IDLE = CallFrame("(idle)", "", 0)
+
+        /**
+         * Whether the debugger attached to [cx] needs to be notified when scripts are compiled, such as one setting breakpoints,
+         * in which case scripts must be compiled instead of being taken from caches.
+         * The debugger of a profiler observes execution only.
+         *
+         * zh-CN:
+         *
+         * 附加于 [cx] 的调试器 (如设置断点的调试器) 是否需要在脚本编译时获得通知, 若需要, 则脚本必须编译而非从缓存中获取.
+         * 分析器的调试器仅观测执行过程.
+         */
+        @JvmStatic
+        fun isCompilationObserved(cx: Context) = cx.debugger.let { it != null && it !is ShadowStackDebugger }
+
+        private fun functionOf(fnOrScript: DebuggableScript): CallFrame {
+            val name = when {
+                !fnOrScript.isFunction -> "(top level)"
+                else -> fnOrScript.functionName?.takeUnless { it.isEmpty() } ?: "(anonymous)"
+            }
+            val line = fnOrScript.lineNumbers?.minOrNull() ?: 0
+            return CallFrame(name, fnOrScript.sourceName ?: "", line)
+        }
+
+    }
+
+}
@@ -2,6 +2,7 @@ package org.autojs.autojs.runtime
 
 import org.mozilla.javascript.BaseFunction
 import org.mozilla.javascript.NativeArray
+import org.mozilla.javascript.Scriptable
 
 interface IScriptBridges {
 
@@ -11,6 +12,8 @@ interface IScriptBridges {
 
     fun asArray(listLike: Any): NativeArray
 
+    fun asArrayView(array: Any): Scriptable
+
     fun toString(obj: Any?): String
 
     fun toPrimitive(obj: Any?): Any
@@ -3,7 +3,9 @@ package org.autojs.autojs.runtime
 import org.autojs.autojs.core.automator.UiObjectCollection
 import org.autojs.autojs.engine.RhinoJavaScriptEngine
 import org.autojs.autojs.util.RhinoUtils.callFunction
+import org.autojs.autojs.util.RhinoUtils.conversionScopeOf
 import org.autojs.autojs.util.RhinoUtils.newNativeArray
+import org.autojs.autojs.util.RhinoUtils.newPrimitiveArrayView
 import org.mozilla.javascript.BaseFunction
 import org.mozilla.javascript.BoundFunction
 import org.mozilla.javascript.Context
@@ -17,6 +19,7 @@ import org.mozilla.javascript.Undefined
  * Created by Stardust on Jul 21, 2017.
  * Modified by SuperMonster003 as of May 26, 2022.
  * Transformed by SuperMonster003 on Nov 7, 2023.
+ * Modified by agent as of Oct 19, 2026.
  *
  * @Reference to aiselp (https://github.com/aiselp) on Nov 7, 2023.
  * https://github.com/kkevsekk1/AutoX/pull/529/commits/782f1c3c12dee64d9b1ad70aba462afaf60313a4#diff-b8e544bc658140f04a7fa7171cc938032f18c92495ca25bb08e2d2eb546b70f5
@@ -39,8 +42,8 @@ class ScriptBridges : IScriptBridges {
     }
 
     override fun toArray(o: Iterable<*>?): NativeArray = useJsContext { context ->
-        val scope = context.initStandardObjects()
-        context.newArray(scope, o?.map { Context.javaToJS(it, scope) }?.toTypedArray()) as NativeArray
+        val scope = conversionScopeOf(context)
+        context.newArray(scope, o?.map { Context.javaToJS(it, scope) }?.toTypedArray() ?: emptyArray()) as NativeArray
     }
 
     override fun asArray(listLike: Any): NativeArray = useJsContext { context ->
@@ -61,10 +64,14 @@ class ScriptBridges : IScriptBridges {
         return@useJsContext newNativeArray()
     }
 
+    override fun asArrayView(array: Any): Scriptable = useJsContext { context ->
+        newPrimitiveArrayView(context, array)
+    }
+
     override fun toString(obj: Any?): String = Context.toString(obj)
 
     override fun toPrimitive(obj: Any?): Any = useJsContext { context ->
-        Context.javaToJS(obj, context.initStandardObjects())
+        Context.javaToJS(obj, conversionScopeOf(context))
     }
 
     private fun <T> useJsContext(f: (Context) -> T): T {
@@ -32,6 +32,7 @@ import org.autojs.autojs.runtime.api.ProcessShell
 import org.autojs.autojs.runtime.api.ScreenMetrics
 import org.autojs.autojs.runtime.api.ScriptToast
 import org.autojs.autojs.runtime.api.WrappedShizuku
+import org.autojs.autojs.runtime.api.augment.Augmentable.Companion.augmentLazily
 import org.autojs.autojs.runtime.api.augment.app.App
 import org.autojs.autojs.runtime.api.augment.autojs.Autojs
 import org.autojs.autojs.runtime.api.augment.automator.Auto
@@ -168,6 +169,7 @@ import org.autojs.autojs.runtime.api.augment.util.VersionCodes as UtilVersionCod
  * Created by Stardust on Jan 27, 2017.
  * Modified by SuperMonster003 as of Dec 1, 2021.
  * Created by SuperMonster003 on May 24, 2024.
+ * Modified by agent as of Oct 19, 2026.
  */
 @Suppress("unused", "PropertyName", "PrivatePropertyName")
 class ScriptRuntime private constructor(builder: Builder) {
@@ -479,8 +481,13 @@ class ScriptRuntime private constructor(builder: Builder) {
         // @OrderMatters by SuperMonster003 on Jul 24, 2024.
         //  ! "object observe" must be ahead of "array observe".
         //  ! zh-CN: "object observe" 需要先于 "array observe".
-        callFunction(this, js_object_observe_lite_min, topLevelScope, topLevelScope, arrayOf(topLevelScope))
-        callFunction(this, js_array_observe_min, topLevelScope, topLevelScope, arrayOf(topLevelScope))
+        // @Hint by agent on Oct 19, 2026.
+        //  ! Both polyfills modify the built-in Object and Array, which are sealed when standard objects are shared.
+        //  ! zh-CN: 两个垫片均会修改内置的 Object 及 Array, 而它们在共享标准对象时是密封的.
+        if (!topLevelScope.isSharingStandardObjects) {
+            callFunction(this, js_object_observe_lite_min, topLevelScope, topLevelScope, arrayOf(topLevelScope))
+            callFunction(this, js_array_observe_min, topLevelScope, topLevelScope, arrayOf(topLevelScope))
+        }
 
         if (Pref.isExtendingJsBuildInObjectsEnabled) Jsox.extendAllRhinoWithRuntime(this)
 
@@ -570,6 +577,8 @@ class ScriptRuntime private constructor(builder: Builder) {
         //  ! To clear accessibility event callbacks.
         ignoresException({ AccessibilityService.clearAccessibilityEventCallback() })
 
+        ignoresException({ automator.unwatchAllTrees() })
+
         ignoresException({ RootUtils.resetRuntimeOverriddenRootModeState() })
 
         /* 回收全部记录的 ImageWrapper 实例. */
@@ -695,6 +704,11 @@ class ScriptRuntime private constructor(builder: Builder) {
 
     private fun augment(target: ScriptableObject) {
 
+        // @Hint by agent on Oct 19, 2026.
+        //  ! Modules not needed during initialization are augmented lazily, i.e. built on first access,
+        //  ! so that a script using only a few of them does not pay for all of them at startup.
+        //  ! zh-CN: 初始化期间不需要的模块采用延迟扩充, 即在首次访问时构建, 因此仅使用少数模块的脚本无需在启动时为全部模块付出代价.
+
         Global(this).assign(target, GlobalClasses)
         GlobalLegacy(this).assign(target)
         IsNullish.augment(target, false)
@@ -717,54 +731,52 @@ class ScriptRuntime private constructor(builder: Builder) {
         Selector(this).augment(target, true, READONLY)
         Events(this).augment(target, events, true)
         Keys.augment(target, true)
-        Images(this).augment(target, true)
-        Ocr(this).augment(target, true).apply {
-            OcrMLKit(this@ScriptRuntime).augment(this, false).also { augmentedOcrMLKit = it }
-            OcrPaddle(this@ScriptRuntime).augment(this, false).also { augmentedOcrPaddle = it }
-            OcrRapid(this@ScriptRuntime).augment(this, false).also { augmentedOcrRapid = it }
-        }
-        Barcode(this).augment(target, true)
-        QrCode(this).augment(target, true)
+        augmentLazily(target) { Images(this) }
+        augmentLazily(target, onAugmented = { ocr ->
+            OcrMLKit(this).augment(ocr, false).also { augmentedOcrMLKit = it }
+            OcrPaddle(this).augment(ocr, false).also { augmentedOcrPaddle = it }
+            OcrRapid(this).augment(ocr, false).also { augmentedOcrRapid = it }
+        }) { Ocr(this) }
+        augmentLazily(target) { Barcode(this) }
+        augmentLazily(target) { QrCode(this) }
         Threads(this).augment(target, threads, true)
         UI(this).proxying(target, ui, true)
         Colors.augment(target, listOf(colors, Colors), true)
         Color.augment(target, false)
-        Tasks(this).augment(target, true)
-        Dialogs(this).augment(target, true)
+        augmentLazily(target) { Tasks(this) }
+        augmentLazily(target) { Dialogs(this) }
         Continuation(this).augment(target, js_mod_continuation, true, READONLY)
-        Http(this).augment(target, http, true)
-        Web(this).augment(target, true)
+        augmentLazily(target, http) { Http(this) }
+        augmentLazily(target) { Web(this) }
         WebSocket(this).augment(target, WebSocketFields, false)
         S13n.augment(target, true)
         Console(this).proxying(target, console, true).also { consoleProxyObject = it }
-        Plugins(this).augment(target, true)
+        augmentLazily(target) { Plugins(this) }
         Arrayx(this).augment(target, false)
         Numberx(this).augment(target, false)
         Mathx(this).augment(target, false)
         Jsox(this).augment(target, true)
         Files(this).augment(target, files, true)
-        Crypto.augment(target, CoreCrypto, true)
+        augmentLazily(target, CoreCrypto) { Crypto }
         RootAutomator(this).augment(target, false)
         Engines(this).augment(target, true)
-        Floaty(this).augment(target, true)
-        Storages.augment(target, true)
+        augmentLazily(target) { Floaty(this) }
+        augmentLazily(target) { Storages }
         Device(this).augment(target, device, true)
-        Recorder(this).augment(target, recorder, true)
+        augmentLazily(target, recorder) { Recorder(this) }
         Toast(this).augment(target, true)
-        Media.augment(target, media, true)
-        Sensors.augment(target, sensors, true)
-        Base64.augment(target, true)
-        Notice(this).augment(target, true).apply {
-            NoticeChannel(this@ScriptRuntime).augment(this, false)
-        }
-        Shizuku(this).augment(target, shizuku, true)
-        OpenCC.augment(target, true)
-        Mime(this).augment(target, mime, true)
-        SysProps(this).augment(target, true)
-        SQLite(this).augment(target, true)
-        NanoID.augment(target, true)
-        Pinyin.augment(target, true)
-        Pinyin4j.augment(target, true)
+        augmentLazily(target, media) { Media }
+        augmentLazily(target, sensors) { Sensors }
+        augmentLazily(target) { Base64 }
+        augmentLazily(target, onAugmented = { NoticeChannel(this).augment(it, false) }) { Notice(this) }
+        augmentLazily(target, shizuku) { Shizuku(this) }
+        augmentLazily(target) { OpenCC }
+        augmentLazily(target, mime) { Mime(this) }
+        augmentLazily(target) { SysProps(this) }
+        augmentLazily(target) { SQLite(this) }
+        augmentLazily(target) { NanoID }
+        augmentLazily(target) { Pinyin }
+        augmentLazily(target) { Pinyin4j }
 
         augmentedApp.defineProp(Autojs::class.java.simpleName.lowercase(), augmentedAutojs)
     }
@@ -30,6 +30,7 @@ import org.autojs.autojs.core.image.capture.ScreenCapturerForegroundService;
 import org.autojs.autojs.core.opencv.Mat;
 import org.autojs.autojs.core.opencv.OpenCVHelper;
 import org.autojs.autojs.core.pref.Language;
+import org.autojs.autojs.core.trace.Tracer;
 import org.autojs.autojs.core.ui.inflater.util.Drawables;
 import org.autojs.autojs.pio.UncheckedIOException;
 import org.autojs.autojs.runtime.ScriptRuntime;
@@ -60,6 +61,7 @@ import static org.autojs.autojs.util.StringUtils.str;
 
 /**
  * Created by Stardust on May 20, 2017.
+ * Modified by agent as of Oct 19, 2026.
  */
 @SuppressWarnings("unused")
 public class Images {
@@ -224,6 +226,16 @@ public class Images {
 
     @Nullable
     public ImageWrapper captureScreen() {
+        long traceBegin = Tracer.begin();
+        try {
+            return captureScreenInternal();
+        } finally {
+            Tracer.end("capture-screen", Tracer.CATEGORY_IMAGE, traceBegin);
+        }
+    }
+
+    @Nullable
+    private ImageWrapper captureScreenInternal() {
         synchronized (this) {
             if (mScreenCapturer == null) {
                 throw new SecurityException(mContext.getString(R.string.error_no_screen_capture_permission));
@@ -6,9 +6,11 @@ import com.google.mlkit.vision.text.TextRecognition
 import com.google.mlkit.vision.text.TextRecognizer
 import com.google.mlkit.vision.text.chinese.ChineseTextRecognizerOptions
 import org.autojs.autojs.core.image.ImageWrapper
+import org.autojs.autojs.core.trace.Tracer
 
 /**
  * Created by SuperMonster003 on Mar 18, 2023.
+ * Modified by agent as of Oct 19, 2026.
  */
 // @Reference to TonyJiangWJ/Auto.js (https://github.com/TonyJiangWJ/Auto.js) by SuperMonster003 on Mar 18, 2023.
 class OcrMLKit {
@@ -26,6 +28,10 @@ class OcrMLKit {
     }
 
     fun detect(image: ImageWrapper?): List<OcrResult> {
+        return Tracer.trace("ocr-mlkit", Tracer.CATEGORY_OCR) { detectInternal(image) }
+    }
+
+    private fun detectInternal(image: ImageWrapper?): List<OcrResult> {
         initIfNeeded()
 
         image?.takeUnless { image.isRecycled } ?: return emptyList()
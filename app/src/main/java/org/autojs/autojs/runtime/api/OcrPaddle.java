@@ -10,6 +10,7 @@ import com.baidu.paddle.lite.ocr.Predictor;
 import org.autojs.autojs.app.GlobalAppContext;
 import org.autojs.autojs.concurrent.VolatileDispose;
 import org.autojs.autojs.core.image.ImageWrapper;
+import org.autojs.autojs.core.trace.Tracer;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -18,6 +19,7 @@ import java.util.List;
 /**
  * @author TonyJiangWJ
  * @since 2023-08-06
+ * Modified by agent as of Oct 19, 2026.
  */
 public class OcrPaddle {
 
@@ -52,8 +54,13 @@ public class OcrPaddle {
             mPredictor.releaseModel();
             mPredictor.cpuThreadNum = cpuThreadNum;
         }
-        init(useSlim);
-        return mPredictor.runOcr(bitmap);
+        long traceBegin = Tracer.begin();
+        try {
+            init(useSlim);
+            return mPredictor.runOcr(bitmap);
+        } finally {
+            Tracer.end("ocr-paddle", Tracer.CATEGORY_OCR, traceBegin);
+        }
     }
 
     public List<OcrResult> detect(ImageWrapper image, int cpuThreadNum) {
@@ -5,9 +5,13 @@ import android.graphics.Rect
 import com.benjaminwan.ocrlibrary.TextBlock
 import org.autojs.autojs.AutoJs
 import org.autojs.autojs.core.image.ImageWrapper
+import org.autojs.autojs.core.trace.Tracer
 import java.util.ArrayList
 import com.benjaminwan.ocrlibrary.OcrResult as RapidOcrResult
 
+/**
+ * Modified by agent as of Oct 19, 2026.
+ */
 class OcrRapid {
 
     private val mEmptyOcrResult by lazy {
@@ -54,17 +58,19 @@ class OcrRapid {
             return mEmptyOcrResult
         }
         val emptyOutputBitmap = newEmptyOutputBitmap()
-        return AutoJs.instance.rapidOcrEngine.detect(
-            input = bitmap,
-            output = emptyOutputBitmap,
-            maxSideLen = 1024,
-            padding = 50,
-            boxScoreThresh = 0.5f,
-            boxThresh = 0.3f,
-            unClipRatio = 2.0f,
-            doAngle = false,
-            mostAngle = false,
-        )
+        return Tracer.trace("ocr-rapid", Tracer.CATEGORY_OCR) {
+            AutoJs.instance.rapidOcrEngine.detect(
+                input = bitmap,
+                output = emptyOutputBitmap,
+                maxSideLen = 1024,
+                padding = 50,
+                boxScoreThresh = 0.5f,
+                boxThresh = 0.3f,
+                unClipRatio = 2.0f,
+                doAngle = false,
+                mostAngle = false,
+            )
+        }
     }
 
     private fun newEmptyOutputBitmap() = Bitmap.createBitmap(1, 1, Bitmap.Config.ARGB_8888)
@@ -2,6 +2,7 @@ package org.autojs.autojs.runtime.api.augment
 
 import android.content.Context
 import org.autojs.autojs.app.GlobalAppContext
+import org.autojs.autojs.core.trace.Tracer
 import org.autojs.autojs.extension.AnyExtensions.isJsNullish
 import org.autojs.autojs.extension.AnyExtensions.jsBrief
 import org.autojs.autojs.extension.FlexibleArray
@@ -17,9 +18,11 @@ import org.autojs.autojs.runtime.exception.WrappedIllegalArgumentException
 import org.autojs.autojs.runtime.exception.WrappedRuntimeException
 import org.autojs.autojs.util.RhinoUtils
 import org.autojs.autojs.util.RhinoUtils.DEFAULT_CALLER
+import org.autojs.autojs.util.RhinoUtils.InternalBaseFunction
 import org.autojs.autojs.util.RhinoUtils.NOT_CONSTRUCTABLE
 import org.autojs.autojs.util.RhinoUtils.coerceString
 import org.autojs.autojs.util.RhinoUtils.newBaseFunction
+import org.autojs.autojs.util.RhinoUtils.withTimeConsuming
 import org.autojs.autojs.util.StringUtils.lowercaseFirstChar
 import org.autojs.autojs6.R
 import org.mozilla.javascript.NativeJavaClass
@@ -31,9 +34,11 @@ import org.mozilla.javascript.ScriptableObject.READONLY
 import org.mozilla.javascript.ScriptableObject.UNINITIALIZED_CONST
 import org.mozilla.javascript.WrappedException
 import java.lang.reflect.InvocationTargetException
+import java.util.concurrent.ConcurrentHashMap
 import java.util.function.Consumer
 import java.util.function.Supplier
 import kotlin.reflect.KClass
+import org.mozilla.javascript.Context as RhinoContext
 import org.mozilla.javascript.ScriptRuntime as RhinoScriptRuntime
 
 /**
@@ -56,6 +61,7 @@ import org.mozilla.javascript.ScriptRuntime as RhinoScriptRuntime
  * 主要用于提升脚本初始加载模块的效率, 且有利于值类型的规范化控制.
  *
  * Created by SuperMonster003 on May 21, 2024.
+ * Modified by agent as of Oct 19, 2026.
  */
 abstract class Augmentable(private val scriptRuntime: ScriptRuntime? = null) : FlexibleArray() {
 
@@ -133,6 +139,14 @@ abstract class Augmentable(private val scriptRuntime: ScriptRuntime? = null) : F
      */
     open val globalAssignmentGetters = listOf<Pair<String, Supplier<Any?>>>()
 
+    /**
+     * Function names to direct bindings, for functions called frequently enough for reflection to matter.
+     * Functions not listed here are invoked by reflection on the method of the same name.
+     *
+     * zh-CN: 函数名至直接绑定的映射, 用于调用频繁以致反射开销不可忽略的函数. 未列于此的函数通过反射调用同名方法.
+     */
+    open val directCalls = mapOf<String, DirectCall>()
+
     fun originateKeyName() = also { mIsOriginalKeyName = true }
 
     fun augment(target: Scriptable, withDollarPrefix: Boolean = true, additionalAttributes: Int = 0): ScriptableObject {
@@ -181,6 +195,32 @@ abstract class Augmentable(private val scriptRuntime: ScriptRuntime? = null) : F
         return newObj
     }
 
+    /**
+     * Names and attributes of the members this module defines on the global scope, as [assign] defines them.
+     *
+     * zh-CN: 此模块在全局作用域上定义的成员名称及属性, 与 [assign] 的定义一致.
+     */
+    internal fun globalMembers(): List<Pair<String, Int>> {
+        val members = mutableListOf<Pair<String, Int>>()
+        selfAssignmentProperties.forEach { (first, second) ->
+            if (first is Pair<*, *> && second is Int && second and AS_GLOBAL != 0) {
+                members += coerceString(first.first) to (PERMANENT or refineAttributes(second))
+            }
+        }
+        globalAssignmentProperties.forEach { (first, second) ->
+            when {
+                first is String -> members += first to PERMANENT
+                first is Pair<*, *> && second is Int && second and AS_IGNORED == 0 -> {
+                    members += coerceString(first.first) to (PERMANENT or refineAttributes(second))
+                }
+            }
+        }
+        functionEntries().second.forEach { (names, attributes) -> members += names.second to attributes }
+        globalAssignmentJavaClasses.forEach { (name) -> members += name to PERMANENT }
+        globalAssignmentGetters.forEach { (name) -> members += name to PERMANENT }
+        return members
+    }
+
     /**
      * When the subclass calls assign, the value of key will be ignored.
      * zh-CN: 子类调用 assign 时将忽略 key 的值.
@@ -310,6 +350,17 @@ abstract class Augmentable(private val scriptRuntime: ScriptRuntime? = null) : F
     }
 
     private fun augmentFunctions(target: ScriptableObject, global: ScriptableObject) {
+        val (targetFunctions, globalFunctions) = functionEntries()
+        augmentFunctionsBy(target, targetFunctions)
+        augmentFunctionsBy(global, globalFunctions)
+    }
+
+    /**
+     * Functions to define on the module object and on the global scope respectively, as (name to alias) to attributes.
+     *
+     * zh-CN: 分别定义于模块对象及全局作用域上的函数, 形如 (名称 to 别名) to 属性.
+     */
+    private fun functionEntries(): Pair<MutableList<Pair<Pair<String, String>, Int>>, MutableList<Pair<Pair<String, String>, Int>>> {
         val targetFunctions = mutableListOf<Pair<Pair<String, String>, Int>>()
         val globalFunctions = mutableListOf<Pair<Pair<String, String>, Int>>()
         selfAssignmentFunctions.forEach { item ->
@@ -396,23 +447,31 @@ abstract class Augmentable(private val scriptRuntime: ScriptRuntime? = null) : F
                 else -> throw WrappedIllegalArgumentException("Unknown function element ${item.jsBrief()} for Augmentable#putFunctions")
             }
         }
-        augmentFunctionsBy(target, targetFunctions)
-        augmentFunctionsBy(global, globalFunctions)
+        return targetFunctions to globalFunctions
     }
 
     internal fun augmentFunctionsBy(destination: ScriptableObject, functions: MutableCollection<Pair<Pair<String, String>, Int>>) {
         functions.forEach { pair ->
             val (funcNamePair, attributes) = pair
             val (funcName, funcNameAlias) = funcNamePair
-            val f = newBaseFunction(funcName, { args ->
+            val directCall = directCalls[funcName]
+
+            // @Hint by agent on Oct 19, 2026.
+            //  ! The method is resolved once, on the first call rather than at install time,
+            //  ! so that installing a module costs no reflection for functions never called.
+            //  ! zh-CN: 方法仅解析一次, 且在首次调用时而非安装时解析, 因此安装模块时不会为从未调用的函数产生反射开销.
+            val method by lazy(LazyThreadSafetyMode.PUBLICATION) {
+                when (scriptRuntime) {
+                    null -> javaClass.getMethod(funcName, Array<Any>::class.java)
+                    else -> javaClass.getMethod(funcName, ScriptRuntime::class.java, Array<Any>::class.java)
+                }
+            }
+            val f = newAugmentedFunction(funcName, directCall?.arity ?: 0) { args ->
                 try {
-                    when (scriptRuntime) {
-                        null -> javaClass
-                            .getMethod(funcName, Array<Any>::class.java)
-                            .invoke(this, args)
-                        else -> javaClass
-                            .getMethod(funcName, ScriptRuntime::class.java, Array<Any>::class.java)
-                            .invoke(this, scriptRuntime, args)
+                    when {
+                        directCall != null -> directCall.call(scriptRuntime, args)
+                        scriptRuntime == null -> method.invoke(this, args)
+                        else -> method.invoke(this, scriptRuntime, args)
                     }
                 } catch (t: Throwable) {
 
@@ -421,13 +480,7 @@ abstract class Augmentable(private val scriptRuntime: ScriptRuntime? = null) : F
                     //  ! must be an instance of RuntimeException or Error.
                     //  ! zh-CN: Rhino 要求此处抛出的对象需为 RuntimeException 或 Error 实例.
 
-                    val e = when (t) {
-                        is InvocationTargetException -> when (val targetEx = t.targetException) {
-                            is ScriptException -> targetEx.cause ?: targetEx
-                            else -> targetEx
-                        }
-                        else -> t
-                    }
+                    val e = unwrapInvocationException(t)
                     if (ScriptInterruptedException.causedByInterrupt(e)) {
                         throw WrappedException(e)
                     }
@@ -436,7 +489,7 @@ abstract class Augmentable(private val scriptRuntime: ScriptRuntime? = null) : F
                     val message = globalContext.getString(R.string.error_failed_to_invoke_method_with_description, methodDescription)
                     val niceMessage = when (val errMsg = e.message) {
                         null -> message
-                        else -> "$message. ${errMsg.replaceFirst(Regex("^(Wrapped )?\\w*(\\.\\w+)*(Exception|Error): "), "")}"
+                        else -> "$message. ${errMsg.replaceFirst(REGEX_EXCEPTION_NAME_PREFIX, "")}"
                     }
                     when (e) {
                         is WrappedIllegalArgumentException -> {
@@ -455,11 +508,27 @@ abstract class Augmentable(private val scriptRuntime: ScriptRuntime? = null) : F
                         else -> throw WrappedRuntimeException(niceMessage, e)
                     }
                 }
-            }, NOT_CONSTRUCTABLE)
+            }
             destination.defineProperty(funcNameAlias, f, attributes)
         }
     }
 
+    private fun newAugmentedFunction(funcName: String, arity: Int, callFunc: (args: Array<out Any?>) -> Any?) = object : InternalBaseFunction(funcName) {
+
+        override fun call(cx: RhinoContext?, scope: Scriptable?, thisObj: Scriptable?, args: Array<out Any?>): Any? {
+            return super.callFunc(callFunc, cx, scope, thisObj, args)
+        }
+
+        override fun construct(cx: RhinoContext?, scope: Scriptable?, args: Array<out Any?>): Scriptable {
+            return super.constructFlag(NOT_CONSTRUCTABLE, cx, scope, args)
+        }
+
+        override fun getArity() = arity
+
+        override fun getLength() = arity
+
+    }.apply { init() }
+
     private fun augmentGettersAndSetters(target: ScriptableObject, global: ScriptableObject) {
         selfAssignmentGetters.forEach { pair ->
             val (name, getter) = pair
@@ -494,12 +563,126 @@ abstract class Augmentable(private val scriptRuntime: ScriptRuntime? = null) : F
 
     companion object : FlexibleArray() {
 
+        private val REGEX_EXCEPTION_NAME_PREFIX = Regex("^(Wrapped )?\\w*(\\.\\w+)*(Exception|Error): ")
+
+        /**
+         * Key and global members of each module class, learned from its first instance,
+         * so that later scripts can install the module without constructing it.
+         *
+         * zh-CN: 每个模块类的键及全局成员, 由其首个实例得知, 因此之后的脚本无需构造模块即可安装.
+         */
+        private class Layout(val key: String, val globalMembers: List<Pair<String, Int>>)
+
+        private val sLayouts = ConcurrentHashMap<Class<*>, Layout>()
+
+        /**
+         * Same as [augment], except that the module is constructed by [supplier] and built the first time it is read,
+         * and [onAugmented] is called with the module object then (for sub-modules, for instance).
+         *
+         * Until then, [target] holds a configurable accessor under each key, and the global scope holds one under each name
+         * the module assigns to it (such as `captureScreen` of `images`). Each accessor is enumerated as the final property would be,
+         * and reading or writing any of them builds the whole module and replaces all of them with the final properties,
+         * so `typeof` and enumeration behave as with [augment].
+         *
+         * The layout (key and global names) is not precomputed without construction, as [key] and the assignment lists
+         * are instance members, some of which are built from the runtime. Instead, the first script of the process
+         * constructs the module once to learn its layout, and augments that very instance when it reads the module,
+         * so a module class is constructed at most once without being used, per process. Modules which are objects
+         * (such as `base64`) are never constructed for this.
+         *
+         * zh-CN:
+         *
+         * 与 [augment] 相同, 但模块由 [supplier] 构造, 且在首次读取时才被构建, 并在此时以模块对象调用 [onAugmented] (例如用于子模块).
+         *
+         * 在此之前, [target] 的每个键上, 以及模块向全局作用域赋值的每个名称 (如 `images` 的 `captureScreen`) 上, 均为一个可配置的访问器.
+         * 每个访问器的可枚举性与最终属性一致, 读取或写入其中任意一个都会构建整个模块并以最终属性替换全部访问器,
+         * 因此 `typeof` 及枚举的行为与 [augment] 相同.
+         *
+         * 布局 (键及全局名称) 并非在不构造模块的情况下预先计算, 因为 [key] 及各赋值列表均为实例成员, 其中部分由运行时构建.
+         * 取而代之的是, 进程中的首个脚本会构造一次模块以获知其布局, 并在读取模块时扩充该实例,
+         * 因此每个进程中, 一个模块类至多被构造一次而未被使用. 作为单例对象的模块 (如 `base64`) 不会因此被构造.
+         */
+        @JvmStatic
+        fun <T : Augmentable> augmentLazily(
+            target: ScriptableObject,
+            type: Class<T>,
+            supplier: Supplier<T>,
+            proto: Any = emptyList<Any>(),
+            withDollarPrefix: Boolean = true,
+            additionalAttributes: Int = 0,
+            onAugmented: Consumer<ScriptableObject>? = null,
+        ) {
+            var instance: T? = null
+            val layout = sLayouts[type] ?: supplier.get().let { module ->
+                instance = module
+                Layout(module.key, module.globalMembers()).also { sLayouts[type] = it }
+            }
+            val global = ScriptableObject.getTopLevelScope(target) as ScriptableObject
+            val keys = mutableListOf(layout.key)
+            if (withDollarPrefix) keys += "\$${layout.key}"
+            val globalNames = layout.globalMembers.filterNot { (name) -> global.has(name, global) }
+
+            val lock = Any()
+            var augmented: ScriptableObject? = null
+            val install = {
+                synchronized(lock) {
+                    augmented ?: withTimeConsuming("augment-${layout.key}", Tracer.CATEGORY_MODULE) {
+                        keys.forEach { target.delete(it) }
+                        globalNames.forEach { (name) -> global.delete(name) }
+                        val module = instance ?: supplier.get()
+                        instance = null
+                        module.augment(target, proto, withDollarPrefix, additionalAttributes).also { onAugmented?.accept(it) }
+                    }!!.also { augmented = it }
+                }
+            }
+            val attributes = refineAttributes(additionalAttributes) and PERMANENT.inv()
+            keys.forEach { name ->
+                target.defineProperty(name, Supplier<Any?> { install() }, Consumer<Any?> { value ->
+                    install()
+                    target.put(name, target, value)
+                }, attributes)
+            }
+            globalNames.forEach { (name, memberAttributes) ->
+                global.defineProperty(name, Supplier<Any?> {
+                    install()
+                    global.get(name, global)
+                }, Consumer<Any?> { value ->
+                    install()
+                    global.put(name, global, value)
+                }, refineAttributes(memberAttributes) and PERMANENT.inv())
+            }
+        }
+
+        /**
+         * Same as the other [augmentLazily], with the module class inferred from [supplier].
+         *
+         * zh-CN: 与另一 [augmentLazily] 相同, 模块类由 [supplier] 推断.
+         */
+        inline fun <reified T : Augmentable> augmentLazily(
+            target: ScriptableObject,
+            proto: Any = emptyList<Any>(),
+            onAugmented: Consumer<ScriptableObject>? = null,
+            noinline supplier: () -> T,
+        ) = augmentLazily(target, T::class.java, Supplier(supplier), proto, true, 0, onAugmented)
+
         const val AS_GLOBAL = 0x1000
         const val AS_IGNORED = 0x2000
 
         val globalContext: Context
             get() = GlobalAppContext.get()
 
+        /**
+         * The exception to report for [t] thrown by an installed function, whether it was invoked by reflection or by a [DirectCall],
+         * i.e. the target exception of an [InvocationTargetException], and the cause of a [ScriptException] if any.
+         *
+         * zh-CN: 已安装函数抛出 [t] 时应报告的异常, 无论函数通过反射还是 [DirectCall] 调用,
+         * 即 [InvocationTargetException] 的目标异常, 以及 [ScriptException] 的原因 (若存在).
+         */
+        internal fun unwrapInvocationException(t: Throwable): Throwable {
+            val e = if (t is InvocationTargetException) t.targetException ?: t else t
+            return if (e is ScriptException) e.cause ?: e else e
+        }
+
         fun refineAttributes(attributes: Int) = attributes and (READONLY or DONTENUM or PERMANENT or UNINITIALIZED_CONST)
 
     }
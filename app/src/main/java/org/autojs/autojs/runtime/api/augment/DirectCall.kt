@@ -0,0 +1,46 @@
+package org.autojs.autojs.runtime.api.augment
+
+import org.autojs.autojs.runtime.ScriptRuntime
+
+/**
+ * Direct binding of a function installed by [Augmentable], which calls the target without reflection.
+ *
+ * Functions in [Augmentable.selfAssignmentFunctions] and [Augmentable.globalAssignmentFunctions] are otherwise invoked
+ * by [java.lang.reflect.Method.invoke], which is fine for most functions but noticeable for those called
+ * millions of times, such as `colors.toInt`, `images.pixel` and `sleep`.
+ * A module opts in for such functions by listing them in [Augmentable.directCalls].
+ *
+ * [arity] becomes the `length` of the installed function, and [coercions], if any, are applied
+ * to the arguments at the same positions before [target] is called, so that the target receives arguments
+ * of the expected types without converting them itself.
+ *
+ * zh-CN:
+ *
+ * 由 [Augmentable] 安装的函数的直接绑定, 无需反射即可调用目标.
+ *
+ * 否则 [Augmentable.selfAssignmentFunctions] 及 [Augmentable.globalAssignmentFunctions] 中的函数将通过
+ * [java.lang.reflect.Method.invoke] 调用, 这对大多数函数而言无妨, 但对于 `colors.toInt`, `images.pixel`, `sleep`
+ * 等被调用数百万次的函数而言, 开销较为明显. 模块可将此类函数列入 [Augmentable.directCalls] 以启用直接绑定.
+ *
+ * [arity] 将作为所安装函数的 `length`, 若存在 [coercions], 则在调用 [target] 之前将其应用于相同位置的参数,
+ * 以使目标接收预期类型的参数, 而无需自行转换.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+class DirectCall(
+    val arity: Int,
+    private val coercions: Array<((Any?) -> Any?)?> = emptyArray(),
+    private val target: (scriptRuntime: ScriptRuntime?, args: Array<out Any?>) -> Any?,
+) {
+
+    fun call(scriptRuntime: ScriptRuntime?, args: Array<out Any?>): Any? = when {
+        coercions.isEmpty() -> target(scriptRuntime, args)
+        else -> target(scriptRuntime, coerce(args))
+    }
+
+    private fun coerce(args: Array<out Any?>): Array<Any?> = Array(args.size) { i ->
+        val coercion = if (i < coercions.size) coercions[i] else null
+        coercion?.invoke(args[i]) ?: args[i]
+    }
+
+}
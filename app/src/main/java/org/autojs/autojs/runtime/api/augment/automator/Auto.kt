@@ -7,13 +7,17 @@ import org.autojs.autojs.core.accessibility.AccessibilityBridge.WindowFilter
 import org.autojs.autojs.core.accessibility.AccessibilityServiceCallback
 import org.autojs.autojs.core.accessibility.AccessibilityTool
 import org.autojs.autojs.core.accessibility.SimpleActionAutomator.Companion.AccessibilityEventCallback
+import org.autojs.autojs.core.accessibility.WindowSearch
 import org.autojs.autojs.core.automator.AccessibilityEventWrapper
 import org.autojs.autojs.core.automator.UiObject
+import org.autojs.autojs.core.automator.diff.TreeDiffWatcher
+import org.autojs.autojs.core.automator.diff.TreeSnapshot
 import org.autojs.autojs.extension.AnyExtensions.isJsNullish
 import org.autojs.autojs.extension.ArrayExtensions.toNativeArray
 import org.autojs.autojs.extension.FlexibleArray
 import org.autojs.autojs.extension.FlexibleArray.Companion.component1
 import org.autojs.autojs.extension.FlexibleArray.Companion.component2
+import org.autojs.autojs.extension.ScriptableObjectExtensions.inquire
 import org.autojs.autojs.runtime.ScriptRuntime
 import org.autojs.autojs.runtime.api.augment.Augmentable
 import org.autojs.autojs.runtime.api.augment.Invokable
@@ -21,11 +25,13 @@ import org.autojs.autojs.runtime.api.augment.util.Java
 import org.autojs.autojs.runtime.exception.WrappedIllegalArgumentException
 import org.autojs.autojs.util.RhinoUtils.UNDEFINED
 import org.autojs.autojs.util.RhinoUtils.callFunction
+import org.autojs.autojs.util.RhinoUtils.coerceIntNumber
 import org.autojs.autojs.util.RhinoUtils.newNativeArray
 import org.mozilla.javascript.BaseFunction
 import org.mozilla.javascript.Context
 import org.mozilla.javascript.NativeArray
 import org.mozilla.javascript.NativeJavaObject
+import org.mozilla.javascript.NativeObject
 import org.mozilla.javascript.ScriptableObject
 import org.mozilla.javascript.Undefined
 import java.util.function.Supplier
@@ -45,10 +51,12 @@ class Auto(private val scriptRuntime: ScriptRuntime) : Augmentable(scriptRuntime
         ::registerEvents.name,
         ::removeEvent.name,
         ::removeEvents.name,
+        ::watchTree.name,
         ::waitFor.name,
         ::setMode.name,
         ::setFlags.name,
         ::setWindowFilter.name,
+        ::setWindowSearch.name,
         ::launchSettings.name,
         ::clearCache.name,
         ::currentPackage.name,
@@ -212,6 +220,22 @@ class Auto(private val scriptRuntime: ScriptRuntime) : Augmentable(scriptRuntime
             return removeEvent(scriptRuntime, args)
         }
 
+        @JvmStatic
+        @RhinoRuntimeFunctionInterface
+        fun watchTree(scriptRuntime: ScriptRuntime, args: Array<out Any?>): TreeDiffWatcher = ensureArgumentsLengthInRange(args, 1..2) {
+            val (listener, maxDepth) = it
+            require(listener is BaseFunction) { "Argument listener ($listener) for auto.watchTree must be a function" }
+            // @Hint by agent on Oct 19, 2026.
+            //  ! Diffs are computed on a worker thread, so the listener is posted to the looper of the calling script thread,
+            //  ! where it runs within the scope of the script, as event listeners of EventEmitter do.
+            //  ! zh-CN: 差异在工作线程中计算, 因此监听器被投递至调用脚本线程的 Looper, 并在脚本作用域内运行, 与 EventEmitter 的事件监听器一致.
+            val timer = scriptRuntime.timers.timerForCurrentThread ?: scriptRuntime.timers.mainTimer
+            scriptRuntime.automator.watchTree(
+                { diff, snapshot -> timer.setImmediate(listener, diff, snapshot) },
+                if (maxDepth.isJsNullish()) TreeSnapshot.DEFAULT_MAX_DEPTH else coerceIntNumber(maxDepth),
+            )
+        }
+
         @JvmStatic
         @RhinoRuntimeFunctionInterface
         fun waitFor(scriptRuntime: ScriptRuntime, args: Array<out Any?>) = ensureArgumentsAtMost(args, 1) {
@@ -271,6 +295,25 @@ class Auto(private val scriptRuntime: ScriptRuntime) : Augmentable(scriptRuntime
             }
         }
 
+        @JvmStatic
+        @RhinoRuntimeFunctionInterface
+        fun setWindowSearch(scriptRuntime: ScriptRuntime, args: Array<out Any?>) = ensureArgumentsAtMost(args, 1) {
+            val (options) = it
+            scriptRuntime.accessibilityBridge.windowSearch = when {
+                options.isJsNullish() || options == false -> null
+                options == true -> WindowSearch()
+                options is WindowSearch -> options
+                options is NativeObject -> WindowSearch(
+                    options.inquire("packageNames") { o -> (o as? List<*> ?: listOf(o)).map { p -> p.toString() }.toSet() },
+                    options.inquire("windowTypes") { o -> (o as? List<*> ?: listOf(o)).map { t -> coerceIntNumber(t) }.toSet() },
+                    options.inquire("minLayer", ::coerceIntNumber) ?: Int.MIN_VALUE,
+                    options.inquire("maxLayer", ::coerceIntNumber) ?: Int.MAX_VALUE,
+                    options.inquire("parallelism", ::coerceIntNumber) ?: WindowSearch.DEFAULT_PARALLELISM,
+                )
+                else -> throw WrappedIllegalArgumentException("Argument options ($options) is invalid for auto.setWindowSearch")
+            }
+        }
+
         @JvmStatic
         @RhinoRuntimeFunctionInterface
         fun launchSettings(scriptRuntime: ScriptRuntime, args: Array<out Any?>) = ensureArgumentsIsEmpty(args) {
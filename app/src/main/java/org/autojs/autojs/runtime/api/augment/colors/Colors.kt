@@ -22,6 +22,7 @@ import org.autojs.autojs.extension.FlexibleArray.Companion.component2
 import org.autojs.autojs.extension.ScriptableExtensions.prop
 import org.autojs.autojs.extension.ScriptableObjectExtensions.inquire
 import org.autojs.autojs.runtime.api.augment.Augmentable
+import org.autojs.autojs.runtime.api.augment.DirectCall
 import org.autojs.autojs.runtime.api.augment.SimpleGetterProxy
 import org.autojs.autojs.runtime.api.augment.jsox.Numberx
 import org.autojs.autojs.runtime.exception.ShouldNeverHappenException
@@ -82,6 +83,10 @@ object Colors : Augmentable(), SimpleGetterProxy {
         colorMap
     }
 
+    override val directCalls = mapOf(
+        ::toInt.name to DirectCall(1) { _, args -> toInt(args) },
+    )
+
     override val selfAssignmentFunctions = listOf(
         "toString",
         ::toInt.name,
@@ -1,7 +1,9 @@
 package org.autojs.autojs.runtime.api.augment.engines
 
 import org.autojs.autojs.annotation.RhinoRuntimeFunctionInterface
+import org.autojs.autojs.core.trace.Tracer
 import org.autojs.autojs.engine.JavaScriptEngine
+import org.autojs.autojs.engine.RhinoJavaScriptEngine
 import org.autojs.autojs.engine.ScriptEngine
 import org.autojs.autojs.execution.ExecutionConfig
 import org.autojs.autojs.execution.ScriptExecution
@@ -11,16 +13,20 @@ import org.autojs.autojs.extension.AnyExtensions.toRuntimePath
 import org.autojs.autojs.extension.FlexibleArray
 import org.autojs.autojs.extension.ScriptableObjectExtensions.inquire
 import org.autojs.autojs.runtime.ScriptRuntime
+import org.autojs.autojs.rhino.debug.SamplingProfiler
 import org.autojs.autojs.runtime.api.augment.Augmentable
 import org.autojs.autojs.runtime.exception.WrappedIllegalArgumentException
 import org.autojs.autojs.script.ScriptSource
 import org.autojs.autojs.util.RhinoUtils.coerceIntNumber
 import org.autojs.autojs.util.RhinoUtils.coerceLongNumber
 import org.autojs.autojs.util.RhinoUtils.coerceString
+import org.autojs.autojs.util.RhinoUtils.UNDEFINED
 import org.autojs.autojs.util.RhinoUtils.newNativeObject
 import org.mozilla.javascript.NativeArray
 import org.mozilla.javascript.NativeObject
 import org.mozilla.javascript.ScriptableObject
+import org.mozilla.javascript.Undefined
+import java.io.File
 
 @Suppress("unused")
 class Engines(private val scriptRuntime: ScriptRuntime) : Augmentable(scriptRuntime) {
@@ -34,6 +40,10 @@ class Engines(private val scriptRuntime: ScriptRuntime) : Augmentable(scriptRunt
         ::execScript.name,
         ::execScriptFile.name,
         ::execAutoFile.name,
+        ::startProfiling.name,
+        ::stopProfiling.name,
+        ::startTracing.name,
+        ::stopTracing.name,
     )
 
     init {
@@ -107,6 +117,83 @@ class Engines(private val scriptRuntime: ScriptRuntime) : Augmentable(scriptRunt
             scriptRuntime.engines.execAutoFile(coerceString(path), fillConfig(scriptRuntime, config))
         }
 
+        /**
+         * Start profiling the current script with a [SamplingProfiler], optionally with the sampling interval in microseconds.
+         *
+         * zh-CN: 使用 [SamplingProfiler] 开始分析当前脚本, 可指定以微秒为单位的采样间隔.
+         */
+        @JvmStatic
+        @RhinoRuntimeFunctionInterface
+        fun startProfiling(scriptRuntime: ScriptRuntime, args: Array<out Any?>): SamplingProfiler = ensureArgumentsAtMost(args, 1) {
+            val (intervalMicros) = it
+            val engine = rhinoEngineOf(scriptRuntime)
+            when {
+                intervalMicros.isJsNullish() -> engine.startProfiling()
+                else -> engine.startProfiling(coerceLongNumber(intervalMicros))
+            }
+        }
+
+        /**
+         * Stop profiling the current script and return the profile,
+         * which may be exported by `toFoldedStacks()`, `toCpuProfile()`, `writeFoldedStacks(file)` or `writeCpuProfile(file)`.
+         *
+         * zh-CN: 停止分析当前脚本并返回分析结果, 可通过 `toFoldedStacks()`, `toCpuProfile()`, `writeFoldedStacks(file)` 或 `writeCpuProfile(file)` 导出.
+         */
+        @JvmStatic
+        @RhinoRuntimeFunctionInterface
+        fun stopProfiling(scriptRuntime: ScriptRuntime, args: Array<out Any?>): SamplingProfiler.Profile = ensureArgumentsIsEmpty(args) {
+            rhinoEngineOf(scriptRuntime).stopProfiling()
+        }
+
+        /**
+         * Start recording timing spans of the runtime (engine init, module installs, screen capturing, OCR and so on)
+         * with the process-wide [Tracer], optionally with the capacity of its ring buffer.
+         * Spans recorded before are cleared, and spans of other scripts running meanwhile are recorded as well.
+         *
+         * zh-CN:
+         *
+         * 使用进程级的 [Tracer] 开始记录运行时的计时区间 (引擎初始化, 模块安装, 截屏, OCR 等), 可指定其环形缓冲区的容量.
+         * 此前记录的区间将被清除, 期间运行的其他脚本的区间也将被记录.
+         */
+        @JvmStatic
+        @RhinoRuntimeFunctionInterface
+        fun startTracing(scriptRuntime: ScriptRuntime, args: Array<out Any?>): Undefined = ensureArgumentsAtMost(args, 1) {
+            val (capacity) = it
+            if (!capacity.isJsNullish()) {
+                Tracer.capacity = coerceIntNumber(capacity)
+            }
+            Tracer.clear()
+            Tracer.isEnabled = true
+            UNDEFINED
+        }
+
+        /**
+         * Stop recording timing spans and export them in the Chrome trace event format,
+         * which is written to the file of the given path and returns its absolute path,
+         * or returned as a JSON string if no path is given.
+         *
+         * zh-CN:
+         *
+         * 停止记录计时区间并以 Chrome 跟踪事件格式导出,
+         * 指定路径时写入该路径的文件并返回其绝对路径, 未指定路径时以 JSON 字符串返回.
+         */
+        @JvmStatic
+        @RhinoRuntimeFunctionInterface
+        fun stopTracing(scriptRuntime: ScriptRuntime, args: Array<out Any?>): String = ensureArgumentsAtMost(args, 1) {
+            val (path) = it
+            Tracer.isEnabled = false
+            when {
+                path.isJsNullish() -> Tracer.toChromeTrace()
+                else -> path.toRuntimePath(scriptRuntime).also { p -> Tracer.writeChromeTrace(File(p)) }
+            }
+        }
+
+        private fun rhinoEngineOf(scriptRuntime: ScriptRuntime): RhinoJavaScriptEngine {
+            val engine = scriptRuntime.engines.myEngine()
+            require(engine is RhinoJavaScriptEngine) { "Engine ${engine.jsBrief()} does not support profiling" }
+            return engine
+        }
+
         private fun fillConfig(scriptRuntime: ScriptRuntime, o: Any?): ExecutionConfig {
             val result = ExecutionConfig()
             when (val config = if (o.isJsNullish()) newNativeObject() else o) {
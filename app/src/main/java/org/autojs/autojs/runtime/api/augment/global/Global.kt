@@ -14,6 +14,7 @@ import org.autojs.autojs.extension.ScriptableObjectExtensions.inquire
 import org.autojs.autojs.runtime.ScriptRuntime
 import org.autojs.autojs.runtime.api.ScreenMetrics
 import org.autojs.autojs.runtime.api.augment.Augmentable
+import org.autojs.autojs.runtime.api.augment.DirectCall
 import org.autojs.autojs.runtime.api.augment.automator.Auto
 import org.autojs.autojs.runtime.api.augment.console.Console
 import org.autojs.autojs.runtime.api.augment.jsox.Numberx
@@ -57,6 +58,10 @@ class Global(private val scriptRuntime: ScriptRuntime) : Augmentable(scriptRunti
         "isAutoJs6" to true,
     )
 
+    override val directCalls = mapOf(
+        ::sleep.name to DirectCall(1) { _, args -> sleep(scriptRuntime, args) },
+    )
+
     override val selfAssignmentFunctions = listOf(
         "toString",
         ::TODO.name,
@@ -4,6 +4,7 @@ import android.annotation.SuppressLint
 import android.graphics.Bitmap
 import android.graphics.BitmapFactory
 import android.view.Gravity
+import org.autojs.autojs.annotation.RhinoFunctionBody
 import org.autojs.autojs.annotation.RhinoRuntimeFunctionInterface
 import org.autojs.autojs.core.image.ColorDetector
 import org.autojs.autojs.core.image.ImageWrapper
@@ -25,6 +26,7 @@ import org.autojs.autojs.runtime.api.ScreenMetrics
 import org.autojs.autojs.runtime.api.ScriptPromiseAdapter
 import org.autojs.autojs.runtime.api.augment.AsEmitter
 import org.autojs.autojs.runtime.api.augment.Augmentable
+import org.autojs.autojs.runtime.api.augment.DirectCall
 import org.autojs.autojs.runtime.api.augment.colors.Colors
 import org.autojs.autojs.runtime.api.augment.s13n.S13n
 import org.autojs.autojs.runtime.exception.ShouldNeverHappenException
@@ -68,6 +70,10 @@ import org.opencv.core.Size as OpencvSize
 @Suppress("SameParameterValue", "unused", "UNUSED_PARAMETER")
 class Images(scriptRuntime: ScriptRuntime) : Augmentable(scriptRuntime), AsEmitter {
 
+    override val directCalls = mapOf(
+        ::pixel.name to DirectCall(3) { runtime, args -> pixel(runtime!!, args) },
+    )
+
     @Suppress("DEPRECATION")
     override val selfAssignmentFunctions = listOf(
         ::read.name,
@@ -229,9 +235,15 @@ class Images(scriptRuntime: ScriptRuntime) : Augmentable(scriptRuntime), AsEmitt
         @RhinoRuntimeFunctionInterface
         fun pixel(scriptRuntime: ScriptRuntime, args: Array<out Any?>) = ensureArgumentsLength(args, 3) {
             val (o, x, y) = it
+            pixelRhino(scriptRuntime, o, coerceIntNumber(x), coerceIntNumber(y))
+        }
+
+        @JvmStatic
+        @RhinoFunctionBody
+        fun pixelRhino(scriptRuntime: ScriptRuntime, o: Any?, x: Int, y: Int): Int {
             val image = if (o is String) read(scriptRuntime, arrayOf<Any>(o, true)) else o
             require(image is ImageWrapper) { "Argument image for images.pixel must be a ImageWrapper" }
-            ApiImages.pixel(image, coerceIntNumber(x), coerceIntNumber(y))
+            return ApiImages.pixel(image, x, y)
         }
 
         @JvmStatic
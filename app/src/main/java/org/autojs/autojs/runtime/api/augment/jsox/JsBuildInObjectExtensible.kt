@@ -5,6 +5,7 @@ import org.autojs.autojs.extension.ScriptableExtensions.prop
 import org.autojs.autojs.runtime.ScriptRuntime
 import org.autojs.autojs.runtime.api.augment.Augmentable
 import org.autojs.autojs.runtime.api.augment.Augmentable.Companion.refineAttributes
+import org.autojs.autojs.runtime.exception.WrappedRuntimeException
 import org.autojs.autojs.util.RhinoUtils
 import org.autojs.autojs.util.RhinoUtils.coerceString
 import org.mozilla.javascript.BaseFunction
@@ -28,6 +29,16 @@ internal fun extendBuildInObjectInternal(scriptRuntime: ScriptRuntime, augmentab
 }
 
 internal fun extendBuildInObjectInternal(scriptRuntime: ScriptRuntime, augmentable: Augmentable, buildInObject: ScriptableObject, extensibleProtoClass: Class<*>? = null) {
+    // @Hint by agent on Oct 19, 2026.
+    //  ! Built-in objects of a scope sharing standard objects belong to a sealed scope of all scripts,
+    //  ! which would otherwise fail with a bare "Cannot modify a property of a sealed object".
+    //  ! zh-CN: 共享标准对象的作用域中, 内置对象属于所有脚本共用的密封作用域, 否则将仅以 "Cannot modify a property of a sealed object" 失败.
+    if (scriptRuntime.topLevelScope.isSharingStandardObjects) {
+        throw WrappedRuntimeException(listOf(
+            "Built-in object ${buildInObject.className} cannot be extended while standard objects are shared by scripts.",
+            "Run the script in JSOX mode (with a \"jsox\"; directive), or turn off the sharing of standard objects in settings",
+        ).joinToString(" "))
+    }
     augmentable.selfAssignmentProperties.forEach { pair ->
         val (first, second) = pair
         val name: String
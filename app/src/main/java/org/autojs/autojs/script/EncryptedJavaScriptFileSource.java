@@ -0,0 +1,62 @@
+package org.autojs.autojs.script;
+
+import androidx.annotation.NonNull;
+
+import org.autojs.autojs.engine.encryption.ScriptEncryption;
+import org.autojs.autojs.pio.UncheckedIOException;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Source of an encrypted script file, which is decrypted while the engine reads it,
+ * so that neither the cipher text nor a decrypted copy of the file is held in memory besides the source text itself.
+ * The execution mode is taken from the header of the file without decrypting it.
+ *
+ * zh-CN:
+ *
+ * 加密脚本文件的源, 在引擎读取时解密,
+ * 因此除源码文本本身外, 内存中既不保存密文, 也不保存文件的解密副本.
+ * 执行模式取自文件头, 无需解密.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+public class EncryptedJavaScriptFileSource extends JavaScriptFileSource {
+
+    private String mScript;
+
+    public EncryptedJavaScriptFileSource(@NonNull String name, File file) {
+        super(name, file);
+    }
+
+    @NonNull
+    @Override
+    public String getScript() {
+        if (mScript == null) {
+            try (Reader reader = getScriptReader()) {
+                StringBuilder sb = new StringBuilder();
+                char[] buffer = new char[8192];
+                int n;
+                while ((n = reader.read(buffer)) >= 0) {
+                    sb.append(buffer, 0, n);
+                }
+                mScript = sb.toString();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return mScript;
+    }
+
+    @Override
+    public Reader getScriptReader() {
+        try {
+            return ScriptEncryption.reader(new FileInputStream(getFile()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
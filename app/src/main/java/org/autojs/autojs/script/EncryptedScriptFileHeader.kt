@@ -4,6 +4,9 @@ import java.io.File
 import java.io.FileInputStream
 import java.io.OutputStream
 
+/**
+ * Modified by agent as of Oct 19, 2026.
+ */
 object EncryptedScriptFileHeader {
 
     const val FLAG_INVALID_FILE: Short = Short.MIN_VALUE
@@ -16,9 +19,8 @@ object EncryptedScriptFileHeader {
 
     @JvmStatic
     fun getHeaderFlags(file: File): Short {
-        val fis = FileInputStream(file)
         val bytes = ByteArray(BLOCK_SIZE)
-        if (fis.read(bytes) < BLOCK_SIZE) {
+        if (FileInputStream(file).use { it.read(bytes) } < BLOCK_SIZE) {
             return FLAG_INVALID_FILE
         }
         if (!isValidFile(bytes)) {
@@ -16,6 +16,7 @@ import java.util.Map;
 
 /**
  * Created by Stardust on Aug 2, 2017.
+ * Modified by agent as of Oct 19, 2026.
  */
 public abstract class JavaScriptSource extends ScriptSource {
 
@@ -28,6 +29,7 @@ public abstract class JavaScriptSource extends ScriptSource {
     public static final int EXECUTION_MODE_UI = 0x0001;
     public static final int EXECUTION_MODE_AUTO = 0x0002;
     public static final int EXECUTION_MODE_JSOX = 0x0004;
+    public static final int EXECUTION_MODE_COMPILED = 0x0008;
     public static final int EXECUTION_MODE_MODULE_AXIOS = 0x0010;
     public static final int EXECUTION_MODE_MODULE_CHEERIO = 0x0020;
     public static final int EXECUTION_MODE_MODULE_DAYJS = 0x0040;
@@ -40,6 +42,7 @@ public abstract class JavaScriptSource extends ScriptSource {
             .put("auto", EXECUTION_MODE_AUTO)
             .put("jsox", EXECUTION_MODE_JSOX)
             .put("x", EXECUTION_MODE_JSOX)
+            .put("compiled", EXECUTION_MODE_COMPILED)
             .put("axios", EXECUTION_MODE_MODULE_AXIOS)
             .put("cheerio", EXECUTION_MODE_MODULE_CHEERIO)
             .put("dayjs", EXECUTION_MODE_MODULE_DAYJS)
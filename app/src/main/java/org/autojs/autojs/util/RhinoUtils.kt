@@ -8,12 +8,15 @@ import android.os.Parcelable
 import android.util.Log
 import org.autojs.autojs.AutoJs
 import org.autojs.autojs.core.automator.UiObjectCollection
+import org.autojs.autojs.core.trace.Tracer
 import org.autojs.autojs.extension.AnyExtensions.isJsNullish
 import org.autojs.autojs.extension.AnyExtensions.jsBrief
 import org.autojs.autojs.extension.AnyExtensions.jsSpecies
 import org.autojs.autojs.extension.AnyExtensions.jsUnwrapped
 import org.autojs.autojs.extension.ScriptableExtensions.defineProp
 import org.autojs.autojs.extension.ScriptableExtensions.prop
+import org.autojs.autojs.rhino.AutoJsContext
+import org.autojs.autojs.rhino.PrimitiveArrayView
 import org.autojs.autojs.rhino.TopLevelScope
 import org.autojs.autojs.runtime.ScriptRuntime
 import org.autojs.autojs.runtime.exception.ScriptInterruptedException
@@ -95,6 +98,25 @@ object RhinoUtils {
         } ?: throw IllegalStateException("Failed to get object: Function.prototype")
     }
 
+    /**
+     * Scope for converting Java values on [cx], which is the top-level scope of the calling script if any,
+     * or the cached [standardObjects] otherwise, instead of initializing standard objects for each conversion.
+     *
+     * zh-CN: 在 [cx] 上转换 Java 值所用的作用域. 存在调用脚本时为其顶层作用域, 否则为已缓存的 [standardObjects], 而非每次转换都初始化标准对象.
+     */
+    @JvmStatic
+    fun conversionScopeOf(cx: Context?): Scriptable {
+        return (cx as? AutoJsContext)?.rhinoJavaScriptEngine?.scriptable ?: standardObjects
+    }
+
+    /**
+     * Zero-copy array-like view of a primitive Java array in the scope of [cx], see [PrimitiveArrayView].
+     *
+     * zh-CN: 在 [cx] 的作用域中创建原始类型 Java 数组的零复制类数组视图, 参阅 [PrimitiveArrayView].
+     */
+    @JvmStatic
+    fun newPrimitiveArrayView(cx: Context?, array: Any) = PrimitiveArrayView(array, conversionScopeOf(cx))
+
     @JvmStatic
     fun callGlobalFunction(name: String, paramsToFunction: Array<Any?>): Any? {
         return callGlobalFunction(null, name, paramsToFunction)
@@ -757,14 +779,14 @@ object RhinoUtils {
         }
     }
 
-    fun <T, R> T.withTimeConsuming(name: String, function: (thisArg: T) -> R?): R? {
+    fun <T, R> T.withTimeConsuming(name: String, category: String = Tracer.CATEGORY_ENGINE, function: (thisArg: T) -> R?): R? {
 
         // @Hint by SuperMonster003 on Apr 5, 2025.
         //  ! Kotlin's measureTimeMillis also could be used to calculate the execution time of a function.
         //  ! zh-CN: 也可以使用 kotlin 的 measureTimeMillis 计算函数执行耗时.
 
         val start = System.currentTimeMillis()
-        val result = function.invoke(this)
+        val result = Tracer.trace(name, category) { function.invoke(this) }
         if (BuildConfig.DEBUG) {
             val duration = System.currentTimeMillis() - start
             val msg = "$name: $duration"
@@ -0,0 +1,211 @@
+package org.autojs.autojs.core.accessibility
+
+import android.view.accessibility.AccessibilityEvent
+import org.autojs.autojs.core.accessibility.BoundedEventQueue.OverflowPolicy
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.Collections
+import java.util.IdentityHashMap
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import android.accessibilityservice.AccessibilityService as SystemAccessibilityService
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class AsyncAccessibilityDelegateTest {
+
+    /**
+     * Synthetic events, as events of the system are stubs on the JVM.
+     */
+    private class Events : AsyncAccessibilityDelegate.EventAccess {
+
+        private val mTypes = Collections.synchronizedMap(IdentityHashMap<AccessibilityEvent, Int>())
+        private val mSeqs = Collections.synchronizedMap(IdentityHashMap<AccessibilityEvent, Int>())
+        private val mLive = Collections.synchronizedSet(Collections.newSetFromMap(IdentityHashMap<AccessibilityEvent, Boolean>()))
+
+        fun event(type: Int, seq: Int) = AccessibilityEvent().also {
+            mTypes[it] = type
+            mSeqs[it] = seq
+        }
+
+        fun seqOf(event: AccessibilityEvent) = mSeqs.getValue(event)
+
+        val liveCopies get() = mLive.size
+
+        override fun typeOf(event: AccessibilityEvent) = mTypes.getValue(event)
+
+        override fun copy(event: AccessibilityEvent) = event(typeOf(event), seqOf(event)).also { mLive += it }
+
+        override fun recycle(event: AccessibilityEvent) {
+            assertTrue("Event recycled twice", mLive.remove(event))
+        }
+
+    }
+
+    /**
+     * Delegate recording the sequence numbers it receives, which blocks on [gate] until released.
+     */
+    private inner class RecordingDelegate(private val gate: CountDownLatch = CountDownLatch(0)) : AccessibilityDelegate {
+
+        val received: MutableList<Int> = Collections.synchronizedList(mutableListOf())
+        val started = CountDownLatch(1)
+
+        override val eventTypes: Set<Int>? = null
+
+        override fun onAccessibilityEvent(service: SystemAccessibilityService, event: AccessibilityEvent): Boolean {
+            started.countDown()
+            gate.await(5, TimeUnit.SECONDS)
+            received += events.seqOf(event)
+            return true
+        }
+
+    }
+
+    private val events = Events()
+
+    private val service = object : SystemAccessibilityService() {
+        override fun onAccessibilityEvent(event: AccessibilityEvent?) = Unit
+        override fun onInterrupt() = Unit
+    }
+
+    private val delegates = mutableListOf<AsyncAccessibilityDelegate>()
+
+    @After
+    fun tearDown() = delegates.forEach { it.shutdown() }
+
+    private fun async(
+        delegate: AccessibilityDelegate,
+        capacity: Int = AsyncAccessibilityDelegate.DEFAULT_CAPACITY,
+        policy: OverflowPolicy = OverflowPolicy.DROP_OLDEST,
+        eventTypeMask: Int = AsyncAccessibilityDelegate.ALL_EVENT_TYPES_MASK,
+    ) = AsyncAccessibilityDelegate(delegate, capacity, policy, eventTypeMask, events).also { delegates += it }
+
+    private fun AsyncAccessibilityDelegate.post(type: Int, seq: Int) = onAccessibilityEvent(service, events.event(type, seq))
+
+    private fun AsyncAccessibilityDelegate.awaitDispatched(count: Long) {
+        val deadline = System.currentTimeMillis() + 5_000
+        while (metrics().dispatchedCount < count) {
+            check(System.currentTimeMillis() < deadline) { "Only ${metrics().dispatchedCount} of $count events dispatched" }
+            Thread.sleep(1)
+        }
+    }
+
+    @Test
+    fun eachDelegateReceivesEventsInOrderRegardlessOfOthers() {
+        val gate = CountDownLatch(1)
+        val slow = RecordingDelegate(gate)
+        val fast = RecordingDelegate()
+        val asyncSlow = async(slow)
+        val asyncFast = async(fast)
+        (1..20).forEach {
+            // Consuming delegates would stop the propagation if they ran synchronously.
+            assertEquals(false, asyncSlow.post(TYPE_A, it))
+            asyncFast.post(TYPE_A, it)
+        }
+        asyncFast.awaitDispatched(20)
+        assertEquals((1..20).toList(), fast.received)
+        assertTrue(slow.received.isEmpty())
+        gate.countDown()
+        asyncSlow.awaitDispatched(20)
+        assertEquals((1..20).toList(), slow.received)
+        assertEquals(0, events.liveCopies)
+    }
+
+    @Test
+    fun dropOldestAccountsForDroppedEvents() {
+        val gate = CountDownLatch(1)
+        val delegate = RecordingDelegate(gate)
+        val async = async(delegate, capacity = 4)
+        async.post(TYPE_A, 0)
+        assertTrue(delegate.started.await(5, TimeUnit.SECONDS))
+        (1..10).forEach { async.post(TYPE_A, it) }
+        assertEquals(6L, async.metrics().droppedCount)
+        assertEquals(4, async.metrics().queueDepth)
+        gate.countDown()
+        async.awaitDispatched(5)
+        assertEquals(listOf(0, 7, 8, 9, 10), delegate.received)
+        assertEquals(0, events.liveCopies)
+    }
+
+    @Test
+    fun coalesceAccountsForReplacedEvents() {
+        val gate = CountDownLatch(1)
+        val delegate = RecordingDelegate(gate)
+        val async = async(delegate, capacity = 3, policy = OverflowPolicy.COALESCE_BY_TYPE)
+        async.post(TYPE_A, 0)
+        assertTrue(delegate.started.await(5, TimeUnit.SECONDS))
+        async.post(TYPE_A, 1)
+        async.post(TYPE_B, 2)
+        async.post(TYPE_A, 3)
+        async.post(TYPE_B, 4)
+        assertEquals(1L, async.metrics().coalescedCount)
+        assertEquals(0L, async.metrics().droppedCount)
+        gate.countDown()
+        async.awaitDispatched(4)
+        assertEquals(listOf(0, 1, 3, 4), delegate.received)
+        assertEquals(0, events.liveCopies)
+    }
+
+    @Test
+    fun eventsOutsideTheMaskAreNeitherCopiedNorQueued() {
+        val delegate = RecordingDelegate()
+        val async = async(delegate, eventTypeMask = TYPE_A)
+        async.post(TYPE_B, 1)
+        async.post(TYPE_A, 2)
+        async.awaitDispatched(1)
+        assertEquals(listOf(2), delegate.received)
+        assertEquals(setOf(TYPE_A), async.eventTypes)
+        assertEquals(0, async.metrics().droppedCount + async.metrics().coalescedCount)
+    }
+
+    @Test
+    fun metricsReportDepthLatencyAndHandlingTime() {
+        val handlingMillis = 5L
+        val delegate = object : AccessibilityDelegate {
+            override val eventTypes: Set<Int>? = null
+            override fun onAccessibilityEvent(service: SystemAccessibilityService, event: AccessibilityEvent): Boolean {
+                Thread.sleep(handlingMillis)
+                return false
+            }
+        }
+        val async = async(delegate)
+        repeat(4) { async.post(TYPE_A, it) }
+        async.awaitDispatched(4)
+        val metrics = async.metrics()
+        assertEquals(delegate.javaClass.name, metrics.delegateName)
+        assertEquals(0, metrics.queueDepth)
+        assertTrue(metrics.maxQueueDepth in 1..4)
+        assertTrue("${metrics.averageHandlingMillis}", metrics.averageHandlingMillis >= handlingMillis)
+        // The last event waits for the three before it.
+        assertTrue("${metrics.maxLatencyMillis}", metrics.maxLatencyMillis >= handlingMillis * 3)
+        assertTrue(metrics.averageLatencyMillis >= metrics.averageHandlingMillis)
+    }
+
+    @Test
+    fun failingDelegateKeepsReceivingEvents() {
+        val received = Collections.synchronizedList(mutableListOf<Int>())
+        val delegate = object : AccessibilityDelegate {
+            override val eventTypes: Set<Int>? = null
+            override fun onAccessibilityEvent(service: SystemAccessibilityService, event: AccessibilityEvent): Boolean {
+                received += events.seqOf(event)
+                throw IllegalStateException("failed")
+            }
+        }
+        val async = async(delegate)
+        repeat(3) { async.post(TYPE_A, it) }
+        async.awaitDispatched(3)
+        assertEquals(listOf(0, 1, 2), received)
+        assertEquals(0, events.liveCopies)
+    }
+
+    companion object {
+
+        private const val TYPE_A = 1
+        private const val TYPE_B = 2
+
+    }
+
+}
@@ -0,0 +1,115 @@
+package org.autojs.autojs.core.accessibility
+
+import org.autojs.autojs.core.accessibility.BoundedEventQueue.OverflowPolicy
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import kotlin.concurrent.thread
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class BoundedEventQueueTest {
+
+    private data class Event(val type: Int, val seq: Int)
+
+    private fun queue(capacity: Int, policy: OverflowPolicy, discarded: MutableList<Event> = mutableListOf()) =
+        BoundedEventQueue(capacity, policy, Event::type) { discarded += it }
+
+    private fun BoundedEventQueue<Event>.drain() = generateSequence { take(0L)?.event }.toList()
+
+    @Test
+    fun dropOldestKeepsNewestEvents() {
+        val discarded = mutableListOf<Event>()
+        val queue = queue(3, OverflowPolicy.DROP_OLDEST, discarded)
+        (1..5).forEach { assertTrue(queue.offer(Event(1, it))) }
+        assertEquals(listOf(3, 4, 5), queue.drain().map { it.seq })
+        assertEquals(listOf(1, 2), discarded.map { it.seq })
+        assertEquals(2L, queue.droppedCount)
+        assertEquals(3, queue.maxDepth)
+    }
+
+    @Test
+    fun coalesceReplacesOldestEventOfSameType() {
+        val queue = queue(3, OverflowPolicy.COALESCE_BY_TYPE)
+        queue.offer(Event(1, 1))
+        queue.offer(Event(2, 2))
+        queue.offer(Event(1, 3))
+        queue.offer(Event(2, 4))
+        assertEquals(listOf(Event(1, 1), Event(1, 3), Event(2, 4)), queue.drain())
+        assertEquals(1L, queue.coalescedCount)
+        assertEquals(0L, queue.droppedCount)
+    }
+
+    @Test
+    fun coalesceFallsBackToDropOldest() {
+        val queue = queue(2, OverflowPolicy.COALESCE_BY_TYPE)
+        queue.offer(Event(1, 1))
+        queue.offer(Event(2, 2))
+        queue.offer(Event(3, 3))
+        assertEquals(listOf(2, 3), queue.drain().map { it.seq })
+        assertEquals(1L, queue.droppedCount)
+    }
+
+    @Test
+    fun blockWaitsForConsumer() {
+        val queue = queue(1, OverflowPolicy.BLOCK)
+        queue.offer(Event(1, 1))
+        val offered = CountDownLatch(1)
+        thread {
+            queue.offer(Event(1, 2))
+            offered.countDown()
+        }
+        assertFalse(offered.await(100, TimeUnit.MILLISECONDS))
+        assertEquals(1, queue.take()!!.event.seq)
+        assertTrue(offered.await(5, TimeUnit.SECONDS))
+        assertEquals(2, queue.take()!!.event.seq)
+    }
+
+    @Test
+    fun closeDiscardsPendingAndRejectsOffers() {
+        val discarded = mutableListOf<Event>()
+        val queue = queue(4, OverflowPolicy.DROP_OLDEST, discarded)
+        queue.offer(Event(1, 1))
+        queue.offer(Event(1, 2))
+        queue.close()
+        assertEquals(2, discarded.size)
+        assertFalse(queue.offer(Event(1, 3)))
+        assertNull(queue.take())
+    }
+
+    @Test
+    fun slowConsumerDoesNotBlockProducer() {
+        val queue = queue(8, OverflowPolicy.DROP_OLDEST)
+        val taken = CountDownLatch(1)
+        val release = CountDownLatch(1)
+        val consumer = thread {
+            queue.take()
+            taken.countDown()
+            release.await()
+        }
+        queue.offer(Event(1, 0))
+        assertTrue(taken.await(5, TimeUnit.SECONDS))
+        // The consumer is stuck, so every offer must return at once, dropping the oldest events.
+        (1..1000).forEach { assertTrue(queue.offer(Event(1, it))) }
+        release.countDown()
+        consumer.join()
+        assertEquals(queue.capacity, queue.depth)
+        assertEquals(1000L - queue.capacity, queue.droppedCount)
+        assertEquals((993..1000).toList(), queue.drain().map { it.seq })
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun asyncDelegateRejectsBlockingPolicy() {
+        val delegate = object : AccessibilityDelegate {
+            override val eventTypes: Set<Int>? = null
+            override fun onAccessibilityEvent(service: android.accessibilityservice.AccessibilityService, event: android.view.accessibility.AccessibilityEvent) = false
+        }
+        AsyncAccessibilityDelegate(delegate, policy = OverflowPolicy.BLOCK)
+    }
+
+}
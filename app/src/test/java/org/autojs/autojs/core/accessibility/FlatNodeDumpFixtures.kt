@@ -0,0 +1,33 @@
+package org.autojs.autojs.core.accessibility
+
+import org.autojs.autojs.core.automator.test.TestUiObject
+
+/**
+ * Rebuild the dump as a deterministic [TestUiObject] tree, e.g. for regression tests of selectors.
+ *
+ * zh-CN: 将转储重建为确定性的 [TestUiObject] 控件树, 可用于选择器的回归测试等.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+fun FlatNodeDump.toTestUiObject(): TestUiObject? {
+    if (size == 0) return null
+    val fixtures = Array(size) { node ->
+        TestUiObject.Fixture(
+            className = className(node),
+            text = text(node),
+            desc = desc(node),
+            id = id(node),
+            packageName = packageName(node),
+            left = left(node),
+            top = top(node),
+            right = right(node),
+            bottom = bottom(node),
+            clickable = hasFlag(node, FlatNodeDump.FLAG_CLICKABLE),
+            scrollable = hasFlag(node, FlatNodeDump.FLAG_SCROLLABLE),
+        )
+    }
+    for (node in 1 until size) {
+        fixtures[parent(node)].children += fixtures[node]
+    }
+    return TestUiObject(fixtures[0])
+}
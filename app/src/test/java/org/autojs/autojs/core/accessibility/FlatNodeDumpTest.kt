@@ -0,0 +1,136 @@
+package org.autojs.autojs.core.accessibility
+
+import org.autojs.autojs.core.automator.test.TestUiObject
+import org.autojs.autojs.core.automator.test.TestUiObject.Fixture
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.DataOutputStream
+import java.io.EOFException
+import java.io.IOException
+import java.nio.ByteBuffer
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class FlatNodeDumpTest {
+
+    private fun tree(fanOut: Int, depth: Int, prefix: String = "n"): Fixture = Fixture(
+        className = "android.widget.FrameLayout",
+        text = prefix,
+        children = when (depth) {
+            0 -> ArrayList()
+            else -> (0 until fanOut).mapTo(ArrayList()) { tree(fanOut, depth - 1, "$prefix.$it") }
+        },
+    )
+
+    private fun capture(fixture: Fixture, maxDepth: Int = FlatNodeDump.DEFAULT_MAX_DEPTH, maxNodes: Int = FlatNodeDump.DEFAULT_MAX_NODES) =
+        FlatNodeDump.capture(TestUiObject(fixture), maxDepth, maxNodes)
+
+    @Test
+    fun childrenAreContiguousInBreadthFirstOrder() {
+        val dump = capture(tree(3, 3))
+        assertEquals(1 + 3 + 9 + 27, dump.size)
+        for (node in 0 until dump.size) {
+            val children = dump.children(node)
+            assertEquals(dump.childCount(node), children.count())
+            children.forEachIndexed { i, child ->
+                assertEquals(node, dump.parent(child))
+                assertEquals("${dump.text(node)}.$i", dump.text(child))
+            }
+        }
+        assertTrue(dump.children(dump.size - 1).isEmpty())
+    }
+
+    @Test
+    fun capsDepthAndNodeCount() {
+        val byDepth = capture(tree(2, 5), maxDepth = 2)
+        assertEquals(1 + 2 + 4, byDepth.size)
+        assertTrue(byDepth.isTruncated)
+
+        val byCount = capture(tree(2, 5), maxNodes = 10)
+        assertEquals(10, byCount.size)
+        assertTrue(byCount.isTruncated)
+
+        assertFalse(capture(tree(2, 2)).isTruncated)
+    }
+
+    @Test
+    fun roundTripsThroughBinaryFormat() {
+        val huge = "文".repeat(40_000)
+        val dump = capture(Fixture(className = "android.webkit.WebView", children = arrayListOf(Fixture(text = huge), Fixture(text = "short"))))
+        val bytes = ByteArrayOutputStream().also { dump.writeTo(it) }.toByteArray()
+        val read = FlatNodeDump.readFrom(ByteArrayInputStream(bytes))
+        assertEquals(dump.size, read.size)
+        assertEquals(dump.strings, read.strings)
+        assertEquals(huge, read.text(1))
+        assertEquals(0..1, read.children(0).let { it.first - 1..it.last - 1 })
+    }
+
+    private fun stream(block: DataOutputStream.() -> Unit) =
+        ByteArrayInputStream(ByteArrayOutputStream().also { DataOutputStream(it).apply(block).flush() }.toByteArray())
+
+    private fun DataOutputStream.header() {
+        writeInt(0x464C4E44)
+        writeInt(2)
+        writeBoolean(false)
+    }
+
+    private fun bytesOf(fixture: Fixture) = ByteArrayOutputStream().also { capture(fixture).writeTo(it) }.toByteArray()
+
+    @Test(expected = IOException::class)
+    fun rejectsForgedStringCount() {
+        FlatNodeDump.readFrom(stream { header(); writeInt(Int.MAX_VALUE) })
+    }
+
+    @Test(expected = EOFException::class)
+    fun rejectsForgedStringLength() {
+        FlatNodeDump.readFrom(stream { header(); writeInt(1); writeInt(Int.MAX_VALUE); write(ByteArray(16)) })
+    }
+
+    @Test
+    fun acceptsNodeCountAtTheCap() {
+        assertEquals(15, FlatNodeDump.readFrom(ByteArrayInputStream(bytesOf(tree(2, 3))), maxNodes = 15).size)
+    }
+
+    @Test(expected = IOException::class)
+    fun rejectsNodeCountAboveTheCap() {
+        FlatNodeDump.readFrom(ByteArrayInputStream(bytesOf(tree(2, 3))), maxNodes = 10)
+    }
+
+    @Test(expected = EOFException::class)
+    fun rejectsTruncatedStream() {
+        val bytes = bytesOf(tree(2, 3))
+        FlatNodeDump.readFrom(ByteArrayInputStream(bytes.copyOf(bytes.size - 4)))
+    }
+
+    @Test(expected = IOException::class)
+    fun rejectsDanglingReferences() {
+        // The last node ends the stream, and the first of its ints is its parent, which is pointed at itself.
+        val forged = bytesOf(tree(2, 1)).also { ByteBuffer.wrap(it).putInt(it.size - 4 * 15, 2) }
+        FlatNodeDump.readFrom(ByteArrayInputStream(forged))
+    }
+
+    @Test
+    fun rebuildsTestUiObjectTree() {
+        val dump = capture(tree(3, 2))
+        val rebuilt = FlatNodeDump.capture(dump.toTestUiObject()!!)
+        assertEquals(dump.size, rebuilt.size)
+        for (node in 0 until dump.size) {
+            assertEquals(dump.text(node), rebuilt.text(node))
+            assertEquals(dump.parent(node), rebuilt.parent(node))
+        }
+    }
+
+    @Test
+    fun capturesTenThousandNodes() {
+        val dump = capture(tree(10, 4))
+        assertEquals(11_111, dump.size)
+        assertFalse(dump.isTruncated)
+        assertEquals(dump.size - 1, (0 until dump.size).sumOf { dump.children(it).count() })
+    }
+
+}
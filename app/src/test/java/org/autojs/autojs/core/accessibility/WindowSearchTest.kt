@@ -0,0 +1,84 @@
+package org.autojs.autojs.core.accessibility
+
+import org.autojs.autojs.core.automator.UiObject
+import org.autojs.autojs.core.automator.test.TestUiObject
+import org.autojs.autojs.core.automator.test.TestUiObject.Fixture
+import org.autojs.autojs.runtime.exception.ScriptInterruptedException
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicReference
+import kotlin.concurrent.thread
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class WindowSearchTest {
+
+    private val windows = (0 until 6).map { window -> (0 until 5).map { "w$window-n$it" } }
+
+    private fun searcher(delayMillis: Long = 0L): (List<String>, Int) -> List<UiObject> = { texts, limit ->
+        if (delayMillis > 0) Thread.sleep(delayMillis)
+        texts.take(limit).map { TestUiObject(Fixture(text = it)) }
+    }
+
+    private fun List<UiObject>.texts() = map { it.text() }
+
+    @Test
+    fun parallelSearchMatchesSequentialOrder() {
+        val search = WindowSearch(parallelism = 4)
+        for (max in listOf(1, 3, 5, 12, 30, Int.MAX_VALUE)) {
+            val sequential = search.search(windows, max, { null }, false, searcher()).texts()
+            val parallel = search.search(windows, max, { null }, true, searcher(5L)).texts()
+            assertEquals("max = $max", sequential, parallel)
+            assertEquals(minOf(max, 30), parallel.size)
+        }
+    }
+
+    @Test
+    fun slowWindowsAreSearchedConcurrently() {
+        val search = WindowSearch(parallelism = 4)
+        // Each search waits for all four to have started, which only happens if they run concurrently.
+        val started = CountDownLatch(4)
+        val concurrent = AtomicInteger()
+        search.search(windows.take(4), Int.MAX_VALUE, { null }, true) { texts, limit ->
+            started.countDown()
+            if (started.await(5, TimeUnit.SECONDS)) concurrent.incrementAndGet()
+            texts.take(limit).map { TestUiObject(Fixture(text = it)) }
+        }
+        assertEquals(4, concurrent.get())
+        assertEquals(4, search.lastTimings.size)
+    }
+
+    @Test
+    fun interruptionCancelsPendingSearches() {
+        val search = WindowSearch(parallelism = 2)
+        val started = CountDownLatch(2)
+        val workerInterrupted = CountDownLatch(1)
+        val thrown = AtomicReference<Throwable>()
+        val caller = thread {
+            try {
+                search.search(windows.take(2), Int.MAX_VALUE, { null }, true) { _, _ ->
+                    started.countDown()
+                    try {
+                        Thread.sleep(60_000L)
+                    } catch (e: InterruptedException) {
+                        workerInterrupted.countDown()
+                    }
+                    emptyList()
+                }
+            } catch (t: Throwable) {
+                thrown.set(t)
+            }
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS))
+        caller.interrupt()
+        caller.join(5_000L)
+        assertTrue(thrown.get() is ScriptInterruptedException)
+        assertTrue(workerInterrupted.await(5, TimeUnit.SECONDS))
+    }
+
+}
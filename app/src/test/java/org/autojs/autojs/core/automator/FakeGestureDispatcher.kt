@@ -0,0 +1,44 @@
+package org.autojs.autojs.core.automator
+
+import android.accessibilityservice.GestureDescription.StrokeDescription
+
+/**
+ * A [GestureQueue.Dispatcher] which records every dispatched gesture and completes it synchronously,
+ * so that batched gesture operations can be exercised without an accessibility service.
+ *
+ * zh-CN: 记录所有已分发手势并同步完成的 [GestureQueue.Dispatcher], 用于在没有无障碍服务的情况下检验批量手势操作.
+ *
+ * Created by agent on Oct 19, 2026.
+ *
+ * @param cancelAt Index of the dispatch to be cancelled, or -1 to complete all.
+ * @param rejectAt Index of the dispatch to be rejected (returning false), or -1 to accept all.
+ * @param holdAt Index of the dispatch whose result is never reported (like with a dead service), or -1 to report all.
+ */
+class FakeGestureDispatcher @JvmOverloads constructor(
+    private val cancelAt: Int = -1,
+    private val rejectAt: Int = -1,
+    private val holdAt: Int = -1,
+    override val maxStrokeCount: Int = 20,
+    override val maxGestureDuration: Long = 60_000L,
+) : GestureQueue.Dispatcher {
+
+    private val mDispatched = ArrayList<List<StrokeDescription>>()
+
+    val dispatched: List<List<StrokeDescription>> get() = synchronized(mDispatched) { mDispatched.toList() }
+
+    val strokeCount get() = dispatched.sumOf { it.size }
+
+    override fun dispatch(strokes: List<StrokeDescription>, onResult: (isCompleted: Boolean) -> Unit): Boolean {
+        val index = synchronized(mDispatched) { mDispatched.size.also { mDispatched += strokes } }
+        when (index) {
+            rejectAt -> return false
+            holdAt -> Unit
+            cancelAt -> onResult(false)
+            else -> onResult(true)
+        }
+        return true
+    }
+
+    fun queue() = GestureQueue(this)
+
+}
@@ -0,0 +1,124 @@
+package org.autojs.autojs.core.automator
+
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.autojs.autojs.core.automator.test.TestUiObject
+import org.junit.Test
+import java.util.concurrent.TimeUnit
+import kotlin.concurrent.thread
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class GestureQueueTest {
+
+    @Test
+    fun twoPointDragIsSplitIntoContinuousPieces() {
+        val pieces = GestureQueue.splitPolyline(intArrayOf(0, 0, 1000, 0), 4)
+        assertEquals(4, pieces.size)
+        assertArrayEquals(intArrayOf(0, 0, 250, 0), pieces[0])
+        assertArrayEquals(intArrayOf(750, 0, 1000, 0), pieces[3])
+        for (i in 1 until pieces.size) {
+            val previous = pieces[i - 1]
+            assertEquals(previous[previous.size - 2], pieces[i][0])
+            assertEquals(previous[previous.size - 1], pieces[i][1])
+        }
+    }
+
+    @Test
+    fun splitKeepsInnerVertices() {
+        val pieces = GestureQueue.splitPolyline(intArrayOf(0, 0, 100, 0, 100, 100), 2)
+        assertArrayEquals(intArrayOf(0, 0, 100, 0), pieces[0])
+        assertArrayEquals(intArrayOf(100, 0, 100, 100), pieces[1])
+    }
+
+    @Test
+    fun splitOfPointKeepsPoint() {
+        val pieces = GestureQueue.splitPolyline(intArrayOf(5, 5, 5, 5), 3)
+        assertEquals(3, pieces.size)
+        pieces.forEach { assertArrayEquals(intArrayOf(5, 5, 5, 5), it) }
+    }
+
+    @Test
+    fun synchronousCompletionsDoNotNestCalls() {
+        val count = 100_000
+        val depths = ArrayList<Int>()
+        val result = GestureQueue.Pipeline((0 until count).toList()) { _, onResult ->
+            depths += Thread.currentThread().stackTrace.size
+            onResult(true)
+            true
+        }.start().future.get(10, TimeUnit.SECONDS)
+        assertTrue(result.isSuccessful)
+        assertEquals(count, result.completedCount)
+        assertEquals(1, depths.distinct().size)
+    }
+
+    @Test
+    fun asynchronousCompletionsDispatchInOrder() {
+        val dispatched = ArrayList<Int>()
+        val result = GestureQueue.Pipeline((0 until 50).toList()) { item, onResult ->
+            synchronized(dispatched) { dispatched += item }
+            thread { onResult(true) }
+            true
+        }.start().future.get(10, TimeUnit.SECONDS)
+        assertTrue(result.isSuccessful)
+        assertEquals((0 until 50).toList(), dispatched)
+    }
+
+    @Test
+    fun cancellationStopsTheBatch() {
+        val dispatched = ArrayList<Int>()
+        val result = GestureQueue.Pipeline((0 until 10).toList()) { item, onResult ->
+            dispatched += item
+            onResult(item != 3)
+            true
+        }.start().future.get(10, TimeUnit.SECONDS)
+        assertFalse(result.isSuccessful)
+        assertEquals(3, result.completedCount)
+        assertEquals(listOf(0, 1, 2, 3), dispatched)
+    }
+
+    @Test
+    fun rejectionStopsTheBatch() {
+        val result = GestureQueue.Pipeline((0 until 10).toList()) { item, onResult ->
+            if (item == 5) return@Pipeline false
+            onResult(true)
+            true
+        }.start().future.get(10, TimeUnit.SECONDS)
+        assertFalse(result.isSuccessful)
+        assertEquals(5, result.completedCount)
+    }
+
+    @Test
+    fun tapsArePackedUpToTheStrokeLimit() {
+        val dispatcher = FakeGestureDispatcher(maxStrokeCount = 20)
+        val queue = dispatcher.queue()
+        queue.taps(IntArray(45 * 2) { it }, 10L)
+        val result = queue.dispatchAndWait(10_000L)
+        assertTrue(result.isSuccessful)
+        assertEquals(3, result.completedCount)
+        assertEquals(listOf(20, 20, 5), dispatcher.dispatched.map { it.size })
+    }
+
+    @Test
+    fun unreportedGestureTimesOutWithoutDispatchingTheRest() {
+        val dispatcher = FakeGestureDispatcher(holdAt = 1)
+        val queue = dispatcher.queue()
+        repeat(4) { queue.tap(it, it, 10L) }
+        val result = queue.dispatchAndWait(50L)
+        assertFalse(result.isSuccessful)
+        assertEquals(1, result.completedCount)
+        assertEquals(2, dispatcher.dispatched.size)
+    }
+
+    @Test
+    fun clickBoundsAllReportsNodesOfCompletedGesturesOnly() {
+        val nodes = List<UiObject?>(5) { TestUiObject(TestUiObject.Fixture(text = "$it")) }
+        val dispatcher = FakeGestureDispatcher(holdAt = 1, maxStrokeCount = 2)
+        val result = UiObjectCollection.of(nodes).clickBoundsAll(dispatcher.queue(), 10L, 50L, 50L)
+        assertEquals(listOf(true, true, false, false, false), result.results.map { it.isSuccessful })
+    }
+
+}
@@ -0,0 +1,86 @@
+package org.autojs.autojs.core.automator
+
+import org.autojs.autojs.core.accessibility.UiSelector
+import org.autojs.autojs.core.automator.test.TestScrollingUiObject
+import org.autojs.autojs.core.automator.test.TestUiObject.Fixture
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class ScrollCollectorTest {
+
+    private val items = List(10) { Fixture(className = "android.widget.TextView", text = "item $it") }
+
+    private val selector = UiSelector(null).textStartsWith("item")
+
+    private fun collector(
+        container: UiObject,
+        maxScrolls: Int = ScrollCollector.DEFAULT_MAX_SCROLLS,
+        maxItems: Int = Int.MAX_VALUE,
+    ) = ScrollCollector(container, selector, ScrollCollector.DEFAULT_KEY_FUNCTION, maxScrolls, maxItems, settleMillis = 0)
+
+    private fun UiObjectCollection.texts() = (0 until size()).map { get(it)!!.text() }
+
+    private fun textsOf(range: IntRange) = range.map { "item $it" }
+
+    @Test
+    fun overlappingPagesAreDeduplicated() {
+        // Pages of 4 items advancing by 2, i.e. half of each page has been seen before.
+        val container = TestScrollingUiObject(items, visibleCount = 4, scrollStep = 2)
+        val result = collector(container).collect()
+        assertEquals(textsOf(0..9), result.items.texts())
+        assertEquals(3, result.scrollCount)
+        assertTrue(result.reachedEnd)
+    }
+
+    @Test
+    fun failedScrollEndsTheCollection() {
+        val container = TestScrollingUiObject(items, visibleCount = 4)
+        val result = collector(container).collect { false }
+        assertEquals(textsOf(0..3), result.items.texts())
+        assertEquals(0, result.scrollCount)
+        assertTrue(result.reachedEnd)
+    }
+
+    @Test
+    fun scrollsBringingNoNewItemsEndTheCollection() {
+        // A scroll which reports success but never moves, like a list bouncing at its end.
+        val container = TestScrollingUiObject(items, visibleCount = 4)
+        val result = collector(container).collect { true }
+        assertEquals(textsOf(0..3), result.items.texts())
+        assertEquals(ScrollCollector.DEFAULT_IDLE_SCROLLS, result.scrollCount)
+        assertTrue(result.reachedEnd)
+    }
+
+    @Test
+    fun collectionStopsAtMaxItems() {
+        val container = TestScrollingUiObject(items, visibleCount = 4)
+        val result = collector(container, maxItems = 5).collect()
+        assertEquals(textsOf(0..4), result.items.texts())
+        assertEquals(1, result.scrollCount)
+        assertFalse(result.reachedEnd)
+    }
+
+    @Test
+    fun collectionStopsAtMaxScrolls() {
+        val container = TestScrollingUiObject(items, visibleCount = 4, scrollStep = 2)
+        val result = collector(container, maxScrolls = 1).collect()
+        assertEquals(textsOf(0..5), result.items.texts())
+        assertEquals(1, result.scrollCount)
+        assertEquals(1, container.scrollCount)
+        assertFalse(result.reachedEnd)
+    }
+
+    @Test
+    fun selectorScrollCollectReturnsEveryItemOnce() {
+        val container = TestScrollingUiObject(items, visibleCount = 3)
+        val result = selector.scrollCollect(container)
+        assertEquals(textsOf(0..9), result.texts())
+        assertEquals(3, container.scrollCount)
+    }
+
+}
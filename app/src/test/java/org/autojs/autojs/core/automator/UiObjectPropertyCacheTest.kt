@@ -0,0 +1,74 @@
+package org.autojs.autojs.core.automator
+
+import android.graphics.Rect
+import android.view.accessibility.AccessibilityNodeInfo
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Test
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class UiObjectPropertyCacheTest {
+
+    /**
+     * Node which counts how often each property is read from the underlying node info.
+     */
+    private class CountingUiObject(private val text: String, private val desc: String? = null) : UiObject(AccessibilityNodeInfo()) {
+
+        val reads = mutableMapOf<String, Int>()
+
+        private fun <T> read(name: String, value: T): T = value.also { reads[name] = (reads[name] ?: 0) + 1 }
+
+        override fun getText(): CharSequence = read("text", text)
+        override fun getContentDescription(): CharSequence? = read("desc", desc)
+        override fun getClassName(): CharSequence = read("className", "android.widget.TextView")
+        override fun getPackageName(): CharSequence = read("packageName", "org.autojs.test")
+        override fun getViewIdResourceName(): String = read("id", "org.autojs.test:id/label")
+        override fun getBoundsInScreen(outBounds: Rect) = read("bounds", Unit)
+
+    }
+
+    @Test
+    fun propertiesAreReadOncePerSnapshot() {
+        val node = CountingUiObject("hello")
+        repeat(5) {
+            assertEquals("hello", node.text())
+            assertNull(node.desc())
+            assertEquals("android.widget.TextView", node.className())
+            assertEquals("org.autojs.test", node.packageName())
+            assertEquals("org.autojs.test:id/label", node.fullId())
+            node.bounds()
+        }
+        assertEquals(mapOf("text" to 1, "desc" to 1, "className" to 1, "packageName" to 1, "id" to 1, "bounds" to 1), node.reads)
+    }
+
+    @Test
+    fun refreshInvalidatesCachedProperties() {
+        val node = CountingUiObject("hello")
+        node.text()
+        node.desc()
+        node.refresh()
+        node.text()
+        node.text()
+        assertEquals(2, node.reads["text"])
+        assertEquals(1, node.reads["desc"])
+        node.desc()
+        assertEquals(2, node.reads["desc"])
+    }
+
+    @Test
+    fun prefetchReadsEachPropertyOnce() {
+        val nodes = List(3) { CountingUiObject("item $it", "desc $it") }
+        UiObjectCollection.of(nodes).prefetch()
+        val expected = mapOf("text" to 1, "desc" to 1, "className" to 1, "packageName" to 1, "id" to 1, "bounds" to 1)
+        nodes.forEach { assertEquals(expected, it.reads) }
+        nodes.forEachIndexed { i, node ->
+            assertEquals("item $i", node.text())
+            assertEquals("desc $i", node.desc())
+            node.bounds()
+        }
+        nodes.forEach { assertEquals(expected, it.reads) }
+    }
+
+}
@@ -0,0 +1,71 @@
+package org.autojs.autojs.core.automator.diff
+
+import org.autojs.autojs.core.automator.diff.TreeSnapshot.Node
+import org.autojs.autojs.core.automator.test.TestUiObject
+import org.autojs.autojs.core.automator.test.TestUiObject.Fixture
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class TreeDiffTest {
+
+    private fun node(key: String, text: String = "", left: Int = 0, identity: Any = key) =
+        Node(key, key, null, "android.widget.TextView", text, null, left, 0, left + 10, 10, 1, identity)
+
+    @Test
+    fun identicalSnapshotsHaveNoDifferences() {
+        val nodes = listOf(node("a"), node("b"))
+        assertTrue(TreeDiff.between(TreeSnapshot(nodes), TreeSnapshot(nodes)).isEmpty())
+    }
+
+    @Test
+    fun reportsAddedRemovedChangedAndMovedNodes() {
+        val previous = TreeSnapshot(listOf(node("a", "x"), node("b"), node("c")))
+        val current = TreeSnapshot(listOf(node("a", "y"), node("b", left = 5), node("d")))
+        val diff = TreeDiff.between(previous, current)
+        assertEquals(listOf("d"), diff.added.map { it.key })
+        assertEquals(listOf("c"), diff.removed.map { it.key })
+        assertEquals(listOf("a"), diff.textChanged.map { it.key })
+        assertEquals(listOf("b"), diff.boundsMoved.map { it.key })
+    }
+
+    @Test
+    fun nodesAreMatchedByIdentityRatherThanKey() {
+        val first = Any()
+        val second = Any()
+        val previous = TreeSnapshot(listOf(node("TextView[0]", "1", identity = first), node("TextView[1]", "2", identity = second)))
+        val current = TreeSnapshot(listOf(node("TextView[0]", "new"), node("TextView[1]", "1", identity = first), node("TextView[2]", "2", identity = second)))
+        val diff = TreeDiff.between(previous, current)
+        assertEquals(listOf("TextView[0]"), diff.added.map { it.key })
+        assertTrue(diff.removed.isEmpty())
+        assertTrue(diff.textChanged.isEmpty())
+    }
+
+    @Test
+    fun insertingSiblingDoesNotReportLaterSiblingsAsReplaced() {
+        val items = (0 until 5).map { Fixture(className = "android.widget.TextView", text = "item $it", identity = "item-$it") }
+        val before = Fixture(className = "android.widget.LinearLayout", identity = "list", children = items.toMutableList())
+        val inserted = Fixture(className = "android.widget.TextView", text = "inserted", identity = "inserted")
+        val after = Fixture(className = "android.widget.LinearLayout", identity = "list", children = (listOf(inserted) + items).toMutableList())
+
+        val diff = TreeSnapshot.of(TestUiObject(after)).diff(TreeSnapshot.of(TestUiObject(before)))
+
+        assertEquals(listOf("inserted"), diff.added.map { it.text })
+        assertTrue(diff.removed.isEmpty())
+        assertTrue(diff.textChanged.isEmpty())
+    }
+
+    @Test
+    fun diffOfLargeSnapshotsReportsEveryChange() {
+        val size = 20_000
+        val previous = TreeSnapshot((0 until size).map { node("n$it", "t$it") })
+        val current = TreeSnapshot((0 until size).map { node("n$it", if (it % 100 == 0) "changed" else "t$it") })
+        val diff = TreeDiff.between(previous, current)
+        assertEquals((0 until size step 100).map { "n$it" }, diff.textChanged.map { it.key })
+        assertTrue(diff.added.isEmpty() && diff.removed.isEmpty() && diff.boundsMoved.isEmpty())
+    }
+
+}
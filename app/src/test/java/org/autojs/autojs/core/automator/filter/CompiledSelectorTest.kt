@@ -0,0 +1,65 @@
+package org.autojs.autojs.core.automator.filter
+
+import org.autojs.autojs.core.automator.test.TestUiObject
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNotEquals
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class CompiledSelectorTest {
+
+    @Before
+    fun setUp() = CompiledSelector.clearCache()
+
+    @Test
+    fun selectorsWithSameStringFormButDifferentTextAreNotShared() {
+        // One filter whose value contains quotes vs. two filters, both printed as `text("x").text("y")`.
+        val single = selectorOf(TextFilter.equals("x\").text(\"y"))
+        val double = selectorOf(TextFilter.equals("x"), TextFilter.equals("y"))
+        assertEquals(single.toString(), double.toString())
+
+        val compiledSingle = CompiledSelector.of(single)
+        val compiledDouble = CompiledSelector.of(double)
+        assertNotSame(compiledSingle, compiledDouble)
+
+        val node = TestUiObject(TestUiObject.Fixture(text = "x\").text(\"y"))
+        assertTrue(compiledSingle.filter(node))
+        assertFalse(compiledDouble.filter(node))
+    }
+
+    @Test
+    fun boundsDifferingBelowPrintedPrecisionAreNotShared() {
+        val a = selectorOf(BoundsFilter(0.1234, 0.0, 1.0, 1.0, BoundsFilter.TYPE_INSIDE))
+        val b = selectorOf(BoundsFilter(0.1236, 0.0, 1.0, 1.0, BoundsFilter.TYPE_INSIDE))
+        assertEquals(a.toString(), b.toString())
+        assertNotEquals(CompiledSelector.keyOf(a.filters.first), CompiledSelector.keyOf(b.filters.first))
+        assertNotSame(CompiledSelector.of(a), CompiledSelector.of(b))
+    }
+
+    @Test
+    fun structurallyEqualSelectorsAreShared() {
+        val a = selectorOf(TextFilter.matches("a.+"), BoundsFilter(0.5, 0.0, 1.0, 1.0, BoundsFilter.TYPE_INSIDE))
+        val b = selectorOf(TextFilter.matches("a.+"), BoundsFilter(0.5, 0.0, 1.0, 1.0, BoundsFilter.TYPE_INSIDE))
+        assertSame(CompiledSelector.of(a), CompiledSelector.of(b))
+    }
+
+    @Test
+    fun compiledSelectorMatchesSourceSelector() {
+        val selector = selectorOf(TextFilter.matches("^ok.*"), TextFilter.contains("k"))
+        val compiled = CompiledSelector.of(selector)
+        listOf("ok", "okay", "no", "").forEach {
+            val node = TestUiObject(TestUiObject.Fixture(text = it))
+            assertEquals(selector.filter(node), compiled.filter(node))
+        }
+    }
+
+    private fun selectorOf(vararg filters: Filter) = Selector().apply { filters.forEach { add(it) } }
+
+}
@@ -0,0 +1,89 @@
+package org.autojs.autojs.core.automator.path
+
+import org.autojs.autojs.core.automator.UiObject
+import org.autojs.autojs.core.automator.test.TestUiObject
+import org.autojs.autojs.core.automator.test.TestUiObject.Fixture
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class UiPathTest {
+
+    private val root = TestUiObject(
+        Fixture(
+            className = "android.widget.FrameLayout", children = mutableListOf(
+                Fixture(
+                    className = "android.widget.LinearLayout", children = mutableListOf(
+                        Fixture(className = "android.widget.TextView", text = "Price"),
+                        Fixture(className = "android.widget.TextView", text = "9.99"),
+                    )
+                ),
+                Fixture(
+                    className = "android.widget.LinearLayout", children = mutableListOf(
+                        Fixture(className = "android.widget.TextView", text = "Name"),
+                    )
+                ),
+                Fixture(className = "android.widget.Button", text = "OK"),
+            )
+        )
+    )
+
+    @Test
+    fun nestedPredicateSelectsByDescendant() {
+        assertEquals(listOf("9.99"), texts("//LinearLayout[.//TextView[@text='Price']]/TextView[2]"))
+    }
+
+    @Test
+    fun positionalPredicateIsPerContext() {
+        assertEquals(listOf("Price", "Name"), texts("//LinearLayout/TextView[1]"))
+        assertEquals(listOf("9.99", "Name"), texts("//LinearLayout/TextView[last()]"))
+    }
+
+    @Test
+    fun numericAttributePredicateIsNotPositional() {
+        assertEquals(listOf("FrameLayout", "LinearLayout", "LinearLayout"), classes("//*[@childCount]"))
+        assertEquals(listOf("Price", "9.99", "Name"), texts("//TextView[@depth]"))
+        assertEquals(listOf("LinearLayout"), classes("//*[@childCount = 2]"))
+    }
+
+    @Test
+    fun reverseAxisResultsAreInDocumentOrderWithoutDuplicates() {
+        assertEquals(listOf("FrameLayout", "LinearLayout", "LinearLayout"), classes("//TextView/ancestor::*"))
+        assertEquals(listOf("LinearLayout", "LinearLayout"), classes("//Button/preceding-sibling::*"))
+    }
+
+    @Test
+    fun findOneReturnsTheFirstNodeInDocumentOrder() {
+        listOf(
+            "//TextView", "//LinearLayout/TextView", "//LinearLayout//TextView[@text='Name']", "//*[@text='9.99']",
+            "//LinearLayout[.//TextView[@text='Name']]/TextView", "/FrameLayout/Button", "//Spinner",
+            "//TextView[2]", "//LinearLayout/TextView[last()]", "//Button/preceding-sibling::*", "//TextView/..",
+        ).forEach { path ->
+            assertEquals(path, select(path).firstOrNull()?.let(::describe), UiPath.compile(path).findOne(root)?.let(::describe))
+        }
+    }
+
+    @Test
+    fun findOneStopsAtTheFirstMatch() {
+        val wide = TestUiObject(Fixture(className = "android.widget.FrameLayout", children = MutableList(100) { i ->
+            Fixture(className = "android.widget.LinearLayout", children = MutableList(4) { j ->
+                Fixture(className = "android.widget.TextView", text = "Row $i.$j")
+            })
+        }))
+        val created = TestUiObject.count
+        assertEquals("Row 0.1", UiPath.compile("//LinearLayout/TextView[@text='Row 0.1']").findOne(wide)?.text())
+        // The first row and its first two children, out of 500 nodes below the root.
+        assertEquals(3, TestUiObject.count - created)
+    }
+
+    private fun describe(node: UiObject) = "${node.className()?.substringAfterLast('.')}(${node.text()})"
+
+    private fun select(path: String): List<UiObject> = UiPath.compile(path).find(root).toList().filterNotNull()
+
+    private fun texts(path: String) = select(path).map { it.text() }
+
+    private fun classes(path: String) = select(path).map { it.className()!!.substringAfterLast('.') }
+
+}
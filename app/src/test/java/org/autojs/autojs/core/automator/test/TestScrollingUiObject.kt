@@ -0,0 +1,81 @@
+package org.autojs.autojs.core.automator.test
+
+import android.graphics.Rect
+import android.os.Bundle
+import androidx.core.view.accessibility.AccessibilityNodeInfoCompat.AccessibilityActionCompat
+import org.autojs.autojs.core.automator.UiObject
+
+/**
+ * A simulated scrollable container which shows a window of [visibleCount] items out of [items] at a time.
+ *
+ * Scrolling forward or backward moves the window by [scrollStep] items and fails at either end of the list,
+ * which makes it possible to exercise scroll-based logic such as [org.autojs.autojs.core.automator.ScrollCollector] on the JVM.
+ *
+ * zh-CN:
+ *
+ * 模拟的可滚动容器, 每次仅显示 [items] 中的 [visibleCount] 个条目.
+ *
+ * 向前或向后滚动时窗口移动 [scrollStep] 个条目, 到达列表任一端时滚动失败,
+ * 因此可在 JVM 上测试 [org.autojs.autojs.core.automator.ScrollCollector] 等基于滚动的逻辑.
+ *
+ * Created by agent on Oct 19, 2026.
+ */
+class TestScrollingUiObject @JvmOverloads constructor(
+    private val items: List<TestUiObject.Fixture>,
+    private val visibleCount: Int,
+    private val scrollStep: Int = visibleCount,
+    private val bounds: Rect = Rect(0, 0, 1080, 1920),
+) : UiObject(null) {
+
+    var offset = 0
+        private set
+
+    var scrollCount = 0
+        private set
+
+    override fun getChildCount() = minOf(visibleCount, items.size - offset)
+
+    override fun child(i: Int): UiObject? {
+        val index = if (i < 0) i + childCount else i
+        if (index !in 0 until childCount) return null
+        return TestUiObject(items[offset + index])
+    }
+
+    override fun parent(): UiObject? = null
+
+    override fun isScrollable() = true
+
+    override fun getBoundsInScreen(outBounds: Rect) = outBounds.set(bounds)
+
+    override fun getText(): CharSequence? = null
+
+    override fun getContentDescription(): CharSequence? = null
+
+    override fun getClassName(): CharSequence = "android.widget.ListView"
+
+    override fun getPackageName(): CharSequence? = null
+
+    override fun getViewIdResourceName(): String? = null
+
+    override fun refresh() = true
+
+    override fun performAction(action: Int, bundle: Bundle) = performAction(action)
+
+    override fun performAction(action: Int): Boolean {
+        val target = when (action) {
+            AccessibilityActionCompat.ACTION_SCROLL_FORWARD.id -> minOf(offset + scrollStep, maxOf(0, items.size - visibleCount))
+            AccessibilityActionCompat.ACTION_SCROLL_BACKWARD.id -> maxOf(offset - scrollStep, 0)
+            else -> return false
+        }
+        if (target == offset) return false
+        offset = target
+        scrollCount += 1
+        return true
+    }
+
+    @Deprecated("Deprecated in Java")
+    override fun recycle() {
+        /* Nothing to recycle. */
+    }
+
+}
@@ -0,0 +1,167 @@
+package org.autojs.autojs.core.automator.test
+
+import android.graphics.Rect
+import android.os.Bundle
+import org.autojs.autojs.core.automator.UiObject
+import java.util.*
+import kotlin.math.max
+
+/**
+ * Created by Stardust on May 5, 2017.
+ * Modified by agent as of Oct 19, 2026.
+ */
+class TestUiObject private constructor(
+    private val mChildCount: Int,
+    private val mFixture: Fixture?,
+    private val mParent: TestUiObject?,
+    depth: Int,
+    indexInParent: Int,
+) : UiObject(null, depth, indexInParent) {
+
+    @JvmOverloads
+    constructor(childCount: Int = max(0, random.nextInt(6) - 2)) : this(childCount, null, null, 0, -1)
+
+    /**
+     * Creates a deterministic tree whose properties are all taken from [fixture].
+     *
+     * zh-CN: 创建一个确定性的控件树, 其所有属性均取自 [fixture].
+     */
+    constructor(fixture: Fixture) : this(fixture.children.size, fixture, null, 0, -1)
+
+    private val mHashCode = random.nextInt()
+    private var mRecycled = false
+
+    init {
+        count++
+        max = max(max, count)
+    }
+
+    override fun identity(): Any? = mFixture?.identity
+
+    override fun child(i: Int): UiObject? {
+        val fixture = mFixture ?: return TestUiObject()
+        val index = if (i < 0) i + mChildCount else i
+        val childFixture = fixture.children.getOrNull(index) ?: return null
+        return TestUiObject(childFixture.children.size, childFixture, this, depth() + 1, index)
+    }
+
+    override fun parent(): UiObject? {
+        mFixture ?: return TestUiObject()
+        return mParent
+    }
+
+    override fun getChildCount(): Int {
+        return mChildCount
+    }
+
+    override fun isScrollable(): Boolean {
+        return mFixture?.scrollable ?: (random.nextInt(4) == 0)
+    }
+
+    override fun isClickable(): Boolean {
+        return mFixture?.clickable ?: random.nextBoolean()
+    }
+
+    override fun getBoundsInScreen(outBounds: Rect) {
+        mFixture?.let {
+            outBounds.set(it.left, it.top, it.right, it.bottom)
+            return
+        }
+        val left = random.nextInt(1080)
+        val top = random.nextInt(1920)
+        val right = random.nextInt(1080 - left) + left
+        val bottom = random.nextInt(1920 - top) + top
+        outBounds.set(left, top, right, bottom)
+    }
+
+    override fun getText(): CharSequence? = mFixture?.text ?: ""
+
+    override fun isLongClickable() = false
+
+    override fun isCheckable() = false
+
+    override fun isChecked() = false
+
+    override fun isEnabled() = true
+
+    override fun isFocusable() = false
+
+    override fun isSelected() = false
+
+    override fun isVisibleToUser() = true
+
+    override fun isEditable() = false
+
+    override fun isPassword() = false
+
+    override fun getContentDescription(): CharSequence? = mFixture?.desc
+
+    override fun getClassName(): CharSequence? = mFixture?.className
+
+    override fun getPackageName(): CharSequence? = mFixture?.packageName
+
+    override fun getViewIdResourceName(): String? = mFixture?.id
+
+    override fun performAction(action: Int, bundle: Bundle): Boolean {
+        return random.nextBoolean()
+    }
+
+    override fun performAction(action: Int): Boolean {
+        return random.nextBoolean()
+    }
+
+    @Deprecated("Deprecated in Java")
+    override fun recycle() {
+        if (mRecycled) {
+            throw IllegalStateException()
+        }
+        mRecycled = true
+        count--
+    }
+
+    override fun toString(): String {
+        return "UiObject@" + Integer.toHexString(hashCode())
+    }
+
+    override fun hashCode(): Int {
+        return mHashCode
+    }
+
+    override fun equals(other: Any?): Boolean {
+        return this === other
+    }
+
+    /**
+     * Plain description of a node and its subtree, used to build deterministic [TestUiObject] trees.
+     *
+     * An [identity], if any, stands for the source node of a live tree, by which snapshots match nodes.
+     *
+     * zh-CN:
+     *
+     * 节点及其子树的朴素描述, 用于构建确定性的 [TestUiObject] 控件树.
+     *
+     * [identity] (若存在) 代表实时控件树中的源节点, 快照据此匹配节点.
+     */
+    class Fixture @JvmOverloads constructor(
+        val className: String? = null,
+        val text: String? = null,
+        val desc: String? = null,
+        val id: String? = null,
+        val packageName: String? = null,
+        val left: Int = 0,
+        val top: Int = 0,
+        val right: Int = 0,
+        val bottom: Int = 0,
+        val clickable: Boolean = false,
+        val scrollable: Boolean = false,
+        val children: MutableList<Fixture> = ArrayList(),
+        val identity: Any? = null,
+    )
+
+    companion object {
+        var count = 0
+        var max = 0
+        private val random = Random()
+    }
+
+}
@@ -0,0 +1,85 @@
+package org.autojs.autojs.core.trace
+
+import org.json.JSONObject
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class TracerTest {
+
+    @Before
+    fun setUp() {
+        Tracer.isEnabled = false
+        Tracer.clear()
+    }
+
+    @After
+    fun tearDown() {
+        Tracer.isEnabled = false
+        Tracer.capacity = Tracer.DEFAULT_CAPACITY
+    }
+
+    private fun events(): List<JSONObject> {
+        val events = JSONObject(Tracer.toChromeTrace()).getJSONArray("traceEvents")
+        return List(events.length()) { events.getJSONObject(it) }
+    }
+
+    private fun spans() = events().filter { it.getString("ph") != "M" }
+
+    @Test
+    fun disabledTracerRecordsNothing() {
+        assertEquals(42, Tracer.trace("span", Tracer.CATEGORY_ENGINE) { 42 })
+        assertEquals(Tracer.NOT_TRACING, Tracer.begin())
+        Tracer.end("span", Tracer.CATEGORY_ENGINE, Tracer.NOT_TRACING)
+        Tracer.instant("instant", Tracer.CATEGORY_ENGINE)
+        assertTrue(spans().isEmpty())
+    }
+
+    @Test
+    fun spansAreExportedAsChromeTraceEvents() {
+        Tracer.isEnabled = true
+        Tracer.trace("compile", Tracer.CATEGORY_MODULE, "lib.js") { Thread.sleep(2) }
+        Tracer.end("find", Tracer.CATEGORY_SELECTOR, Tracer.begin())
+        Tracer.instant("tick", Tracer.CATEGORY_ENGINE)
+
+        val (compile, find, tick) = spans()
+        assertEquals(listOf("compile", "module", "X"), listOf(compile.getString("name"), compile.getString("cat"), compile.getString("ph")))
+        assertEquals("lib.js", compile.getJSONObject("args").getString("detail"))
+        assertTrue(compile.getDouble("dur") >= 2000.0)
+        assertEquals("find", find.getString("name"))
+        assertEquals(listOf("tick", "i", "t"), listOf(tick.getString("name"), tick.getString("ph"), tick.getString("s")))
+
+        val threadNames = events().filter { it.getString("ph") == "M" }
+        assertTrue(threadNames.any { it.getJSONObject("args").getString("name") == Thread.currentThread().name })
+    }
+
+    @Test
+    fun spanIsRecordedWhenBlockThrows() {
+        Tracer.isEnabled = true
+        runCatching { Tracer.trace("failing", Tracer.CATEGORY_HTTP) { throw IllegalStateException() } }
+        assertEquals(listOf("failing"), spans().map { it.getString("name") })
+    }
+
+    @Test
+    fun ringBufferKeepsLatestSpans() {
+        Tracer.capacity = 4
+        Tracer.isEnabled = true
+        repeat(10) { Tracer.instant("span-$it", Tracer.CATEGORY_ENGINE) }
+        assertEquals((6..9).map { "span-$it" }, spans().map { it.getString("name") })
+    }
+
+    @Test
+    fun spansFromThreadsAreAttributedToThem() {
+        Tracer.isEnabled = true
+        val thread = Thread({ Tracer.instant("worker", Tracer.CATEGORY_ENGINE) }, "TracerTest-Worker").apply { start() }
+        thread.join()
+        @Suppress("DEPRECATION")
+        assertEquals(thread.id, spans().single().getLong("tid"))
+    }
+
+}
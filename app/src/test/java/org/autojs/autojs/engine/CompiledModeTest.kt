@@ -0,0 +1,76 @@
+package org.autojs.autojs.engine
+
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertSame
+import org.junit.Before
+import org.junit.Test
+import org.mozilla.javascript.Context
+import org.mozilla.javascript.ContextFactory
+import org.mozilla.javascript.ScriptableObject
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class CompiledModeTest {
+
+    private class Interrupted : RuntimeException()
+
+    /**
+     * Factory which interrupts scripts at their first instruction count report, as InterruptChecker does for a stop request.
+     */
+    private val factory = object : ContextFactory() {
+        override fun observeInstructionCount(cx: Context, instructionCount: Int) = throw Interrupted()
+    }
+
+    private lateinit var cx: Context
+    private lateinit var scope: ScriptableObject
+
+    private val source = """
+        function fib(n) { return n < 2 ? n : fib(n - 1) + fib(n - 2); }
+        fib(15);
+    """.trimIndent()
+
+    @Before
+    fun setUp() {
+        CompiledScriptCache.clear()
+        cx = factory.enterContext().apply { isInterpretedMode = true }
+        scope = cx.initStandardObjects()
+    }
+
+    @After
+    fun tearDown() {
+        Context.exit()
+        CompiledScriptCache.clear()
+    }
+
+    @Test
+    fun interpretedAndCompiledModesAreCachedSeparately() {
+        val interpreted = CompiledScriptCache.getOrCompile(cx, source, "main.js")
+        cx.isInterpretedMode = false
+        val compiled = CompiledScriptCache.getOrCompile(cx, source, "main.js")
+        assertNotSame(interpreted, compiled)
+        assertSame(compiled, CompiledScriptCache.getOrCompile(cx, source, "main.js"))
+        assertEquals(interpreted.exec(cx, scope), compiled.exec(cx, scope))
+    }
+
+    @Test
+    fun instructionCountingIsPartOfTheKey() {
+        cx.isInterpretedMode = false
+        val uncounted = CompiledScriptCache.getOrCompile(cx, source, "main.js")
+        cx.isGenerateObserverCount = true
+        val counted = CompiledScriptCache.getOrCompile(cx, source, "main.js")
+        assertNotSame(uncounted, counted)
+        assertSame(counted, CompiledScriptCache.getOrCompile(cx, source, "main.js"))
+    }
+
+    @Test(expected = Interrupted::class)
+    fun compiledScriptsWithInstructionCountingCanBeInterrupted() {
+        cx.instructionObserverThreshold = 10000
+        cx.isInterpretedMode = false
+        cx.isGenerateObserverCount = true
+        CompiledScriptCache.getOrCompile(cx, "while (true) {}", "loop.js").exec(cx, scope)
+    }
+
+}
@@ -0,0 +1,99 @@
+package org.autojs.autojs.engine
+
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertSame
+import org.junit.Before
+import org.junit.Test
+import org.mozilla.javascript.Context
+import org.mozilla.javascript.ScriptableObject
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class CompiledScriptCacheTest {
+
+    private lateinit var cx: Context
+    private lateinit var scope: ScriptableObject
+
+    private val source = """
+        function fib(n) { return n < 2 ? n : fib(n - 1) + fib(n - 2); }
+        var s = 0;
+        for (var i = 0; i < 200000; i++) s = (s + i * 31) % 1000003;
+        fib(22) + s;
+    """.trimIndent()
+
+    @Before
+    fun setUp() {
+        CompiledScriptCache.clear()
+        CompiledScriptCache.resetStats()
+        cx = Context.enter().apply { isInterpretedMode = true }
+        scope = cx.initStandardObjects()
+    }
+
+    @After
+    fun tearDown() {
+        Context.exit()
+        CompiledScriptCache.clear()
+    }
+
+    @Test
+    fun sameSourceIsCompiledOnce() {
+        val first = CompiledScriptCache.getOrCompile(cx, source, "main.js")
+        assertSame(first, CompiledScriptCache.getOrCompile(cx, source, "main.js"))
+        assertNotSame(first, CompiledScriptCache.getOrCompile(cx, source, "other.js"))
+        val stats = CompiledScriptCache.stats()
+        assertEquals(1L to 2L, stats.hits to stats.misses)
+    }
+
+    @Test
+    fun differentSourcesAreNotShared() {
+        val first = CompiledScriptCache.getOrCompile(cx, source, "main.js")
+        assertNotSame(first, CompiledScriptCache.getOrCompile(cx, "$source;", "main.js"))
+        // Sources longer than a hashing chunk, which differ only after the first chunk.
+        val long = "var a = '${"x".repeat(10_000)}';"
+        assertNotSame(
+            CompiledScriptCache.getOrCompile(cx, "$long 1;", "long.js"),
+            CompiledScriptCache.getOrCompile(cx, "$long 2;", "long.js"),
+        )
+    }
+
+    @Test
+    fun languageVersionIsPartOfTheKey() {
+        cx.languageVersion = Context.VERSION_1_8
+        val legacy = CompiledScriptCache.getOrCompile(cx, source, "main.js")
+        cx.languageVersion = Context.VERSION_ES6
+        assertNotSame(legacy, CompiledScriptCache.getOrCompile(cx, source, "main.js"))
+    }
+
+    @Test
+    fun leastRecentlyUsedScriptsAreEvicted() {
+        CompiledScriptCache.maxEntries = 2
+        try {
+            val a = CompiledScriptCache.getOrCompile(cx, "1;", "a.js")
+            CompiledScriptCache.getOrCompile(cx, "2;", "b.js")
+            assertSame(a, CompiledScriptCache.getOrCompile(cx, "1;", "a.js"))
+            CompiledScriptCache.getOrCompile(cx, "3;", "c.js")
+            assertEquals(1L, CompiledScriptCache.stats().evictions)
+            assertSame(a, CompiledScriptCache.getOrCompile(cx, "1;", "a.js"))
+            CompiledScriptCache.resetStats()
+            CompiledScriptCache.getOrCompile(cx, "2;", "b.js")
+            assertEquals(1L, CompiledScriptCache.stats().misses)
+        } finally {
+            CompiledScriptCache.maxEntries = CompiledScriptCache.DEFAULT_MAX_ENTRIES
+        }
+    }
+
+    @Test
+    fun oversizedSourcesAreNotCached() {
+        CompiledScriptCache.maxSourceChars = source.length - 1
+        try {
+            assertNotSame(CompiledScriptCache.getOrCompile(cx, source, "main.js"), CompiledScriptCache.getOrCompile(cx, source, "main.js"))
+            assertEquals(0, CompiledScriptCache.stats().size)
+        } finally {
+            CompiledScriptCache.maxSourceChars = CompiledScriptCache.DEFAULT_MAX_SOURCE_CHARS
+        }
+    }
+
+}
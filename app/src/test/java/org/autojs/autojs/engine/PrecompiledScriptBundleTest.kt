@@ -0,0 +1,142 @@
+package org.autojs.autojs.engine
+
+import org.autojs.autojs.engine.encryption.AdvancedEncryptionStandard
+import org.autojs.autojs.engine.encryption.ScriptEncryption
+import org.autojs.autojs.rhino.debug.SamplingProfiler
+import org.autojs.autojs.script.EncryptedScriptFileHeader
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
+import org.junit.Before
+import org.junit.Test
+import org.mozilla.javascript.Context
+import org.mozilla.javascript.EcmaError
+import org.mozilla.javascript.ScriptableObject
+import org.mozilla.javascript.debug.DebugFrame
+import org.mozilla.javascript.debug.DebuggableScript
+import org.mozilla.javascript.debug.Debugger
+import java.io.ByteArrayOutputStream
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class PrecompiledScriptBundleTest {
+
+    private val main = """
+        function sum(n) {
+            var s = 0;
+            for (var i = 1; i <= n; i++) s += i;
+            return s;
+        }
+        sum(100);
+    """.trimIndent()
+
+    private val failing = "var a = 1;\nvar b = 2;\nundefinedFunction();\n"
+
+    private lateinit var bundleBytes: ByteArray
+    private lateinit var cx: Context
+    private lateinit var scope: ScriptableObject
+
+    @Before
+    fun setUp() {
+        bundleBytes = writeBundle("main.js" to main, "lib/failing.js" to failing)
+        cx = Context.enter().apply {
+            languageVersion = Context.VERSION_ES6
+            isInterpretedMode = true
+        }
+        scope = cx.initStandardObjects()
+    }
+
+    @After
+    fun tearDown() = Context.exit()
+
+    private fun writeBundle(vararg scripts: Pair<String, String>) = ByteArrayOutputStream().also { os ->
+        PrecompiledScriptBundle.Writer().apply { scripts.forEach { (name, source) -> add(name, source) } }.writeTo(os)
+    }.toByteArray()
+
+    @Test
+    fun bundledScriptRunsLikeItsSource() {
+        val bundle = PrecompiledScriptBundle.read(bundleBytes)!!
+        val script = bundle.find(cx, main)!!
+        assertEquals(cx.evaluateString(scope, main, "main.js", 1, null), script.exec(cx, scope))
+        assertSame(script, bundle.find(cx, main))
+        assertEquals(setOf("main.js", "lib/failing.js"), bundle.sourceMap.keys)
+        assertEquals(6, bundle.sourceMap.getValue("main.js").lineCount)
+    }
+
+    @Test
+    fun changedSourceIsNotFound() {
+        val bundle = PrecompiledScriptBundle.read(bundleBytes)!!
+        assertNull(bundle.find(cx, main.replace("100", "200")))
+    }
+
+    @Test
+    fun otherLanguageVersionIsNotFound() {
+        val bundle = PrecompiledScriptBundle.read(bundleBytes)!!
+        cx.languageVersion = Context.VERSION_1_8
+        assertNull(bundle.find(cx, main))
+    }
+
+    @Test
+    fun stackTracesReportProjectPathsAndLines() {
+        val script = PrecompiledScriptBundle.read(bundleBytes)!!.find(cx, failing)!!
+        try {
+            script.exec(cx, scope)
+            throw AssertionError("EcmaError expected")
+        } catch (e: EcmaError) {
+            assertEquals("lib/failing.js" to 3, e.sourceName() to e.lineNumber())
+        }
+    }
+
+    @Test
+    fun malformedBundleIsDropped() {
+        assertNull(PrecompiledScriptBundle.read(byteArrayOf(1, 2, 3)))
+        assertNull(PrecompiledScriptBundle.read(bundleBytes.copyOf().also { it[0] = 0 }))
+        assertNull(PrecompiledScriptBundle.read(bundleBytes.copyOf(bundleBytes.size - 1)))
+    }
+
+    @Test
+    fun encryptedBundleIsRead() {
+        val key = "0123456789abcdef"
+        val initVector = "fedcba9876543210"
+        // Assigned by reflection, as AssetsProjectLauncher does.
+        fun setScriptEncryptionKey(key: String, initVector: String) {
+            listOf("mKey" to key, "mInitVector" to initVector).forEach { (name, value) ->
+                ScriptEncryption::class.java.getDeclaredField(name).apply { isAccessible = true }.set(null, value)
+            }
+        }
+        setScriptEncryptionKey(key, initVector)
+        try {
+            val encrypted = ByteArrayOutputStream().apply {
+                EncryptedScriptFileHeader.writeHeader(this)
+                write(AdvancedEncryptionStandard(key.toByteArray(), initVector).encrypt(bundleBytes))
+            }.toByteArray()
+            assertNotNull(PrecompiledScriptBundle.read(encrypted)?.find(cx, main))
+        } finally {
+            setScriptEncryptionKey("", "")
+        }
+    }
+
+    @Test
+    fun debuggersObservingCompilationBypassTheBundle() {
+        val bundle = PrecompiledScriptBundle.read(bundleBytes)!!
+        val profiler = SamplingProfiler().apply { start(cx) }
+        try {
+            assertNotNull(bundle.find(cx, main))
+        } finally {
+            profiler.stop()
+        }
+        cx.setDebugger(object : Debugger {
+            override fun handleCompilationDone(cx: Context, fnOrScript: DebuggableScript, source: String?) = Unit
+            override fun getFrame(cx: Context, fnOrScript: DebuggableScript): DebugFrame? = null
+        }, null)
+        try {
+            assertNull(bundle.find(cx, main))
+        } finally {
+            cx.setDebugger(null, null)
+        }
+    }
+
+}
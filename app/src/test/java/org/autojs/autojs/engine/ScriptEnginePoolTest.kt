@@ -0,0 +1,141 @@
+package org.autojs.autojs.engine
+
+import org.autojs.autojs.execution.RunnableScriptExecution
+import org.autojs.autojs.execution.ScriptExecutionTask
+import org.autojs.autojs.script.ScriptSource
+import org.autojs.autojs.tool.Supplier
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.mozilla.javascript.Context
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class ScriptEnginePoolTest {
+
+    /**
+     * Engine which enters a Rhino context and creates its scope when constructed, like [RhinoJavaScriptEngine].
+     */
+    private class FakeEngine : ScriptEngine.AbstractScriptEngine<ScriptSource>() {
+
+        val constructionThread: Thread = Thread.currentThread()
+
+        init {
+            Context.enter().initStandardObjects()
+        }
+
+        override fun put(name: String, value: Any?) = Unit
+        override fun execute(scriptSource: ScriptSource): Any? = null
+        override fun forceStop() = Unit
+        override fun init() = Unit
+
+    }
+
+    private inner class RecordingExecution : RunnableScriptExecution(manager, ScriptExecutionTask(null, null, null)) {
+
+        val latch = CountDownLatch(1)
+
+        @Volatile
+        var engine: ScriptEngine<out ScriptSource>? = null
+
+        @Volatile
+        var runThread: Thread? = null
+
+        override fun setPreparedEngine(engine: ScriptEngine<out ScriptSource>?) {
+            this.engine = engine
+        }
+
+        override fun run() {
+            runThread = Thread.currentThread()
+            latch.countDown()
+        }
+
+        fun await() = assertTrue(latch.await(5, TimeUnit.SECONDS))
+
+    }
+
+    private lateinit var manager: ScriptEngineManager
+    private lateinit var pool: ScriptEnginePool
+
+    @Before
+    fun setUp() {
+        manager = ScriptEngineManager(null).apply {
+            registerEngine(ENGINE_NAME, Supplier<ScriptEngine<out ScriptSource>> { FakeEngine() })
+        }
+        pool = ScriptEnginePool(manager, ENGINE_NAME)
+    }
+
+    @After
+    fun tearDown() {
+        pool.size = 0
+        // Engines still warming up would otherwise wait on standby until the idle timeout.
+        val deadline = System.currentTimeMillis() + 5_000
+        while (pool.stats().warming > 0 && System.currentTimeMillis() < deadline) Thread.sleep(1)
+        pool.clear()
+    }
+
+    private fun awaitStandby(count: Int) {
+        val deadline = System.currentTimeMillis() + 5_000
+        while (pool.stats().standby < count) {
+            check(System.currentTimeMillis() < deadline) { "Standby engines are not ready" }
+            Thread.sleep(1)
+        }
+    }
+
+    @Test
+    fun executionRunsOnTheThreadOfItsStandbyEngine() {
+        pool.prewarm()
+        awaitStandby(1)
+        val execution = RecordingExecution()
+        assertTrue(pool.offer(execution))
+        execution.await()
+        val engine = execution.engine as FakeEngine
+        assertSame(engine.constructionThread, execution.runThread)
+        assertEquals(1L, pool.stats().hits)
+    }
+
+    @Test
+    fun missIsReportedWithoutStandbyEngines() {
+        pool.size = 0
+        assertFalse(pool.offer(RecordingExecution()))
+        assertEquals(1L, pool.stats().misses)
+    }
+
+    @Test
+    fun eachStandbyEngineServesOneExecution() {
+        pool.size = 2
+        pool.prewarm()
+        awaitStandby(2)
+        val executions = List(2) { RecordingExecution() }
+        executions.forEach { assertTrue(pool.offer(it)) }
+        executions.forEach { it.await() }
+        val (first, second) = executions
+        assertTrue(first.engine !== second.engine && first.runThread !== second.runThread)
+    }
+
+    @Test
+    fun idleStandbyEnginesAreDiscarded() {
+        pool.idleTimeoutMillis = 20
+        pool.prewarm()
+        val deadline = System.currentTimeMillis() + 5_000
+        while (pool.stats().discarded < 1) {
+            check(System.currentTimeMillis() < deadline) { "Standby engine is not discarded" }
+            Thread.sleep(5)
+        }
+        assertEquals(0, pool.stats().standby)
+    }
+
+    companion object {
+
+        private const val ENGINE_NAME = "fake"
+
+    }
+
+}
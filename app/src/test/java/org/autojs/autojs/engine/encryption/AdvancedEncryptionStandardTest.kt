@@ -0,0 +1,94 @@
+package org.autojs.autojs.engine.encryption
+
+import org.autojs.autojs.script.EncryptedScriptFileHeader
+import org.junit.After
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.DataInputStream
+import javax.crypto.Cipher
+import javax.crypto.spec.IvParameterSpec
+import javax.crypto.spec.SecretKeySpec
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class AdvancedEncryptionStandardTest {
+
+    private val aes = AdvancedEncryptionStandard(KEY.toByteArray(), INIT_VECTOR)
+
+    private val script = (1..500).joinToString("\n") { "var v$it = '值 $it';" }
+
+    @Before
+    fun setUp() = setScriptEncryptionKey(KEY, INIT_VECTOR)
+
+    @After
+    fun tearDown() = setScriptEncryptionKey("", "")
+
+    // Assigned by reflection, as AssetsProjectLauncher does.
+    private fun setScriptEncryptionKey(key: String, initVector: String) {
+        listOf("mKey" to key, "mInitVector" to initVector).forEach { (name, value) ->
+            ScriptEncryption::class.java.getDeclaredField(name).apply { isAccessible = true }.set(null, value)
+        }
+    }
+
+    private fun encryptedFile(plainText: String) = ByteArrayOutputStream().apply {
+        EncryptedScriptFileHeader.writeHeader(this, EncryptedScriptFileHeader.FLAG_EXECUTION_MODE_UI)
+        write(aes.encrypt(plainText.toByteArray()))
+    }.toByteArray()
+
+    @Test
+    fun bytesRoundTrip() {
+        val plain = script.toByteArray()
+        repeat(3) { assertArrayEquals(plain, aes.decrypt(aes.encrypt(plain))) }
+    }
+
+    @Test
+    fun decryptsRangeOfBytes() {
+        val file = encryptedFile(script)
+        assertEquals(script, String(ScriptEncryption.decrypt(file, EncryptedScriptFileHeader.BLOCK_SIZE)))
+    }
+
+    @Test
+    fun streamRoundTripInterleavedWithOtherCiphers() {
+        val cipherText = aes.encrypt(script.toByteArray())
+        val stream = aes.decrypt(ByteArrayInputStream(cipherText))
+        val head = ByteArray(100).also { DataInputStream(stream).readFully(it) }
+        // Another cipher of the same thread is used while the stream is still open, as a module decrypted while the main script is read.
+        assertArrayEquals("inner".toByteArray(), aes.decrypt(aes.encrypt("inner".toByteArray())))
+        val rest = stream.use { it.readBytes() }
+        assertEquals(script, String(head + rest))
+        assertArrayEquals(script.toByteArray(), aes.decrypt(ByteArrayInputStream(cipherText)).use { it.readBytes() })
+    }
+
+    @Test
+    fun compatibleWithPlainCipher() {
+        val cipher = Cipher.getInstance("AES/CBC/PKCS5Padding").apply {
+            init(Cipher.ENCRYPT_MODE, SecretKeySpec(KEY.toByteArray(), "AES"), IvParameterSpec(INIT_VECTOR.toByteArray()))
+        }
+        assertEquals(script, String(aes.decrypt(cipher.doFinal(script.toByteArray()))))
+    }
+
+    @Test
+    fun readerDecryptsEncryptedFiles() {
+        assertEquals(script, ScriptEncryption.reader(ByteArrayInputStream(encryptedFile(script))).use { it.readText() })
+    }
+
+    @Test
+    fun readerPassesPlainInputThrough() {
+        listOf(script, "short", "").forEach { plain ->
+            assertEquals(plain, ScriptEncryption.reader(ByteArrayInputStream(plain.toByteArray())).use { it.readText() })
+        }
+    }
+
+    companion object {
+
+        private const val KEY = "0123456789abcdef"
+        private const val INIT_VECTOR = "fedcba9876543210"
+
+    }
+
+}
@@ -0,0 +1,113 @@
+package org.autojs.autojs.engine.module
+
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotEquals
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.mozilla.javascript.Context
+import org.mozilla.javascript.ScriptableObject
+import org.mozilla.javascript.commonjs.module.RequireBuilder
+import org.mozilla.javascript.commonjs.module.provider.UrlModuleSourceProvider
+import java.io.File
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class ModuleScriptCacheTest {
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private lateinit var cx: Context
+    private lateinit var scope: ScriptableObject
+
+    @Before
+    fun setUp() {
+        ModuleScriptCache.clear()
+        ModuleScriptCache.resetStats()
+        cx = Context.enter()
+        scope = cx.initStandardObjects()
+    }
+
+    @After
+    fun tearDown() {
+        Context.exit()
+        ModuleScriptCache.clear()
+    }
+
+    private fun dirWithModule(name: String, moduleId: String, source: String) = folder.newFolder(name).also {
+        File(it, "$moduleId.js").writeText(source)
+    }
+
+    private fun sourceProviderOf(vararg dirs: File) = UrlModuleSourceProvider(dirs.map { it.toURI() }, null)
+
+    @Test
+    fun sameIdIsResolvedPerSearchLocations() {
+        val dirA = dirWithModule("a", "m", "exports.name = 'a';")
+        val dirB = dirWithModule("b", "m", "exports.name = 'b';")
+        val fromA = ModuleScriptCache.provider(sourceProviderOf(dirA)).getModuleScript(cx, "m", null, null, null)!!
+        val fromB = ModuleScriptCache.provider(sourceProviderOf(dirB)).getModuleScript(cx, "m", null, null, null)!!
+        assertEquals(File(dirA, "m.js").toURI(), fromA.uri)
+        assertEquals(File(dirB, "m.js").toURI(), fromB.uri)
+    }
+
+    @Test
+    fun sameIdIsResolvedPerRequirePaths() {
+        val dirA = dirWithModule("a", "m", "exports.name = 'a';")
+        val dirB = dirWithModule("b", "m", "exports.name = 'b';")
+        val provider = ModuleScriptCache.provider(sourceProviderOf())
+        val pathsA = cx.newArray(scope, arrayOf<Any>(dirA.toURI().toString()))
+        val pathsB = cx.newArray(scope, arrayOf<Any>(dirB.toURI().toString()))
+        val fromA = provider.getModuleScript(cx, "m", null, null, pathsA)!!
+        val fromB = provider.getModuleScript(cx, "m", null, null, pathsB)!!
+        assertNotEquals(fromA.uri, fromB.uri)
+        assertEquals(fromA.uri, provider.getModuleScript(cx, "m", null, null, pathsA)!!.uri)
+    }
+
+    @Test
+    fun equalLocationKeysShareResolvedIds() {
+        val dir = dirWithModule("a", "m", "exports.name = 'a';")
+        val key = listOf(dir.toURI())
+        val first = ModuleScriptCache.provider(sourceProviderOf(dir), key).getModuleScript(cx, "m", null, null, null)!!
+        val second = ModuleScriptCache.provider(sourceProviderOf(dir), key).getModuleScript(cx, "m", null, null, null)!!
+        assertEquals(first.script, second.script)
+        assertEquals(1L, ModuleScriptCache.stats().hits)
+    }
+
+    @Test
+    fun changedModuleInvalidatesItsDependentsOnly() {
+        val dir = folder.newFolder("lib")
+        File(dir, "main.js").writeText("exports.value = require('dep').value + require('other').value;")
+        val dep = File(dir, "dep.js").apply { writeText("exports.value = 1;") }
+        File(dir, "other.js").writeText("exports.value = 10;")
+        val require = RequireBuilder()
+            .setModuleScriptProvider(ModuleScriptCache.provider(sourceProviderOf(dir)))
+            .setSandboxed(true)
+            .createRequire(cx, scope)
+        require.requireMain(cx, "main")
+
+        val main = File(dir, "main.js").toURI()
+        val other = File(dir, "other.js").toURI()
+        assertEquals(setOf(main), ModuleScriptCache.dependentsOf(dep.toURI()))
+        assertEquals(setOf(dep.toURI(), other), ModuleScriptCache.dependencyGraph()[main])
+        assertEquals(setOf(dep.toURI(), main), ModuleScriptCache.invalidate(dep))
+        assertEquals(1, ModuleScriptCache.stats().size)
+    }
+
+    @Test
+    fun modifiedFileIsRecompiled() {
+        val dir = dirWithModule("a", "m", "exports.name = 'a';")
+        val file = File(dir, "m.js")
+        val provider = ModuleScriptCache.provider(sourceProviderOf(dir))
+        val first = provider.getModuleScript(cx, "m", null, null, null)!!
+        file.writeText("exports.name = 'changed';")
+        file.setLastModified(file.lastModified() + 2000)
+        val second = provider.getModuleScript(cx, "m", null, null, null)!!
+        assertNotEquals(first.script, second.script)
+        assertEquals(1L, ModuleScriptCache.stats().invalidations)
+    }
+
+}
@@ -0,0 +1,189 @@
+package org.autojs.autojs.engine.module
+
+import com.sun.net.httpserver.HttpServer
+import okio.ByteString.Companion.toByteString
+import org.junit.After
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.IOException
+import java.net.InetAddress
+import java.net.InetSocketAddress
+import java.security.MessageDigest
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class UrlModuleCacheTest {
+
+    /**
+     * A local HTTP server stub serving [bodies] by path, which answers `If-None-Match` with "304 Not Modified".
+     */
+    internal class ServerStub : AutoCloseable {
+
+        val bodies = ConcurrentHashMap<String, String>()
+        val requests = AtomicInteger()
+
+        @Volatile
+        var cacheControl = "max-age=60"
+
+        private val server = HttpServer.create(InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0).apply {
+            createContext("/") { exchange ->
+                requests.incrementAndGet()
+                val body = bodies[exchange.requestURI.path]
+                val etag = body?.let { "\"${it.hashCode()}\"" }
+                exchange.responseHeaders.add("Cache-Control", cacheControl)
+                when {
+                    body == null -> exchange.sendResponseHeaders(404, -1)
+                    exchange.requestHeaders.getFirst("If-None-Match") == etag -> exchange.sendResponseHeaders(304, -1)
+                    else -> {
+                        val bytes = body.toByteArray()
+                        exchange.responseHeaders.add("ETag", etag)
+                        exchange.responseHeaders.add("Content-Type", "application/javascript; charset=utf-8")
+                        exchange.sendResponseHeaders(200, bytes.size.toLong())
+                        exchange.responseBody.use { it.write(bytes) }
+                    }
+                }
+                exchange.close()
+            }
+            start()
+        }
+
+        fun url(path: String) = "http://${server.address.hostString}:${server.address.port}$path"
+
+        private var isClosed = false
+
+        override fun close() {
+            if (!isClosed) server.stop(0).also { isClosed = true }
+        }
+
+    }
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private lateinit var server: ServerStub
+
+    @Before
+    fun setUp() {
+        server = ServerStub()
+    }
+
+    @After
+    fun tearDown() = server.close()
+
+    private fun newCache(maxBytes: Long = UrlModuleCache.DEFAULT_MAX_BYTES) = UrlModuleCache(folder.root, maxBytes = maxBytes)
+
+    private fun contentCount() = folder.root.resolve("contents").listFiles().orEmpty().size
+
+    private fun pinOf(body: String) = "sha256-" + MessageDigest.getInstance("SHA-256").digest(body.toByteArray()).toByteString().base64()
+
+    // Makes the previous fetch older than a TTL of zero.
+    private fun elapse() = Thread.sleep(5)
+
+    @Test
+    fun freshModuleIsServedWithoutNetwork() {
+        server.bodies["/a.js"] = "exports.a = 1;"
+        val cache = newCache()
+        repeat(3) { assertEquals("exports.a = 1;", String(cache.load(server.url("/a.js"))!!.bytes)) }
+        assertEquals(1, server.requests.get())
+        assertEquals(1, newCache().let { it.load(server.url("/a.js")); server.requests.get() })
+    }
+
+    @Test
+    fun expiredModuleIsRevalidatedWithETag() {
+        server.bodies["/a.js"] = "exports.a = 1;"
+        server.cacheControl = "max-age=0, stale-while-revalidate=0"
+        val cache = newCache()
+        val first = cache.load(server.url("/a.js"))!!
+        elapse()
+        val second = cache.load(server.url("/a.js"))!!
+        assertEquals(2, server.requests.get())
+        assertEquals(first.contentHash, second.contentHash)
+        assertFalse(second.isStale)
+    }
+
+    @Test
+    fun staleModuleIsServedWhenNetworkFails() {
+        server.bodies["/a.js"] = "exports.a = 1;"
+        server.cacheControl = "max-age=0, stale-while-revalidate=0"
+        val cache = newCache()
+        cache.load(server.url("/a.js"))
+        server.close()
+        elapse()
+        val module = cache.load(server.url("/a.js"))!!
+        assertTrue(module.isStale)
+        assertEquals("exports.a = 1;", String(module.bytes))
+    }
+
+    @Test(expected = IOException::class)
+    fun uncachedModuleFailsOffline() {
+        newCache().apply { isOffline = true }.load(server.url("/a.js"))
+    }
+
+    @Test
+    fun missingModuleIsNull() {
+        assertEquals(null, newCache().load(server.url("/missing.js")))
+    }
+
+    @Test
+    fun pinnedModuleIsServedOfflineAndRejectedOnMismatch() {
+        val body = "exports.pinned = true;"
+        server.bodies["/p.js"] = body
+        val cache = newCache()
+        cache.load(server.url("/p.js#${pinOf(body)}"))
+        cache.isOffline = true
+        assertArrayEquals(body.toByteArray(), cache.load(server.url("/other.js#${pinOf(body)}"))!!.bytes)
+
+        cache.isOffline = false
+        server.bodies["/q.js"] = "exports.tampered = true;"
+        try {
+            cache.load(server.url("/q.js#${pinOf("exports.expected = true;")}"))
+            throw AssertionError("IntegrityException expected")
+        } catch (_: UrlModuleCache.IntegrityException) {
+            /* Expected. */
+        }
+    }
+
+    @Test
+    fun previousContentIsDeletedWhenModuleChanges() {
+        server.cacheControl = "max-age=0, stale-while-revalidate=0"
+        val cache = newCache()
+        repeat(5) { version ->
+            server.bodies["/a.js"] = "exports.version = $version;"
+            cache.load(server.url("/a.js"))
+            elapse()
+        }
+        assertEquals(1, contentCount())
+        assertEquals("exports.version = 4;".length.toLong(), cache.size())
+    }
+
+    @Test
+    fun orphanedContentsNeverEvictLiveModules() {
+        server.cacheControl = "max-age=0, stale-while-revalidate=0"
+        val padding = "x".repeat(100)
+        val cache = newCache(maxBytes = 350)
+        listOf("/a.js", "/b.js", "/c.js").forEach {
+            server.bodies[it] = "// $it $padding"
+            cache.load(server.url(it))
+        }
+        repeat(10) { version ->
+            server.bodies["/c.js"] = "// $version $padding"
+            elapse()
+            cache.load(server.url("/c.js"))
+        }
+        assertEquals(3, contentCount())
+        val requests = server.requests.get()
+        cache.isOffline = true
+        listOf("/a.js", "/b.js", "/c.js").forEach { assertTrue(it, cache.load(server.url(it)) != null) }
+        assertEquals(requests, server.requests.get())
+    }
+
+}
@@ -0,0 +1,70 @@
+package org.autojs.autojs.rhino
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNotEquals
+import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class DexCacheTest {
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    @Test
+    fun keyDistinguishesNameAndBytecode() {
+        assertEquals(DexCache.keyOf("A", byteArrayOf(1, 2)), DexCache.keyOf("A", byteArrayOf(1, 2)))
+        assertNotEquals(DexCache.keyOf("A", byteArrayOf(1, 2)), DexCache.keyOf("A", byteArrayOf(1, 3)))
+        assertNotEquals(DexCache.keyOf("A", byteArrayOf(1, 2)), DexCache.keyOf("B", byteArrayOf(1, 2)))
+        // The name ends before the bytecode starts.
+        assertNotEquals(DexCache.keyOf("A", "B".toByteArray()), DexCache.keyOf("AB", byteArrayOf()))
+    }
+
+    @Test
+    fun oneInstanceServesEachDirectory() {
+        val directory = folder.newFolder("dex")
+        assertSame(DexCache.of(directory), DexCache.of(File(directory.path)))
+        assertNotSame(DexCache.of(directory), DexCache.of(folder.newFolder("other")))
+    }
+
+    @Test
+    fun putMovesTheJarAndGetFindsIt() {
+        val cache = DexCache(folder.newFolder("dex"))
+        val key = DexCache.keyOf("A", byteArrayOf(1))
+        assertNull(cache.get(key))
+
+        val jar = jarOf(16)
+        val cached = cache.put(key, jar)
+        assertFalse(jar.exists())
+        assertEquals(cached, cache.get(key))
+        assertEquals(1, cache.hits)
+        assertEquals(1, cache.misses)
+    }
+
+    @Test
+    fun leastRecentlyUsedEntriesAreEvicted() {
+        val cache = DexCache(folder.newFolder("dex"), 100)
+        val first = cache.put("first", jarOf(40))
+        first.setLastModified(1_000L)
+        val second = cache.put("second", jarOf(40))
+        second.setLastModified(2_000L)
+        assertNotNull(cache.get("first"))
+        cache.put("third", jarOf(40))
+        assertTrue(first.exists())
+        assertFalse(second.exists())
+        assertTrue(cache.size() <= 100)
+    }
+
+    private fun jarOf(size: Int): File = folder.newFile().apply { writeBytes(ByteArray(size)) }
+
+}
@@ -0,0 +1,181 @@
+package org.autojs.autojs.rhino
+
+import org.autojs.autojs.runtime.exception.ScriptInterruptedException
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Assert.fail
+import org.junit.Before
+import org.junit.Test
+import org.mozilla.javascript.BaseFunction
+import org.mozilla.javascript.Context
+import org.mozilla.javascript.ContextFactory
+import org.mozilla.javascript.EcmaError
+import org.mozilla.javascript.Scriptable
+import org.mozilla.javascript.ScriptableObject
+import org.mozilla.javascript.Undefined
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class InterruptCheckerTest {
+
+    private class FakeClock : InterruptChecker.Clock {
+        var nanos = 1L
+        var cpuMillis = 0L
+        override fun nanoTime() = nanos
+        override fun threadCpuTimeMillis() = cpuMillis
+    }
+
+    private val clock = FakeClock()
+
+    /**
+     * Factory which stops scripts as [InterruptibleAndroidContextFactory] does on a script thread,
+     * checking the interrupted flag itself as the main looper cannot be told apart on the JVM.
+     */
+    private val factory = object : ContextFactory() {
+        val checker = InterruptChecker(InterruptChecker.FIXED_STRATEGY, clock)
+
+        override fun observeInstructionCount(cx: Context, instructionCount: Int) {
+            checker.observe(cx)
+            if (Thread.currentThread().isInterrupted) throw ScriptInterruptedException()
+        }
+    }
+
+    private val checker get() = factory.checker
+
+    private lateinit var cx: Context
+
+    @Before
+    fun setUp() {
+        cx = factory.enterContext().apply { isInterpretedMode = true }
+    }
+
+    @After
+    fun tearDown() {
+        Thread.interrupted()
+        Context.exit()
+    }
+
+    private fun observeEvery(nanos: Long, times: Int) = repeat(times) {
+        clock.nanos += nanos
+        checker.observe(cx)
+    }
+
+    @Test
+    fun tightLoopsRaiseTheThresholdUpToItsMaximum() {
+        checker.install(cx, InterruptChecker.ADAPTIVE_STRATEGY)
+        observeEvery(1_000L, 2)
+        assertEquals(InterruptChecker.DEFAULT_THRESHOLD * 2, cx.instructionObserverThreshold)
+        observeEvery(1_000L, 20)
+        assertEquals(InterruptChecker.DEFAULT_MAX_THRESHOLD, cx.instructionObserverThreshold)
+    }
+
+    @Test
+    fun slowObservationsLowerTheThresholdDownToItsMinimum() {
+        checker.install(cx, InterruptChecker.ADAPTIVE_STRATEGY)
+        observeEvery(20_000_000L, 2)
+        assertEquals(InterruptChecker.DEFAULT_THRESHOLD / 2, cx.instructionObserverThreshold)
+        observeEvery(20_000_000L, 20)
+        assertEquals(InterruptChecker.DEFAULT_MIN_THRESHOLD, cx.instructionObserverThreshold)
+    }
+
+    @Test
+    fun fixedStrategyKeepsTheThreshold() {
+        checker.install(cx, InterruptChecker.FIXED_STRATEGY)
+        observeEvery(1_000L, 10)
+        observeEvery(20_000_000L, 10)
+        assertEquals(InterruptChecker.DEFAULT_THRESHOLD, cx.instructionObserverThreshold)
+    }
+
+    @Test
+    fun stopRequestsOverrideAdaptation() {
+        checker.install(cx, InterruptChecker.ADAPTIVE_STRATEGY)
+        checker.requestStop(cx)
+        assertEquals(InterruptChecker.DEFAULT_PENDING_STOP_THRESHOLD, cx.instructionObserverThreshold)
+
+        // As if an adaptation on the script thread raced with the request.
+        cx.instructionObserverThreshold = InterruptChecker.DEFAULT_MAX_THRESHOLD
+        observeEvery(1_000L, 3)
+        assertEquals(InterruptChecker.DEFAULT_PENDING_STOP_THRESHOLD, cx.instructionObserverThreshold)
+    }
+
+    private fun iterationsAfterStop(isStopRequested: Boolean): Int {
+        val threshold = InterruptChecker.DEFAULT_MAX_THRESHOLD
+        checker.install(cx, InterruptChecker.Strategy(threshold = threshold, maxThreshold = threshold, targetIntervalNanos = 0L))
+        val scope = cx.initStandardObjects()
+        scope.put("stop", scope, object : BaseFunction() {
+            override fun call(cx: Context, scope: Scriptable?, thisObj: Scriptable?, args: Array<out Any?>): Any {
+                if (isStopRequested) checker.requestStop(cx)
+                Thread.currentThread().interrupt()
+                return Undefined.instance
+            }
+        })
+        try {
+            cx.evaluateString(scope, "var n = -1; for (var i = 0; ; i++) { if (i == 100000) { stop(); n = 0; } if (n >= 0) n++; }", "loop.js", 1, null)
+            fail("Script was not interrupted")
+        } catch (e: ScriptInterruptedException) {
+            /* Expected. */
+        }
+        return Context.toNumber(ScriptableObject.getProperty(scope, "n")).toInt()
+    }
+
+    @Test
+    fun stopRequestsAreNoticedWithinPendingStopThreshold() {
+        val withRequest = iterationsAfterStop(isStopRequested = true)
+        assertTrue("$withRequest iterations after stop", withRequest < InterruptChecker.DEFAULT_PENDING_STOP_THRESHOLD)
+    }
+
+    @Test
+    fun interruptionsWithoutStopRequestsWaitForTheThreshold() {
+        val withoutRequest = iterationsAfterStop(isStopRequested = false)
+        assertTrue("$withoutRequest iterations after stop", withoutRequest > InterruptChecker.DEFAULT_PENDING_STOP_THRESHOLD)
+    }
+
+    @Test
+    fun exceedingCpuTimeBudgetThrowsTimeoutErrorOnceThenInterrupts() {
+        cx.initStandardObjects()
+        checker.cpuTimeBudgetMillis = 100L
+        checker.observe(cx)
+
+        clock.cpuMillis = 100L
+        checker.observe(cx)
+
+        clock.cpuMillis = 101L
+        try {
+            checker.observe(cx)
+            fail("TimeoutError was not thrown")
+        } catch (e: EcmaError) {
+            assertEquals("TimeoutError", e.name)
+        }
+
+        clock.cpuMillis = 100L + InterruptChecker.CPU_TIME_GRACE_MILLIS
+        checker.observe(cx)
+
+        clock.cpuMillis = 101L + InterruptChecker.CPU_TIME_GRACE_MILLIS
+        try {
+            checker.observe(cx)
+            fail("Script was not interrupted")
+        } catch (e: ScriptInterruptedException) {
+            /* Expected. */
+        }
+    }
+
+    @Test
+    fun cpuTimeBudgetCountsFromItsFirstObservation() {
+        cx.initStandardObjects()
+        clock.cpuMillis = 5_000L
+        checker.cpuTimeBudgetMillis = 100L
+        checker.observe(cx)
+        clock.cpuMillis = 5_100L
+        checker.observe(cx)
+
+        // Setting the budget again restarts it.
+        checker.cpuTimeBudgetMillis = 100L
+        clock.cpuMillis = 5_150L
+        checker.observe(cx)
+        clock.cpuMillis = 5_250L
+        checker.observe(cx)
+    }
+
+}
@@ -0,0 +1,124 @@
+package org.autojs.autojs.rhino
+
+import org.autojs.autojs.extension.ArrayExtensions.toNativeArray
+import org.autojs.autojs.util.RhinoUtils
+import org.junit.After
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.mozilla.javascript.Context
+import org.mozilla.javascript.NativeArray
+import org.mozilla.javascript.ScriptableObject
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class PrimitiveArrayViewTest {
+
+    private lateinit var cx: Context
+    private lateinit var scope: ScriptableObject
+
+    @Before
+    fun setUp() {
+        cx = Context.enter().apply { languageVersion = Context.VERSION_ES6 }
+        scope = cx.initStandardObjects()
+    }
+
+    @After
+    fun tearDown() = Context.exit()
+
+    private fun eval(source: String): Any? = cx.evaluateString(scope, source, "<test>", 1, null)
+
+    private fun bind(array: Any) = PrimitiveArrayView(array, scope).also { scope.put("view", scope, it) }
+
+    @Test
+    fun writesAreCoercedToTheComponentType() {
+        val ints = IntArray(2)
+        bind(ints)
+        eval("view[0] = 3.7; view[1] = '42'")
+        assertArrayEquals(intArrayOf(3, 42), ints)
+
+        val bytes = ByteArray(1)
+        bind(bytes)
+        eval("view[0] = 300")
+        assertArrayEquals(byteArrayOf(44), bytes)
+
+        val doubles = DoubleArray(1)
+        bind(doubles)
+        eval("view[0] = '1.5'")
+        assertEquals(1.5, doubles[0], 0.0)
+
+        val booleans = BooleanArray(1)
+        bind(booleans)
+        eval("view[0] = 'yes'")
+        assertTrue(booleans[0])
+    }
+
+    @Test
+    fun readsSeeWritesToTheBackingArray() {
+        val ints = intArrayOf(1, 2, 3)
+        bind(ints)
+        ints[1] = 20
+        assertEquals(20, Context.toNumber(eval("view[1]")).toInt())
+
+        bind(charArrayOf('a'))
+        assertEquals("a", eval("view[0]"))
+    }
+
+    @Test
+    fun lengthIsFixed() {
+        bind(IntArray(3))
+        assertEquals(3, Context.toNumber(eval("view.length = 10; view.length")).toInt())
+        assertEquals(3, Context.toNumber(eval("view.length = 0; view.length")).toInt())
+    }
+
+    @Test
+    fun outOfRangeWritesAndDeletesLeaveTheArrayUnchanged() {
+        val ints = intArrayOf(1, 2, 3)
+        bind(ints)
+        assertEquals("undefined", Context.toString(eval("view[3] = 4; view[-1] = 5; typeof view[3]")))
+        assertEquals(3, Context.toNumber(eval("view.length")).toInt())
+        assertEquals(2, Context.toNumber(eval("delete view[1]; view[1]")).toInt())
+        assertArrayEquals(intArrayOf(1, 2, 3), ints)
+    }
+
+    @Test
+    fun arrayPrototypeMethodsWorkOnTheView() {
+        val ints = intArrayOf(3, 1, 2)
+        bind(ints)
+        assertEquals("6,2,4", Context.toString(eval("view.map(function (x) { return x * 2; }).join()")))
+        assertEquals(2, Context.toNumber(eval("view.indexOf(2)")).toInt())
+        assertEquals(6, Context.toNumber(eval("view.reduce(function (a, b) { return a + b; }, 0)")).toInt())
+        assertEquals("3-1-2", Context.toString(eval("view.join('-')")))
+        eval("view.sort()")
+        assertArrayEquals(intArrayOf(1, 2, 3), ints)
+    }
+
+    @Test
+    fun unwrapsToTheBackingArray() {
+        val doubles = doubleArrayOf(1.0)
+        assertSame(doubles, bind(doubles).unwrap())
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun rejectsArraysOfObjects() {
+        PrimitiveArrayView(arrayOf(1, 2), scope)
+    }
+
+    @Test
+    fun toNativeArrayCopiesIntoAnArrayOfTheConversionScope() {
+        val arrayPrototype = ScriptableObject.getArrayPrototype(RhinoUtils.conversionScopeOf(cx))
+        val fromList: NativeArray = listOf("a", 1).toNativeArray()
+        val fromArray: NativeArray = arrayOf<Any?>("a", 1).toNativeArray()
+        listOf(fromList, fromArray).forEach {
+            assertEquals(2L, it.length)
+            assertEquals("a", it[0])
+            assertEquals(1, it[1])
+            assertSame(arrayPrototype, it.prototype)
+        }
+    }
+
+}
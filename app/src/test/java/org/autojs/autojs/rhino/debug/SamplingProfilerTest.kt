@@ -0,0 +1,118 @@
+package org.autojs.autojs.rhino.debug
+
+import org.autojs.autojs.engine.CompiledScriptCache
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.mozilla.javascript.Context
+import org.mozilla.javascript.ScriptableObject
+import org.mozilla.javascript.debug.DebugFrame
+import org.mozilla.javascript.debug.DebuggableScript
+import org.mozilla.javascript.debug.Debugger
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class SamplingProfilerTest {
+
+    private object CompilationDebugger : Debugger {
+        override fun handleCompilationDone(cx: Context, fnOrScript: DebuggableScript, source: String?) = Unit
+        override fun getFrame(cx: Context, fnOrScript: DebuggableScript): DebugFrame? = null
+    }
+
+    private lateinit var cx: Context
+    private lateinit var scope: ScriptableObject
+
+    @Before
+    fun setUp() {
+        cx = Context.enter().apply { isInterpretedMode = true }
+        scope = cx.initStandardObjects()
+    }
+
+    @After
+    fun tearDown() = Context.exit()
+
+    private fun run(source: String): Any? = cx.evaluateString(scope, source, "test.js", 1, null)
+
+    // Calls hot() for about the given milliseconds, while cold() is called once.
+    private fun workload(millis: Int) = """
+        function hot(n) {
+            var s = 0;
+            for (var i = 0; i < n; i++) s += i % 7;
+            return s;
+        }
+        function cold() {
+            return 1;
+        }
+        cold();
+        var end = Date.now() + $millis;
+        while (Date.now() < end) hot(1000);
+    """.trimIndent()
+
+    @Test
+    fun hotFunctionTakesMostSelfSamples() {
+        val profiler = SamplingProfiler(intervalMicros = 200)
+        profiler.start(cx)
+        run(workload(300))
+        val profile = profiler.stop()
+
+        assertFalse(profiler.isRunning)
+        assertTrue(profile.sampleCount > 0)
+        val (top, _) = profile.selfSamplesByFunction().first()
+        assertEquals("hot" to "test.js", top.name to top.sourceName)
+        assertTrue(profile.toFoldedStacks().lines().any { it.contains(";(top level) (test.js:") && it.contains(";hot (test.js:") })
+    }
+
+    @Test
+    fun debuggerIsDetachedOnStop() {
+        val profiler = SamplingProfiler()
+        profiler.start(cx)
+        assertTrue(cx.debugger != null)
+        profiler.stop()
+        assertEquals(null, cx.debugger)
+    }
+
+    @Test(expected = IllegalStateException::class)
+    fun refusesContextWithAnotherDebugger() {
+        cx.setDebugger(CompilationDebugger, null)
+        try {
+            SamplingProfiler().start(cx)
+        } finally {
+            cx.setDebugger(null, null)
+        }
+    }
+
+    @Test
+    fun onlyOtherDebuggersObserveCompilation() {
+        assertFalse(SamplingProfiler.isCompilationObserved(cx))
+        val profiler = SamplingProfiler().apply { start(cx) }
+        try {
+            assertFalse(SamplingProfiler.isCompilationObserved(cx))
+        } finally {
+            profiler.stop()
+        }
+        cx.setDebugger(CompilationDebugger, null)
+        try {
+            assertTrue(SamplingProfiler.isCompilationObserved(cx))
+        } finally {
+            cx.setDebugger(null, null)
+        }
+    }
+
+    @Test
+    fun cachedScriptsAreUsedWhileProfiling() {
+        val source = "function f() { return 1; } f();"
+        val compiled = CompiledScriptCache.getOrCompile(cx, source, "cached.js")
+        val profiler = SamplingProfiler().apply { start(cx) }
+        try {
+            assertSame(compiled, CompiledScriptCache.getOrCompile(cx, source, "cached.js"))
+        } finally {
+            profiler.stop()
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+package org.autojs.autojs.runtime.api.augment
+
+import org.junit.After
+import org.autojs.autojs.runtime.exception.ScriptException
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.mozilla.javascript.Context
+import org.mozilla.javascript.ScriptableObject
+import org.mozilla.javascript.ScriptableObject.DONTENUM
+import java.lang.reflect.InvocationTargetException
+import java.util.function.Supplier
+
+/**
+ * Created by agent on Oct 19, 2026.
+ */
+class AugmentableTest {
+
+    class Stub : Augmentable() {
+        override val selfAssignmentFunctions = listOf<Any>(
+            "plain",
+            "shout" to AS_GLOBAL,
+            ("twin" to listOf("left", "right")) to AS_GLOBAL,
+        )
+        override val globalAssignmentFunctions = listOf<Any>("globalOnly")
+        override val globalAssignmentProperties = listOf<Pair<Any, Any?>>("CONSTANT" to 1)
+        override val globalAssignmentGetters = listOf("now" to Supplier<Any?> { 0 })
+    }
+
+    open class ReflectiveStub : Augmentable() {
+        override val selfAssignmentFunctions = listOf<Any>(::inc.name)
+
+        fun inc(args: Array<out Any?>): Any = (args[0] as Number).toDouble() + 1
+    }
+
+    class DirectStub : ReflectiveStub() {
+        override val directCalls = mapOf(::inc.name to DirectCall(1) { _, args -> inc(args) })
+    }
+
+    class EnumerationStub : Augmentable() {
+        override val selfAssignmentFunctions = listOf<Any>(::hidden.name to DONTENUM, ::shout.name to AS_GLOBAL)
+        override val globalAssignmentProperties = listOf<Pair<Any, Any?>>("CONSTANT" to 1)
+
+        fun hidden(args: Array<out Any?>): Any = args.size
+
+        fun shout(args: Array<out Any?>): Any = "${args[0]}!"
+    }
+
+    private lateinit var cx: Context
+
+    @Before
+    fun setUp() {
+        cx = Context.enter()
+    }
+
+    @After
+    fun tearDown() = Context.exit()
+
+    @Test
+    fun globalMembersFollowAssignmentLists() {
+        assertEquals(
+            listOf("CONSTANT", "shout", "left", "right", "globalOnly", "now"),
+            Stub().globalMembers().map { it.first },
+        )
+    }
+
+    @Test
+    fun lazyInstallConstructsOnlyToLearnTheLayoutOnce() {
+        var constructions = 0
+        val supplier = Supplier { Stub().also { constructions++ } }
+        repeat(3) {
+            val scope: ScriptableObject = cx.initStandardObjects()
+            Augmentable.augmentLazily(scope, Stub::class.java, supplier)
+            listOf("stub", "\$stub", "shout", "left", "right", "globalOnly", "CONSTANT", "now").forEach { name ->
+                assertTrue(name, scope.has(name, scope))
+            }
+        }
+        assertEquals(1, constructions)
+    }
+
+    @Test
+    fun placeholdersAreEnumeratedAsTheFinalProperties() {
+        val names = "['enumerationStub', '\$enumerationStub', 'shout', 'CONSTANT']"
+        val enumerate = "var r = []; for (var k in this) if ($names.indexOf(k) >= 0) r.push(k); r.sort().join() + ' / ' + Object.keys(this).filter(function (k) { return $names.indexOf(k) >= 0 }).sort().join()"
+        val eager: ScriptableObject = cx.initStandardObjects()
+        EnumerationStub().augment(eager)
+        // The layout of the class is learned first, so that the scope below only counts constructions to build the module.
+        Augmentable.augmentLazily(cx.initStandardObjects(), EnumerationStub::class.java, Supplier { EnumerationStub() })
+        var constructions = 0
+        val lazy: ScriptableObject = cx.initStandardObjects()
+        Augmentable.augmentLazily(lazy, EnumerationStub::class.java, Supplier { EnumerationStub().also { constructions++ } })
+        assertEquals(cx.evaluateString(eager, enumerate, "test.js", 1, null), cx.evaluateString(lazy, enumerate, "test.js", 1, null))
+        assertEquals(0, constructions)
+    }
+
+    @Test
+    fun typeofOfPlaceholdersIsTheFinalType() {
+        val types = "[typeof enumerationStub, typeof \$enumerationStub, typeof shout, typeof CONSTANT, typeof enumerationStub.hidden].join()"
+        val eager: ScriptableObject = cx.initStandardObjects()
+        EnumerationStub().augment(eager)
+        val lazy: ScriptableObject = cx.initStandardObjects()
+        Augmentable.augmentLazily(lazy, EnumerationStub::class.java, Supplier { EnumerationStub() })
+        assertEquals("object,object,function,number,function", cx.evaluateString(eager, types, "test.js", 1, null))
+        assertEquals(cx.evaluateString(eager, types, "test.js", 1, null), cx.evaluateString(lazy, types, "test.js", 1, null))
+        assertEquals("hi!", cx.evaluateString(lazy, "shout('hi')", "test.js", 1, null))
+    }
+
+    @Test
+    fun scriptExceptionIsUnwrappedOnEveryPath() {
+        val cause = IllegalStateException("cause")
+        assertSame(cause, Augmentable.unwrapInvocationException(ScriptException(cause)))
+        assertSame(cause, Augmentable.unwrapInvocationException(InvocationTargetException(ScriptException(cause))))
+        assertSame(cause, Augmentable.unwrapInvocationException(InvocationTargetException(cause)))
+        val plain = ScriptException("plain")
+        assertSame(plain, Augmentable.unwrapInvocationException(plain))
+    }
+
+    @Test
+    fun directCallAppliesCoercionsByPosition() {
+        var received: Array<out Any?> = emptyArray()
+        val call = DirectCall(2, arrayOf<((Any?) -> Any?)?>(null, { (it as String).toInt() })) { _, args -> args.also { received = it } }
+        call.call(null, arrayOf("a", "2", "c"))
+        assertArrayEquals(arrayOf<Any?>("a", 2, "c"), received)
+    }
+
+    @Test
+    fun directCallSetsFunctionLength() {
+        val scope: ScriptableObject = cx.initStandardObjects()
+        Augmentable.augmentLazily(scope, DirectStub::class.java, Supplier { DirectStub() })
+        assertEquals(1, cx.evaluateString(scope, "directStub.inc.length", "test.js", 1, null))
+        assertEquals(2.0, cx.evaluateString(scope, "directStub.inc(1)", "test.js", 1, null))
+    }
+
+}